@@ -100,13 +100,13 @@ public class LibSVMAnomalyTrainer extends LibSVMTrainer<Event> {
     }
 
     @Override
-    public LibSVMModel<Event> train(Dataset<Event> dataset, Map<String, Provenance> instanceProvenance) {
+    public LibSVMModel<Event> train(Dataset<Event> dataset, Map<String, Provenance> instanceProvenance, int invocationCount) {
         for (Pair<String,Long> p : dataset.getOutputInfo().outputCountsIterable()) {
             if (p.getA().equals(EventType.ANOMALOUS.toString()) && (p.getB() > 0)) {
                 throw new IllegalArgumentException("LibSVMAnomalyTrainer only supports EXPECTED events at training time.");
             }
         }
-        return super.train(dataset,instanceProvenance);
+        return super.train(dataset,instanceProvenance,invocationCount);
     }
 
     @Override
@@ -52,6 +52,27 @@ public class MutableLabelInfo extends LabelInfo implements MutableOutputInfo<Lab
         }
     }
 
+    /**
+     * Records the supplied number of observations of a label.
+     * <p>
+     * Equivalent to calling {@link #observe(Label)} {@code count} times.
+     * @param output The label.
+     * @param count The number of observations, must be non-negative.
+     */
+    public void observe(Label output, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must be non-negative, found " + count);
+        }
+        if (output == LabelFactory.UNKNOWN_LABEL) {
+            unknownCount += count;
+        } else {
+            String label = output.getLabel();
+            MutableLong value = labelCounts.computeIfAbsent(label, k -> new MutableLong());
+            labels.computeIfAbsent(label, Label::new);
+            value.increment(count);
+        }
+    }
+
     @Override
     public void clear() {
         labelCounts.clear();
@@ -102,6 +102,11 @@ public class CARTClassificationOptions implements ClassificationOptions<CARTClas
      */
     @Option(longName = "cart-seed", usage = "RNG seed.")
     public long cartSeed = Trainer.DEFAULT_SEED;
+    /**
+     * Number of threads to use when evaluating splits.
+     */
+    @Option(longName = "cart-num-threads", usage = "Number of threads to use when evaluating splits.")
+    public int cartNumThreads = 1;
 
     @Override
     public CARTClassificationTrainer getTrainer() {
@@ -121,7 +126,7 @@ public class CARTClassificationOptions implements ClassificationOptions<CARTClas
         switch (cartTreeAlgorithm) {
             case CART:
                 trainer = new CARTClassificationTrainer(cartMaxDepth, cartMinChildWeight, cartMinImpurityDecrease,
-                        cartSplitFraction, cartRandomSplit, impurity, cartSeed);
+                        cartSplitFraction, cartRandomSplit, impurity, cartSeed, cartNumThreads);
                 break;
             default:
                 throw new IllegalArgumentException("Unknown tree type " + cartTreeAlgorithm);
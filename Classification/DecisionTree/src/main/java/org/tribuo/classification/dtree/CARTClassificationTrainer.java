@@ -66,7 +66,33 @@ public class CARTClassificationTrainer extends AbstractCARTTrainer<Label> {
             LabelImpurity impurity,
             long seed
     ) {
-        super(maxDepth, minChildWeight, minImpurityDecrease, fractionFeaturesInSplit, useRandomSplitPoints, seed);
+        this(maxDepth, minChildWeight, minImpurityDecrease, fractionFeaturesInSplit, useRandomSplitPoints, impurity, seed, 1);
+    }
+
+    /**
+     * Creates a CART Trainer which evaluates the candidate splits using multiple threads.
+     * <p>
+     * The tree produced is identical for any number of threads.
+     * @param maxDepth The maximum depth of the tree.
+     * @param minChildWeight The minimum node weight to consider it for a split.
+     * @param minImpurityDecrease The minimum decrease in impurity necessary to split a node.
+     * @param fractionFeaturesInSplit The fraction of features available in each split.
+     * @param useRandomSplitPoints Whether to choose split points for features at random.
+     * @param impurity Impurity measure to determine split quality. See {@link LabelImpurity}.
+     * @param seed The RNG seed.
+     * @param numThreads The number of threads to use when evaluating splits.
+     */
+    public CARTClassificationTrainer(
+            int maxDepth,
+            float minChildWeight,
+            float minImpurityDecrease,
+            float fractionFeaturesInSplit,
+            boolean useRandomSplitPoints,
+            LabelImpurity impurity,
+            long seed,
+            int numThreads
+    ) {
+        super(maxDepth, minChildWeight, minImpurityDecrease, fractionFeaturesInSplit, useRandomSplitPoints, seed, numThreads);
         this.impurity = impurity;
         postConfig();
     }
@@ -166,6 +192,8 @@ public class CARTClassificationTrainer extends AbstractCARTTrainer<Label> {
         buffer.append(impurity.toString());
         buffer.append(",seed=");
         buffer.append(seed);
+        buffer.append(",numThreads=");
+        buffer.append(numThreads);
         buffer.append(")");
 
         return buffer.toString();
@@ -41,6 +41,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 
 /**
@@ -127,19 +128,48 @@ public class ClassifierTrainingNode extends AbstractTrainingNode<Label> {
     @Override
     public List<AbstractTrainingNode<Label>> buildTree(int[] featureIDs, SplittableRandom rng,
                                                        boolean useRandomSplitPoints) {
+        return buildTree(featureIDs, rng, useRandomSplitPoints, null);
+    }
+
+    /**
+     * Builds a tree according to CART (as it does not do multi-way splits on categorical values like C4.5).
+     * <p>
+     * If the pool is non-null the candidate features are evaluated and the data is partitioned in parallel.
+     * @param featureIDs Indices of the features available in this split.
+     * @param rng Splittable random number generator.
+     * @param useRandomSplitPoints Whether to choose split points for features at random.
+     * @param pool The pool to use, may be null.
+     * @return A possibly empty list of TrainingNodes.
+     */
+    @Override
+    public List<AbstractTrainingNode<Label>> buildTree(int[] featureIDs, SplittableRandom rng,
+                                                       boolean useRandomSplitPoints, ForkJoinPool pool) {
+        LabelSplitCandidate best;
         if (useRandomSplitPoints) {
-            return buildRandomTree(featureIDs, rng);
+            best = findRandomSplit(featureIDs, rng, pool);
         } else {
-            return buildGreedyTree(featureIDs);
+            best = selectBest(mapChunks(featureIDs.length, pool, (start, end) -> searchGreedy(featureIDs, start, end)));
         }
+
+        List<AbstractTrainingNode<Label>> output;
+        // If we found a split better than the current impurity.
+        if ((best != null) && (weightSum * (getImpurity() - best.score) >= leafDeterminer.getScaledMinImpurityDecrease())) {
+            output = splitAtBest(featureIDs, best.featureIdx, best.splitValue, best.lessThanCounts, best.greaterThanCounts, pool);
+        } else {
+            output = Collections.emptyList();
+        }
+        data = null;
+        return output;
     }
 
     /**
-     * Builds a tree according to CART
+     * Searches the supplied range of features for the best split according to CART.
      * @param featureIDs Indices of the features available in this split.
-     * @return A possibly empty list of TrainingNodes.
+     * @param start The first feature index to search (inclusive).
+     * @param end The last feature index to search (exclusive).
+     * @return The best split in the range, or null if no split improves on the current impurity.
      */
-    private List<AbstractTrainingNode<Label>> buildGreedyTree(int[] featureIDs) {
+    private LabelSplitCandidate searchGreedy(int[] featureIDs, int start, int end) {
         int bestID = -1;
         double bestSplitValue = 0.0;
         double bestScore = getImpurity();
@@ -147,7 +177,7 @@ public class ClassifierTrainingNode extends AbstractTrainingNode<Label> {
         float[] greaterThanCountsOfBest = new float[weightedLabelCounts.length];
         float[] lessThanCounts = new float[weightedLabelCounts.length];
         float[] greaterThanCounts = new float[weightedLabelCounts.length];
-        for (int i = 0; i < featureIDs.length; i++) {
+        for (int i = start; i < end; i++) {
             List<InvertedFeature> feature = data.get(featureIDs[i]).getFeature();
             Arrays.fill(lessThanCounts,0.0f);
             System.arraycopy(weightedLabelCounts, 0, greaterThanCounts, 0, weightedLabelCounts.length);
@@ -173,17 +203,11 @@ public class ClassifierTrainingNode extends AbstractTrainingNode<Label> {
                 }
             }
         }
-
-        List<AbstractTrainingNode<Label>> output;
-        double impurityDecrease = weightSum * (getImpurity() - bestScore);
-        // If we found a split better than the current impurity.
-        if ((bestID != -1) && (impurityDecrease >= leafDeterminer.getScaledMinImpurityDecrease())) {
-            output = splitAtBest(featureIDs, bestID, bestSplitValue, lessThanCountsOfBest, greaterThanCountsOfBest);
+        if (bestID == -1) {
+            return null;
         } else {
-            output = Collections.emptyList();
+            return new LabelSplitCandidate(bestID, bestScore, bestSplitValue, lessThanCountsOfBest, greaterThanCountsOfBest);
         }
-        data = null;
-        return output;
     }
 
     /**
@@ -193,6 +217,38 @@ public class ClassifierTrainingNode extends AbstractTrainingNode<Label> {
      * @return A possibly empty list of TrainingNodes.
      */
     public List<AbstractTrainingNode<Label>> buildRandomTree(int[] featureIDs, SplittableRandom rng) {
+        return buildTree(featureIDs, rng, true, null);
+    }
+
+    /**
+     * Finds the best split when each feature is split once at a random point.
+     * <p>
+     * The split points are drawn from the rng sequentially in feature order, so the
+     * chosen split doesn't depend on the number of threads.
+     * @param featureIDs Indices of the features available in this split.
+     * @param rng Splittable random number generator.
+     * @param pool The pool to use, may be null.
+     * @return The best split, or null if no split improves on the current impurity.
+     */
+    private LabelSplitCandidate findRandomSplit(int[] featureIDs, SplittableRandom rng, ForkJoinPool pool) {
+        int[] splitIndices = new int[featureIDs.length];
+        for (int i = 0; i < featureIDs.length; i++) {
+            int featureSize = data.get(featureIDs[i]).getFeature().size();
+            // if there is only 1 inverted feature for this feature, it has only 1 value, so cannot be split
+            splitIndices[i] = featureSize == 1 ? -1 : rng.nextInt(featureSize-1);
+        }
+        return selectBest(mapChunks(featureIDs.length, pool, (start, end) -> searchRandom(featureIDs, splitIndices, start, end)));
+    }
+
+    /**
+     * Evaluates the supplied random split points for a range of features, returning the least impure.
+     * @param featureIDs Indices of the features available in this split.
+     * @param splitIndices The split point for each feature, -1 if the feature can't be split.
+     * @param start The first feature index to search (inclusive).
+     * @param end The last feature index to search (exclusive).
+     * @return The best split in the range, or null if no split improves on the current impurity.
+     */
+    private LabelSplitCandidate searchRandom(int[] featureIDs, int[] splitIndices, int start, int end) {
         int bestID = -1;
         double bestSplitValue = 0.0;
         double bestScore = getImpurity();
@@ -202,18 +258,16 @@ public class ClassifierTrainingNode extends AbstractTrainingNode<Label> {
         float[] greaterThanCounts = new float[weightedLabelCounts.length];
 
         // split each feature once randomly and record the least impure amongst these
-        for (int i = 0; i < featureIDs.length; i++) {
-            List<InvertedFeature> feature = data.get(featureIDs[i]).getFeature();
-
-            // if there is only 1 inverted feature for this feature, it has only 1 value, so cannot be split
-            if (feature.size() == 1) {
+        for (int i = start; i < end; i++) {
+            int splitIdx = splitIndices[i];
+            if (splitIdx == -1) {
                 continue;
             }
+            List<InvertedFeature> feature = data.get(featureIDs[i]).getFeature();
 
             Arrays.fill(lessThanCounts,0.0f);
             System.arraycopy(weightedLabelCounts, 0, greaterThanCounts, 0, weightedLabelCounts.length);
 
-            int splitIdx = rng.nextInt(feature.size()-1);
             for (int j = 0; j < splitIdx + 1; j++) {
                 InvertedFeature vf = feature.get(j);
                 float[] countsBelowOrEqual = vf.getWeightedLabelCounts();
@@ -233,17 +287,11 @@ public class ClassifierTrainingNode extends AbstractTrainingNode<Label> {
                 }
             }
         }
-
-        List<AbstractTrainingNode<Label>> output;
-        double impurityDecrease = weightSum * (getImpurity() - bestScore);
-        // If we found a split better than the current impurity.
-        if ((bestID != -1) && (impurityDecrease >= leafDeterminer.getScaledMinImpurityDecrease())) {
-            output = splitAtBest(featureIDs, bestID, bestSplitValue, lessThanCountsOfBest, greaterThanCountsOfBest);
+        if (bestID == -1) {
+            return null;
         } else {
-            output = Collections.emptyList();
+            return new LabelSplitCandidate(bestID, bestScore, bestSplitValue, lessThanCountsOfBest, greaterThanCountsOfBest);
         }
-        data = null;
-        return output;
     }
 
     /**
@@ -253,10 +301,12 @@ public class ClassifierTrainingNode extends AbstractTrainingNode<Label> {
      * @param bestSplitValue Feature value to use for splitting the data.
      * @param lessThanCounts Weighted label counts for data less than or equal to the split value for the given feature.
      * @param greaterThanCounts Weighted label counts for data greater than the split value for the given feature.
+     * @param pool The pool to use when partitioning the data, may be null.
      * @return A list of training nodes resulting from the split.
      */
     private List<AbstractTrainingNode<Label>> splitAtBest(int[] featureIDs, int bestID, double bestSplitValue,
-                                                          float[] lessThanCounts, float[] greaterThanCounts) {
+                                                          float[] lessThanCounts, float[] greaterThanCounts,
+                                                          ForkJoinPool pool) {
         splitID = featureIDs[bestID];
         split = true;
         splitValue = bestSplitValue;
@@ -298,10 +348,30 @@ public class ClassifierTrainingNode extends AbstractTrainingNode<Label> {
         secondBuffer.grow(lessThanIndices.size);
         ArrayList<TreeFeature> lessThanData = new ArrayList<>(data.size());
         ArrayList<TreeFeature> greaterThanData = new ArrayList<>(data.size());
-        for (TreeFeature feature : data) {
-            Pair<TreeFeature,TreeFeature> split = feature.split(lessThanIndices,buffer,secondBuffer);
-            lessThanData.add(split.getA());
-            greaterThanData.add(split.getB());
+        if (useParallel(pool)) {
+            // The thread local buffers can't be shared, so each chunk gets fresh ones.
+            final IntArrayContainer leftIndices = lessThanIndices;
+            List<List<Pair<TreeFeature,TreeFeature>>> chunks = mapChunks(data.size(), pool, (start, end) -> {
+                IntArrayContainer firstChunkBuffer = new IntArrayContainer(leftIndices.size);
+                IntArrayContainer secondChunkBuffer = new IntArrayContainer(leftIndices.size);
+                List<Pair<TreeFeature,TreeFeature>> splits = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++) {
+                    splits.add(data.get(i).split(leftIndices,firstChunkBuffer,secondChunkBuffer));
+                }
+                return splits;
+            });
+            for (List<Pair<TreeFeature,TreeFeature>> chunk : chunks) {
+                for (Pair<TreeFeature,TreeFeature> split : chunk) {
+                    lessThanData.add(split.getA());
+                    greaterThanData.add(split.getB());
+                }
+            }
+        } else {
+            for (TreeFeature feature : data) {
+                Pair<TreeFeature,TreeFeature> split = feature.split(lessThanIndices,buffer,secondBuffer);
+                lessThanData.add(split.getA());
+                greaterThanData.add(split.getB());
+            }
         }
 
         List<AbstractTrainingNode<Label>> output = new ArrayList<>(2);
@@ -362,6 +432,20 @@ public class ClassifierTrainingNode extends AbstractTrainingNode<Label> {
         }
     }
 
+    /**
+     * A split candidate which also records the weighted label counts on each side of the split.
+     */
+    private static final class LabelSplitCandidate extends SplitCandidate {
+        final float[] lessThanCounts;
+        final float[] greaterThanCounts;
+
+        LabelSplitCandidate(int featureIdx, double score, double splitValue, float[] lessThanCounts, float[] greaterThanCounts) {
+            super(featureIdx, score, splitValue);
+            this.lessThanCounts = lessThanCounts;
+            this.greaterThanCounts = greaterThanCounts;
+        }
+    }
+
     /**
      * Inverts a training dataset from row major to column major. This partially de-sparsifies the dataset
      * so it's very expensive in terms of memory.
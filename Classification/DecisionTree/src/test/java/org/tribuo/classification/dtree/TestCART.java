@@ -20,14 +20,20 @@ import com.oracle.labs.mlrg.olcut.util.Pair;
 import org.tribuo.Dataset;
 import org.tribuo.Example;
 import org.tribuo.Model;
+import org.tribuo.MutableDataset;
+import org.tribuo.Prediction;
 import org.tribuo.Trainer;
 import org.tribuo.classification.Label;
 import org.tribuo.classification.dtree.impurity.GiniIndex;
 import org.tribuo.classification.evaluation.LabelEvaluation;
 import org.tribuo.classification.evaluation.LabelEvaluator;
+import org.tribuo.classification.example.GaussianLabelDataSource;
 import org.tribuo.classification.example.LabelledDataGenerator;
+import org.tribuo.common.tree.LeafNode;
+import org.tribuo.common.tree.Node;
 import org.tribuo.common.tree.TreeModel;
 import org.tribuo.dataset.DatasetView;
+import org.tribuo.math.la.SparseVector;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.tribuo.test.Helpers;
@@ -161,4 +167,60 @@ public class TestCART {
     public void testRandomEmptyExample() {
         runEmptyExample(randomt);
     }
+
+    @Test
+    public void testMultiThreadedTraining() {
+        Dataset<Label> train = new MutableDataset<>(new GaussianLabelDataSource(1000, 1L,
+                new double[]{0.0, 0.0}, new double[]{1.0, 0.0, 0.0, 1.0},
+                new double[]{1.0, 1.0}, new double[]{1.0, 0.5, 0.5, 1.0}));
+        Dataset<Label> test = new MutableDataset<>(new GaussianLabelDataSource(200, 2L,
+                new double[]{0.0, 0.0}, new double[]{1.0, 0.0, 0.0, 1.0},
+                new double[]{1.0, 1.0}, new double[]{1.0, 0.5, 0.5, 1.0}));
+        for (boolean random : new boolean[]{false, true}) {
+            CARTClassificationTrainer single = new CARTClassificationTrainer(Integer.MAX_VALUE, 2, 0.0f, 1.0f, random, new GiniIndex(), 12345L, 1);
+            CARTClassificationTrainer multi = new CARTClassificationTrainer(Integer.MAX_VALUE, 2, 0.0f, 1.0f, random, new GiniIndex(), 12345L, 4);
+            List<Prediction<Label>> singlePreds = single.train(train).predict(test);
+            List<Prediction<Label>> multiPreds = multi.train(train).predict(test);
+            for (int i = 0; i < singlePreds.size(); i++) {
+                assertEquals(singlePreds.get(i).getOutput().getLabel(), multiPreds.get(i).getOutput().getLabel());
+                assertEquals(singlePreds.get(i).getOutput().getScore(), multiPreds.get(i).getOutput().getScore());
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CARTClassificationTrainer(5, 2, 0.0f, 1.0f, false, new GiniIndex(), 1L, 0));
+    }
+
+    @Test
+    public void testFlatTreePrediction() {
+        Dataset<Label> train = new MutableDataset<>(new GaussianLabelDataSource(500, 1L,
+                new double[]{0.0, 0.0}, new double[]{1.0, 0.0, 0.0, 1.0},
+                new double[]{1.0, 1.0}, new double[]{1.0, 0.5, 0.5, 1.0}));
+        // Larger than the prediction block size to check the blocks are stitched together in order.
+        Dataset<Label> test = new MutableDataset<>(new GaussianLabelDataSource(600, 2L,
+                new double[]{0.0, 0.0}, new double[]{1.0, 0.0, 0.0, 1.0},
+                new double[]{1.0, 1.0}, new double[]{1.0, 0.5, 0.5, 1.0}));
+        TreeModel<Label> model = (TreeModel<Label>) t.train(train);
+        Assertions.assertTrue(model.getFlatTree().getNumSplits() > 0);
+        Assertions.assertEquals(model.getFlatTree().getNumSplits() + 1, model.getFlatTree().getNumLeaves());
+
+        List<Prediction<Label>> batchPreds = model.predict(test);
+        int i = 0;
+        for (Example<Label> example : test) {
+            // Walk the node graph directly to check the compiled tree reaches the same leaf.
+            SparseVector vec = SparseVector.createSparseVector(example, model.getFeatureIDMap(), false);
+            Node<Label> node = model.getRoot();
+            while (!node.isLeaf()) {
+                node = node.getNextNode(vec);
+            }
+            Label expected = ((LeafNode<Label>) node).getOutput();
+            Prediction<Label> single = model.predict(example);
+            assertEquals(expected.getLabel(), single.getOutput().getLabel());
+            assertEquals(expected.getScore(), single.getOutput().getScore());
+            assertEquals(expected.getLabel(), batchPreds.get(i).getOutput().getLabel());
+            for (Map.Entry<String,Label> e : single.getOutputScores().entrySet()) {
+                assertEquals(e.getValue().getScore(), batchPreds.get(i).getOutputScores().get(e.getKey()).getScore());
+            }
+            i++;
+        }
+        Helpers.testModelSerialization(model, Label.class);
+    }
 }
@@ -21,6 +21,8 @@ import com.oracle.labs.mlrg.olcut.util.Pair;
 import org.tribuo.Dataset;
 import org.tribuo.Example;
 import org.tribuo.Model;
+import org.tribuo.MutableDataset;
+import org.tribuo.Prediction;
 import org.tribuo.Trainer;
 import org.tribuo.classification.Label;
 import org.tribuo.classification.dtree.impurity.GiniIndex;
@@ -28,22 +30,28 @@ import org.tribuo.classification.ensemble.AdaBoostTrainer;
 import org.tribuo.classification.ensemble.VotingCombiner;
 import org.tribuo.classification.evaluation.LabelEvaluation;
 import org.tribuo.classification.evaluation.LabelEvaluator;
+import org.tribuo.classification.example.GaussianLabelDataSource;
 import org.tribuo.classification.example.LabelledDataGenerator;
 import org.tribuo.common.tree.ExtraTreesTrainer;
 import org.tribuo.common.tree.RandomForestTrainer;
 import org.tribuo.dataset.DatasetView;
 import org.tribuo.ensemble.BaggingTrainer;
+import org.tribuo.transform.TransformTrainer;
+import org.tribuo.transform.TransformationMap;
+import org.tribuo.transform.transformations.LinearScalingTransformation;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.tribuo.test.Helpers;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.tribuo.common.tree.AbstractCARTTrainer.MIN_EXAMPLES;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -193,4 +201,85 @@ public class TestClassificationEnsembles {
                     10);
         });
     }
+
+    @Test
+    public void testParallelMemberTraining() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.denseTrainTest();
+        for (boolean random : new boolean[]{false, true}) {
+            CARTClassificationTrainer sequentialTree = new CARTClassificationTrainer(Integer.MAX_VALUE,
+                    MIN_EXAMPLES, 0.0f, 0.5f, random, new GiniIndex(), Trainer.DEFAULT_SEED);
+            CARTClassificationTrainer parallelTree = new CARTClassificationTrainer(Integer.MAX_VALUE,
+                    MIN_EXAMPLES, 0.0f, 0.5f, random, new GiniIndex(), Trainer.DEFAULT_SEED);
+            BaggingTrainer<Label> sequential;
+            BaggingTrainer<Label> parallel;
+            if (random) {
+                sequential = new ExtraTreesTrainer<>(sequentialTree, new VotingCombiner(), 10, 1L);
+                parallel = new ExtraTreesTrainer<>(parallelTree, new VotingCombiner(), 10, 1L, 4);
+            } else {
+                sequential = new RandomForestTrainer<>(sequentialTree, new VotingCombiner(), 10, 1L);
+                parallel = new RandomForestTrainer<>(parallelTree, new VotingCombiner(), 10, 1L, 4);
+            }
+            // Train twice to check the trainer state advances identically.
+            for (int i = 0; i < 2; i++) {
+                List<Prediction<Label>> sequentialPreds = sequential.train(p.getA()).predict(p.getB());
+                List<Prediction<Label>> parallelPreds = parallel.train(p.getA()).predict(p.getB());
+                for (int j = 0; j < sequentialPreds.size(); j++) {
+                    assertEquals(sequentialPreds.get(j).getOutput().getLabel(), parallelPreds.get(j).getOutput().getLabel());
+                    for (Map.Entry<String,Label> e : sequentialPreds.get(j).getOutputScores().entrySet()) {
+                        assertEquals(e.getValue().getScore(), parallelPreds.get(j).getOutputScores().get(e.getKey()).getScore());
+                    }
+                }
+                assertEquals(sequentialTree.getInvocationCount(), parallelTree.getInvocationCount());
+                assertEquals(sequential.getInvocationCount(), parallel.getInvocationCount());
+            }
+        }
+        assertThrows(PropertyException.class, () -> new BaggingTrainer<>(t, new VotingCombiner(), 10, 1L, 0));
+    }
+
+    @Test
+    public void testParallelWrappedMemberTraining() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.denseTrainTest();
+        TransformationMap transformations = new TransformationMap(Collections.singletonList(new LinearScalingTransformation()));
+        TransformTrainer<Label> sequentialTree = new TransformTrainer<>(new CARTClassificationTrainer(Integer.MAX_VALUE,
+                MIN_EXAMPLES, 0.0f, 0.5f, true, new GiniIndex(), Trainer.DEFAULT_SEED), transformations);
+        TransformTrainer<Label> parallelTree = new TransformTrainer<>(new CARTClassificationTrainer(Integer.MAX_VALUE,
+                MIN_EXAMPLES, 0.0f, 0.5f, true, new GiniIndex(), Trainer.DEFAULT_SEED), transformations);
+        assertTrue(parallelTree.supportsInvocationCount());
+        BaggingTrainer<Label> sequential = new BaggingTrainer<>(sequentialTree, new VotingCombiner(), 10, 1L);
+        BaggingTrainer<Label> parallel = new BaggingTrainer<>(parallelTree, new VotingCombiner(), 10, 1L, 4);
+        for (int i = 0; i < 2; i++) {
+            List<Prediction<Label>> sequentialPreds = sequential.train(p.getA()).predict(p.getB());
+            List<Prediction<Label>> parallelPreds = parallel.train(p.getA()).predict(p.getB());
+            for (int j = 0; j < sequentialPreds.size(); j++) {
+                assertEquals(sequentialPreds.get(j).getOutput().getLabel(), parallelPreds.get(j).getOutput().getLabel());
+                for (Map.Entry<String,Label> e : sequentialPreds.get(j).getOutputScores().entrySet()) {
+                    assertEquals(e.getValue().getScore(), parallelPreds.get(j).getOutputScores().get(e.getKey()).getScore());
+                }
+            }
+            assertEquals(sequentialTree.getInvocationCount(), parallelTree.getInvocationCount());
+        }
+    }
+
+    @Test
+    public void testBatchPrediction() {
+        Dataset<Label> train = new MutableDataset<>(new GaussianLabelDataSource(500, 1L,
+                new double[]{0.0, 0.0}, new double[]{1.0, 0.0, 0.0, 1.0},
+                new double[]{1.0, 1.0}, new double[]{1.0, 0.5, 0.5, 1.0}));
+        // Larger than the prediction block size to check the blocks are stitched together in order.
+        Dataset<Label> test = new MutableDataset<>(new GaussianLabelDataSource(600, 2L,
+                new double[]{0.0, 0.0}, new double[]{1.0, 0.0, 0.0, 1.0},
+                new double[]{1.0, 1.0}, new double[]{1.0, 0.5, 0.5, 1.0}));
+        Model<Label> model = new RandomForestTrainer<>(subsamplingTree, new VotingCombiner(), 10, 1L).train(train);
+        List<Prediction<Label>> batchPreds = model.predict(test);
+        assertEquals(test.size(), batchPreds.size());
+        int i = 0;
+        for (Example<Label> example : test) {
+            Prediction<Label> single = model.predict(example);
+            assertEquals(single.getOutput().getLabel(), batchPreds.get(i).getOutput().getLabel());
+            for (Map.Entry<String,Label> e : single.getOutputScores().entrySet()) {
+                assertEquals(e.getValue().getScore(), batchPreds.get(i).getOutputScores().get(e.getKey()).getScore());
+            }
+            i++;
+        }
+    }
 }
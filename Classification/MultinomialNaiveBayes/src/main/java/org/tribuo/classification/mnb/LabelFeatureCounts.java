@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.classification.mnb;
+
+import org.tribuo.Example;
+import org.tribuo.Feature;
+import org.tribuo.ImmutableFeatureMap;
+import org.tribuo.ImmutableOutputInfo;
+import org.tribuo.classification.Label;
+import org.tribuo.math.la.DenseSparseMatrix;
+import org.tribuo.math.la.SparseVector;
+import org.tribuo.math.la.VectorTuple;
+
+import java.util.Arrays;
+
+/**
+ * The unsmoothed weighted feature counts for each label, stored in primitive arrays.
+ * <p>
+ * Each label stores the counts of the features observed with it in an open addressing hash table
+ * from feature id to count, so the memory used is proportional to the number of observed
+ * (label, feature) pairs rather than the number of labels times the number of features.
+ * <p>
+ * Counts can be accumulated separately (e.g., one instance per thread or per data shard) and
+ * then merged, which adds the counts together. A feature is recorded as observed for a label
+ * if it appeared with that label in any example, even if its count is zero, so the sparsity
+ * pattern of the model matches counting all the examples at once.
+ */
+final class LabelFeatureCounts {
+
+    private final int numFeatures;
+    private final FeatureCounts[] counts;
+
+    /**
+     * Constructs an empty count state.
+     * @param numLabels The number of labels.
+     * @param numFeatures The number of features.
+     */
+    LabelFeatureCounts(int numLabels, int numFeatures) {
+        this.numFeatures = numFeatures;
+        this.counts = new FeatureCounts[numLabels];
+        for (int i = 0; i < numLabels; i++) {
+            counts[i] = new FeatureCounts();
+        }
+    }
+
+    /**
+     * Adds the weighted feature values of the example to the counts for its label.
+     * Features which are not in the feature domain are skipped.
+     * <p>
+     * Throws {@link IllegalStateException} if the example contains a negative feature value.
+     * @param example The example to count.
+     * @param featureInfos The feature domain.
+     * @param labelInfos The label domain.
+     */
+    void count(Example<Label> example, ImmutableFeatureMap featureInfos, ImmutableOutputInfo<Label> labelInfos) {
+        FeatureCounts labelCounts = counts[labelInfos.getID(example.getOutput())];
+        double curWeight = example.getWeight();
+        for (Feature feat : example) {
+            if (feat.getValue() < 0.0) {
+                throw new IllegalStateException("Multinomial Naive Bayes requires non-negative features. Found feature " + feat.toString());
+            }
+            int id = featureInfos.getID(feat.getName());
+            // Unknown features (e.g., new features when incrementally training a hashed domain) are ignored.
+            if (id != -1) {
+                labelCounts.add(id, curWeight * feat.getValue());
+            }
+        }
+    }
+
+    /**
+     * Adds the counts from another count state over the same domains to this one.
+     * @param other The counts to add.
+     */
+    void merge(LabelFeatureCounts other) {
+        if ((other.counts.length != counts.length) || (other.numFeatures != numFeatures)) {
+            throw new IllegalArgumentException("Can't merge counts with different domains, found ["
+                    + other.counts.length + "," + other.numFeatures + "], expected [" + counts.length + "," + numFeatures + "]");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i].addAll(other.counts[i]);
+        }
+    }
+
+    /**
+     * Adds the counts recorded in a model to this count state, remapping the ids into this state's domains.
+     * @param modelCounts The model's counts, indexed by label id then feature id.
+     * @param labelMapping The id in the model's label domain of each label in this domain, or -1 if it's new.
+     * @param featureMapping The id in this feature domain of each feature in the model's domain, or -1 if it's dropped.
+     */
+    void addModelCounts(DenseSparseMatrix modelCounts, int[] labelMapping, int[] featureMapping) {
+        for (int i = 0; i < labelMapping.length; i++) {
+            if (labelMapping[i] != -1) {
+                FeatureCounts labelCounts = counts[i];
+                for (VectorTuple vt : modelCounts.getRow(labelMapping[i])) {
+                    int id = featureMapping[vt.index];
+                    if (id != -1) {
+                        labelCounts.add(id, vt.value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the observed counts for the specified label as a sparse vector.
+     * @param label The label id.
+     * @return The counts.
+     */
+    SparseVector getCounts(int label) {
+        FeatureCounts labelCounts = counts[label];
+        int[] indices = labelCounts.ids();
+        double[] values = new double[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            values[i] = labelCounts.get(indices[i]);
+        }
+        return SparseVector.createSparseVector(numFeatures, indices, values);
+    }
+
+    /**
+     * An open addressing hash table from feature id to count, using linear probing.
+     */
+    private static final class FeatureCounts {
+        private static final int EMPTY = -1;
+        private static final int INITIAL_CAPACITY = 16;
+
+        private int[] slotIDs;
+        private double[] slotCounts;
+        private int mask;
+        private int size;
+
+        FeatureCounts() {
+            this.slotIDs = new int[INITIAL_CAPACITY];
+            this.slotCounts = new double[INITIAL_CAPACITY];
+            this.mask = INITIAL_CAPACITY - 1;
+            this.size = 0;
+            Arrays.fill(slotIDs, EMPTY);
+        }
+
+        /**
+         * Adds the value to the feature's count, recording the feature as observed.
+         * @param id The feature id.
+         * @param value The value to add.
+         */
+        void add(int id, double value) {
+            int idx = slot(id);
+            if (slotIDs[idx] == EMPTY) {
+                // Keep the load factor at or below 0.5
+                if ((size + 1) * 2 > slotIDs.length) {
+                    grow();
+                    idx = slot(id);
+                }
+                slotIDs[idx] = id;
+                size++;
+            }
+            slotCounts[idx] += value;
+        }
+
+        /**
+         * Adds all the counts from the other table to this one.
+         * @param other The counts to add.
+         */
+        void addAll(FeatureCounts other) {
+            for (int i = 0; i < other.slotIDs.length; i++) {
+                if (other.slotIDs[i] != EMPTY) {
+                    add(other.slotIDs[i], other.slotCounts[i]);
+                }
+            }
+        }
+
+        /**
+         * Gets the count of the feature, or zero if it's not been observed.
+         * @param id The feature id.
+         * @return The count.
+         */
+        double get(int id) {
+            int idx = slot(id);
+            return slotIDs[idx] == EMPTY ? 0.0 : slotCounts[idx];
+        }
+
+        /**
+         * Returns the observed feature ids in increasing order.
+         * @return The observed feature ids.
+         */
+        int[] ids() {
+            int[] ids = new int[size];
+            int counter = 0;
+            for (int i = 0; i < slotIDs.length; i++) {
+                if (slotIDs[i] != EMPTY) {
+                    ids[counter] = slotIDs[i];
+                    counter++;
+                }
+            }
+            Arrays.sort(ids);
+            return ids;
+        }
+
+        /**
+         * Finds the slot containing the feature id, or the empty slot where it should be inserted.
+         * @param id The feature id.
+         * @return The slot index.
+         */
+        private int slot(int id) {
+            // Spread the sequential feature ids across the table.
+            int idx = (id * 0x9E3779B9) & mask;
+            while ((slotIDs[idx] != EMPTY) && (slotIDs[idx] != id)) {
+                idx = (idx + 1) & mask;
+            }
+            return idx;
+        }
+
+        private void grow() {
+            int[] oldIDs = slotIDs;
+            double[] oldCounts = slotCounts;
+            slotIDs = new int[oldIDs.length * 2];
+            slotCounts = new double[oldIDs.length * 2];
+            mask = slotIDs.length - 1;
+            Arrays.fill(slotIDs, EMPTY);
+            for (int i = 0; i < oldIDs.length; i++) {
+                if (oldIDs[i] != EMPTY) {
+                    int idx = slot(oldIDs[i]);
+                    slotIDs[idx] = oldIDs[i];
+                    slotCounts[idx] = oldCounts[i];
+                }
+            }
+        }
+    }
+}
@@ -59,14 +59,29 @@ public class MultinomialNaiveBayesModel extends Model<Label> {
     private final DenseSparseMatrix labelWordProbs;
     private final double alpha;
 
+    /**
+     * The unsmoothed weighted feature counts for each label, used for incremental training.
+     * Null for models serialized before the counts were recorded.
+     */
+    private final DenseSparseMatrix labelFeatureCounts;
+
     private static final VectorNormalizer normalizer = new ExpNormalizer();
 
-    MultinomialNaiveBayesModel(String name, ModelProvenance description, ImmutableFeatureMap featureInfos, ImmutableOutputInfo<Label> labelInfos, DenseSparseMatrix labelWordProbs, double alpha) {
+    MultinomialNaiveBayesModel(String name, ModelProvenance description, ImmutableFeatureMap featureInfos, ImmutableOutputInfo<Label> labelInfos, DenseSparseMatrix labelWordProbs, DenseSparseMatrix labelFeatureCounts, double alpha) {
         super(name, description, featureInfos, labelInfos, true);
         this.labelWordProbs = labelWordProbs;
+        this.labelFeatureCounts = labelFeatureCounts;
         this.alpha = alpha;
     }
 
+    /**
+     * Returns the unsmoothed weighted feature counts, indexed by label id then feature id.
+     * @return The feature counts, or null if the model predates recording them.
+     */
+    DenseSparseMatrix getLabelFeatureCounts() {
+        return labelFeatureCounts;
+    }
+
     @Override
     public Prediction<Label> predict(Example<Label> example) {
         SparseVector exVector = SparseVector.createSparseVector(example, featureIDMap, false);
@@ -155,6 +170,7 @@ public class MultinomialNaiveBayesModel extends Model<Label> {
 
     @Override
     protected MultinomialNaiveBayesModel copy(String newName, ModelProvenance newProvenance) {
-        return new MultinomialNaiveBayesModel(newName,newProvenance,featureIDMap,outputIDInfo,new DenseSparseMatrix(labelWordProbs),alpha);
+        return new MultinomialNaiveBayesModel(newName,newProvenance,featureIDMap,outputIDInfo,new DenseSparseMatrix(labelWordProbs),
+                labelFeatureCounts == null ? null : new DenseSparseMatrix(labelFeatureCounts),alpha);
     }
 }
@@ -17,17 +17,20 @@
 package org.tribuo.classification.mnb;
 
 import com.oracle.labs.mlrg.olcut.config.Config;
+import com.oracle.labs.mlrg.olcut.config.PropertyException;
 import com.oracle.labs.mlrg.olcut.provenance.Provenance;
 import com.oracle.labs.mlrg.olcut.util.Pair;
 import org.tribuo.Dataset;
 import org.tribuo.Example;
-import org.tribuo.Feature;
 import org.tribuo.ImmutableFeatureMap;
 import org.tribuo.ImmutableOutputInfo;
-import org.tribuo.Model;
+import org.tribuo.IncrementalTrainer;
 import org.tribuo.Trainer;
 import org.tribuo.WeightedExamples;
 import org.tribuo.classification.Label;
+import org.tribuo.classification.LabelInfo;
+import org.tribuo.classification.MutableLabelInfo;
+import org.tribuo.hash.HashedFeatureMap;
 import org.tribuo.math.la.DenseSparseMatrix;
 import org.tribuo.math.la.SparseVector;
 import org.tribuo.provenance.ModelProvenance;
@@ -35,14 +38,33 @@ import org.tribuo.provenance.TrainerProvenance;
 import org.tribuo.provenance.impl.TrainerProvenanceImpl;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * A {@link Trainer} which trains a multinomial Naive Bayes model with Laplace smoothing.
  * <p>
  * All feature values must be non-negative.
  * <p>
+ * Supports incremental training, which adds the feature counts of the new data to the model's counts,
+ * growing the feature and label domains as required. This produces the same model as training on
+ * all the data at once. Models trained separately on disjoint shards of the data can be combined
+ * with {@link #combine(MultinomialNaiveBayesModel, MultinomialNaiveBayesModel)}, which sums their counts.
+ * <p>
+ * If numThreads is greater than one the data is split into contiguous chunks which are counted
+ * concurrently, and the per-thread counts are merged in order at the end. The counts are the same
+ * as sequential counting up to floating point summation order. Each thread stores the counts of
+ * the (label, feature) pairs it observes sparsely, so the extra memory used by each thread is
+ * proportional to the number of distinct pairs in its chunk.
+ * <p>
  * See:
  * <pre>
  * Wang S, Manning CD.
@@ -50,11 +72,14 @@ import java.util.Map;
  * Proceedings of the 50th Annual Meeting of the Association for Computational Linguistics, 2012.
  * </pre>
  */
-public class MultinomialNaiveBayesTrainer implements Trainer<Label>, WeightedExamples {
+public class MultinomialNaiveBayesTrainer implements IncrementalTrainer<Label,MultinomialNaiveBayesModel>, WeightedExamples {
 
     @Config(description="Smoothing parameter.")
     private double alpha = 1.0;
 
+    @Config(description="The number of threads to use when counting features.")
+    private int numThreads = 1;
+
     private int invocationCount = 0;
 
     /**
@@ -70,54 +95,307 @@ public class MultinomialNaiveBayesTrainer implements Trainer<Label>, WeightedExa
      */
     //TODO support different alphas for different features?
     public MultinomialNaiveBayesTrainer(double alpha) {
+        this(alpha, 1);
+    }
+
+    /**
+     * Constructs a multinomial naive bayes trainer with the specified smoothing value,
+     * which counts features using {@code numThreads} threads.
+     * @param alpha The smoothing value.
+     * @param numThreads The number of threads to use when counting features.
+     */
+    public MultinomialNaiveBayesTrainer(double alpha, int numThreads) {
         if(alpha <= 0.0) {
             throw new IllegalArgumentException("alpha parameter must be > 0");
         }
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("numThreads must be positive, found " + numThreads);
+        }
         this.alpha = alpha;
+        this.numThreads = numThreads;
     }
 
+    /**
+     * Used by the OLCUT configuration system, and should not be called by external code.
+     */
     @Override
-    public Model<Label> train(Dataset<Label> examples, Map<String, Provenance> runProvenance) {
+    public void postConfig() {
+        if (alpha <= 0.0) {
+            throw new PropertyException("","alpha","alpha parameter must be > 0, found " + alpha);
+        }
+        if (numThreads < 1) {
+            throw new PropertyException("","numThreads","numThreads must be positive, found " + numThreads);
+        }
+    }
+
+    @Override
+    public MultinomialNaiveBayesModel train(Dataset<Label> examples) {
+        return train(examples, Collections.emptyMap());
+    }
+
+    @Override
+    public MultinomialNaiveBayesModel train(Dataset<Label> examples, Map<String, Provenance> runProvenance) {
+        return train(examples, runProvenance, INCREMENT_INVOCATION_COUNT);
+    }
+
+    @Override
+    public MultinomialNaiveBayesModel train(Dataset<Label> examples, Map<String, Provenance> runProvenance, int invocationCount) {
         if (examples.getOutputInfo().getUnknownCount() > 0) {
             throw new IllegalArgumentException("The supplied Dataset contained unknown Outputs, and this Trainer is supervised.");
         }
         ImmutableOutputInfo<Label> labelInfos = examples.getOutputIDInfo();
         ImmutableFeatureMap featureInfos = examples.getFeatureIDMap();
 
-        Map<Integer, Map<Integer, Double>> labelWeights = new HashMap<>();
+        TrainerProvenance trainerProvenance;
+        synchronized (this) {
+            if (invocationCount != INCREMENT_INVOCATION_COUNT) {
+                setInvocationCount(invocationCount);
+            }
+            trainerProvenance = getProvenance();
+            this.invocationCount++;
+        }
+
+        LabelFeatureCounts counts = countFeatures(examples, featureInfos, labelInfos);
+
+        ModelProvenance provenance = new ModelProvenance(MultinomialNaiveBayesModel.class.getName(), OffsetDateTime.now(), examples.getProvenance(), trainerProvenance, runProvenance);
+
+        return createModel(provenance, featureInfos, labelInfos, counts);
+    }
+
+    @Override
+    public MultinomialNaiveBayesModel incrementalTrain(Dataset<Label> newData, MultinomialNaiveBayesModel model) {
+        return incrementalTrain(newData, model, Collections.emptyMap());
+    }
 
-        for (Pair<Integer,Label> label : labelInfos) {
-            labelWeights.put(label.getA(), new HashMap<>());
+    /**
+     * Adds the feature counts from the new data to the model's counts, and produces a new model.
+     * <p>
+     * See {@link #incrementalTrain(Dataset, MultinomialNaiveBayesModel)}.
+     * @param newData The additional training data.
+     * @param model The model to update.
+     * @param runProvenance Run specific provenance (e.g., the data source's location).
+     * @return The updated model.
+     */
+    public MultinomialNaiveBayesModel incrementalTrain(Dataset<Label> newData, MultinomialNaiveBayesModel model, Map<String, Provenance> runProvenance) {
+        if (newData.getOutputInfo().getUnknownCount() > 0) {
+            throw new IllegalArgumentException("The supplied Dataset contained unknown Outputs, and this Trainer is supervised.");
         }
+        DenseSparseMatrix oldCounts = model.getLabelFeatureCounts();
+        if (oldCounts == null) {
+            throw new IllegalArgumentException("The supplied model does not contain feature counts, it must be retrained from scratch.");
+        }
+        ImmutableFeatureMap featureInfos = IncrementalTrainer.mergeFeatureMaps(model.getFeatureIDMap(), newData);
+        ImmutableOutputInfo<Label> labelInfos = IncrementalTrainer.mergeOutputInfo(model.getOutputIDInfo(), newData);
+        int[] featureMapping = IncrementalTrainer.featureMapping(featureInfos, model.getFeatureIDMap());
+        int[] labelMapping = IncrementalTrainer.outputMapping(labelInfos, model.getOutputIDInfo());
 
-        for (Example<Label> ex : examples) {
-            int idx = labelInfos.getID(ex.getOutput());
-            Map<Integer, Double> featureMap = labelWeights.get(idx);
-            double curWeight = ex.getWeight();
-            for (Feature feat : ex) {
-                if (feat.getValue() < 0.0) {
-                    throw new IllegalStateException("Multinomial Naive Bayes requires non-negative features. Found feature " + feat.toString());
-                }
-                featureMap.merge(featureInfos.getID(feat.getName()), curWeight*feat.getValue(), Double::sum);
+        LabelFeatureCounts counts = countFeatures(newData, featureInfos, labelInfos);
+        counts.addModelCounts(oldCounts, labelMapping, inverseMapping(featureMapping, model.getFeatureIDMap().size()));
+
+        TrainerProvenance trainerProvenance;
+        synchronized (this) {
+            trainerProvenance = getProvenance();
+            invocationCount++;
+        }
+        ModelProvenance provenance = new ModelProvenance(MultinomialNaiveBayesModel.class.getName(), OffsetDateTime.now(), newData.getProvenance(), trainerProvenance, runProvenance);
+
+        return createModel(provenance, featureInfos, labelInfos, counts);
+    }
+
+    /**
+     * Combines two models trained on disjoint data by summing their feature counts,
+     * producing the model that would be trained on both datasets at once.
+     * <p>
+     * The feature and label domains are merged, with the feature statistics of shared features
+     * taken from the first model. The smoothing parameter comes from this trainer. The combined
+     * model's dataset provenance is the first model's, and the provenance of the second model
+     * is recorded in the run provenance.
+     * <p>
+     * Hashed feature domains are merged by taking the union of their hash buckets, which requires
+     * both models to use the same hash function and salt.
+     * <p>
+     * Throws {@link IllegalArgumentException} if either model does not contain feature counts,
+     * if only one model uses a hashed feature domain, or if the hashed domains use different hash functions.
+     * @param first The first model.
+     * @param second The second model.
+     * @return The combined model.
+     */
+    public MultinomialNaiveBayesModel combine(MultinomialNaiveBayesModel first, MultinomialNaiveBayesModel second) {
+        DenseSparseMatrix firstCounts = first.getLabelFeatureCounts();
+        DenseSparseMatrix secondCounts = second.getLabelFeatureCounts();
+        if ((firstCounts == null) || (secondCounts == null)) {
+            throw new IllegalArgumentException("The supplied models must contain feature counts, retrain them from scratch.");
+        }
+        ImmutableFeatureMap firstMap = first.getFeatureIDMap();
+        ImmutableFeatureMap secondMap = second.getFeatureIDMap();
+        if ((firstMap instanceof HashedFeatureMap) != (secondMap instanceof HashedFeatureMap)) {
+            throw new IllegalArgumentException("Can't combine a model using a hashed feature domain with one that isn't hashed.");
+        }
+        ImmutableFeatureMap featureInfos;
+        int[] firstFeatureMapping;
+        int[] secondFeatureMapping;
+        if (firstMap instanceof HashedFeatureMap) {
+            // The feature names are already hashed, so they are matched directly rather than through getID.
+            featureInfos = HashedFeatureMap.merge((HashedFeatureMap) firstMap, (HashedFeatureMap) secondMap);
+            Map<String,Integer> hashedIDs = new HashMap<>();
+            for (int i = 0; i < featureInfos.size(); i++) {
+                hashedIDs.put(featureInfos.get(i).getName(), i);
             }
+            firstFeatureMapping = hashedMapping(firstMap, hashedIDs);
+            secondFeatureMapping = hashedMapping(secondMap, hashedIDs);
+        } else {
+            featureInfos = IncrementalTrainer.mergeFeatureMaps(firstMap, secondMap);
+            firstFeatureMapping = inverseMapping(IncrementalTrainer.featureMapping(featureInfos, firstMap), firstMap.size());
+            secondFeatureMapping = inverseMapping(IncrementalTrainer.featureMapping(featureInfos, secondMap), secondMap.size());
         }
+        ImmutableOutputInfo<Label> labelInfos = mergeLabelInfos(first.getOutputIDInfo(), second.getOutputIDInfo());
 
-        TrainerProvenance trainerProvenance = getProvenance();
-        ModelProvenance provenance = new ModelProvenance(MultinomialNaiveBayesModel.class.getName(), OffsetDateTime.now(), examples.getProvenance(), trainerProvenance, runProvenance);
-        invocationCount++;
+        LabelFeatureCounts counts = new LabelFeatureCounts(labelInfos.size(), featureInfos.size());
+        counts.addModelCounts(firstCounts, IncrementalTrainer.outputMapping(labelInfos, first.getOutputIDInfo()), firstFeatureMapping);
+        counts.addModelCounts(secondCounts, IncrementalTrainer.outputMapping(labelInfos, second.getOutputIDInfo()), secondFeatureMapping);
+
+        Map<String, Provenance> runProvenance = new HashMap<>();
+        runProvenance.put("combined-model", second.getProvenance());
+        TrainerProvenance trainerProvenance;
+        synchronized (this) {
+            trainerProvenance = getProvenance();
+            invocationCount++;
+        }
+        ModelProvenance provenance = new ModelProvenance(MultinomialNaiveBayesModel.class.getName(), OffsetDateTime.now(), first.getProvenance().getDatasetProvenance(), trainerProvenance, runProvenance);
+
+        return createModel(provenance, featureInfos, labelInfos, counts);
+    }
+
+    /**
+     * Merges two label domains, summing the label counts.
+     * @param first The first label domain.
+     * @param second The second label domain.
+     * @return The merged label domain.
+     */
+    private static ImmutableOutputInfo<Label> mergeLabelInfos(ImmutableOutputInfo<Label> first, ImmutableOutputInfo<Label> second) {
+        MutableLabelInfo info = new MutableLabelInfo((LabelInfo) first);
+        LabelInfo secondInfo = (LabelInfo) second;
+        for (Pair<Integer,Label> p : second) {
+            info.observe(p.getB(), secondInfo.getLabelCount(p.getB()));
+        }
+        return info.generateImmutableOutputInfo();
+    }
 
+    /**
+     * Maps the ids of a hashed feature domain into a merged hashed domain, matching the hashed feature names.
+     * @param oldMap The hashed feature domain.
+     * @param mergedIDs The ids of the hashed feature names in the merged domain.
+     * @return The mapping from old ids to merged ids.
+     */
+    private static int[] hashedMapping(ImmutableFeatureMap oldMap, Map<String,Integer> mergedIDs) {
+        int[] oldToNew = new int[oldMap.size()];
+        for (int i = 0; i < oldToNew.length; i++) {
+            oldToNew[i] = mergedIDs.get(oldMap.get(i).getName());
+        }
+        return oldToNew;
+    }
+
+    /**
+     * Inverts a mapping from new ids to old ids produced by {@link IncrementalTrainer#featureMapping}.
+     * @param mapping The mapping from new ids to old ids.
+     * @param oldSize The size of the old domain.
+     * @return The mapping from old ids to new ids, containing -1 for ids which aren't mapped.
+     */
+    private static int[] inverseMapping(int[] mapping, int oldSize) {
+        int[] oldToNew = new int[oldSize];
+        Arrays.fill(oldToNew, -1);
+        for (int i = 0; i < mapping.length; i++) {
+            if (mapping[i] != -1) {
+                oldToNew[mapping[i]] = i;
+            }
+        }
+        return oldToNew;
+    }
+
+    /**
+     * Counts the weighted feature values of each example for its label,
+     * splitting the examples across {@code numThreads} threads.
+     * @param examples The examples to count.
+     * @param featureInfos The feature domain.
+     * @param labelInfos The label domain.
+     * @return The counts.
+     */
+    private LabelFeatureCounts countFeatures(Dataset<Label> examples, ImmutableFeatureMap featureInfos, ImmutableOutputInfo<Label> labelInfos) {
+        List<Example<Label>> data = examples.getData();
+        int numChunks = Math.min(numThreads, data.size());
+        if (numChunks <= 1) {
+            return countChunk(data, featureInfos, labelInfos);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(numChunks);
+        List<Future<LabelFeatureCounts>> futures = new ArrayList<>(numChunks);
+        int chunkSize = data.size() / numChunks;
+        int remainder = data.size() % numChunks;
+        int start = 0;
+        for (int i = 0; i < numChunks; i++) {
+            int end = start + chunkSize + (i < remainder ? 1 : 0);
+            List<Example<Label>> chunk = data.subList(start, end);
+            futures.add(pool.submit(() -> countChunk(chunk, featureInfos, labelInfos)));
+            start = end;
+        }
+        try {
+            LabelFeatureCounts counts = futures.get(0).get();
+            for (int i = 1; i < futures.size(); i++) {
+                counts.merge(futures.get(i).get());
+            }
+            return counts;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while counting features",e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new IllegalStateException("Failed to count features",e.getCause());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Counts the weighted feature values of each example for its label.
+     * @param examples The examples to count.
+     * @param featureInfos The feature domain.
+     * @param labelInfos The label domain.
+     * @return The counts.
+     */
+    private static LabelFeatureCounts countChunk(List<Example<Label>> examples, ImmutableFeatureMap featureInfos, ImmutableOutputInfo<Label> labelInfos) {
+        LabelFeatureCounts counts = new LabelFeatureCounts(labelInfos.size(), featureInfos.size());
+        for (Example<Label> ex : examples) {
+            counts.count(ex, featureInfos, labelInfos);
+        }
+        return counts;
+    }
+
+    /**
+     * Computes the smoothed log probabilities from the counts and builds the model.
+     * @param provenance The model provenance.
+     * @param featureInfos The feature domain.
+     * @param labelInfos The label domain.
+     * @param counts The counts.
+     * @return The model.
+     */
+    private MultinomialNaiveBayesModel createModel(ModelProvenance provenance, ImmutableFeatureMap featureInfos, ImmutableOutputInfo<Label> labelInfos, LabelFeatureCounts counts) {
+        SparseVector[] labelCounts = new SparseVector[labelInfos.size()];
         SparseVector[] labelVectors = new SparseVector[labelInfos.size()];
 
         for(int i = 0; i < labelInfos.size(); i++) {
-            SparseVector sv = SparseVector.createSparseVector(featureInfos.size(), labelWeights.get(i));
+            SparseVector sv = counts.getCounts(i);
+            labelCounts[i] = sv.copy();
             double unsmoothedZ = sv.oneNorm();
             sv.foreachInPlace(d -> Math.log((d + alpha) / (unsmoothedZ + (featureInfos.size() * alpha))));
             labelVectors[i] = sv;
         }
 
         DenseSparseMatrix labelWordProbs = DenseSparseMatrix.createFromSparseVectors(labelVectors);
+        DenseSparseMatrix labelFeatureCounts = DenseSparseMatrix.createFromSparseVectors(labelCounts);
 
-        return new MultinomialNaiveBayesModel("", provenance, featureInfos, labelInfos, labelWordProbs, alpha);
+        return new MultinomialNaiveBayesModel("", provenance, featureInfos, labelInfos, labelWordProbs, labelFeatureCounts, alpha);
     }
 
     @Override
@@ -125,9 +403,22 @@ public class MultinomialNaiveBayesTrainer implements Trainer<Label>, WeightedExa
         return invocationCount;
     }
 
+    @Override
+    public boolean supportsInvocationCount() {
+        return true;
+    }
+
+    @Override
+    public synchronized void setInvocationCount(int invocationCount) {
+        if (invocationCount < 0) {
+            throw new IllegalArgumentException("The supplied invocationCount is less than zero.");
+        }
+        this.invocationCount = invocationCount;
+    }
+
     @Override
     public String toString() {
-        return "MultinomialNaiveBayesTrainer(alpha=" + alpha + ")";
+        return "MultinomialNaiveBayesTrainer(alpha=" + alpha + ",numThreads=" + numThreads + ")";
     }
 
     @Override
@@ -19,12 +19,19 @@ package org.tribuo.classification.mnb;
 import com.oracle.labs.mlrg.olcut.util.Pair;
 import org.tribuo.Dataset;
 import org.tribuo.Example;
+import org.tribuo.Feature;
 import org.tribuo.Model;
+import org.tribuo.MutableDataset;
+import org.tribuo.Prediction;
 import org.tribuo.classification.Label;
+import org.tribuo.classification.LabelInfo;
 import org.tribuo.classification.evaluation.LabelEvaluation;
 import org.tribuo.classification.evaluation.LabelEvaluator;
 import org.tribuo.classification.example.LabelledDataGenerator;
 import org.tribuo.dataset.DatasetView;
+import org.tribuo.hash.HashedFeatureMap;
+import org.tribuo.hash.HashingTrainer;
+import org.tribuo.hash.MessageDigestHasher;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.tribuo.test.Helpers;
@@ -34,6 +41,7 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestMNB {
 
@@ -65,6 +73,156 @@ public class TestMNB {
         assertEquals(1.0,evaluation.recall(new Label("Foo")));
     }
 
+    @Test
+    public void testIncrementalTraining() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.sparseTrainTest(1.0);
+        Dataset<Label> train = p.getA();
+        MutableDataset<Label> first = new MutableDataset<>(train.getProvenance(), train.getOutputFactory());
+        MutableDataset<Label> second = new MutableDataset<>(train.getProvenance(), train.getOutputFactory());
+        MutableDataset<Label> all = new MutableDataset<>(train.getProvenance(), train.getOutputFactory());
+        for (Example<Label> e : train) {
+            if (e.getOutput().getLabel().equals("Quux")) {
+                second.add(e);
+            } else {
+                first.add(e);
+            }
+        }
+        all.addAll(first.getData());
+        all.addAll(second.getData());
+
+        // Adding the counts from the new data produces the same model as training on all of it.
+        MultinomialNaiveBayesModel base = t.train(first);
+        MultinomialNaiveBayesModel updated = t.incrementalTrain(second, base);
+        MultinomialNaiveBayesModel expected = t.train(all);
+        assertEquals(expected.getFeatureIDMap().size(), updated.getFeatureIDMap().size());
+        assertEquals(expected.getOutputIDInfo().getDomain(), updated.getOutputIDInfo().getDomain());
+        assertScoresEqual(expected, updated, p.getB());
+        Helpers.testModelSerialization(updated, Label.class);
+    }
+
+    @Test
+    public void testHashedIncrementalTraining() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.sparseTrainTest(1.0);
+        Dataset<Label> train = p.getA();
+        MutableDataset<Label> first = new MutableDataset<>(train.getProvenance(), train.getOutputFactory());
+        MutableDataset<Label> second = new MutableDataset<>(train.getProvenance(), train.getOutputFactory());
+        MutableDataset<Label> secondWithNewFeatures = new MutableDataset<>(train.getProvenance(), train.getOutputFactory());
+        int i = 0;
+        for (Example<Label> e : train) {
+            if (e.getOutput().getLabel().equals("Quux")) {
+                second.add(e);
+                Example<Label> copy = e.copy();
+                copy.add(new Feature("unseen-" + i, 1.0));
+                secondWithNewFeatures.add(copy);
+            } else {
+                first.add(e);
+            }
+            i++;
+        }
+
+        // A hashed domain can't grow, so features in unseen hash buckets are ignored.
+        HashingTrainer<Label> hashingTrainer = new HashingTrainer<>(t, new MessageDigestHasher("SHA-256", "abcdefghi"));
+        MultinomialNaiveBayesModel base = (MultinomialNaiveBayesModel) hashingTrainer.train(first);
+        MultinomialNaiveBayesModel updated = t.incrementalTrain(secondWithNewFeatures, base);
+        MultinomialNaiveBayesModel expected = t.incrementalTrain(second, base);
+        assertTrue(updated.getFeatureIDMap() instanceof HashedFeatureMap);
+        assertEquals(base.getFeatureIDMap().size(), updated.getFeatureIDMap().size());
+        assertEquals(expected.getOutputIDInfo().getDomain(), updated.getOutputIDInfo().getDomain());
+        assertScoresEqual(expected, updated, p.getB());
+    }
+
+    @Test
+    public void testParallelCounting() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.sparseTrainTest(1.0);
+        MultinomialNaiveBayesTrainer parallel = new MultinomialNaiveBayesTrainer(1.0, 4);
+        MultinomialNaiveBayesModel expected = t.train(p.getA());
+        MultinomialNaiveBayesModel actual = parallel.train(p.getA());
+        assertScoresEqual(expected, actual, p.getB());
+        assertThrows(IllegalArgumentException.class, () -> new MultinomialNaiveBayesTrainer(1.0, 0));
+    }
+
+    @Test
+    public void testCombine() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.sparseTrainTest(1.0);
+        Dataset<Label> train = p.getA();
+        MutableDataset<Label> first = new MutableDataset<>(train.getProvenance(), train.getOutputFactory());
+        MutableDataset<Label> second = new MutableDataset<>(train.getProvenance(), train.getOutputFactory());
+        int i = 0;
+        for (Example<Label> e : train) {
+            // Keep all of one label in the second shard so the domains differ.
+            if (e.getOutput().getLabel().equals("Quux") || (i % 2 == 0)) {
+                second.add(e);
+            } else {
+                first.add(e);
+            }
+            i++;
+        }
+
+        // Combining models trained on disjoint shards produces the same model as training on all the data.
+        MultinomialNaiveBayesModel combined = t.combine(t.train(first), t.train(second));
+        MultinomialNaiveBayesModel expected = t.train(train);
+        assertEquals(expected.getFeatureIDMap().size(), combined.getFeatureIDMap().size());
+        assertEquals(expected.getOutputIDInfo().getDomain(), combined.getOutputIDInfo().getDomain());
+        LabelInfo expectedInfo = (LabelInfo) expected.getOutputIDInfo();
+        LabelInfo combinedInfo = (LabelInfo) combined.getOutputIDInfo();
+        for (Label l : expectedInfo.getDomain()) {
+            assertEquals(expectedInfo.getLabelCount(l), combinedInfo.getLabelCount(l));
+        }
+        assertScoresEqual(expected, combined, p.getB());
+        Helpers.testModelSerialization(combined, Label.class);
+    }
+
+    @Test
+    public void testHashedCombine() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.sparseTrainTest(1.0);
+        Dataset<Label> train = p.getA();
+        MutableDataset<Label> first = new MutableDataset<>(train.getProvenance(), train.getOutputFactory());
+        MutableDataset<Label> second = new MutableDataset<>(train.getProvenance(), train.getOutputFactory());
+        MutableDataset<Label> all = new MutableDataset<>(train.getProvenance(), train.getOutputFactory());
+        int i = 0;
+        for (Example<Label> e : train) {
+            Example<Label> copy = e.copy();
+            if (e.getOutput().getLabel().equals("Quux")) {
+                // Features only in the second shard land in hash buckets the first model lacks.
+                copy.add(new Feature("second-only-" + i, 1.0));
+                second.add(copy);
+            } else {
+                first.add(copy);
+            }
+            all.add(copy);
+            i++;
+        }
+
+        HashingTrainer<Label> hashingTrainer = new HashingTrainer<>(t, new MessageDigestHasher("SHA-256", "abcdefghi"));
+        MultinomialNaiveBayesModel firstModel = (MultinomialNaiveBayesModel) hashingTrainer.train(first);
+        MultinomialNaiveBayesModel secondModel = (MultinomialNaiveBayesModel) hashingTrainer.train(second);
+        MultinomialNaiveBayesModel expected = (MultinomialNaiveBayesModel) hashingTrainer.train(all);
+        assertTrue(secondModel.getFeatureIDMap().size() > 0);
+        for (MultinomialNaiveBayesModel combined : new MultinomialNaiveBayesModel[]{t.combine(firstModel, secondModel), t.combine(secondModel, firstModel)}) {
+            assertTrue(combined.getFeatureIDMap() instanceof HashedFeatureMap);
+            assertEquals(expected.getFeatureIDMap().size(), combined.getFeatureIDMap().size());
+            assertEquals(expected.getOutputIDInfo().getDomain(), combined.getOutputIDInfo().getDomain());
+            assertScoresEqual(expected, combined, p.getB());
+            Helpers.testModelSerialization(combined, Label.class);
+        }
+
+        MultinomialNaiveBayesModel otherHash = (MultinomialNaiveBayesModel) new HashingTrainer<>(t, new MessageDigestHasher("SHA-1", "abcdefghi")).train(second);
+        assertThrows(IllegalArgumentException.class, () -> t.combine(firstModel, otherHash));
+    }
+
+    private static void assertScoresEqual(Model<Label> expected, Model<Label> actual, Dataset<Label> test) {
+        List<Prediction<Label>> expectedPredictions = expected.predict(test);
+        List<Prediction<Label>> actualPredictions = actual.predict(test);
+        for (int i = 0; i < expectedPredictions.size(); i++) {
+            Map<String,Label> expectedScores = expectedPredictions.get(i).getOutputScores();
+            Map<String,Label> actualScores = actualPredictions.get(i).getOutputScores();
+            assertEquals(expectedScores.keySet(), actualScores.keySet());
+            for (Map.Entry<String,Label> e : expectedScores.entrySet()) {
+                assertEquals(e.getValue().getScore(), actualScores.get(e.getKey()).getScore(), 1e-12);
+            }
+        }
+    }
+
     @Test
     public void testDenseData() {
         Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.denseTrainTest(1.0);
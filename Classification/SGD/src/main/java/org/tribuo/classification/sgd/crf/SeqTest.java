@@ -28,6 +28,7 @@ import org.tribuo.classification.sequence.example.SequenceDataGenerator;
 import org.tribuo.hash.HashCodeHasher;
 import org.tribuo.hash.HashingOptions.ModelHashingType;
 import org.tribuo.hash.MessageDigestHasher;
+import org.tribuo.hash.MurmurHasher;
 import org.tribuo.math.StochasticGradientOptimiser;
 import org.tribuo.math.optimisers.GradientOptimiserOptions;
 import org.tribuo.sequence.HashingSequenceTrainer;
@@ -191,6 +192,9 @@ public class SeqTest {
             case SHA256:
                 trainer = new HashingSequenceTrainer<>(trainer, new MessageDigestHasher("SHA-256", o.modelHashingSalt));
                 break;
+            case MURMUR:
+                trainer = new HashingSequenceTrainer<>(trainer, new MurmurHasher(o.modelHashingSalt));
+                break;
             default:
                 logger.info("Unknown hasher " + o.modelHashingAlgorithm);
         }
@@ -24,12 +24,16 @@ import org.tribuo.ImmutableOutputInfo;
 import org.tribuo.Model;
 import org.tribuo.Prediction;
 import org.tribuo.classification.Label;
+import org.tribuo.math.kernel.DotProductKernel;
 import org.tribuo.math.kernel.Kernel;
 import org.tribuo.math.la.DenseMatrix;
 import org.tribuo.math.la.DenseVector;
 import org.tribuo.math.la.SparseVector;
+import org.tribuo.math.la.VectorTuple;
 import org.tribuo.provenance.ModelProvenance;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -45,14 +49,28 @@ import java.util.Optional;
  * "Pegasos: Primal Estimated Sub-Gradient Solver for SVM"
  * Mathematical Programming, 2011.
  * </pre>
+ * <p>
+ * If the kernel is a {@link DotProductKernel}
+ * then predictions are made in batches, computing the kernel block between a batch of examples and
+ * all the support vectors from a sparse matrix product against an inverted index of the support vectors.
  */
 public class KernelSVMModel extends Model<Label> {
     private static final long serialVersionUID = 2L;
 
+    /**
+     * The number of examples scored together in the batch prediction path.
+     */
+    static final int PREDICTION_BATCH_SIZE = 32;
+
     private final Kernel kernel;
     private final SparseVector[] supportVectors;
     private final DenseMatrix weights;
 
+    /**
+     * Lazily constructed inverted index over the support vectors, rebuilt after deserialization.
+     */
+    private transient volatile SupportVectorIndex supportVectorIndex;
+
     KernelSVMModel(String name, ModelProvenance description,
                           ImmutableFeatureMap featureIDMap, ImmutableOutputInfo<Label> labelIDMap,
                           Kernel kernel, SparseVector[] supportVectors, DenseMatrix weights) {
@@ -72,16 +90,156 @@ public class KernelSVMModel extends Model<Label> {
 
     @Override
     public Prediction<Label> predict(Example<Label> example) {
+        SparseVector features = createVector(example);
+        if (kernel instanceof DotProductKernel) {
+            double[][] kernelBlock = computeKernelBlock(Collections.singletonList(features));
+            return generatePrediction(example, features, kernelBlock[0]);
+        } else {
+            double[] scores = new double[supportVectors.length];
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = kernel.similarity(features,supportVectors[i]);
+            }
+            return generatePrediction(example, features, scores);
+        }
+    }
+
+    /**
+     * Predicts the examples in batches of {@link #PREDICTION_BATCH_SIZE} if the kernel is a
+     * {@link DotProductKernel}, otherwise predicts each example separately.
+     * @param examples The examples to predict.
+     * @return The predictions.
+     */
+    @Override
+    protected List<Prediction<Label>> innerPredict(Iterable<Example<Label>> examples) {
+        if (!(kernel instanceof DotProductKernel)) {
+            return super.innerPredict(examples);
+        }
+        List<Prediction<Label>> predictions = new ArrayList<>();
+        List<Example<Label>> exampleBatch = new ArrayList<>(PREDICTION_BATCH_SIZE);
+        List<SparseVector> vectorBatch = new ArrayList<>(PREDICTION_BATCH_SIZE);
+        for (Example<Label> example : examples) {
+            exampleBatch.add(example);
+            vectorBatch.add(createVector(example));
+            if (exampleBatch.size() == PREDICTION_BATCH_SIZE) {
+                predictBatch(exampleBatch, vectorBatch, predictions);
+                exampleBatch.clear();
+                vectorBatch.clear();
+            }
+        }
+        if (!exampleBatch.isEmpty()) {
+            predictBatch(exampleBatch, vectorBatch, predictions);
+        }
+        return predictions;
+    }
+
+    /**
+     * Predicts a batch of examples, appending the predictions to the supplied list.
+     * @param examples The examples.
+     * @param vectors The feature vectors for the examples.
+     * @param predictions The output list of predictions.
+     */
+    private void predictBatch(List<Example<Label>> examples, List<SparseVector> vectors, List<Prediction<Label>> predictions) {
+        double[][] kernelBlock = computeKernelBlock(vectors);
+        for (int i = 0; i < kernelBlock.length; i++) {
+            predictions.add(generatePrediction(examples.get(i), vectors.get(i), kernelBlock[i]));
+        }
+    }
+
+    /**
+     * Converts the example into a {@link SparseVector} with a bias feature,
+     * throwing {@link IllegalArgumentException} if there are no valid features.
+     * @param example The example.
+     * @return The feature vector.
+     */
+    private SparseVector createVector(Example<Label> example) {
         SparseVector features = SparseVector.createSparseVector(example,featureIDMap,true);
         // Due to bias feature
         if (features.numActiveElements() == 1) {
             throw new IllegalArgumentException("No features found in Example " + example.toString());
         }
-        double[] scores = new double[supportVectors.length];
-        for (int i = 0; i < scores.length; i++) {
-            scores[i] = kernel.similarity(features,supportVectors[i]);
+        return features;
+    }
+
+    /**
+     * Computes the kernel similarities between each query vector and every support vector.
+     * <p>
+     * The dot products are accumulated one feature at a time, so each support vector posting list
+     * is traversed once per batch rather than once per query. The kernel is then applied using the
+     * precomputed squared norms of the support vectors.
+     * @param queries The query vectors.
+     * @return A [queries.size(), numSupportVectors] array of kernel values.
+     */
+    private double[][] computeKernelBlock(List<SparseVector> queries) {
+        DotProductKernel dotProductKernel = (DotProductKernel) kernel;
+        SupportVectorIndex index = getSupportVectorIndex();
+        int numQueries = queries.size();
+        double[][] block = new double[numQueries][supportVectors.length];
+        double[] queryNorms = new double[numQueries];
+
+        // Gather the (feature, query) pairs of the batch, sorted by feature.
+        int numEntries = 0;
+        for (SparseVector q : queries) {
+            numEntries += q.numActiveElements();
+        }
+        long[] keys = new long[numEntries];
+        double[] entryValues = new double[numEntries];
+        int counter = 0;
+        for (int i = 0; i < numQueries; i++) {
+            for (VectorTuple t : queries.get(i)) {
+                queryNorms[i] += t.value * t.value;
+                keys[counter] = (((long) t.index) << 32) | counter;
+                entryValues[counter] = t.value;
+                counter++;
+            }
+        }
+        int[] entryQuery = new int[numEntries];
+        counter = 0;
+        for (int i = 0; i < numQueries; i++) {
+            int numActive = queries.get(i).numActiveElements();
+            Arrays.fill(entryQuery, counter, counter + numActive, i);
+            counter += numActive;
         }
-        DenseVector scoreVector = DenseVector.createDenseVector(scores);
+        Arrays.sort(keys);
+
+        // Sparse matrix product between the batch and the transposed support vectors.
+        int start = 0;
+        while (start < numEntries) {
+            int feature = (int) (keys[start] >>> 32);
+            int end = start + 1;
+            while ((end < numEntries) && ((int) (keys[end] >>> 32) == feature)) {
+                end++;
+            }
+            if (feature < index.numFeatures) {
+                for (int p = index.featureStart[feature]; p < index.featureStart[feature + 1]; p++) {
+                    int sv = index.supportVectorIDs[p];
+                    double svValue = index.values[p];
+                    for (int e = start; e < end; e++) {
+                        int entry = (int) keys[e];
+                        block[entryQuery[entry]][sv] += entryValues[entry] * svValue;
+                    }
+                }
+            }
+            start = end;
+        }
+
+        for (int i = 0; i < numQueries; i++) {
+            double[] row = block[i];
+            for (int j = 0; j < row.length; j++) {
+                row[j] = dotProductKernel.similarity(row[j], queryNorms[i], index.squaredNorms[j]);
+            }
+        }
+        return block;
+    }
+
+    /**
+     * Builds the prediction from the kernel similarities between the example and the support vectors.
+     * @param example The example.
+     * @param features The example's feature vector.
+     * @param kernelValues The kernel similarities.
+     * @return The prediction.
+     */
+    private Prediction<Label> generatePrediction(Example<Label> example, SparseVector features, double[] kernelValues) {
+        DenseVector scoreVector = DenseVector.createDenseVector(kernelValues);
         DenseVector prediction = weights.leftMultiply(scoreVector);
 
         double maxScore = Double.NEGATIVE_INFINITY;
@@ -99,6 +257,20 @@ public class KernelSVMModel extends Model<Label> {
         return new Prediction<>(maxLabel, predMap, features.numActiveElements(), example, generatesProbabilities);
     }
 
+    /**
+     * Gets the support vector index, building it if necessary.
+     * @return The support vector index.
+     */
+    private SupportVectorIndex getSupportVectorIndex() {
+        SupportVectorIndex index = supportVectorIndex;
+        if (index == null) {
+            // Racing threads build equivalent indices, so there is no need to lock.
+            index = new SupportVectorIndex(supportVectors, featureIDMap.size() + 1);
+            supportVectorIndex = index;
+        }
+        return index;
+    }
+
     @Override
     public Map<String, List<Pair<String, Double>>> getTopFeatures(int n) {
         return Collections.emptyMap();
@@ -117,4 +289,45 @@ public class KernelSVMModel extends Model<Label> {
         }
         return new KernelSVMModel(newName,newProvenance,featureIDMap,outputIDInfo,kernel,vectorCopies,new DenseMatrix(weights));
     }
+
+    /**
+     * A feature major (compressed sparse column) view of the support vectors,
+     * along with their squared two norms.
+     */
+    private static final class SupportVectorIndex {
+        final int numFeatures;
+        final int[] featureStart;
+        final int[] supportVectorIDs;
+        final double[] values;
+        final double[] squaredNorms;
+
+        SupportVectorIndex(SparseVector[] supportVectors, int numFeatures) {
+            this.numFeatures = numFeatures;
+            this.featureStart = new int[numFeatures + 1];
+            this.squaredNorms = new double[supportVectors.length];
+            int numEntries = 0;
+            for (SparseVector sv : supportVectors) {
+                for (VectorTuple t : sv) {
+                    featureStart[t.index + 1]++;
+                    numEntries++;
+                }
+            }
+            for (int i = 0; i < numFeatures; i++) {
+                featureStart[i + 1] += featureStart[i];
+            }
+            this.supportVectorIDs = new int[numEntries];
+            this.values = new double[numEntries];
+            int[] position = Arrays.copyOf(featureStart, numFeatures);
+            for (int i = 0; i < supportVectors.length; i++) {
+                double norm = 0.0;
+                for (VectorTuple t : supportVectors[i]) {
+                    int p = position[t.index]++;
+                    supportVectorIDs[p] = i;
+                    values[p] = t.value;
+                    norm += t.value * t.value;
+                }
+                squaredNorms[i] = norm;
+            }
+        }
+    }
 }
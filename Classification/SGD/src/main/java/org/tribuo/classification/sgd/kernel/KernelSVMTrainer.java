@@ -17,6 +17,7 @@
 package org.tribuo.classification.sgd.kernel;
 
 import com.oracle.labs.mlrg.olcut.config.Config;
+import com.oracle.labs.mlrg.olcut.config.PropertyException;
 import com.oracle.labs.mlrg.olcut.provenance.Provenance;
 import org.tribuo.Dataset;
 import org.tribuo.Example;
@@ -36,7 +37,12 @@ import org.tribuo.provenance.TrainerProvenance;
 import org.tribuo.provenance.impl.TrainerProvenanceImpl;
 
 import java.time.OffsetDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.SplittableRandom;
 import java.util.logging.Logger;
@@ -53,6 +59,10 @@ import java.util.logging.Logger;
  * "Pegasos: Primal Estimated Sub-Gradient Solver for SVM"
  * Mathematical Programming, 2011.
  * </pre>
+ * <p>
+ * During training the kernel values between each example and the support vectors are stored in
+ * an LRU cache bounded by {@code kernelCacheSize} megabytes, so each kernel value is computed once
+ * per example unless the example's row is evicted. Set the cache size to zero to disable it.
  */
 public class KernelSVMTrainer implements Trainer<Label>, WeightedExamples {
     private static final Logger logger = Logger.getLogger(KernelSVMTrainer.class.getName());
@@ -75,6 +85,9 @@ public class KernelSVMTrainer implements Trainer<Label>, WeightedExamples {
     @Config(description="Shuffle the data before each epoch. Only turn off for debugging.")
     private boolean shuffle = true;
 
+    @Config(description="Size of the kernel row cache in megabytes, 0 disables the cache.")
+    private int kernelCacheSize = 100;
+
     private SplittableRandom rng;
 
     private int trainInvocationCounter;
@@ -118,6 +131,9 @@ public class KernelSVMTrainer implements Trainer<Label>, WeightedExamples {
      */
     @Override
     public synchronized void postConfig() {
+        if (kernelCacheSize < 0) {
+            throw new PropertyException("","kernelCacheSize","kernelCacheSize must be non-negative, found " + kernelCacheSize);
+        }
         this.rng = new SplittableRandom(seed);
     }
 
@@ -132,8 +148,31 @@ public class KernelSVMTrainer implements Trainer<Label>, WeightedExamples {
         this.shuffle = shuffle;
     }
 
+    /**
+     * Sets the size of the kernel row cache used during training.
+     * <p>
+     * The cache does not change the trained model, only the time taken to train it.
+     * @param kernelCacheSize The cache size in megabytes, 0 disables the cache.
+     */
+    public void setKernelCacheSize(int kernelCacheSize) {
+        if (kernelCacheSize < 0) {
+            throw new IllegalArgumentException("kernelCacheSize must be non-negative, found " + kernelCacheSize);
+        }
+        this.kernelCacheSize = kernelCacheSize;
+    }
+
+    @Override
+    public KernelSVMModel train(Dataset<Label> examples) {
+        return train(examples, Collections.emptyMap());
+    }
+
     @Override
     public KernelSVMModel train(Dataset<Label> examples, Map<String, Provenance> runProvenance) {
+        return train(examples, runProvenance, INCREMENT_INVOCATION_COUNT);
+    }
+
+    @Override
+    public KernelSVMModel train(Dataset<Label> examples, Map<String, Provenance> runProvenance, int invocationCount) {
         if (examples.getOutputInfo().getUnknownCount() > 0) {
             throw new IllegalArgumentException("The supplied Dataset contained unknown Outputs, and this Trainer is supervised.");
         }
@@ -141,6 +180,9 @@ public class KernelSVMTrainer implements Trainer<Label>, WeightedExamples {
         TrainerProvenance trainerProvenance;
         SplittableRandom localRNG;
         synchronized(this) {
+            if (invocationCount != INCREMENT_INVOCATION_COUNT) {
+                setInvocationCount(invocationCount);
+            }
             localRNG = rng.split();
             trainerProvenance = getProvenance();
             trainInvocationCounter++;
@@ -164,7 +206,8 @@ public class KernelSVMTrainer implements Trainer<Label>, WeightedExamples {
 
         double loss = 0.0;
         int iteration = 0;
-        Map<Integer,SparseVector> supportVectors = new HashMap<>();
+        SupportVectors supportVectors = new SupportVectors(examples.size());
+        KernelRowCache cache = kernelCacheSize > 0 ? new KernelRowCache(kernelCacheSize * 1024L * 1024L) : null;
         double[][] alphas = new double[labelIDMap.size()][examples.size()];
 
         for (int i = 0; i < epochs; i++) {
@@ -172,13 +215,13 @@ public class KernelSVMTrainer implements Trainer<Label>, WeightedExamples {
                 Util.shuffleInPlace(sgdFeatures, sgdLabels, weights, indices, localRNG);
             }
             for (int j = 0; j < sgdFeatures.length; j++) {
-                SGDVector pred = predict(sgdFeatures[j],supportVectors,alphas);
+                SGDVector pred = predict(indices[j],sgdFeatures[j],supportVectors,cache,alphas);
                 pred.add(sgdLabels[j],-1.0);
                 int predIndex = pred.indexOfMax();
 
                 if (sgdLabels[j] != predIndex) {
                     loss += (pred.get(sgdLabels[j]) - pred.get(predIndex)) * weights[j];
-                    supportVectors.putIfAbsent(indices[j],sgdFeatures[j]);
+                    supportVectors.add(indices[j],sgdFeatures[j]);
                     alphas[sgdLabels[j]][indices[j]] += weights[j];
                 }
 
@@ -195,7 +238,7 @@ public class KernelSVMTrainer implements Trainer<Label>, WeightedExamples {
         for (int i = 0; i < alphas.length; i++) {
             int rowCounter = 0;
             for (int j = 0; j < sgdFeatures.length; j++) {
-                if (supportVectors.containsKey(j)) {
+                if (supportVectors.contains(j)) {
                     alphaMatrix.set(i, rowCounter, alphas[i][j]);
                     rowCounter++;
                 }
@@ -205,9 +248,8 @@ public class KernelSVMTrainer implements Trainer<Label>, WeightedExamples {
         int counter = 0;
         SparseVector[] supportArray = new SparseVector[supportVectors.size()];
         for (int i = 0; i < sgdFeatures.length; i++) {
-            SparseVector value = supportVectors.get(i);
-            if (value != null) {
-                supportArray[counter] = value;
+            if (supportVectors.contains(i)) {
+                supportArray[counter] = supportVectors.getVector(i);
                 counter++;
             }
         }
@@ -223,18 +265,58 @@ public class KernelSVMTrainer implements Trainer<Label>, WeightedExamples {
         return trainInvocationCounter;
     }
 
+    @Override
+    public boolean supportsInvocationCount() {
+        return true;
+    }
+
+    @Override
+    public synchronized void setInvocationCount(int invocationCount) {
+        if (invocationCount < 0) {
+            throw new IllegalArgumentException("The supplied invocationCount is less than zero.");
+        }
+        rng = new SplittableRandom(seed);
+        for (trainInvocationCounter = 0; trainInvocationCounter < invocationCount; trainInvocationCounter++) {
+            rng.split();
+        }
+    }
+
     @Override
     public String toString() {
-        return "KernelSVMTrainer(kernel="+kernel.toString()+",lambda="+lambda+",epochs="+epochs+",seed="+seed+")";
+        return "KernelSVMTrainer(kernel="+kernel.toString()+",lambda="+lambda+",epochs="+epochs+",seed="+seed+",kernelCacheSize="+kernelCacheSize+")";
     }
 
-    private SGDVector predict(SparseVector features, Map<Integer,SparseVector> sv, double[][] alphas) {
+    /**
+     * Scores an example against the current support vectors.
+     * <p>
+     * Support vectors are visited in the order they were added, whether or not the kernel row cache is in use,
+     * so the scores are identical in both cases.
+     * @param exampleIndex The index of the example in the training data.
+     * @param features The example features.
+     * @param sv The current support vectors.
+     * @param cache The kernel row cache, may be null if caching is disabled.
+     * @param alphas The support vector weights.
+     * @return The per label scores.
+     */
+    private SGDVector predict(int exampleIndex, SparseVector features, SupportVectors sv, KernelRowCache cache, double[][] alphas) {
         double[] score = new double[alphas.length];
+        int numSupportVectors = sv.size();
 
-        for (Map.Entry<Integer, SparseVector> e : sv.entrySet()) {
-            double distance = kernel.similarity(features,e.getValue());
-            for (int i = 0; i < alphas.length; i++) {
-                score[i] += alphas[i][e.getKey()] * distance;
+        if (cache != null) {
+            double[] row = cache.getRow(exampleIndex, features, sv, kernel);
+            for (int k = 0; k < numSupportVectors; k++) {
+                int svIndex = sv.indexAt(k);
+                for (int i = 0; i < alphas.length; i++) {
+                    score[i] += alphas[i][svIndex] * row[k];
+                }
+            }
+        } else {
+            for (int k = 0; k < numSupportVectors; k++) {
+                int svIndex = sv.indexAt(k);
+                double distance = kernel.similarity(features,sv.vectorAt(k));
+                for (int i = 0; i < alphas.length; i++) {
+                    score[i] += alphas[i][svIndex] * distance;
+                }
             }
         }
 
@@ -245,4 +327,107 @@ public class KernelSVMTrainer implements Trainer<Label>, WeightedExamples {
     public TrainerProvenance getProvenance() {
         return new TrainerProvenanceImpl(this);
     }
+
+    /**
+     * The support vectors found so far, in the order they were added.
+     */
+    private static final class SupportVectors {
+        private final SparseVector[] vectorsByIndex;
+        private final List<SparseVector> vectors = new ArrayList<>();
+        private final List<Integer> indices = new ArrayList<>();
+
+        SupportVectors(int numExamples) {
+            this.vectorsByIndex = new SparseVector[numExamples];
+        }
+
+        void add(int exampleIndex, SparseVector vector) {
+            if (vectorsByIndex[exampleIndex] == null) {
+                vectorsByIndex[exampleIndex] = vector;
+                vectors.add(vector);
+                indices.add(exampleIndex);
+            }
+        }
+
+        boolean contains(int exampleIndex) {
+            return vectorsByIndex[exampleIndex] != null;
+        }
+
+        SparseVector getVector(int exampleIndex) {
+            return vectorsByIndex[exampleIndex];
+        }
+
+        int size() {
+            return vectors.size();
+        }
+
+        int indexAt(int position) {
+            return indices.get(position);
+        }
+
+        SparseVector vectorAt(int position) {
+            return vectors.get(position);
+        }
+    }
+
+    /**
+     * An LRU cache of kernel rows, keyed by example index.
+     * <p>
+     * Each row holds the kernel values between an example and the support vectors in insertion order,
+     * and is extended with the support vectors added since it was last used.
+     */
+    private static final class KernelRowCache {
+        private final long maxBytes;
+        private final LinkedHashMap<Integer,KernelRow> rows = new LinkedHashMap<>(16,0.75f,true);
+        private long currentBytes;
+
+        KernelRowCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        double[] getRow(int exampleIndex, SparseVector features, SupportVectors sv, Kernel kernel) {
+            KernelRow row = rows.get(exampleIndex);
+            if (row == null) {
+                row = new KernelRow();
+                rows.put(exampleIndex,row);
+            }
+            int numSupportVectors = sv.size();
+            if (row.length < numSupportVectors) {
+                if (row.values.length < numSupportVectors) {
+                    int newCapacity = Math.max(numSupportVectors, row.values.length * 2);
+                    currentBytes += (newCapacity - row.values.length) * (long) Double.BYTES;
+                    row.values = Arrays.copyOf(row.values, newCapacity);
+                }
+                for (int k = row.length; k < numSupportVectors; k++) {
+                    row.values[k] = kernel.similarity(features,sv.vectorAt(k));
+                }
+                row.length = numSupportVectors;
+                evict(exampleIndex);
+            }
+            return row.values;
+        }
+
+        /**
+         * Evicts the least recently used rows until the cache is within its size limit,
+         * never evicting the row currently in use.
+         * @param currentIndex The example index of the row in use.
+         */
+        private void evict(int currentIndex) {
+            Iterator<Map.Entry<Integer,KernelRow>> itr = rows.entrySet().iterator();
+            while ((currentBytes > maxBytes) && itr.hasNext()) {
+                Map.Entry<Integer,KernelRow> e = itr.next();
+                if (e.getKey() != currentIndex) {
+                    currentBytes -= e.getValue().values.length * (long) Double.BYTES;
+                    itr.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * A growable row of kernel values.
+     */
+    private static final class KernelRow {
+        double[] values = new double[0];
+        int length = 0;
+    }
 }
@@ -104,6 +104,11 @@ public class LinearSGDModel extends AbstractLinearSGDModel<Label> implements ONN
         return new LinearSGDModel(newName,newProvenance,featureIDMap,outputIDInfo,(LinearParameters)modelParameters.copy(),normalizer,generatesProbabilities);
     }
 
+    @Override
+    protected void normalizeScores(double[] scores) {
+        normalizer.normalizeInPlace(scores);
+    }
+
     @Override
     protected String getDimensionName(int index) {
         return outputIDInfo.getOutput(index).getLabel();
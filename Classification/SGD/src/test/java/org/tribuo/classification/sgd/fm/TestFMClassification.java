@@ -27,7 +27,10 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.tribuo.Dataset;
+import org.tribuo.Example;
+import org.tribuo.Feature;
 import org.tribuo.Model;
+import org.tribuo.MutableDataset;
 import org.tribuo.Prediction;
 import org.tribuo.Trainer;
 import org.tribuo.VariableIDInfo;
@@ -40,11 +43,14 @@ import org.tribuo.classification.example.LabelledDataGenerator;
 import org.tribuo.classification.sgd.linear.LinearSGDModel;
 import org.tribuo.classification.sgd.linear.TestSGDLinear;
 import org.tribuo.classification.sgd.objectives.Hinge;
+import org.tribuo.common.sgd.AbstractFMModel;
 import org.tribuo.common.sgd.AbstractFMTrainer;
 import org.tribuo.common.sgd.AbstractSGDTrainer;
 import org.tribuo.interop.onnx.DenseTransformer;
 import org.tribuo.interop.onnx.LabelTransformer;
 import org.tribuo.interop.onnx.ONNXExternalModel;
+import org.tribuo.math.la.DenseMatrix;
+import org.tribuo.math.la.Tensor;
 import org.tribuo.math.optimisers.AdaGrad;
 import org.tribuo.provenance.ModelProvenance;
 import org.tribuo.test.Helpers;
@@ -101,6 +107,52 @@ public class TestFMClassification {
         Helpers.testModelSerialization(model,Label.class);
     }
 
+    @Test
+    public void testIncrementalTraining() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.denseTrainTest();
+        Dataset<Label> train = p.getA();
+        MutableDataset<Label> extraFeature = new MutableDataset<>(train.getProvenance(), train.getOutputFactory());
+        for (Example<Label> e : train) {
+            Example<Label> copy = e.copy();
+            copy.add(new Feature("extra", 1.0));
+            extraFeature.add(copy);
+        }
+        AbstractFMModel<Label> base = t.train(train);
+
+        // With no epochs the grown model contains the base model's parameters.
+        FMClassificationTrainer noEpochs = new FMClassificationTrainer(new Hinge(),
+                new AdaGrad(0.1,0.1),0,1000,Trainer.DEFAULT_SEED,6,0.1);
+        AbstractFMModel<Label> copied = noEpochs.incrementalTrain(extraFeature, base);
+        assertEquals(base.getFeatureIDMap().size() + 1, copied.getFeatureIDMap().size());
+        DenseMatrix baseWeights = base.getLinearWeightsCopy();
+        DenseMatrix copiedWeights = copied.getLinearWeightsCopy();
+        Tensor[] baseFactors = base.getFactorsCopy();
+        Tensor[] copiedFactors = copied.getFactorsCopy();
+        for (Pair<Integer,Label> label : copied.getOutputIDInfo()) {
+            int baseLabel = base.getOutputIDInfo().getID(label.getB());
+            assertEquals(base.getBiasesCopy().get(baseLabel), copied.getBiasesCopy().get(label.getA()));
+            for (VariableInfo info : copied.getFeatureIDMap()) {
+                int id = ((VariableIDInfo) info).getID();
+                int baseID = base.getFeatureIDMap().getID(info.getName());
+                if (baseID == -1) {
+                    assertEquals(0.0, copiedWeights.get(label.getA(), id));
+                } else {
+                    assertEquals(baseWeights.get(baseLabel, baseID), copiedWeights.get(label.getA(), id));
+                    DenseMatrix baseFactor = (DenseMatrix) baseFactors[baseLabel];
+                    DenseMatrix copiedFactor = (DenseMatrix) copiedFactors[label.getA()];
+                    for (int k = 0; k < baseFactor.getDimension1Size(); k++) {
+                        assertEquals(baseFactor.get(k, baseID), copiedFactor.get(k, id));
+                    }
+                }
+            }
+        }
+
+        AbstractFMModel<Label> grown = t.incrementalTrain(extraFeature, base);
+        LabelEvaluation evaluation = new LabelEvaluator().evaluate(grown, p.getB());
+        assertTrue(evaluation.accuracy() > 0.5);
+        Helpers.testModelSerialization(grown, Label.class);
+    }
+
     @Test
     public void testSparseData() {
         Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.sparseTrainTest();
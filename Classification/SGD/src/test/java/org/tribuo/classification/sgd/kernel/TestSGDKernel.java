@@ -16,15 +16,24 @@
 
 package org.tribuo.classification.sgd.kernel;
 
+import com.oracle.labs.mlrg.olcut.provenance.ConfiguredObjectProvenance;
+import com.oracle.labs.mlrg.olcut.provenance.impl.ConfiguredObjectProvenanceImpl;
 import com.oracle.labs.mlrg.olcut.util.Pair;
 import org.tribuo.Dataset;
 import org.tribuo.Model;
+import org.tribuo.Prediction;
 import org.tribuo.Trainer;
 import org.tribuo.classification.Label;
 import org.tribuo.classification.evaluation.LabelEvaluation;
 import org.tribuo.classification.evaluation.LabelEvaluator;
 import org.tribuo.classification.example.LabelledDataGenerator;
+import org.tribuo.math.kernel.DotProductKernel;
+import org.tribuo.math.kernel.Kernel;
+import org.tribuo.math.kernel.Linear;
+import org.tribuo.math.kernel.Polynomial;
 import org.tribuo.math.kernel.RBF;
+import org.tribuo.math.kernel.Sigmoid;
+import org.tribuo.math.la.SparseVector;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -97,4 +106,68 @@ public class TestSGDKernel {
         });
     }
 
+    @Test
+    public void testBatchPrediction() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.sparseTrainTest();
+        Kernel[] kernels = new Kernel[]{new Linear(), new RBF(1.0), new Polynomial(0.5,1.0,2.0), new Sigmoid(0.1,0.5)};
+        for (Kernel k : kernels) {
+            KernelSVMTrainer fastTrainer = new KernelSVMTrainer(k,1,5,1000,Trainer.DEFAULT_SEED);
+            KernelSVMTrainer slowTrainer = new KernelSVMTrainer(new PairwiseKernel(k),1,5,1000,Trainer.DEFAULT_SEED);
+            Assertions.assertTrue(k instanceof DotProductKernel);
+            KernelSVMModel fastModel = fastTrainer.train(p.getA());
+            KernelSVMModel slowModel = slowTrainer.train(p.getA());
+            Assertions.assertEquals(slowModel.getNumberOfSupportVectors(),fastModel.getNumberOfSupportVectors());
+
+            List<Prediction<Label>> batch = fastModel.predict(p.getB());
+            List<Prediction<Label>> expected = slowModel.predict(p.getB());
+            Assertions.assertEquals(expected.size(),batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Prediction<Label> single = fastModel.predict(p.getB().getExample(i));
+                for (Map.Entry<String,Label> e : expected.get(i).getOutputScores().entrySet()) {
+                    double expectedScore = e.getValue().getScore();
+                    Assertions.assertEquals(expectedScore,batch.get(i).getOutputScores().get(e.getKey()).getScore(),1e-10,k.toString());
+                    Assertions.assertEquals(expectedScore,single.getOutputScores().get(e.getKey()).getScore(),1e-10,k.toString());
+                }
+                Assertions.assertEquals(expected.get(i).getNumActiveFeatures(),batch.get(i).getNumActiveFeatures());
+            }
+        }
+    }
+
+    @Test
+    public void testKernelCache() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.denseTrainTest();
+        KernelSVMTrainer cached = new KernelSVMTrainer(new RBF(1.0),1,5,1000,Trainer.DEFAULT_SEED);
+        KernelSVMTrainer uncached = new KernelSVMTrainer(new RBF(1.0),1,5,1000,Trainer.DEFAULT_SEED);
+        uncached.setKernelCacheSize(0);
+        KernelSVMModel cachedModel = cached.train(p.getA());
+        KernelSVMModel uncachedModel = uncached.train(p.getA());
+        Assertions.assertEquals(uncachedModel.getNumberOfSupportVectors(),cachedModel.getNumberOfSupportVectors());
+        List<Prediction<Label>> cachedPreds = cachedModel.predict(p.getB());
+        List<Prediction<Label>> uncachedPreds = uncachedModel.predict(p.getB());
+        for (int i = 0; i < cachedPreds.size(); i++) {
+            Assertions.assertTrue(uncachedPreds.get(i).distributionEquals(cachedPreds.get(i)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> cached.setKernelCacheSize(-1));
+    }
+
+    /**
+     * Wraps a kernel, hiding its dot product support so models use the per support vector path.
+     */
+    private static final class PairwiseKernel implements Kernel {
+        private final Kernel kernel;
+
+        PairwiseKernel(Kernel kernel) {
+            this.kernel = kernel;
+        }
+
+        @Override
+        public double similarity(SparseVector first, SparseVector second) {
+            return kernel.similarity(first,second);
+        }
+
+        @Override
+        public ConfiguredObjectProvenance getProvenance() {
+            return new ConfiguredObjectProvenanceImpl(this,"Kernel");
+        }
+    }
 }
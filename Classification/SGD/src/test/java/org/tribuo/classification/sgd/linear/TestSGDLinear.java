@@ -24,7 +24,9 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.tribuo.Dataset;
 import org.tribuo.Example;
+import org.tribuo.Feature;
 import org.tribuo.Model;
+import org.tribuo.MutableDataset;
 import org.tribuo.Prediction;
 import org.tribuo.Trainer;
 import org.tribuo.VariableIDInfo;
@@ -33,36 +35,56 @@ import org.tribuo.classification.Label;
 import org.tribuo.classification.LabelFactory;
 import org.tribuo.classification.evaluation.LabelEvaluation;
 import org.tribuo.classification.evaluation.LabelEvaluator;
+import org.tribuo.classification.example.GaussianLabelDataSource;
 import org.tribuo.classification.example.LabelledDataGenerator;
 import org.tribuo.classification.sgd.objectives.Hinge;
 import org.tribuo.classification.sgd.objectives.LogMulticlass;
+import org.tribuo.common.sgd.AbstractLinearSGDModel;
 import org.tribuo.common.sgd.AbstractLinearSGDTrainer;
 import org.tribuo.common.sgd.AbstractSGDTrainer;
+import org.tribuo.common.sgd.LinearScoringBuffer;
 import org.tribuo.dataset.DatasetView;
+import org.tribuo.evaluation.CrossValidation;
+import org.tribuo.impl.ArrayExample;
+import org.tribuo.datasource.ListDataSource;
 import org.tribuo.interop.onnx.DenseTransformer;
 import org.tribuo.interop.onnx.LabelTransformer;
 import org.tribuo.interop.onnx.ONNXExternalModel;
+import org.tribuo.math.StochasticGradientOptimiser;
 import org.tribuo.math.optimisers.AdaGrad;
+import org.tribuo.math.optimisers.AdaGradRDA;
+import org.tribuo.math.optimisers.Adam;
+import org.tribuo.math.optimisers.SGD;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.tribuo.provenance.ModelProvenance;
+import org.tribuo.provenance.SimpleDataSourceProvenance;
+import org.tribuo.transform.TransformTrainer;
+import org.tribuo.transform.TransformationMap;
+import org.tribuo.transform.transformations.LinearScalingTransformation;
 import org.tribuo.test.Helpers;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -180,6 +202,54 @@ public class TestSGDLinear {
         Helpers.testModelSerialization(model,Label.class);
     }
 
+    @Test
+    public void testParallelPredict() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.denseTrainTest();
+        Model<Label> model = t.train(p.getA());
+        List<Prediction<Label>> sequential = model.predict(p.getB());
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        ForkJoinPool fjp = new ForkJoinPool(4);
+        try {
+            List<Prediction<Label>> pooled = model.predict(p.getB(), pool, 3);
+            List<Prediction<Label>> forkJoin = model.predict(p.getB(), fjp);
+            assertEquals(sequential.size(), pooled.size());
+            assertEquals(sequential.size(), forkJoin.size());
+            for (int i = 0; i < sequential.size(); i++) {
+                assertSame(sequential.get(i).getExample(), pooled.get(i).getExample());
+                assertEquals(sequential.get(i).getOutput().getLabel(), pooled.get(i).getOutput().getLabel());
+                assertEquals(sequential.get(i).getOutput().getScore(), pooled.get(i).getOutput().getScore());
+                assertSame(sequential.get(i).getExample(), forkJoin.get(i).getExample());
+                assertEquals(sequential.get(i).getOutput().getLabel(), forkJoin.get(i).getOutput().getLabel());
+            }
+            assertThrows(IllegalArgumentException.class, () -> model.predict(p.getB(), pool, 0));
+            assertThrows(IllegalArgumentException.class, () -> model.predict(Collections.singletonList(LabelledDataGenerator.invalidSparseExample()), pool));
+        } finally {
+            pool.shutdown();
+            fjp.shutdown();
+        }
+    }
+
+    @Test
+    public void testScoringBuffer() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.sparseTrainTest();
+        LinearSGDModel model = (LinearSGDModel) t.train(p.getA());
+        LinearScoringBuffer buffer = new LinearScoringBuffer(model.getOutputIDInfo().size(), 1);
+        for (Example<Label> example : p.getB()) {
+            Prediction<Label> prediction = model.predict(example);
+            model.score(example, buffer);
+            assertEquals(prediction.getNumActiveFeatures(), buffer.getNumActiveFeatures());
+            assertEquals(prediction.getOutput().getLabel(), model.getOutputIDInfo().getOutput(buffer.argmax()).getLabel());
+            double[] scores = buffer.getScores();
+            for (int i = 0; i < scores.length; i++) {
+                String name = model.getOutputIDInfo().getOutput(i).getLabel();
+                assertEquals(prediction.getOutputScores().get(name).getScore(), scores[i], 1e-12);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> model.score(LabelledDataGenerator.invalidSparseExample(), buffer));
+        assertThrows(IllegalArgumentException.class, () -> model.score(p.getB().getExample(0), new LinearScoringBuffer(1, 1)));
+    }
+
     @Test
     public void testSparseData() {
         Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.sparseTrainTest();
@@ -210,6 +280,191 @@ public class TestSGDLinear {
         });
     }
 
+    @Test
+    public void testSetInvocationCount() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.denseTrainTest();
+        LinearSGDTrainer trainer = new LinearSGDTrainer(new LogMulticlass(), new AdaGrad(0.1, 0.1), 5, 1000, Trainer.DEFAULT_SEED);
+        trainer.train(p.getA());
+        Model<Label> second = trainer.train(p.getA());
+        assertEquals(2, trainer.getInvocationCount());
+
+        // Replaying to invocation count one reproduces the second model.
+        Model<Label> replayed = trainer.train(p.getA(), Collections.emptyMap(), 1);
+        assertEquals(2, trainer.getInvocationCount());
+        List<Prediction<Label>> expected = second.predict(p.getB());
+        List<Prediction<Label>> actual = replayed.predict(p.getB());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue(expected.get(i).getOutput().fullEquals(actual.get(i).getOutput()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> trainer.setInvocationCount(-1));
+    }
+
+    @Test
+    public void testParallelCrossValidation() {
+        Dataset<Label> data = LabelledDataGenerator.denseTrainTest().getA();
+        LinearSGDTrainer sequentialTrainer = new LinearSGDTrainer(new LogMulticlass(), new AdaGrad(0.1, 0.1), 5, 1000, Trainer.DEFAULT_SEED);
+        LinearSGDTrainer parallelTrainer = new LinearSGDTrainer(new LogMulticlass(), new AdaGrad(0.1, 0.1), 5, 1000, Trainer.DEFAULT_SEED);
+        List<Pair<LabelEvaluation, Model<Label>>> sequential = new CrossValidation<>(sequentialTrainer, data, new LabelEvaluator(), 3, 1L).evaluate();
+        List<Pair<LabelEvaluation, Model<Label>>> parallel = new CrossValidation<>(parallelTrainer, data, new LabelEvaluator(), 3, 1L, 3).evaluate();
+        assertEquals(sequential.size(), parallel.size());
+        assertEquals(sequentialTrainer.getInvocationCount(), parallelTrainer.getInvocationCount());
+        for (int i = 0; i < sequential.size(); i++) {
+            List<Prediction<Label>> expected = sequential.get(i).getA().getPredictions();
+            List<Prediction<Label>> actual = parallel.get(i).getA().getPredictions();
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertTrue(expected.get(j).getOutput().fullEquals(actual.get(j).getOutput()));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CrossValidation<>(parallelTrainer, data, new LabelEvaluator(), 3, 1L, 0));
+    }
+
+    @Test
+    public void testParallelWrappedCrossValidation() {
+        // The transformed folds only contain the labels they observe, so use enough data to see both in each fold.
+        Dataset<Label> data = new MutableDataset<>(new GaussianLabelDataSource(300, 1L,
+                new double[]{0.0, 0.0}, new double[]{1.0, 0.0, 0.0, 1.0},
+                new double[]{3.0, 3.0}, new double[]{1.0, 0.5, 0.5, 1.0}));
+        TransformationMap transformations = new TransformationMap(Collections.singletonList(new LinearScalingTransformation()));
+        TransformTrainer<Label> sequentialTrainer = new TransformTrainer<>(new LinearSGDTrainer(new LogMulticlass(), new AdaGrad(0.1, 0.1), 5, 1000, Trainer.DEFAULT_SEED), transformations);
+        TransformTrainer<Label> parallelTrainer = new TransformTrainer<>(new LinearSGDTrainer(new LogMulticlass(), new AdaGrad(0.1, 0.1), 5, 1000, Trainer.DEFAULT_SEED), transformations);
+        assertTrue(parallelTrainer.supportsInvocationCount());
+        List<Pair<LabelEvaluation, Model<Label>>> sequential = new CrossValidation<>(sequentialTrainer, data, new LabelEvaluator(), 3, 1L).evaluate();
+        List<Pair<LabelEvaluation, Model<Label>>> parallel = new CrossValidation<>(parallelTrainer, data, new LabelEvaluator(), 3, 1L, 3).evaluate();
+        assertEquals(sequential.size(), parallel.size());
+        assertEquals(sequentialTrainer.getInvocationCount(), parallelTrainer.getInvocationCount());
+        for (int i = 0; i < sequential.size(); i++) {
+            List<Prediction<Label>> expected = sequential.get(i).getA().getPredictions();
+            List<Prediction<Label>> actual = parallel.get(i).getA().getPredictions();
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertTrue(expected.get(j).getOutput().fullEquals(actual.get(j).getOutput()));
+            }
+        }
+    }
+
+    @Test
+    public void testHogwildTraining() {
+        Dataset<Label> train = new MutableDataset<>(new GaussianLabelDataSource(2000, 1L,
+                new double[]{0.0, 0.0}, new double[]{1.0, 0.0, 0.0, 1.0},
+                new double[]{3.0, 3.0}, new double[]{1.0, 0.5, 0.5, 1.0}));
+        Dataset<Label> test = new MutableDataset<>(new GaussianLabelDataSource(500, 2L,
+                new double[]{0.0, 0.0}, new double[]{1.0, 0.0, 0.0, 1.0},
+                new double[]{3.0, 3.0}, new double[]{1.0, 0.5, 0.5, 1.0}));
+        LabelEvaluator evaluator = new LabelEvaluator();
+        for (StochasticGradientOptimiser optimiser : new StochasticGradientOptimiser[]{new AdaGrad(0.1, 0.1), new Adam(), SGD.getLinearDecaySGD(0.1)}) {
+            for (int minibatchSize : new int[]{1, 10}) {
+                LinearSGDTrainer sequential = new LinearSGDTrainer(new LogMulticlass(), optimiser, 5, -1, minibatchSize, Trainer.DEFAULT_SEED);
+                LinearSGDTrainer hogwild = new LinearSGDTrainer(new LogMulticlass(), optimiser, 5, -1, minibatchSize, Trainer.DEFAULT_SEED);
+                hogwild.setNumThreads(4);
+                double sequentialAccuracy = evaluator.evaluate(sequential.train(train), test).accuracy();
+                double hogwildAccuracy = evaluator.evaluate(hogwild.train(train), test).accuracy();
+                assertTrue(hogwildAccuracy > sequentialAccuracy - 0.05, optimiser + " Hogwild accuracy " + hogwildAccuracy + ", sequential accuracy " + sequentialAccuracy);
+            }
+        }
+        // Optimisers which don't support concurrent steps train on a single thread.
+        LinearSGDTrainer trainer = new LinearSGDTrainer(new LogMulticlass(), new AdaGradRDA(0.1, 0.1), 5, 1000, Trainer.DEFAULT_SEED);
+        trainer.setNumThreads(4);
+        assertTrue(evaluator.evaluate(trainer.train(train), test).accuracy() > 0.8);
+        assertThrows(IllegalArgumentException.class, () -> trainer.setNumThreads(0));
+    }
+
+    @Test
+    public void testSynchronousTraining() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.denseTrainTest();
+        Dataset<Label> train = p.getA();
+        // Synchronous training computes the same minibatch gradients, so produces the same model.
+        for (StochasticGradientOptimiser optimiser : new StochasticGradientOptimiser[]{new AdaGrad(0.1, 0.1), new AdaGradRDA(0.1, 0.1)}) {
+            LinearSGDTrainer sequential = new LinearSGDTrainer(new LogMulticlass(), optimiser, 5, 1000, 3, Trainer.DEFAULT_SEED);
+            LinearSGDTrainer synchronous = new LinearSGDTrainer(new LogMulticlass(), optimiser, 5, 1000, 3, Trainer.DEFAULT_SEED);
+            synchronous.setNumThreads(4);
+            synchronous.setParallelMode(AbstractSGDTrainer.ParallelMode.SYNCHRONOUS);
+            List<Prediction<Label>> expected = sequential.train(train).predict(p.getB());
+            List<Prediction<Label>> actual = synchronous.train(train).predict(p.getB());
+            for (int i = 0; i < expected.size(); i++) {
+                assertTrue(expected.get(i).getOutput().fullEquals(actual.get(i).getOutput()));
+            }
+        }
+    }
+
+    @Test
+    public void testIncrementalTraining() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.denseTrainTest();
+        Dataset<Label> train = p.getA();
+
+        // Resuming with the retained optimiser state is the same as training for more epochs.
+        LinearSGDTrainer twoEpochs = new LinearSGDTrainer(new LogMulticlass(), new AdaGrad(0.1, 0.1), 2, 1000, Trainer.DEFAULT_SEED);
+        twoEpochs.setShuffle(false);
+        LinearSGDTrainer oneEpoch = new LinearSGDTrainer(new LogMulticlass(), new AdaGrad(0.1, 0.1), 1, 1000, Trainer.DEFAULT_SEED);
+        oneEpoch.setShuffle(false);
+        oneEpoch.setRetainOptimiserState(true);
+        List<Prediction<Label>> expected = twoEpochs.train(train).predict(p.getB());
+        AbstractLinearSGDModel<Label> resumed = oneEpoch.incrementalTrain(train, oneEpoch.train(train));
+        List<Prediction<Label>> actual = resumed.predict(p.getB());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue(expected.get(i).getOutput().fullEquals(actual.get(i).getOutput()));
+        }
+
+        // New labels and features grow the domains.
+        MutableDataset<Label> noQuux = new MutableDataset<>(train.getProvenance(), train.getOutputFactory());
+        MutableDataset<Label> extraFeature = new MutableDataset<>(train.getProvenance(), train.getOutputFactory());
+        for (Example<Label> e : train) {
+            if (!e.getOutput().getLabel().equals("Quux")) {
+                noQuux.add(e);
+            }
+            Example<Label> copy = e.copy();
+            copy.add(new Feature("extra", 1.0));
+            extraFeature.add(copy);
+        }
+        AbstractLinearSGDModel<Label> base = t.train(noQuux);
+        assertEquals(3, base.getOutputIDInfo().size());
+        AbstractLinearSGDModel<Label> grown = t.incrementalTrain(extraFeature, base);
+        assertEquals(4, grown.getOutputIDInfo().size());
+        assertEquals(base.getFeatureIDMap().size() + 1, grown.getFeatureIDMap().size());
+        assertEquals(base.getFeatureIDMap().size() + 2, grown.getWeightsCopy().getDimension2Size());
+        LabelEvaluation evaluation = new LabelEvaluator().evaluate(grown, p.getB());
+        assertTrue(evaluation.recall(new Label("Quux")) > 0.0);
+        assertEquals(extraFeature.getProvenance(), grown.getProvenance().getDatasetProvenance());
+        Helpers.testModelSerialization(grown, Label.class);
+    }
+
+    @Test
+    public void testStreamingTraining() {
+        Pair<Dataset<Label>,Dataset<Label>> p = LabelledDataGenerator.sparseTrainTest();
+        Dataset<Label> train = p.getA();
+        ListDataSource<Label> source = new ListDataSource<>(new ArrayList<>(train.getData()), train.getOutputFactory(), new SimpleDataSourceProvenance("streaming-test", train.getOutputFactory()));
+
+        // Without shuffling the streaming path visits the examples in the same order, so produces the same model.
+        for (int minibatchSize : new int[]{1, 3}) {
+            LinearSGDTrainer inMemory = new LinearSGDTrainer(new LogMulticlass(), new AdaGrad(0.1, 0.1), 5, 1000, minibatchSize, Trainer.DEFAULT_SEED);
+            inMemory.setShuffle(false);
+            LinearSGDTrainer streaming = new LinearSGDTrainer(new LogMulticlass(), new AdaGrad(0.1, 0.1), 5, 1000, minibatchSize, Trainer.DEFAULT_SEED);
+            streaming.setShuffle(false);
+            Model<Label> expected = inMemory.train(train);
+            Model<Label> actual = streaming.train(source, train.getFeatureIDMap(), train.getOutputIDInfo());
+            List<Prediction<Label>> expectedPredictions = expected.predict(p.getB());
+            List<Prediction<Label>> actualPredictions = actual.predict(p.getB());
+            for (int i = 0; i < expectedPredictions.size(); i++) {
+                assertTrue(expectedPredictions.get(i).getOutput().fullEquals(actualPredictions.get(i).getOutput()));
+            }
+            assertEquals(train.size(), actual.getProvenance().getDatasetProvenance().getNumExamples());
+        }
+
+        // A buffer smaller than the data source still trains a usable model.
+        LinearSGDTrainer buffered = new LinearSGDTrainer(new LogMulticlass(), new AdaGrad(0.1, 0.1), 5, 1000, Trainer.DEFAULT_SEED);
+        buffered.setShuffleBufferSize(5);
+        Model<Label> model = buffered.train(source, train.getFeatureIDMap(), train.getOutputIDInfo());
+        LabelEvaluation evaluation = new LabelEvaluator().evaluate(model, p.getB());
+        assertEquals(p.getB().size(), evaluation.getPredictions().size());
+        assertThrows(IllegalArgumentException.class, () -> buffered.setShuffleBufferSize(0));
+
+        // Unknown outputs are rejected.
+        List<Example<Label>> unknown = new ArrayList<>(train.getData());
+        unknown.add(new ArrayExample<>(LabelFactory.UNKNOWN_LABEL, unknown.get(0), 1.0f));
+        ListDataSource<Label> unknownSource = new ListDataSource<>(unknown, train.getOutputFactory(), new SimpleDataSourceProvenance("unknown-test", train.getOutputFactory()));
+        assertThrows(IllegalArgumentException.class, () -> buffered.train(unknownSource, train.getFeatureIDMap(), train.getOutputIDInfo()));
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"label-linear-sgd-4.0.2.model"})
     public void testSerializedModel(String resourceName) throws IOException, ClassNotFoundException {
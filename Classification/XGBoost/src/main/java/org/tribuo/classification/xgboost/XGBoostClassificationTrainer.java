@@ -34,6 +34,7 @@ import ml.dmlc.xgboost4j.java.XGBoostError;
 
 import java.time.OffsetDateTime;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.logging.Level;
@@ -175,20 +176,33 @@ public final class XGBoostClassificationTrainer extends XGBoostTrainer<Label> {
     }
 
     @Override
-    public synchronized XGBoostModel<Label> train(Dataset<Label> examples, Map<String, Provenance> runProvenance) {
+    public XGBoostModel<Label> train(Dataset<Label> examples, Map<String, Provenance> runProvenance) {
+        return train(examples, runProvenance, INCREMENT_INVOCATION_COUNT);
+    }
+
+    @Override
+    public XGBoostModel<Label> train(Dataset<Label> examples, Map<String, Provenance> runProvenance, int invocationCount) {
         if (examples.getOutputInfo().getUnknownCount() > 0) {
             throw new IllegalArgumentException("The supplied Dataset contained unknown Outputs, and this Trainer is supervised.");
         }
         ImmutableFeatureMap featureMap = examples.getFeatureIDMap();
         ImmutableOutputInfo<Label> outputInfo = examples.getOutputIDInfo();
-        TrainerProvenance trainerProvenance = getProvenance();
-        trainInvocationCounter++;
-        parameters.put("num_class", outputInfo.size());
+        TrainerProvenance trainerProvenance;
+        synchronized (this) {
+            if (invocationCount != INCREMENT_INVOCATION_COUNT) {
+                setInvocationCount(invocationCount);
+            }
+            trainerProvenance = getProvenance();
+            trainInvocationCounter++;
+        }
+        // Copy the parameters so concurrent calls to train don't share the number of classes.
+        Map<String, Object> localParameters = new HashMap<>(parameters);
+        localParameters.put("num_class", outputInfo.size());
         Booster model;
         Function<Label,Float> responseExtractor = (Label l) -> (float) outputInfo.getID(l);
         try {
             DMatrixTuple<Label> trainingData = convertExamples(examples, featureMap, responseExtractor);
-            model = XGBoost.train(trainingData.data, parameters, numTrees, Collections.emptyMap(), null, null);
+            model = XGBoost.train(trainingData.data, localParameters, numTrees, Collections.emptyMap(), null, null);
         } catch (XGBoostError e) {
             logger.log(Level.SEVERE, "XGBoost threw an error", e);
             throw new IllegalStateException(e);
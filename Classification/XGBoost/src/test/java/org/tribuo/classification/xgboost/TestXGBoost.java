@@ -28,6 +28,7 @@ import org.tribuo.classification.LabelFactory;
 import org.tribuo.classification.evaluation.LabelEvaluation;
 import org.tribuo.classification.evaluation.LabelEvaluator;
 import org.tribuo.classification.example.LabelledDataGenerator;
+import org.tribuo.common.xgboost.XGBoostBatchPredictor;
 import org.tribuo.common.xgboost.XGBoostFeatureImportance;
 import org.tribuo.common.xgboost.XGBoostModel;
 import org.tribuo.common.xgboost.XGBoostTrainer;
@@ -48,10 +49,18 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -251,4 +260,71 @@ public class TestXGBoost {
             m.predict(LabelledDataGenerator.emptyExample());
         });
     }
+
+    @Test
+    public void testBatchPredictor() throws InterruptedException, ExecutionException {
+        Pair<Dataset<Label>, Dataset<Label>> p = LabelledDataGenerator.denseTrainTest();
+        XGBoostModel<Label> m = (XGBoostModel<Label>) t.train(p.getA());
+        List<Prediction<Label>> expected = m.predict(p.getB());
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try (XGBoostBatchPredictor<Label> predictor = m.createBatchPredictor(8,1000,16)) {
+            List<Future<Prediction<Label>>> futures = new ArrayList<>();
+            for (Example<Label> e : p.getB()) {
+                futures.add(pool.submit(() -> predictor.predict(e)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Prediction<Label> pred = futures.get(i).get();
+                assertEquals(expected.get(i).getOutput().getLabel(), pred.getOutput().getLabel());
+                assertEquals(expected.get(i).getOutput().getScore(), pred.getOutput().getScore(), 1e-6);
+            }
+
+            // An invalid example fails its own request without affecting the rest of the batch.
+            CompletableFuture<Prediction<Label>> invalid = predictor.submit(LabelledDataGenerator.emptyExample());
+            CompletableFuture<Prediction<Label>> valid = predictor.submit(p.getB().getExample(0));
+            ExecutionException ex = assertThrows(ExecutionException.class, invalid::get);
+            assertTrue(ex.getCause() instanceof IllegalArgumentException);
+            assertEquals(expected.get(0).getOutput().getLabel(), valid.get().getOutput().getLabel());
+            assertThrows(IllegalArgumentException.class, () -> predictor.predict(LabelledDataGenerator.emptyExample()));
+
+            predictor.close();
+            assertThrows(IllegalStateException.class, () -> predictor.predict(p.getB().getExample(0)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testBatchPredictorCloseReleasesSubmitters() throws InterruptedException {
+        Pair<Dataset<Label>, Dataset<Label>> p = LabelledDataGenerator.denseTrainTest();
+        XGBoostModel<Label> m = (XGBoostModel<Label>) t.train(p.getA());
+        Example<Label> example = p.getB().getExample(0);
+
+        // A single slot queue with many submitters means most callers are blocked waiting for space when it closes.
+        XGBoostBatchPredictor<Label> predictor = m.createBatchPredictor(1,0,1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<List<CompletableFuture<Prediction<Label>>>>> submitters = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            submitters.add(pool.submit(() -> {
+                List<CompletableFuture<Prediction<Label>>> futures = new ArrayList<>();
+                for (int j = 0; j < 200; j++) {
+                    futures.add(predictor.submit(example));
+                }
+                return futures;
+            }));
+        }
+        Thread.sleep(50);
+        predictor.close();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS), "Submitters blocked after close");
+        for (Future<List<CompletableFuture<Prediction<Label>>>> f : submitters) {
+            List<CompletableFuture<Prediction<Label>>> futures = assertDoesNotThrow(() -> f.get());
+            for (CompletableFuture<Prediction<Label>> future : futures) {
+                assertTrue(future.isDone());
+            }
+        }
+        CompletableFuture<Prediction<Label>> afterClose = predictor.submit(example);
+        ExecutionException ex = assertThrows(ExecutionException.class, afterClose::get);
+        assertTrue(ex.getCause() instanceof IllegalStateException);
+    }
 }
@@ -19,6 +19,7 @@ package org.tribuo.clustering.kmeans;
 import com.oracle.labs.mlrg.olcut.config.Option;
 import com.oracle.labs.mlrg.olcut.config.Options;
 import org.tribuo.Trainer;
+import org.tribuo.clustering.kmeans.KMeansTrainer.Algorithm;
 import org.tribuo.clustering.kmeans.KMeansTrainer.Distance;
 import org.tribuo.clustering.kmeans.KMeansTrainer.Initialisation;
 
@@ -57,6 +58,16 @@ public class KMeansOptions implements Options {
     public int numThreads = 4;
     @Option(longName = "kmeans-seed", usage = "Sets the random seed for K-Means.")
     private long seed = Trainer.DEFAULT_SEED;
+    /**
+     * Training algorithm in K-Means. Defaults to LLOYD.
+     */
+    @Option(longName = "kmeans-algorithm", usage = "Training algorithm in K-Means. Defaults to LLOYD.")
+    public Algorithm algorithm = Algorithm.LLOYD;
+    /**
+     * Number of examples sampled per iteration of mini-batch K-Means. Defaults to 1024.
+     */
+    @Option(longName = "kmeans-mini-batch-size", usage = "Number of examples sampled per iteration of mini-batch K-Means. Defaults to 1024.")
+    public int miniBatchSize = KMeansTrainer.DEFAULT_MINI_BATCH_SIZE;
 
     /**
      * Gets the configured KMeansTrainer using the options in this object.
@@ -65,6 +76,6 @@ public class KMeansOptions implements Options {
     public KMeansTrainer getTrainer() {
         logger.info("Configuring K-Means Trainer");
         //public KMeansTrainer(int centroids, int iterations, Distance distanceType, int numThreads, int seed) {
-        return new KMeansTrainer(centroids, iterations, distance, initialisation, numThreads, seed);
+        return new KMeansTrainer(centroids, iterations, distance, initialisation, numThreads, seed, algorithm, miniBatchSize);
     }
 }
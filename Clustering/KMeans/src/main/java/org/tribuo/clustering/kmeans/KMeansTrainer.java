@@ -16,6 +16,7 @@
 package org.tribuo.clustering.kmeans;
 
 import com.oracle.labs.mlrg.olcut.config.Config;
+import com.oracle.labs.mlrg.olcut.config.PropertyException;
 import com.oracle.labs.mlrg.olcut.provenance.Provenance;
 import com.oracle.labs.mlrg.olcut.util.MutableLong;
 import com.oracle.labs.mlrg.olcut.util.StreamUtil;
@@ -76,6 +77,20 @@ import java.util.stream.Stream;
  * "K-Means++: The Advantages of Careful Seeding"
  * <a href="https://theory.stanford.edu/~sergei/papers/kMeansPP-soda">PDF</a>
  * </pre>
+ * <p>
+ * For more on the optional triangle inequality accelerated assignment, see:
+ * <pre>
+ * G. Hamerly.
+ * "Making k-means Even Faster"
+ * Proceedings of the 2010 SIAM International Conference on Data Mining.
+ * </pre>
+ * <p>
+ * For more on the optional mini-batch training, see:
+ * <pre>
+ * D. Sculley.
+ * "Web-Scale K-Means Clustering"
+ * Proceedings of the 19th International Conference on World Wide Web, 2010.
+ * </pre>
  */
 public class KMeansTrainer implements Trainer<ClusterID> {
     private static final Logger logger = Logger.getLogger(KMeansTrainer.class.getName());
@@ -113,6 +128,33 @@ public class KMeansTrainer implements Trainer<ClusterID> {
         PLUSPLUS
     }
 
+    /**
+     * Possible training algorithms.
+     */
+    public enum Algorithm {
+        /**
+         * Lloyd's algorithm, which measures the distance from every vector to every centroid on each iteration.
+         */
+        LLOYD,
+        /**
+         * Lloyd's algorithm with Hamerly's triangle inequality bounds, which skips the distance computations for
+         * vectors which provably cannot change cluster. Produces the same clustering as {@link #LLOYD} (up to ties),
+         * and requires a metric distance so does not support {@link Distance#COSINE}.
+         */
+        HAMERLY,
+        /**
+         * Mini-batch k-means, which updates the centroids using a random sample of the vectors on each iteration.
+         * Each iteration costs time proportional to the batch size rather than the dataset size, and the iterations
+         * run to completion as there is no convergence check.
+         */
+        MINI_BATCH
+    }
+
+    /**
+     * The default mini-batch size.
+     */
+    public static final int DEFAULT_MINI_BATCH_SIZE = 1024;
+
     @Config(mandatory = true, description = "Number of centroids (i.e., the \"k\" in k-means).")
     private int centroids;
 
@@ -131,6 +173,12 @@ public class KMeansTrainer implements Trainer<ClusterID> {
     @Config(mandatory = true, description = "The seed to use for the RNG.")
     private long seed;
 
+    @Config(description = "The training algorithm to use.")
+    private Algorithm algorithm = Algorithm.LLOYD;
+
+    @Config(description = "The number of vectors sampled on each iteration of mini-batch training.")
+    private int miniBatchSize = DEFAULT_MINI_BATCH_SIZE;
+
     private SplittableRandom rng;
 
     private int trainInvocationCounter;
@@ -165,12 +213,31 @@ public class KMeansTrainer implements Trainer<ClusterID> {
      * @param seed The random seed.
      */
     public KMeansTrainer(int centroids, int iterations, Distance distanceType, Initialisation initialisationType, int numThreads, long seed) {
+        this(centroids,iterations,distanceType,initialisationType,numThreads,seed,Algorithm.LLOYD,DEFAULT_MINI_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a K-Means trainer using the supplied parameters.
+     *
+     * @param centroids The number of centroids to use.
+     * @param iterations The maximum number of iterations, or the number of mini-batches for {@link Algorithm#MINI_BATCH}.
+     * @param distanceType The distance function.
+     * @param initialisationType The centroid initialization method.
+     * @param numThreads The number of threads.
+     * @param seed The random seed.
+     * @param algorithm The training algorithm.
+     * @param miniBatchSize The number of vectors sampled on each iteration of mini-batch training.
+     */
+    public KMeansTrainer(int centroids, int iterations, Distance distanceType, Initialisation initialisationType, int numThreads, long seed,
+                         Algorithm algorithm, int miniBatchSize) {
         this.centroids = centroids;
         this.iterations = iterations;
         this.distanceType = distanceType;
         this.initialisationType = initialisationType;
         this.numThreads = numThreads;
         this.seed = seed;
+        this.algorithm = algorithm;
+        this.miniBatchSize = miniBatchSize;
         postConfig();
     }
 
@@ -179,15 +246,29 @@ public class KMeansTrainer implements Trainer<ClusterID> {
      */
     @Override
     public synchronized void postConfig() {
+        if ((algorithm == Algorithm.HAMERLY) && (distanceType == Distance.COSINE)) {
+            throw new PropertyException("","algorithm","The HAMERLY algorithm requires a metric distance, and does not support COSINE.");
+        }
+        if (miniBatchSize < 1) {
+            throw new PropertyException("","miniBatchSize","miniBatchSize must be positive, found " + miniBatchSize);
+        }
         this.rng = new SplittableRandom(seed);
     }
 
     @Override
     public KMeansModel train(Dataset<ClusterID> examples, Map<String, Provenance> runProvenance) {
+        return train(examples, runProvenance, INCREMENT_INVOCATION_COUNT);
+    }
+
+    @Override
+    public KMeansModel train(Dataset<ClusterID> examples, Map<String, Provenance> runProvenance, int invocationCount) {
         // Creates a new local RNG and adds one to the invocation count.
         TrainerProvenance trainerProvenance;
         SplittableRandom localRNG;
         synchronized (this) {
+            if (invocationCount != INCREMENT_INVOCATION_COUNT) {
+                setInvocationCount(invocationCount);
+            }
             localRNG = rng.split();
             trainerProvenance = getProvenance();
             trainInvocationCounter++;
@@ -224,6 +305,49 @@ public class KMeansTrainer implements Trainer<ClusterID> {
             clusterAssignments.put(i, Collections.synchronizedList(new ArrayList<>()));
         }
 
+        try {
+            switch (algorithm) {
+                case LLOYD:
+                    lloyd(fjp, centroidVectors, clusterAssignments, data, weights, oldCentre);
+                    break;
+                case HAMERLY:
+                    hamerly(fjp, centroidVectors, clusterAssignments, data, weights, oldCentre);
+                    break;
+                case MINI_BATCH:
+                    miniBatch(fjp, centroidVectors, clusterAssignments, data, weights, localRNG);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown algorithm " + algorithm);
+            }
+        } finally {
+            fjp.shutdown();
+        }
+
+        Map<Integer, MutableLong> counts = new HashMap<>();
+        for (Entry<Integer, List<Integer>> e : clusterAssignments.entrySet()) {
+            counts.put(e.getKey(), new MutableLong(e.getValue().size()));
+        }
+
+        ImmutableOutputInfo<ClusterID> outputMap = new ImmutableClusteringInfo(counts);
+
+        ModelProvenance provenance = new ModelProvenance(KMeansModel.class.getName(), OffsetDateTime.now(),
+                examples.getProvenance(), trainerProvenance, runProvenance);
+
+        return new KMeansModel("", provenance, featureMap, outputMap, centroidVectors, distanceType);
+    }
+
+    /**
+     * Runs Lloyd's algorithm, measuring the distance from every vector to every centroid on each iteration.
+     *
+     * @param fjp The thread pool.
+     * @param centroidVectors The centroids, updated in place.
+     * @param clusterAssignments The cluster assignments, updated in place.
+     * @param data The vectors.
+     * @param weights The vector weights.
+     * @param oldCentre The current cluster of each vector, or -1 if it is unassigned.
+     */
+    private void lloyd(ForkJoinPool fjp, DenseVector[] centroidVectors, Map<Integer, List<Integer>> clusterAssignments,
+                       SparseVector[] data, double[] weights, int[] oldCentre) {
         boolean converged = false;
 
         for (int i = 0; (i < iterations) && !converged; i++) {
@@ -279,18 +403,224 @@ public class KMeansTrainer implements Trainer<ClusterID> {
                 logger.log(Level.INFO, "K-Means converged at iteration " + i);
             }
         }
+    }
 
-        Map<Integer, MutableLong> counts = new HashMap<>();
-        for (Entry<Integer, List<Integer>> e : clusterAssignments.entrySet()) {
-            counts.put(e.getKey(), new MutableLong(e.getValue().size()));
+    /**
+     * Runs Lloyd's algorithm using Hamerly's bounds to skip distance computations.
+     * <p>
+     * Each vector tracks an upper bound on the distance to its centroid, and a lower bound
+     * on the distance to every other centroid. If the upper bound is no greater than both
+     * the lower bound and half the distance from its centroid to the nearest other centroid,
+     * then the vector cannot change cluster and is skipped. After each M step the bounds are
+     * loosened by the distances the centroids moved.
+     *
+     * @param fjp The thread pool.
+     * @param centroidVectors The centroids, updated in place.
+     * @param clusterAssignments The cluster assignments, updated in place.
+     * @param data The vectors.
+     * @param weights The vector weights.
+     * @param oldCentre The current cluster of each vector, or -1 if it is unassigned.
+     */
+    private void hamerly(ForkJoinPool fjp, DenseVector[] centroidVectors, Map<Integer, List<Integer>> clusterAssignments,
+                         SparseVector[] data, double[] weights, int[] oldCentre) {
+        double[] upperBound = new double[data.length];
+        double[] lowerBound = new double[data.length];
+        double[] halfNearestCentroid = new double[centroids];
+        double[] movement = new double[centroids];
+        DenseVector[] previousCentroids = new DenseVector[centroids];
+
+        boolean converged = false;
+
+        for (int i = 0; (i < iterations) && !converged; i++) {
+            AtomicInteger changeCounter = new AtomicInteger(0);
+            AtomicInteger skipCounter = new AtomicInteger(0);
+
+            for (Entry<Integer, List<Integer>> e : clusterAssignments.entrySet()) {
+                e.getValue().clear();
+            }
+
+            for (int j = 0; j < centroids; j++) {
+                double minDist = Double.POSITIVE_INFINITY;
+                for (int k = 0; k < centroids; k++) {
+                    if (j != k) {
+                        minDist = Math.min(minDist, getDistance(centroidVectors[j], centroidVectors[k], distanceType));
+                    }
+                }
+                halfNearestCentroid[j] = minDist / 2.0;
+            }
+
+            // E step
+            Stream<Integer> idxStream;
+            if (numThreads > 1) {
+                idxStream = StreamUtil.boundParallelism(IntStream.range(0, data.length).boxed().parallel());
+            } else {
+                idxStream = IntStream.range(0, data.length).boxed();
+            }
+            try {
+                fjp.submit(() -> idxStream.forEach((Integer id) -> {
+                    int curCentre = oldCentre[id];
+                    SparseVector vector = data[id];
+                    if (curCentre != -1) {
+                        double bound = Math.max(halfNearestCentroid[curCentre], lowerBound[id]);
+                        if (upperBound[id] > bound) {
+                            // Tighten the upper bound and check again.
+                            upperBound[id] = getDistance(centroidVectors[curCentre], vector, distanceType);
+                        }
+                        if (upperBound[id] <= bound) {
+                            clusterAssignments.get(curCentre).add(id);
+                            skipCounter.incrementAndGet();
+                            return;
+                        }
+                    }
+                    double minDist = Double.POSITIVE_INFINITY;
+                    double secondDist = Double.POSITIVE_INFINITY;
+                    int clusterID = -1;
+                    for (int j = 0; j < centroids; j++) {
+                        double distance = getDistance(centroidVectors[j], vector, distanceType);
+                        if (distance < minDist) {
+                            secondDist = minDist;
+                            minDist = distance;
+                            clusterID = j;
+                        } else if (distance < secondDist) {
+                            secondDist = distance;
+                        }
+                    }
+                    upperBound[id] = minDist;
+                    lowerBound[id] = secondDist;
+
+                    clusterAssignments.get(clusterID).add(id);
+                    if (curCentre != clusterID) {
+                        // Changed the centroid of this vector.
+                        oldCentre[id] = clusterID;
+                        changeCounter.incrementAndGet();
+                    }
+                })).get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException("Parallel execution failed", e);
+            }
+
+            for (int j = 0; j < centroids; j++) {
+                previousCentroids[j] = centroidVectors[j].copy();
+            }
+
+            mStep(fjp, centroidVectors, clusterAssignments, data, weights);
+
+            int maxMovedCentroid = -1;
+            double maxMovement = 0.0;
+            double secondMaxMovement = 0.0;
+            for (int j = 0; j < centroids; j++) {
+                movement[j] = getDistance(previousCentroids[j], centroidVectors[j], distanceType);
+                if (movement[j] > maxMovement) {
+                    secondMaxMovement = maxMovement;
+                    maxMovement = movement[j];
+                    maxMovedCentroid = j;
+                } else if (movement[j] > secondMaxMovement) {
+                    secondMaxMovement = movement[j];
+                }
+            }
+            for (int id = 0; id < data.length; id++) {
+                int curCentre = oldCentre[id];
+                upperBound[id] += movement[curCentre];
+                lowerBound[id] -= curCentre == maxMovedCentroid ? secondMaxMovement : maxMovement;
+            }
+
+            logger.log(Level.INFO, "Iteration " + i + " completed. " + changeCounter.get() + " examples updated, "
+                    + skipCounter.get() + " examples skipped.");
+
+            if (changeCounter.get() == 0) {
+                converged = true;
+                logger.log(Level.INFO, "K-Means converged at iteration " + i);
+            }
         }
+    }
 
-        ImmutableOutputInfo<ClusterID> outputMap = new ImmutableClusteringInfo(counts);
+    /**
+     * Runs mini-batch k-means, then assigns every vector to its nearest centroid.
+     * <p>
+     * Each iteration samples {@code miniBatchSize} vectors with replacement, finds their nearest
+     * centroids, then moves each centroid towards its sampled vectors using a per centroid learning
+     * rate of the vector weight divided by the total weight the centroid has been assigned so far.
+     *
+     * @param fjp The thread pool.
+     * @param centroidVectors The centroids, updated in place.
+     * @param clusterAssignments The cluster assignments, updated in place.
+     * @param data The vectors.
+     * @param weights The vector weights.
+     * @param rng The RNG used to sample the mini-batches.
+     */
+    private void miniBatch(ForkJoinPool fjp, DenseVector[] centroidVectors, Map<Integer, List<Integer>> clusterAssignments,
+                           SparseVector[] data, double[] weights, SplittableRandom rng) {
+        double[] centroidWeights = new double[centroids];
+        int batchSize = Math.min(miniBatchSize, data.length);
+        int[] batch = new int[batchSize];
+        int[] batchAssignments = new int[batchSize];
+
+        for (int i = 0; i < iterations; i++) {
+            for (int j = 0; j < batchSize; j++) {
+                batch[j] = rng.nextInt(data.length);
+            }
 
-        ModelProvenance provenance = new ModelProvenance(KMeansModel.class.getName(), OffsetDateTime.now(),
-                examples.getProvenance(), trainerProvenance, runProvenance);
+            // Assign the batch in parallel, then update the centroids sequentially so the result is deterministic.
+            Stream<Integer> idxStream;
+            if (numThreads > 1) {
+                idxStream = StreamUtil.boundParallelism(IntStream.range(0, batchSize).boxed().parallel());
+            } else {
+                idxStream = IntStream.range(0, batchSize).boxed();
+            }
+            try {
+                fjp.submit(() -> idxStream.forEach((Integer j) -> batchAssignments[j] = nearestCentroid(centroidVectors, data[batch[j]]))).get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException("Parallel execution failed", e);
+            }
 
-        return new KMeansModel("", provenance, featureMap, outputMap, centroidVectors, distanceType);
+            for (int j = 0; j < batchSize; j++) {
+                int clusterID = batchAssignments[j];
+                double weight = weights[batch[j]];
+                centroidWeights[clusterID] += weight;
+                if (centroidWeights[clusterID] > 0.0) {
+                    double learningRate = weight / centroidWeights[clusterID];
+                    DenseVector centroid = centroidVectors[clusterID];
+                    centroid.scaleInPlace(1.0 - learningRate);
+                    centroid.intersectAndAddInPlace(data[batch[j]], (double f) -> f * learningRate);
+                }
+            }
+
+            logger.log(Level.FINE, "Mini-batch iteration " + i + " completed.");
+        }
+
+        // Final assignment of every vector, used to compute the cluster sizes.
+        Stream<Integer> idxStream;
+        if (numThreads > 1) {
+            idxStream = StreamUtil.boundParallelism(IntStream.range(0, data.length).boxed().parallel());
+        } else {
+            idxStream = IntStream.range(0, data.length).boxed();
+        }
+        try {
+            fjp.submit(() -> idxStream.forEach((Integer id) -> clusterAssignments.get(nearestCentroid(centroidVectors, data[id])).add(id))).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Parallel execution failed", e);
+        }
+        logger.log(Level.INFO, "Mini-batch K-Means completed " + iterations + " iterations.");
+    }
+
+    /**
+     * Finds the nearest centroid to the vector.
+     *
+     * @param centroidVectors The centroids.
+     * @param vector The vector.
+     * @return The index of the nearest centroid.
+     */
+    private int nearestCentroid(DenseVector[] centroidVectors, SGDVector vector) {
+        double minDist = Double.POSITIVE_INFINITY;
+        int clusterID = -1;
+        for (int j = 0; j < centroidVectors.length; j++) {
+            double distance = getDistance(centroidVectors[j], vector, distanceType);
+            if (distance < minDist) {
+                minDist = distance;
+                clusterID = j;
+            }
+        }
+        return clusterID;
     }
 
     @Override
@@ -303,6 +633,22 @@ public class KMeansTrainer implements Trainer<ClusterID> {
         return trainInvocationCounter;
     }
 
+    @Override
+    public boolean supportsInvocationCount() {
+        return true;
+    }
+
+    @Override
+    public synchronized void setInvocationCount(int invocationCount) {
+        if (invocationCount < 0) {
+            throw new IllegalArgumentException("The supplied invocationCount is less than zero.");
+        }
+        rng = new SplittableRandom(seed);
+        for (trainInvocationCounter = 0; trainInvocationCounter < invocationCount; trainInvocationCounter++) {
+            rng.split();
+        }
+    }
+
     /**
      * Initialisation method called at the start of each train call when using the default centroid initialisation.
      * Centroids are initialised using a uniform random sample from the feature domain.
@@ -470,7 +816,7 @@ public class KMeansTrainer implements Trainer<ClusterID> {
 
     @Override
     public String toString() {
-        return "KMeansTrainer(centroids=" + centroids + ",distanceType=" + distanceType + ",seed=" + seed + ",numThreads=" + numThreads + ")";
+        return "KMeansTrainer(centroids=" + centroids + ",distanceType=" + distanceType + ",seed=" + seed + ",numThreads=" + numThreads + ",algorithm=" + algorithm + ")";
     }
 
     @Override
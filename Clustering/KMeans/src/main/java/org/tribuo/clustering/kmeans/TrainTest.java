@@ -27,6 +27,7 @@ import org.tribuo.Model;
 import org.tribuo.clustering.ClusterID;
 import org.tribuo.clustering.ClusteringFactory;
 import org.tribuo.clustering.evaluation.ClusteringEvaluation;
+import org.tribuo.clustering.kmeans.KMeansTrainer.Algorithm;
 import org.tribuo.clustering.kmeans.KMeansTrainer.Distance;
 import org.tribuo.clustering.kmeans.KMeansTrainer.Initialisation;
 import org.tribuo.data.DataOptions;
@@ -81,6 +82,16 @@ public class TrainTest {
          */
         @Option(charName = 't', longName = "num-threads", usage = "Number of threads to use (range (1, num hw threads)).")
         public int numThreads = 4;
+        /**
+         * Training algorithm to use.
+         */
+        @Option(longName = "algorithm", usage = "Training algorithm to use.")
+        public Algorithm algorithm = Algorithm.LLOYD;
+        /**
+         * Number of examples sampled per iteration of mini-batch training.
+         */
+        @Option(longName = "mini-batch-size", usage = "Number of examples sampled per iteration of mini-batch training.")
+        public int miniBatchSize = KMeansTrainer.DEFAULT_MINI_BATCH_SIZE;
     }
 
     /**
@@ -114,7 +125,7 @@ public class TrainTest {
 
         //public KMeansTrainer(int centroids, int iterations, Distance distanceType, int numThreads, int seed)
         KMeansTrainer trainer = new KMeansTrainer(o.centroids,o.iterations,
-                o.distance,o.initialisation,o.numThreads,o.general.seed);
+                o.distance,o.initialisation,o.numThreads,o.general.seed,o.algorithm,o.miniBatchSize);
         Model<ClusterID> model = trainer.train(train);
         logger.info("Finished training model");
         ClusteringEvaluation evaluation = factory.getEvaluator().evaluate(model,train);
@@ -16,25 +16,39 @@
 
 package org.tribuo.clustering.kmeans;
 
+import com.oracle.labs.mlrg.olcut.config.PropertyException;
 import com.oracle.labs.mlrg.olcut.util.Pair;
 import org.tribuo.Dataset;
 import org.tribuo.Model;
 import org.tribuo.MutableDataset;
+import org.tribuo.Trainer;
 import org.tribuo.clustering.ClusterID;
 import org.tribuo.clustering.evaluation.ClusteringEvaluation;
 import org.tribuo.clustering.evaluation.ClusteringEvaluator;
 import org.tribuo.clustering.example.ClusteringDataGenerator;
 import org.tribuo.clustering.example.GaussianClusterDataSource;
+import org.tribuo.clustering.kmeans.KMeansTrainer.Algorithm;
 import org.tribuo.clustering.kmeans.KMeansTrainer.Distance;
+import org.tribuo.math.la.DenseVector;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.tribuo.test.Helpers;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Smoke tests for k-means.
@@ -47,6 +61,12 @@ public class TestKMeans {
     private static final KMeansTrainer plusPlus = new KMeansTrainer(4,10,  Distance.EUCLIDEAN,
             KMeansTrainer.Initialisation.PLUSPLUS, 1,1);
 
+    private static final KMeansTrainer hamerly = new KMeansTrainer(4,10, Distance.EUCLIDEAN,
+            KMeansTrainer.Initialisation.PLUSPLUS, 1,1, Algorithm.HAMERLY, KMeansTrainer.DEFAULT_MINI_BATCH_SIZE);
+
+    private static final KMeansTrainer miniBatch = new KMeansTrainer(4,50, Distance.EUCLIDEAN,
+            KMeansTrainer.Initialisation.PLUSPLUS, 1,1, Algorithm.MINI_BATCH, 100);
+
     @BeforeAll
     public static void setup() {
         Logger logger = Logger.getLogger(KMeansTrainer.class.getName());
@@ -163,4 +183,103 @@ public class TestKMeans {
             plusPlus.train(data);
         });
     }
+
+    @Test
+    public void testHamerlyEvaluation() {
+        runEvaluation(hamerly);
+    }
+
+    @Test
+    public void testMiniBatchEvaluation() {
+        runEvaluation(miniBatch);
+    }
+
+    @Test
+    public void testHamerlySparseData() {
+        runSparseData(hamerly);
+    }
+
+    @Test
+    public void testMiniBatchSparseData() {
+        runSparseData(miniBatch);
+    }
+
+    @Test
+    public void testHamerlyMatchesLloyd() {
+        Dataset<ClusterID> data = new MutableDataset<>(new GaussianClusterDataSource(1000, 1L));
+        for (Distance distance : new Distance[]{Distance.EUCLIDEAN, Distance.L1}) {
+            for (int numThreads : new int[]{1, 4}) {
+                KMeansTrainer lloyd = new KMeansTrainer(8, 20, distance, KMeansTrainer.Initialisation.RANDOM, numThreads, 1,
+                        Algorithm.LLOYD, KMeansTrainer.DEFAULT_MINI_BATCH_SIZE);
+                KMeansTrainer accelerated = new KMeansTrainer(8, 20, distance, KMeansTrainer.Initialisation.RANDOM, numThreads, 1,
+                        Algorithm.HAMERLY, KMeansTrainer.DEFAULT_MINI_BATCH_SIZE);
+                DenseVector[] lloydCentroids = lloyd.train(data).getCentroidVectors();
+                DenseVector[] hamerlyCentroids = accelerated.train(data).getCentroidVectors();
+                assertEquals(lloydCentroids.length, hamerlyCentroids.length);
+                for (int i = 0; i < lloydCentroids.length; i++) {
+                    assertArrayEquals(lloydCentroids[i].toArray(), hamerlyCentroids[i].toArray(), 1e-10);
+                }
+            }
+        }
+        assertThrows(PropertyException.class, () -> new KMeansTrainer(4, 10, Distance.COSINE,
+                KMeansTrainer.Initialisation.RANDOM, 1, 1, Algorithm.HAMERLY, KMeansTrainer.DEFAULT_MINI_BATCH_SIZE));
+    }
+
+    @Test
+    public void testMiniBatch() {
+        Dataset<ClusterID> data = new MutableDataset<>(new GaussianClusterDataSource(1000, 1L));
+        ClusteringEvaluator eval = new ClusteringEvaluator();
+        KMeansModel lloydModel = plusPlus.train(data);
+        KMeansModel miniBatchModel = miniBatch.train(data);
+        double lloydMI = eval.evaluate(lloydModel, data).normalizedMI();
+        double miniBatchMI = eval.evaluate(miniBatchModel, data).normalizedMI();
+        assertTrue(miniBatchMI > lloydMI - 0.1, "Mini-batch NMI " + miniBatchMI + ", Lloyd NMI " + lloydMI);
+
+        // Mini-batch training is deterministic even when the assignment is parallel.
+        KMeansTrainer first = new KMeansTrainer(4, 20, Distance.EUCLIDEAN, KMeansTrainer.Initialisation.PLUSPLUS, 4, 1,
+                Algorithm.MINI_BATCH, 64);
+        KMeansTrainer second = new KMeansTrainer(4, 20, Distance.EUCLIDEAN, KMeansTrainer.Initialisation.PLUSPLUS, 1, 1,
+                Algorithm.MINI_BATCH, 64);
+        DenseVector[] firstCentroids = first.train(data).getCentroidVectors();
+        DenseVector[] secondCentroids = second.train(data).getCentroidVectors();
+        for (int i = 0; i < firstCentroids.length; i++) {
+            assertArrayEquals(firstCentroids[i].toArray(), secondCentroids[i].toArray());
+        }
+        assertThrows(PropertyException.class, () -> new KMeansTrainer(4, 10, Distance.EUCLIDEAN,
+                KMeansTrainer.Initialisation.RANDOM, 1, 1, Algorithm.MINI_BATCH, 0));
+    }
+
+    @Test
+    public void testConcurrentInvocationCount() throws InterruptedException, ExecutionException {
+        Dataset<ClusterID> data = new MutableDataset<>(new GaussianClusterDataSource(500, 1L));
+        KMeansTrainer sequential = new KMeansTrainer(4, 10, Distance.EUCLIDEAN, KMeansTrainer.Initialisation.RANDOM, 1, 1);
+        KMeansTrainer concurrent = new KMeansTrainer(4, 10, Distance.EUCLIDEAN, KMeansTrainer.Initialisation.RANDOM, 1, 1);
+        assertTrue(concurrent.supportsInvocationCount());
+        List<KMeansModel> expected = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            expected.add(sequential.train(data));
+        }
+
+        // Models trained concurrently with explicit invocation counts match the sequential ones.
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<KMeansModel>> futures = new ArrayList<>();
+            for (int i = 3; i >= 0; i--) {
+                int count = i;
+                futures.add(pool.submit(() -> concurrent.train(data, Collections.emptyMap(), count)));
+            }
+            for (int i = 0; i < 4; i++) {
+                DenseVector[] expectedCentroids = expected.get(3 - i).getCentroidVectors();
+                DenseVector[] actualCentroids = futures.get(i).get().getCentroidVectors();
+                for (int j = 0; j < expectedCentroids.length; j++) {
+                    assertArrayEquals(expectedCentroids[j].toArray(), actualCentroids[j].toArray());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        concurrent.setInvocationCount(3);
+        concurrent.train(data, Collections.emptyMap(), Trainer.INCREMENT_INVOCATION_COUNT);
+        assertEquals(sequential.getInvocationCount(), concurrent.getInvocationCount());
+    }
 }
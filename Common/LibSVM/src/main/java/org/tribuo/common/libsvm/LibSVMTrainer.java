@@ -193,6 +193,11 @@ public abstract class LibSVMTrainer<T extends Output<T>> implements Trainer<T> {
 
     @Override
     public LibSVMModel<T> train(Dataset<T> examples, Map<String, Provenance> runProvenance) {
+        return train(examples, runProvenance, INCREMENT_INVOCATION_COUNT);
+    }
+
+    @Override
+    public LibSVMModel<T> train(Dataset<T> examples, Map<String, Provenance> runProvenance, int invocationCount) {
         if (examples.getOutputInfo().getUnknownCount() > 0) {
             throw new IllegalArgumentException("The supplied Dataset contained unknown Outputs, and this Trainer is supervised.");
         }
@@ -203,6 +208,9 @@ public abstract class LibSVMTrainer<T extends Output<T>> implements Trainer<T> {
         TrainerProvenance trainerProvenance;
         SplittableRandom localRNG;
         synchronized(this) {
+            if (invocationCount != INCREMENT_INVOCATION_COUNT) {
+                setInvocationCount(invocationCount);
+            }
             localRNG = rng.split();
             trainerProvenance = getProvenance();
             trainInvocationCounter++;
@@ -267,6 +275,22 @@ public abstract class LibSVMTrainer<T extends Output<T>> implements Trainer<T> {
         return trainInvocationCounter;
     }
 
+    @Override
+    public boolean supportsInvocationCount() {
+        return true;
+    }
+
+    @Override
+    public synchronized void setInvocationCount(int invocationCount) {
+        if (invocationCount < 0) {
+            throw new IllegalArgumentException("The supplied invocationCount is less than zero.");
+        }
+        rng = new SplittableRandom(seed);
+        for (trainInvocationCounter = 0; trainInvocationCounter < invocationCount; trainInvocationCounter++) {
+            rng.split();
+        }
+    }
+
     /**
      * Convert the example into an array of svm_node which represents a sparse feature vector.
      * <p>
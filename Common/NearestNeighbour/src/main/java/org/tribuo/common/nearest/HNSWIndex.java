@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.common.nearest;
+
+import org.tribuo.common.nearest.KNNTrainer.Distance;
+import org.tribuo.math.la.SparseVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * An approximate {@link NeighbourIndex} based on a Hierarchical Navigable Small World graph,
+ * suitable for high dimensional or sparse data.
+ * <p>
+ * Each vector is inserted on a randomly drawn number of layers, with exponentially fewer
+ * vectors on each higher layer. Queries greedily descend the upper layers to find a good
+ * entry point, then run a best first search of width {@code efSearch} on the bottom layer.
+ * Neighbours are chosen using the diversity heuristic, and each vector keeps at most
+ * {@code m} links per layer, or {@code 2m} on the bottom layer.
+ * <p>
+ * The graph is built sequentially from a seeded RNG, so the same vectors and seed produce the same index.
+ * <p>
+ * See:
+ * <pre>
+ * Malkov YA, Yashunin DA.
+ * "Efficient and robust approximate nearest neighbor search using Hierarchical Navigable Small World graphs"
+ * IEEE Transactions on Pattern Analysis and Machine Intelligence, 2018.
+ * </pre>
+ */
+final class HNSWIndex implements NeighbourIndex {
+    private static final long serialVersionUID = 1L;
+
+    private final SparseVector[] vectors;
+
+    private final Distance distance;
+
+    private final int m;
+
+    private final int efSearch;
+
+    /**
+     * The links for each vector and layer, {@code links[vector][layer]}.
+     */
+    private final int[][][] links;
+
+    private final int entryPoint;
+
+    private final int maxLayer;
+
+    /**
+     * Builds an HNSW graph over the supplied vectors.
+     * @param vectors The training vectors.
+     * @param distance The distance function.
+     * @param m The maximum number of links per vector on the upper layers.
+     * @param efConstruction The search width used when inserting vectors.
+     * @param efSearch The search width used when querying.
+     * @param seed The RNG seed used to draw the layers.
+     */
+    HNSWIndex(SparseVector[] vectors, Distance distance, int m, int efConstruction, int efSearch, long seed) {
+        if (m < 2) {
+            throw new IllegalArgumentException("m must be at least 2, found " + m);
+        }
+        if (efConstruction < 1) {
+            throw new IllegalArgumentException("efConstruction must be positive, found " + efConstruction);
+        }
+        if (efSearch < 1) {
+            throw new IllegalArgumentException("efSearch must be positive, found " + efSearch);
+        }
+        this.vectors = vectors;
+        this.distance = distance;
+        this.m = m;
+        this.efSearch = efSearch;
+        this.links = new int[vectors.length][][];
+
+        SplittableRandom rng = new SplittableRandom(seed);
+        double layerMultiplier = 1.0 / Math.log(m);
+        int curEntry = -1;
+        int curMaxLayer = -1;
+        for (int i = 0; i < vectors.length; i++) {
+            int layer = (int) (-Math.log(1.0 - rng.nextDouble()) * layerMultiplier);
+            links[i] = new int[layer + 1][];
+            for (int l = 0; l <= layer; l++) {
+                links[i][l] = new int[0];
+            }
+            if (curEntry == -1) {
+                curEntry = i;
+                curMaxLayer = layer;
+                continue;
+            }
+            SparseVector vector = vectors[i];
+            Neighbour entry = new Neighbour(curEntry,distance(curEntry,vector));
+            for (int l = curMaxLayer; l > layer; l--) {
+                entry = greedySearch(vector,entry,l);
+            }
+            List<Neighbour> entries = Collections.singletonList(entry);
+            for (int l = Math.min(layer,curMaxLayer); l >= 0; l--) {
+                List<Neighbour> candidates = searchLayer(vector,entries,efConstruction,l);
+                int[] selected = selectNeighbours(candidates,m);
+                links[i][l] = selected;
+                for (int neighbour : selected) {
+                    addLink(neighbour,i,l);
+                }
+                entries = candidates;
+            }
+            if (layer > curMaxLayer) {
+                curEntry = i;
+                curMaxLayer = layer;
+            }
+        }
+        this.entryPoint = curEntry;
+        this.maxLayer = curMaxLayer;
+    }
+
+    @Override
+    public int[] query(SparseVector query, int k) {
+        if (entryPoint == -1) {
+            return new int[0];
+        }
+        Neighbour entry = new Neighbour(entryPoint,distance(entryPoint,query));
+        for (int l = maxLayer; l > 0; l--) {
+            entry = greedySearch(query,entry,l);
+        }
+        List<Neighbour> candidates = searchLayer(query,Collections.singletonList(entry),Math.max(efSearch,k),0);
+        int numResults = Math.min(k,candidates.size());
+        int[] output = new int[numResults];
+        for (int i = 0; i < numResults; i++) {
+            output[i] = candidates.get(i).index;
+        }
+        return output;
+    }
+
+    /**
+     * Computes the distance between a stored vector and the query.
+     * @param index The stored vector index.
+     * @param query The query.
+     * @return The distance.
+     */
+    private double distance(int index, SparseVector query) {
+        return NeighbourIndex.distance(distance,vectors[index],query);
+    }
+
+    /**
+     * Moves to the nearest linked vector on the layer until no link is closer.
+     * @param query The query.
+     * @param entry The starting vector.
+     * @param layer The layer.
+     * @return The closest vector found.
+     */
+    private Neighbour greedySearch(SparseVector query, Neighbour entry, int layer) {
+        Neighbour cur = entry;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int neighbour : links[cur.index][layer]) {
+                double curDistance = distance(neighbour,query);
+                if (curDistance < cur.distance) {
+                    cur = new Neighbour(neighbour,curDistance);
+                    changed = true;
+                }
+            }
+        }
+        return cur;
+    }
+
+    /**
+     * Best first search of the layer, starting from the entry points.
+     * @param query The query.
+     * @param entries The entry points.
+     * @param ef The number of results to track.
+     * @param layer The layer.
+     * @return Up to {@code ef} nearest vectors found, nearest first.
+     */
+    private List<Neighbour> searchLayer(SparseVector query, List<Neighbour> entries, int ef, int layer) {
+        Set<Integer> visited = new HashSet<>();
+        PriorityQueue<Neighbour> candidates = new PriorityQueue<>(NEAREST_FIRST);
+        PriorityQueue<Neighbour> results = new PriorityQueue<>(FURTHEST_FIRST);
+        for (Neighbour e : entries) {
+            visited.add(e.index);
+            candidates.offer(e);
+            results.offer(e);
+            if (results.size() > ef) {
+                results.poll();
+            }
+        }
+        while (!candidates.isEmpty()) {
+            Neighbour cur = candidates.poll();
+            if (cur.distance > results.peek().distance) {
+                break;
+            }
+            for (int neighbour : links[cur.index][layer]) {
+                if (visited.add(neighbour)) {
+                    double curDistance = distance(neighbour,query);
+                    if ((results.size() < ef) || (curDistance < results.peek().distance)) {
+                        Neighbour n = new Neighbour(neighbour,curDistance);
+                        candidates.offer(n);
+                        results.offer(n);
+                        if (results.size() > ef) {
+                            results.poll();
+                        }
+                    }
+                }
+            }
+        }
+        List<Neighbour> output = new ArrayList<>(results);
+        output.sort(NEAREST_FIRST);
+        return output;
+    }
+
+    /**
+     * Selects up to {@code max} neighbours from the candidates, preferring candidates which are closer to
+     * the base vector than to any already selected neighbour, then filling with the nearest remaining candidates.
+     * @param candidates The candidates, nearest first.
+     * @param max The maximum number of neighbours.
+     * @return The selected neighbour indices.
+     */
+    private int[] selectNeighbours(List<Neighbour> candidates, int max) {
+        if (candidates.size() <= max) {
+            int[] output = new int[candidates.size()];
+            for (int i = 0; i < output.length; i++) {
+                output[i] = candidates.get(i).index;
+            }
+            return output;
+        }
+        int[] output = new int[max];
+        int numSelected = 0;
+        List<Neighbour> discarded = new ArrayList<>();
+        for (Neighbour c : candidates) {
+            if (numSelected == max) {
+                break;
+            }
+            boolean diverse = true;
+            for (int i = 0; i < numSelected; i++) {
+                if (distance(output[i],vectors[c.index]) < c.distance) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                output[numSelected++] = c.index;
+            } else {
+                discarded.add(c);
+            }
+        }
+        for (int i = 0; (numSelected < max) && (i < discarded.size()); i++) {
+            output[numSelected++] = discarded.get(i).index;
+        }
+        return output;
+    }
+
+    /**
+     * Adds a link from one vector to another, pruning the links if the vector has too many.
+     * @param from The vector to add the link to.
+     * @param to The linked vector.
+     * @param layer The layer.
+     */
+    private void addLink(int from, int to, int layer) {
+        int[] cur = links[from][layer];
+        int maxLinks = layer == 0 ? 2 * m : m;
+        if (cur.length < maxLinks) {
+            int[] newLinks = Arrays.copyOf(cur,cur.length + 1);
+            newLinks[cur.length] = to;
+            links[from][layer] = newLinks;
+        } else {
+            List<Neighbour> candidates = new ArrayList<>(cur.length + 1);
+            SparseVector fromVector = vectors[from];
+            for (int neighbour : cur) {
+                candidates.add(new Neighbour(neighbour,distance(neighbour,fromVector)));
+            }
+            candidates.add(new Neighbour(to,distance(to,fromVector)));
+            candidates.sort(NEAREST_FIRST);
+            links[from][layer] = selectNeighbours(candidates,maxLinks);
+        }
+    }
+}
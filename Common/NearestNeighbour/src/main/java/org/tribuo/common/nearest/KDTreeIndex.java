@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.common.nearest;
+
+import org.tribuo.common.nearest.KNNTrainer.Distance;
+import org.tribuo.math.la.SparseVector;
+import org.tribuo.math.la.VectorTuple;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * An exact {@link NeighbourIndex} based on a KD-tree, suitable for low dimensional dense data.
+ * <p>
+ * The training vectors are densified and stored row-major in tree order. Each internal node
+ * splits its points at the median of the dimension with the largest spread, and leaves hold
+ * up to {@link #LEAF_SIZE} points. Queries descend to the nearest leaf first and only visit
+ * the other side of a split if the distance to the splitting plane is less than the current
+ * k-th nearest distance, so the results are the same as the exhaustive scan up to ties.
+ * <p>
+ * Supports {@link Distance#L1} and {@link Distance#L2}.
+ */
+final class KDTreeIndex implements NeighbourIndex {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The maximum number of points in a leaf.
+     */
+    static final int LEAF_SIZE = 16;
+
+    private final Distance distance;
+
+    private final int numDims;
+
+    /**
+     * The densified points, row-major in tree order.
+     */
+    private final double[] points;
+
+    /**
+     * The index in the training vector array of each row in {@link #points}.
+     */
+    private final int[] ids;
+
+    private final int[] nodeStart;
+    private final int[] nodeEnd;
+    private final int[] splitDim;
+    private final double[] splitValue;
+    private final int[] lessChild;
+    private final int[] greaterChild;
+
+    /**
+     * Builds a KD-tree over the supplied vectors.
+     * @param vectors The training vectors.
+     * @param numDims The dimensionality of the vectors.
+     * @param distance The distance function, must be L1 or L2.
+     */
+    KDTreeIndex(SparseVector[] vectors, int numDims, Distance distance) {
+        if ((distance != Distance.L1) && (distance != Distance.L2)) {
+            throw new IllegalArgumentException("KD-tree index only supports L1 and L2 distances, found " + distance);
+        }
+        this.distance = distance;
+        this.numDims = numDims;
+        int numPoints = vectors.length;
+
+        double[][] dense = new double[numPoints][];
+        int[] order = new int[numPoints];
+        for (int i = 0; i < numPoints; i++) {
+            dense[i] = vectors[i].toArray();
+            order[i] = i;
+        }
+
+        Builder builder = new Builder(dense,order,numDims);
+        if (numPoints > 0) {
+            builder.build(0,numPoints);
+        }
+
+        this.points = new double[numPoints * numDims];
+        this.ids = order;
+        for (int i = 0; i < numPoints; i++) {
+            System.arraycopy(dense[order[i]],0,points,i*numDims,numDims);
+        }
+        int numNodes = builder.numNodes;
+        this.nodeStart = Arrays.copyOf(builder.start,numNodes);
+        this.nodeEnd = Arrays.copyOf(builder.end,numNodes);
+        this.splitDim = Arrays.copyOf(builder.dim,numNodes);
+        this.splitValue = Arrays.copyOf(builder.value,numNodes);
+        this.lessChild = Arrays.copyOf(builder.less,numNodes);
+        this.greaterChild = Arrays.copyOf(builder.greater,numNodes);
+    }
+
+    @Override
+    public int[] query(SparseVector query, int k) {
+        if (nodeStart.length == 0) {
+            return new int[0];
+        }
+        double[] q = new double[numDims];
+        for (VectorTuple t : query) {
+            q[t.index] = t.value;
+        }
+        PriorityQueue<Neighbour> heap = new PriorityQueue<>(k + 1, FURTHEST_FIRST);
+        search(0,q,k,heap);
+        return NeighbourIndex.drain(heap);
+    }
+
+    /**
+     * Searches the subtree rooted at the node, updating the heap of the k nearest points.
+     * @param node The node index.
+     * @param q The dense query.
+     * @param k The number of neighbours.
+     * @param heap The current nearest neighbours, furthest first.
+     */
+    private void search(int node, double[] q, int k, PriorityQueue<Neighbour> heap) {
+        if (lessChild[node] < 0) {
+            for (int i = nodeStart[node]; i < nodeEnd[node]; i++) {
+                double curDistance = rowDistance(i,q);
+                if (heap.size() < k) {
+                    heap.offer(new Neighbour(ids[i],curDistance));
+                } else if (curDistance < heap.peek().distance) {
+                    heap.poll();
+                    heap.offer(new Neighbour(ids[i],curDistance));
+                }
+            }
+        } else {
+            double diff = q[splitDim[node]] - splitValue[node];
+            int near = diff <= 0 ? lessChild[node] : greaterChild[node];
+            int far = diff <= 0 ? greaterChild[node] : lessChild[node];
+            search(near,q,k,heap);
+            // Under both L1 and L2 the distance to the splitting plane bounds the distance to any point beyond it.
+            if ((heap.size() < k) || (Math.abs(diff) < heap.peek().distance)) {
+                search(far,q,k,heap);
+            }
+        }
+    }
+
+    /**
+     * Computes the distance between a stored row and the dense query.
+     * @param row The row index.
+     * @param q The dense query.
+     * @return The distance.
+     */
+    private double rowDistance(int row, double[] q) {
+        int offset = row * numDims;
+        double score = 0.0;
+        if (distance == Distance.L2) {
+            for (int j = 0; j < numDims; j++) {
+                double diff = points[offset + j] - q[j];
+                score += diff * diff;
+            }
+            return Math.sqrt(score);
+        } else {
+            for (int j = 0; j < numDims; j++) {
+                score += Math.abs(points[offset + j] - q[j]);
+            }
+            return score;
+        }
+    }
+
+    /**
+     * Recursively partitions the points and records the node arrays.
+     */
+    private static final class Builder {
+        private final double[][] dense;
+        private final int[] order;
+        private final int numDims;
+
+        int numNodes = 0;
+        int[] start = new int[16];
+        int[] end = new int[16];
+        int[] dim = new int[16];
+        double[] value = new double[16];
+        int[] less = new int[16];
+        int[] greater = new int[16];
+
+        Builder(double[][] dense, int[] order, int numDims) {
+            this.dense = dense;
+            this.order = order;
+            this.numDims = numDims;
+        }
+
+        /**
+         * Builds the subtree over {@code order[lo, hi)} returning its node index.
+         * @param lo The start of the range (inclusive).
+         * @param hi The end of the range (exclusive).
+         * @return The node index.
+         */
+        int build(int lo, int hi) {
+            int node = allocate(lo,hi);
+            if (hi - lo <= LEAF_SIZE) {
+                return node;
+            }
+            int bestDim = -1;
+            double bestSpread = 0.0;
+            for (int j = 0; j < numDims; j++) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = lo; i < hi; i++) {
+                    double v = dense[order[i]][j];
+                    min = Math.min(min,v);
+                    max = Math.max(max,v);
+                }
+                if (max - min > bestSpread) {
+                    bestSpread = max - min;
+                    bestDim = j;
+                }
+            }
+            if (bestDim == -1) {
+                // All the points are identical, so there is nothing to split on.
+                return node;
+            }
+            int mid = (lo + hi) >>> 1;
+            select(bestDim,lo,hi - 1,mid);
+            dim[node] = bestDim;
+            value[node] = dense[order[mid]][bestDim];
+            int lessNode = build(lo,mid);
+            int greaterNode = build(mid,hi);
+            less[node] = lessNode;
+            greater[node] = greaterNode;
+            return node;
+        }
+
+        /**
+         * Appends a leaf node covering the range, which is converted to a split node by the caller if required.
+         * @param lo The start of the range.
+         * @param hi The end of the range.
+         * @return The node index.
+         */
+        private int allocate(int lo, int hi) {
+            if (numNodes == start.length) {
+                int newSize = start.length * 2;
+                start = Arrays.copyOf(start,newSize);
+                end = Arrays.copyOf(end,newSize);
+                dim = Arrays.copyOf(dim,newSize);
+                value = Arrays.copyOf(value,newSize);
+                less = Arrays.copyOf(less,newSize);
+                greater = Arrays.copyOf(greater,newSize);
+            }
+            int node = numNodes++;
+            start[node] = lo;
+            end[node] = hi;
+            dim[node] = -1;
+            less[node] = -1;
+            greater[node] = -1;
+            return node;
+        }
+
+        /**
+         * Partially sorts {@code order[lo, hi]} on the dimension so the element at {@code nth}
+         * is in sorted position, with no greater elements before it and no smaller elements after it.
+         * @param d The dimension.
+         * @param lo The start of the range (inclusive).
+         * @param hi The end of the range (inclusive).
+         * @param nth The position to select.
+         */
+        private void select(int d, int lo, int hi, int nth) {
+            while (hi > lo) {
+                double pivot = dense[order[(lo + hi) >>> 1]][d];
+                int i = lo;
+                int j = hi;
+                while (i <= j) {
+                    while (dense[order[i]][d] < pivot) {
+                        i++;
+                    }
+                    while (dense[order[j]][d] > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        int tmp = order[i];
+                        order[i] = order[j];
+                        order[j] = tmp;
+                        i++;
+                        j--;
+                    }
+                }
+                if (nth <= j) {
+                    hi = j;
+                } else if (nth >= i) {
+                    lo = i;
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -18,12 +18,14 @@ package org.tribuo.common.nearest;
 
 import com.oracle.labs.mlrg.olcut.config.ArgumentException;
 import com.oracle.labs.mlrg.olcut.config.Option;
+import org.tribuo.Trainer;
 import org.tribuo.classification.ClassificationOptions;
 import org.tribuo.classification.Label;
 import org.tribuo.classification.ensemble.FullyWeightedVotingCombiner;
 import org.tribuo.classification.ensemble.VotingCombiner;
 import org.tribuo.common.nearest.KNNModel.Backend;
 import org.tribuo.common.nearest.KNNTrainer.Distance;
+import org.tribuo.common.nearest.KNNTrainer.Index;
 import org.tribuo.ensemble.EnsembleCombiner;
 
 /**
@@ -70,6 +72,26 @@ public class KNNClassifierOptions implements ClassificationOptions<KNNTrainer<La
      */
     @Option(longName = "knn-voting", usage = "Parallel backend to use.")
     public EnsembleCombinerType knnEnsembleCombiner = EnsembleCombinerType.VOTING;
+    /**
+     * Nearest neighbour search index to use. Defaults to BRUTE_FORCE.
+     */
+    @Option(longName = "knn-index", usage = "Nearest neighbour search index to use.")
+    public Index knnIndex = Index.BRUTE_FORCE;
+    /**
+     * Maximum number of links per vector in the HNSW index. Defaults to 16.
+     */
+    @Option(longName = "knn-hnsw-m", usage = "Maximum number of links per vector in the HNSW index.")
+    public int knnHnswM = KNNTrainer.DEFAULT_HNSW_M;
+    /**
+     * Search width used when building the HNSW index. Defaults to 100.
+     */
+    @Option(longName = "knn-hnsw-ef-construction", usage = "Search width used when building the HNSW index.")
+    public int knnHnswEfConstruction = KNNTrainer.DEFAULT_HNSW_EF_CONSTRUCTION;
+    /**
+     * Search width used when querying the HNSW index. Defaults to 50.
+     */
+    @Option(longName = "knn-hnsw-ef-search", usage = "Search width used when querying the HNSW index.")
+    public int knnHnswEfSearch = KNNTrainer.DEFAULT_HNSW_EF_SEARCH;
 
     @Override
     public String getOptionsDescription() {
@@ -89,6 +111,7 @@ public class KNNClassifierOptions implements ClassificationOptions<KNNTrainer<La
 
     @Override
     public KNNTrainer<Label> getTrainer() {
-        return new KNNTrainer<>(knnK, knnDistance, knnNumThreads, getEnsembleCombiner(), knnBackend);
+        return new KNNTrainer<>(knnK, knnDistance, knnNumThreads, getEnsembleCombiner(), knnBackend, knnIndex,
+                knnHnswM, knnHnswEfConstruction, knnHnswEfSearch, Trainer.DEFAULT_SEED);
     }
 }
@@ -52,6 +52,11 @@ import java.util.stream.Stream;
 
 /**
  * A k-nearest neighbours model.
+ * <p>
+ * If the model was trained with a search index (see {@link KNNTrainer.Index}) the neighbours
+ * are found by querying the index, and batch predictions are spread across {@code numThreads}
+ * threads with one thread per prediction. Otherwise the neighbours are found by an exhaustive
+ * scan using the configured {@link Backend}.
  */
 public class KNNModel<T extends Output<T>> extends Model<T> {
 
@@ -87,9 +92,14 @@ public class KNNModel<T extends Output<T>> extends Model<T> {
 
     private final EnsembleCombiner<T> combiner;
 
+    /**
+     * The search index, null if the model uses brute force search (or was serialized before indices were added).
+     */
+    private final NeighbourIndex index;
+
     KNNModel(String name, ModelProvenance provenance, ImmutableFeatureMap featureIDMap, ImmutableOutputInfo<T> outputIDInfo,
                     boolean generatesProbabilities, int k, Distance distance, int numThreads, EnsembleCombiner<T> combiner,
-                    Pair<SparseVector,T>[] vectors, Backend backend) {
+                    Pair<SparseVector,T>[] vectors, Backend backend, NeighbourIndex index) {
         super(name,provenance,featureIDMap,outputIDInfo,generatesProbabilities);
         this.k = k;
         this.distance = distance;
@@ -97,10 +107,14 @@ public class KNNModel<T extends Output<T>> extends Model<T> {
         this.combiner = combiner;
         this.parallelBackend = backend;
         this.vectors = vectors;
+        this.index = index;
     }
 
     @Override
     public Prediction<T> predict(Example<T> example) {
+        if (index != null) {
+            return predictIndexed(example);
+        }
         SparseVector input = SparseVector.createSparseVector(example,featureIDMap,false);
 
         Function<Pair<SparseVector,T>, OutputDoublePair<T>> distanceFunc;
@@ -143,7 +157,9 @@ public class KNNModel<T extends Output<T>> extends Model<T> {
      */
     @Override
     protected List<Prediction<T>> innerPredict(Iterable<Example<T>> examples) {
-        if (numThreads > 1) {
+        if (index != null) {
+            return innerPredictIndexed(examples);
+        } else if (numThreads > 1) {
             return innerPredictMultithreaded(examples);
         } else {
             List<Prediction<T>> predictions = new ArrayList<>();
@@ -193,6 +209,58 @@ public class KNNModel<T extends Output<T>> extends Model<T> {
         }
     }
 
+    /**
+     * Predicts using the search index.
+     * @param example The example to predict.
+     * @return The prediction.
+     */
+    private Prediction<T> predictIndexed(Example<T> example) {
+        SparseVector input = SparseVector.createSparseVector(example, featureIDMap, false);
+        int[] neighbours = index.query(input, k);
+        List<Prediction<T>> predictions = new ArrayList<>(neighbours.length);
+        for (int i : neighbours) {
+            predictions.add(new Prediction<>(vectors[i].getB(), input.numActiveElements(), example));
+        }
+        return combiner.combine(outputIDInfo, predictions);
+    }
+
+    /**
+     * Predicts the examples using the search index, using a thread pool if numThreads is greater than one.
+     * @param examples The examples to predict.
+     * @return The predictions.
+     */
+    private List<Prediction<T>> innerPredictIndexed(Iterable<Example<T>> examples) {
+        List<Prediction<T>> predictions = new ArrayList<>();
+        if (numThreads > 1) {
+            ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+            try {
+                List<Future<Prediction<T>>> futures = new ArrayList<>();
+                for (Example<T> example : examples) {
+                    futures.add(pool.submit(() -> predictIndexed(example)));
+                }
+                for (Future<Prediction<T>> f : futures) {
+                    predictions.add(f.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while predicting",e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else {
+                    throw new IllegalStateException("Failed to predict",e.getCause());
+                }
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            for (Example<T> example : examples) {
+                predictions.add(predictIndexed(example));
+            }
+        }
+        return predictions;
+    }
+
     /**
      * Switches between the different multithreaded backends.
      * @param examples The examples to predict.
@@ -455,7 +523,7 @@ public class KNNModel<T extends Output<T>> extends Model<T> {
         for (int i = 0; i < vectors.length; i++) {
             vectorCopy[i] = new Pair<>(vectors[i].getA().copy(),vectors[i].getB().copy());
         }
-        return new KNNModel<>(newName,newProvenance,featureIDMap,outputIDInfo,generatesProbabilities,k,distance,numThreads,combiner,vectorCopy,parallelBackend);
+        return new KNNModel<>(newName,newProvenance,featureIDMap,outputIDInfo,generatesProbabilities,k,distance,numThreads,combiner,vectorCopy,parallelBackend,index);
     }
 
     private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
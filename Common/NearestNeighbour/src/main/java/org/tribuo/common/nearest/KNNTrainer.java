@@ -60,6 +60,39 @@ public class KNNTrainer<T extends Output<T>> implements Trainer<T> {
         COSINE
     }
 
+    /**
+     * The available nearest neighbour search strategies.
+     */
+    public enum Index {
+        /**
+         * Exhaustively measures the distance to every training vector, using the configured {@link Backend}.
+         */
+        BRUTE_FORCE,
+        /**
+         * Exact search using a KD-tree, suitable for low dimensional dense data. Supports L1 and L2 distances.
+         */
+        KD_TREE,
+        /**
+         * Approximate search using a Hierarchical Navigable Small World graph, suitable for high dimensional data.
+         */
+        HNSW
+    }
+
+    /**
+     * The default maximum number of links per vector in the HNSW index.
+     */
+    public static final int DEFAULT_HNSW_M = 16;
+
+    /**
+     * The default search width used when building the HNSW index.
+     */
+    public static final int DEFAULT_HNSW_EF_CONSTRUCTION = 100;
+
+    /**
+     * The default search width used when querying the HNSW index.
+     */
+    public static final int DEFAULT_HNSW_EF_SEARCH = 50;
+
     @Config(mandatory = true, description="The distance function used to measure nearest neighbours.")
     private Distance distance;
 
@@ -75,6 +108,21 @@ public class KNNTrainer<T extends Output<T>> implements Trainer<T> {
     @Config(description="The threading model to use.")
     private Backend backend = Backend.THREADPOOL;
 
+    @Config(description="The nearest neighbour search index.")
+    private Index index = Index.BRUTE_FORCE;
+
+    @Config(description="The maximum number of links per vector in the HNSW index.")
+    private int hnswM = DEFAULT_HNSW_M;
+
+    @Config(description="The search width used when building the HNSW index.")
+    private int hnswEfConstruction = DEFAULT_HNSW_EF_CONSTRUCTION;
+
+    @Config(description="The search width used when querying the HNSW index.")
+    private int hnswEfSearch = DEFAULT_HNSW_EF_SEARCH;
+
+    @Config(description="The seed used to build the HNSW index.")
+    private long seed = Trainer.DEFAULT_SEED;
+
     private int invocationCount = 0;
 
     /**
@@ -91,11 +139,49 @@ public class KNNTrainer<T extends Output<T>> implements Trainer<T> {
      * @param backend The computational backend.
      */
     public KNNTrainer(int k, Distance distance, int numThreads, EnsembleCombiner<T> combiner, Backend backend) {
+        this(k,distance,numThreads,combiner,backend,Index.BRUTE_FORCE);
+    }
+
+    /**
+     * Creates a K-NN trainer using the supplied parameters and search index.
+     * <p>
+     * The HNSW index uses the default parameters and seed.
+     * @param k The number of nearest neighbours to consider.
+     * @param distance The distance function.
+     * @param numThreads The number of threads to use.
+     * @param combiner The combination function to aggregate the k predictions.
+     * @param backend The computational backend, used by the brute force search.
+     * @param index The nearest neighbour search index.
+     */
+    public KNNTrainer(int k, Distance distance, int numThreads, EnsembleCombiner<T> combiner, Backend backend, Index index) {
+        this(k,distance,numThreads,combiner,backend,index,DEFAULT_HNSW_M,DEFAULT_HNSW_EF_CONSTRUCTION,DEFAULT_HNSW_EF_SEARCH,Trainer.DEFAULT_SEED);
+    }
+
+    /**
+     * Creates a K-NN trainer using the supplied parameters and search index.
+     * @param k The number of nearest neighbours to consider.
+     * @param distance The distance function.
+     * @param numThreads The number of threads to use.
+     * @param combiner The combination function to aggregate the k predictions.
+     * @param backend The computational backend, used by the brute force search.
+     * @param index The nearest neighbour search index.
+     * @param hnswM The maximum number of links per vector in the HNSW index.
+     * @param hnswEfConstruction The search width used when building the HNSW index.
+     * @param hnswEfSearch The search width used when querying the HNSW index.
+     * @param seed The seed used to build the HNSW index.
+     */
+    public KNNTrainer(int k, Distance distance, int numThreads, EnsembleCombiner<T> combiner, Backend backend, Index index,
+                      int hnswM, int hnswEfConstruction, int hnswEfSearch, long seed) {
         this.k = k;
         this.distance = distance;
         this.numThreads = numThreads;
         this.combiner = combiner;
         this.backend = backend;
+        this.index = index;
+        this.hnswM = hnswM;
+        this.hnswEfConstruction = hnswEfConstruction;
+        this.hnswEfSearch = hnswEfSearch;
+        this.seed = seed;
         postConfig();
     }
 
@@ -107,6 +193,18 @@ public class KNNTrainer<T extends Output<T>> implements Trainer<T> {
         if (k < 1) {
             throw new PropertyException("","k","k must be greater than 0");
         }
+        if ((index == Index.KD_TREE) && (distance == Distance.COSINE)) {
+            throw new PropertyException("","index","The KD_TREE index only supports L1 and L2 distances");
+        }
+        if (hnswM < 2) {
+            throw new PropertyException("","hnswM","hnswM must be at least 2");
+        }
+        if (hnswEfConstruction < 1) {
+            throw new PropertyException("","hnswEfConstruction","hnswEfConstruction must be greater than 0");
+        }
+        if (hnswEfSearch < 1) {
+            throw new PropertyException("","hnswEfSearch","hnswEfSearch must be greater than 0");
+        }
     }
 
     @Override
@@ -123,16 +221,41 @@ public class KNNTrainer<T extends Output<T>> implements Trainer<T> {
             i++;
         }
 
+        NeighbourIndex neighbourIndex = buildIndex(vectors, featureIDMap.size());
+
         invocationCount++;
 
         ModelProvenance provenance = new ModelProvenance(KNNModel.class.getName(), OffsetDateTime.now(), examples.getProvenance(), getProvenance(), runProvenance);
 
-        return new KNNModel<>(k+"nn",provenance, featureIDMap, labelIDMap, false, k, distance, numThreads, combiner, vectors, backend);
+        return new KNNModel<>(k+"nn",provenance, featureIDMap, labelIDMap, false, k, distance, numThreads, combiner, vectors, backend, neighbourIndex);
+    }
+
+    /**
+     * Builds the configured search index over the training vectors.
+     * @param vectors The training vectors and outputs.
+     * @param numFeatures The number of features.
+     * @return The search index, or null for brute force search.
+     */
+    private NeighbourIndex buildIndex(Pair<SparseVector,T>[] vectors, int numFeatures) {
+        SparseVector[] inputs = new SparseVector[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            inputs[i] = vectors[i].getA();
+        }
+        switch (index) {
+            case BRUTE_FORCE:
+                return null;
+            case KD_TREE:
+                return new KDTreeIndex(inputs, numFeatures, distance);
+            case HNSW:
+                return new HNSWIndex(inputs, distance, hnswM, hnswEfConstruction, hnswEfSearch, seed);
+            default:
+                throw new IllegalStateException("Unknown index " + index);
+        }
     }
 
     @Override
     public String toString() {
-        return "KNNTrainer(k="+k+",distance="+distance+",combiner="+combiner.toString()+",numThreads="+numThreads+")";
+        return "KNNTrainer(k="+k+",distance="+distance+",combiner="+combiner.toString()+",numThreads="+numThreads+",index="+index+")";
     }
 
     @Override
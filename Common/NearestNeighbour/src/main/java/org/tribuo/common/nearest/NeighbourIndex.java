@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.common.nearest;
+
+import org.tribuo.common.nearest.KNNTrainer.Distance;
+import org.tribuo.math.la.SparseVector;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * A search index over the training vectors of a {@link KNNModel}, used in place of
+ * the exhaustive distance scan.
+ * <p>
+ * Implementations must be immutable after construction and safe to query from multiple threads.
+ */
+interface NeighbourIndex extends Serializable {
+
+    /**
+     * Orders neighbours by increasing distance.
+     */
+    Comparator<Neighbour> NEAREST_FIRST = Comparator.comparingDouble((Neighbour n) -> n.distance);
+
+    /**
+     * Orders neighbours by decreasing distance, used for bounded result heaps.
+     */
+    Comparator<Neighbour> FURTHEST_FIRST = NEAREST_FIRST.reversed();
+
+    /**
+     * Finds the (approximate) nearest neighbours of the query.
+     * @param query The query vector.
+     * @param k The number of neighbours to return.
+     * @return The indices of the neighbours in the training vector array, nearest first.
+     */
+    int[] query(SparseVector query, int k);
+
+    /**
+     * Computes the distance between a stored vector and the query, in the same way
+     * as the exhaustive scan in {@link KNNModel}.
+     * @param distance The distance function.
+     * @param stored The stored vector.
+     * @param query The query vector.
+     * @return The distance.
+     */
+    static double distance(Distance distance, SparseVector stored, SparseVector query) {
+        switch (distance) {
+            case L1:
+                return stored.l1Distance(query);
+            case L2:
+                return stored.l2Distance(query);
+            case COSINE:
+                return stored.cosineDistance(query);
+            default:
+                throw new IllegalStateException("Unknown distance function " + distance);
+        }
+    }
+
+    /**
+     * Drains a heap ordered by {@link #FURTHEST_FIRST} into an array of indices, nearest first.
+     * @param heap The heap to drain.
+     * @return The neighbour indices.
+     */
+    static int[] drain(PriorityQueue<Neighbour> heap) {
+        int[] output = new int[heap.size()];
+        for (int i = output.length - 1; i >= 0; i--) {
+            output[i] = heap.poll().index;
+        }
+        return output;
+    }
+
+    /**
+     * A candidate neighbour, the index of a training vector and its distance to the query.
+     */
+    final class Neighbour {
+        final int index;
+        final double distance;
+
+        Neighbour(int index, double distance) {
+            this.index = index;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.common.nearest;
+
+import com.oracle.labs.mlrg.olcut.config.PropertyException;
+import com.oracle.labs.mlrg.olcut.provenance.primitives.EnumProvenance;
+import org.junit.jupiter.api.Test;
+import org.tribuo.Dataset;
+import org.tribuo.Model;
+import org.tribuo.MutableDataset;
+import org.tribuo.Prediction;
+import org.tribuo.classification.Label;
+import org.tribuo.classification.ensemble.VotingCombiner;
+import org.tribuo.classification.example.GaussianLabelDataSource;
+import org.tribuo.common.nearest.KNNModel.Backend;
+import org.tribuo.common.nearest.KNNTrainer.Distance;
+import org.tribuo.common.nearest.KNNTrainer.Index;
+import org.tribuo.math.la.SparseVector;
+import org.tribuo.test.Helpers;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestKNN {
+
+    private static Dataset<Label> gaussianData(int size, long seed) {
+        return new MutableDataset<>(new GaussianLabelDataSource(size, seed,
+                new double[]{0.0, 0.0}, new double[]{1.0, 0.0, 0.0, 1.0},
+                new double[]{1.0, 1.0}, new double[]{1.0, 0.5, 0.5, 1.0}));
+    }
+
+    private static SparseVector[] randomVectors(int size, int dimension, SplittableRandom rng) {
+        SparseVector[] vectors = new SparseVector[size];
+        int[] indices = new int[dimension];
+        for (int i = 0; i < dimension; i++) {
+            indices[i] = i;
+        }
+        for (int i = 0; i < size; i++) {
+            double[] values = new double[dimension];
+            for (int j = 0; j < dimension; j++) {
+                values[j] = rng.nextDouble() * 2 - 1;
+            }
+            vectors[i] = SparseVector.createSparseVector(dimension, indices, values);
+        }
+        return vectors;
+    }
+
+    private static int[] exactNeighbours(SparseVector[] vectors, SparseVector query, Distance distance, int k) {
+        Integer[] order = new Integer[vectors.length];
+        double[] distances = new double[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            order[i] = i;
+            distances[i] = NeighbourIndex.distance(distance, vectors[i], query);
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(distances[a], distances[b]));
+        int[] output = new int[k];
+        for (int i = 0; i < k; i++) {
+            output[i] = order[i];
+        }
+        return output;
+    }
+
+    @Test
+    public void testKDTreeMatchesBruteForce() {
+        Dataset<Label> train = gaussianData(1000, 1L);
+        Dataset<Label> test = gaussianData(200, 2L);
+        for (Distance distance : new Distance[]{Distance.L1, Distance.L2}) {
+            KNNTrainer<Label> bruteForce = new KNNTrainer<>(5, distance, 1, new VotingCombiner(), Backend.THREADPOOL, Index.BRUTE_FORCE);
+            KNNTrainer<Label> kdTree = new KNNTrainer<>(5, distance, 1, new VotingCombiner(), Backend.THREADPOOL, Index.KD_TREE);
+            List<Prediction<Label>> expected = bruteForce.train(train).predict(test);
+            List<Prediction<Label>> actual = kdTree.train(train).predict(test);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getOutput().getLabel(), actual.get(i).getOutput().getLabel());
+                assertEquals(expected.get(i).getOutput().getScore(), actual.get(i).getOutput().getScore());
+            }
+        }
+    }
+
+    @Test
+    public void testKDTreeQuery() {
+        SplittableRandom rng = new SplittableRandom(1L);
+        SparseVector[] vectors = randomVectors(2000, 3, rng);
+        SparseVector[] queries = randomVectors(50, 3, rng);
+        KDTreeIndex index = new KDTreeIndex(vectors, 3, Distance.L2);
+        for (SparseVector query : queries) {
+            assertTrue(Arrays.equals(exactNeighbours(vectors, query, Distance.L2, 10), index.query(query, 10)));
+        }
+        // Asking for more neighbours than points returns every point.
+        assertEquals(vectors.length, index.query(queries[0], vectors.length + 10).length);
+        assertThrows(IllegalArgumentException.class, () -> new KDTreeIndex(vectors, 3, Distance.COSINE));
+    }
+
+    @Test
+    public void testHNSWRecall() {
+        SplittableRandom rng = new SplittableRandom(1L);
+        SparseVector[] vectors = randomVectors(1000, 16, rng);
+        SparseVector[] queries = randomVectors(50, 16, rng);
+        int k = 10;
+        for (Distance distance : Distance.values()) {
+            HNSWIndex index = new HNSWIndex(vectors, distance, KNNTrainer.DEFAULT_HNSW_M,
+                    KNNTrainer.DEFAULT_HNSW_EF_CONSTRUCTION, KNNTrainer.DEFAULT_HNSW_EF_SEARCH, 1L);
+            int found = 0;
+            for (SparseVector query : queries) {
+                Set<Integer> exact = new HashSet<>();
+                for (int i : exactNeighbours(vectors, query, distance, k)) {
+                    exact.add(i);
+                }
+                int[] approx = index.query(query, k);
+                assertEquals(k, approx.length);
+                for (int i : approx) {
+                    if (exact.contains(i)) {
+                        found++;
+                    }
+                }
+            }
+            double recall = found / (double) (k * queries.length);
+            assertTrue(recall > 0.9, "Recall for " + distance + " was " + recall);
+        }
+
+        // Building with the same seed produces the same graph.
+        HNSWIndex first = new HNSWIndex(vectors, Distance.L2, 8, 20, 20, 1L);
+        HNSWIndex second = new HNSWIndex(vectors, Distance.L2, 8, 20, 20, 1L);
+        for (SparseVector query : queries) {
+            assertTrue(Arrays.equals(first.query(query, k), second.query(query, k)));
+        }
+    }
+
+    @Test
+    public void testIndexedModel() {
+        Dataset<Label> train = gaussianData(500, 1L);
+        Dataset<Label> test = gaussianData(100, 2L);
+        for (Index index : Index.values()) {
+            KNNTrainer<Label> trainer = new KNNTrainer<>(3, Distance.L2, 2, new VotingCombiner(), Backend.THREADPOOL, index);
+            Model<Label> model = trainer.train(train);
+            assertEquals(new EnumProvenance<>("index", index), model.getProvenance().getTrainerProvenance().getConfiguredParameters().get("index"));
+            List<Prediction<Label>> batch = model.predict(test);
+            for (int i = 0; i < batch.size(); i++) {
+                Prediction<Label> single = model.predict(test.getExample(i));
+                assertEquals(single.getOutput().getLabel(), batch.get(i).getOutput().getLabel());
+            }
+            Helpers.testModelSerialization(model, Label.class);
+        }
+        assertThrows(PropertyException.class, () -> new KNNTrainer<>(3, Distance.COSINE, 1, new VotingCombiner(), Backend.THREADPOOL, Index.KD_TREE));
+        assertThrows(PropertyException.class, () -> new KNNTrainer<>(3, Distance.L2, 1, new VotingCombiner(), Backend.THREADPOOL, Index.HNSW, 1, 100, 50, 1L));
+    }
+}
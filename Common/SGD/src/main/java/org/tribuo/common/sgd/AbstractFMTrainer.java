@@ -20,6 +20,9 @@ import com.oracle.labs.mlrg.olcut.config.Config;
 import com.oracle.labs.mlrg.olcut.config.PropertyException;
 import org.tribuo.Output;
 import org.tribuo.math.StochasticGradientOptimiser;
+import org.tribuo.math.la.DenseMatrix;
+import org.tribuo.math.la.DenseVector;
+import org.tribuo.math.la.Tensor;
 
 import java.util.SplittableRandom;
 import java.util.logging.Logger;
@@ -107,4 +110,45 @@ public abstract class AbstractFMTrainer<T extends Output<T>, U> extends Abstract
         return new FMParameters(localRNG, numFeatures, numOutputs, factorizedDimSize, variance);
     }
 
+    /**
+     * Copies the bias, linear weights and factors of each known output and feature. New features
+     * and outputs keep their randomly initialised factors.
+     *
+     * @param source         The trained parameters.
+     * @param target         The new parameters.
+     * @param featureMapping The mapping from target feature ids to source feature ids.
+     * @param outputMapping  The mapping from target output ids to source output ids.
+     */
+    @Override
+    protected void copyParameters(FMParameters source, FMParameters target, int[] featureMapping, int[] outputMapping) {
+        Tensor[] sourceWeights = source.get();
+        Tensor[] targetWeights = target.get();
+        int sourceFactors = ((DenseMatrix) sourceWeights[2]).getDimension1Size();
+        int targetFactors = ((DenseMatrix) targetWeights[2]).getDimension1Size();
+        if (sourceFactors != targetFactors) {
+            throw new IllegalArgumentException("The model has " + sourceFactors + " factors, but this trainer uses " + targetFactors);
+        }
+        DenseVector sourceBias = (DenseVector) sourceWeights[0];
+        DenseVector targetBias = (DenseVector) targetWeights[0];
+        DenseMatrix sourceLinear = (DenseMatrix) sourceWeights[1];
+        DenseMatrix targetLinear = (DenseMatrix) targetWeights[1];
+        for (int i = 0; i < outputMapping.length; i++) {
+            int oldOutput = outputMapping[i];
+            if (oldOutput != -1) {
+                targetBias.set(i, sourceBias.get(oldOutput));
+                DenseMatrix sourceFactorMatrix = (DenseMatrix) sourceWeights[oldOutput + 2];
+                DenseMatrix targetFactorMatrix = (DenseMatrix) targetWeights[i + 2];
+                for (int j = 0; j < featureMapping.length; j++) {
+                    int oldFeature = featureMapping[j];
+                    if (oldFeature != -1) {
+                        targetLinear.set(i, j, sourceLinear.get(oldOutput, oldFeature));
+                        for (int k = 0; k < targetFactors; k++) {
+                            targetFactorMatrix.set(k, j, sourceFactorMatrix.get(k, oldFeature));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
 }
@@ -78,6 +78,75 @@ public abstract class AbstractLinearSGDModel<T extends Output<T>> extends Abstra
         super(name, provenance, featureIDMap, outputIDInfo, parameters, generatesProbabilities, true);
     }
 
+    /**
+     * Creates a {@link LinearScoringBuffer} sized for this model, for use with {@link #score}.
+     * @return A new scoring buffer.
+     */
+    public LinearScoringBuffer createScoringBuffer() {
+        return new LinearScoringBuffer(outputIDInfo.size(), LinearScoringBuffer.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Scores the example, writing the output scores into the supplied buffer.
+     * <p>
+     * This produces the same scores as {@link #predict(Example)} (up to floating point rounding),
+     * but writes them into the caller owned buffer rather than creating a {@link Prediction},
+     * and uses the buffer's scratch arrays rather than constructing a feature vector. Once the
+     * buffer has grown to accommodate the largest example, scoring does not allocate.
+     * <p>
+     * After this call {@link LinearScoringBuffer#getScores()} contains the normalized score for each output,
+     * indexed by the output id, and {@link LinearScoringBuffer#getNumActiveFeatures()} contains the number of
+     * features used.
+     * <p>
+     * Throws {@link IllegalArgumentException} if the example has no features
+     * or no feature overlap with the model, if it contains a NaN valued feature, or if the buffer
+     * is the wrong size for this model.
+     * @param example The example to score.
+     * @param buffer The buffer to write into.
+     */
+    public void score(Example<T> example, LinearScoringBuffer buffer) {
+        double[] scores = buffer.scores;
+        if (scores.length != outputIDInfo.size()) {
+            throw new IllegalArgumentException("Buffer has " + scores.length + " outputs, but the model has " + outputIDInfo.size());
+        }
+        buffer.reset(example.size());
+        for (Feature f : example) {
+            int id = featureIDMap.getID(f.getName());
+            if (id > -1) {
+                double value = f.getValue();
+                if (Double.isNaN(value)) {
+                    throw new IllegalArgumentException("Example contained a NaN feature, " + f.toString());
+                }
+                buffer.add(id, value);
+            }
+        }
+        if (buffer.numActive == 0) {
+            throw new IllegalArgumentException("No features found in Example " + example.toString());
+        }
+
+        DenseMatrix weights = ((LinearParameters) modelParameters).getWeightMatrix();
+        int biasIdx = weights.getDimension2Size() - 1;
+        int[] indices = buffer.indices;
+        double[] values = buffer.values;
+        int numActive = buffer.numActive;
+        for (int i = 0; i < scores.length; i++) {
+            double score = 0.0;
+            for (int j = 0; j < numActive; j++) {
+                score += weights.get(i, indices[j]) * values[j];
+            }
+            scores[i] = score + weights.get(i, biasIdx);
+        }
+        normalizeScores(scores);
+    }
+
+    /**
+     * Applies the model's output normalization to the scores in place.
+     * <p>
+     * Called by {@link #score}, the default implementation does nothing.
+     * @param scores The raw scores.
+     */
+    protected void normalizeScores(double[] scores) {}
+
     @Override
     public Map<String, List<Pair<String, Double>>> getTopFeatures(int n) {
         DenseMatrix baseWeights = (DenseMatrix) modelParameters.get()[0];
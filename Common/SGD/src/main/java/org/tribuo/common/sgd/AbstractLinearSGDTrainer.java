@@ -19,6 +19,7 @@ package org.tribuo.common.sgd;
 import org.tribuo.Output;
 import org.tribuo.math.LinearParameters;
 import org.tribuo.math.StochasticGradientOptimiser;
+import org.tribuo.math.la.DenseMatrix;
 
 import java.util.SplittableRandom;
 import java.util.logging.Logger;
@@ -81,4 +82,30 @@ public abstract class AbstractLinearSGDTrainer<T extends Output<T>,U> extends Ab
         return new LinearParameters(numFeatures+1,numOutputs);
     }
 
+    /**
+     * Copies the weights of each known output and feature, along with the bias of each known output.
+     * @param source The trained parameters.
+     * @param target The new parameters.
+     * @param featureMapping The mapping from target feature ids to source feature ids.
+     * @param outputMapping The mapping from target output ids to source output ids.
+     */
+    @Override
+    protected void copyParameters(LinearParameters source, LinearParameters target, int[] featureMapping, int[] outputMapping) {
+        DenseMatrix sourceWeights = source.getWeightMatrix();
+        DenseMatrix targetWeights = target.getWeightMatrix();
+        int sourceBias = sourceWeights.getDimension2Size() - 1;
+        int targetBias = featureMapping.length;
+        for (int i = 0; i < outputMapping.length; i++) {
+            int oldOutput = outputMapping[i];
+            if (oldOutput != -1) {
+                for (int j = 0; j < featureMapping.length; j++) {
+                    if (featureMapping[j] != -1) {
+                        targetWeights.set(i,j,sourceWeights.get(oldOutput,featureMapping[j]));
+                    }
+                }
+                targetWeights.set(i,targetBias,sourceWeights.get(oldOutput,sourceBias));
+            }
+        }
+    }
+
 }
@@ -17,12 +17,16 @@
 package org.tribuo.common.sgd;
 
 import com.oracle.labs.mlrg.olcut.config.Config;
+import com.oracle.labs.mlrg.olcut.config.PropertyException;
+import com.oracle.labs.mlrg.olcut.provenance.ListProvenance;
 import com.oracle.labs.mlrg.olcut.provenance.Provenance;
 import com.oracle.labs.mlrg.olcut.util.Pair;
+import org.tribuo.DataSource;
 import org.tribuo.Dataset;
 import org.tribuo.Example;
 import org.tribuo.ImmutableFeatureMap;
 import org.tribuo.ImmutableOutputInfo;
+import org.tribuo.IncrementalTrainer;
 import org.tribuo.Model;
 import org.tribuo.Output;
 import org.tribuo.Trainer;
@@ -34,14 +38,24 @@ import org.tribuo.math.la.SGDVector;
 import org.tribuo.math.la.SparseVector;
 import org.tribuo.math.la.Tensor;
 import org.tribuo.math.optimisers.AdaGrad;
+import org.tribuo.provenance.DatasetProvenance;
 import org.tribuo.provenance.ModelProvenance;
 import org.tribuo.provenance.TrainerProvenance;
 import org.tribuo.provenance.impl.TrainerProvenanceImpl;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.SplittableRandom;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 /**
@@ -53,14 +67,46 @@ import java.util.logging.Logger;
  * "Large-Scale Machine Learning with Stochastic Gradient Descent"
  * Proceedings of COMPSTAT, 2010.
  * </pre>
+ * <p>
+ * Supports incremental training, which continues training a model produced by this trainer on new data,
+ * growing the feature and output domains to cover any features or outputs which only appear in the new data.
  * @param <T> The output type.
  * @param <U> The intermediate representation of the labels.
  * @param <V> The model type.
  * @param <X> The parameter type.
  */
-public abstract class AbstractSGDTrainer<T extends Output<T>,U,V extends Model<T>,X extends FeedForwardParameters> implements Trainer<T>, WeightedExamples {
+public abstract class AbstractSGDTrainer<T extends Output<T>,U,V extends Model<T>,X extends FeedForwardParameters> implements IncrementalTrainer<T,V>, WeightedExamples {
     private static final Logger logger = Logger.getLogger(AbstractSGDTrainer.class.getName());
 
+    /**
+     * The default size of the shuffle buffer used when training from a {@link DataSource}.
+     */
+    public static final int DEFAULT_SHUFFLE_BUFFER_SIZE = 10000;
+
+    /**
+     * The kind of multithreaded training used when {@code numThreads} is greater than one.
+     */
+    public enum ParallelMode {
+        /**
+         * Lock-free asynchronous training, where each thread steps through a shard of the examples
+         * updating the shared parameters. Fast on sparse data, but non-deterministic.
+         * <p>
+         * See:
+         * <pre>
+         * Recht B, Re C, Wright S, Niu F.
+         * "Hogwild!: A Lock-Free Approach to Parallelizing Stochastic Gradient Descent"
+         * Advances in Neural Information Processing Systems, 2011.
+         * </pre>
+         */
+        HOGWILD,
+        /**
+         * Synchronous data-parallel training, where the gradients for each minibatch are computed
+         * concurrently and then reduced in example order before a single update. Produces the same
+         * model as single threaded training, and requires a minibatch size greater than one.
+         */
+        SYNCHRONOUS
+    }
+
     @Config(description="The gradient optimiser to use.")
     protected StochasticGradientOptimiser optimiser = new AdaGrad(1.0,0.1);
 
@@ -79,12 +125,29 @@ public abstract class AbstractSGDTrainer<T extends Output<T>,U,V extends Model<T
     @Config(description="Shuffle the data before each epoch. Only turn off for debugging.")
     protected boolean shuffle = true;
 
+    @Config(description="The number of examples buffered for shuffling when training from a DataSource.")
+    protected int shuffleBufferSize = DEFAULT_SHUFFLE_BUFFER_SIZE;
+
+    @Config(description="The number of threads to use for training.")
+    protected int numThreads = 1;
+
+    @Config(description="The kind of multithreaded training to use when numThreads is greater than one.")
+    protected ParallelMode parallelMode = ParallelMode.HOGWILD;
+
+    @Config(description="Retain the optimiser state of each trained model, so incremental training can resume from it.")
+    protected boolean retainOptimiserState = false;
+
     protected final boolean addBias;
 
     protected SplittableRandom rng;
 
     private int trainInvocationCounter;
 
+    /**
+     * The finalised optimiser for each live model, used to resume training in {@link #incrementalTrain}.
+     */
+    private final Map<V,StochasticGradientOptimiser> optimiserStates = Collections.synchronizedMap(new WeakHashMap<>());
+
     /**
      * Constructs an SGD trainer.
      * @param optimiser The gradient optimiser to use.
@@ -116,6 +179,12 @@ public abstract class AbstractSGDTrainer<T extends Output<T>,U,V extends Model<T
      */
     @Override
     public synchronized void postConfig() {
+        if (shuffleBufferSize < 1) {
+            throw new PropertyException("","shuffleBufferSize","shuffleBufferSize must be positive, found " + shuffleBufferSize);
+        }
+        if (numThreads < 1) {
+            throw new PropertyException("","numThreads","numThreads must be positive, found " + numThreads);
+        }
         this.rng = new SplittableRandom(seed);
     }
 
@@ -130,6 +199,59 @@ public abstract class AbstractSGDTrainer<T extends Output<T>,U,V extends Model<T
         this.shuffle = shuffle;
     }
 
+    /**
+     * Sets the number of threads used for training, see {@link #setParallelMode}.
+     * @param numThreads The number of threads, must be positive.
+     */
+    public void setNumThreads(int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("numThreads must be positive, found " + numThreads);
+        }
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Sets the kind of multithreaded training used when the number of threads is greater than one.
+     * <p>
+     * In {@link ParallelMode#HOGWILD} mode each epoch's examples are divided between the threads, which
+     * update the shared parameters and optimiser state without locking. This can give near linear
+     * speedups on sparse data where updates rarely collide, but training is no longer deterministic.
+     * It requires an optimiser which {@link StochasticGradientOptimiser#supportsConcurrentStep supports concurrent steps},
+     * otherwise training falls back to a single thread. It does not apply when training from a {@link DataSource}.
+     * <p>
+     * In {@link ParallelMode#SYNCHRONOUS} mode the gradients of each minibatch are computed concurrently,
+     * and the model is the same as the one produced by single threaded training.
+     * @param parallelMode The parallel training mode.
+     */
+    public void setParallelMode(ParallelMode parallelMode) {
+        this.parallelMode = parallelMode;
+    }
+
+    /**
+     * Sets whether the optimiser state is retained for each trained model.
+     * <p>
+     * When true, and the optimiser {@link StochasticGradientOptimiser#supportsResume supports resuming},
+     * the trainer keeps the optimiser state (e.g., AdaGrad's squared gradient accumulators) of each model
+     * it produces for as long as that model is reachable, and {@link #incrementalTrain} continues from it
+     * rather than from a freshly initialised optimiser. This doubles or triples the memory used by each model,
+     * and the state is not serialized with the model.
+     * @param retainOptimiserState If true retain the optimiser state.
+     */
+    public void setRetainOptimiserState(boolean retainOptimiserState) {
+        this.retainOptimiserState = retainOptimiserState;
+    }
+
+    /**
+     * Sets the number of examples buffered for shuffling when training from a {@link DataSource}.
+     * @param shuffleBufferSize The shuffle buffer size, must be positive.
+     */
+    public void setShuffleBufferSize(int shuffleBufferSize) {
+        if (shuffleBufferSize < 1) {
+            throw new IllegalArgumentException("shuffleBufferSize must be positive, found " + shuffleBufferSize);
+        }
+        this.shuffleBufferSize = shuffleBufferSize;
+    }
+
     @Override
     public V train(Dataset<T> examples) {
         return train(examples, Collections.emptyMap());
@@ -137,6 +259,11 @@ public abstract class AbstractSGDTrainer<T extends Output<T>,U,V extends Model<T
 
     @Override
     public V train(Dataset<T> examples, Map<String, Provenance> runProvenance) {
+        return train(examples, runProvenance, INCREMENT_INVOCATION_COUNT);
+    }
+
+    @Override
+    public V train(Dataset<T> examples, Map<String, Provenance> runProvenance, int invocationCount) {
         if (examples.getOutputInfo().getUnknownCount() > 0) {
             throw new IllegalArgumentException("The supplied Dataset contained unknown Outputs, and this Trainer is supervised.");
         }
@@ -145,16 +272,122 @@ public abstract class AbstractSGDTrainer<T extends Output<T>,U,V extends Model<T
         SplittableRandom localRNG;
         StochasticGradientOptimiser localOptimiser;
         synchronized(this) {
+            if (invocationCount != INCREMENT_INVOCATION_COUNT) {
+                setInvocationCount(invocationCount);
+            }
             localRNG = rng.split();
             localOptimiser = optimiser.copy();
             trainerProvenance = getProvenance();
             trainInvocationCounter++;
         }
 
-        SGDObjective<U> objective = getObjective();
         ImmutableOutputInfo<T> outputIDInfo = examples.getOutputIDInfo();
         ImmutableFeatureMap featureIDMap = examples.getFeatureIDMap();
-        int featureSpaceSize = featureIDMap.size();
+
+        X parameters = createParameters(featureIDMap.size(), outputIDInfo.size(), localRNG);
+
+        localOptimiser.initialise(parameters);
+        trainParameters(examples, featureIDMap, outputIDInfo, parameters, localOptimiser, localRNG);
+        localOptimiser.finalise();
+        ModelProvenance provenance = new ModelProvenance(getModelClassName(), OffsetDateTime.now(), examples.getProvenance(), trainerProvenance, runProvenance);
+        V model = createModel(getName(),provenance,featureIDMap,outputIDInfo,parameters);
+        retainOrReset(model, localOptimiser);
+        return model;
+    }
+
+    /**
+     * Continues training the supplied model on the new data.
+     * <p>
+     * The model's parameters are the starting point, and the feature and output domains are the union
+     * of the model's domains and those of the new data. Features and outputs which only appear in the
+     * new data get freshly initialised parameters. Statistics of features already known to the model
+     * are not updated.
+     * <p>
+     * If the domains are unchanged and the model's optimiser state was retained
+     * (see {@link #setRetainOptimiserState}) training resumes with that state, otherwise a fresh optimiser
+     * is initialised on the model's parameters. The model itself is not modified.
+     * @param newData The additional training data.
+     * @param model The model to update, which must have been produced by a trainer of this type.
+     * @return The updated model.
+     */
+    @Override
+    public V incrementalTrain(Dataset<T> newData, V model) {
+        return incrementalTrain(newData, model, Collections.emptyMap());
+    }
+
+    /**
+     * Continues training the supplied model on the new data.
+     * <p>
+     * See {@link #incrementalTrain(Dataset, Model)} for details.
+     * @param newData The additional training data.
+     * @param model The model to update, which must have been produced by a trainer of this type.
+     * @param runProvenance Run specific provenance (e.g., the data source's location).
+     * @return The updated model.
+     */
+    public V incrementalTrain(Dataset<T> newData, V model, Map<String, Provenance> runProvenance) {
+        if (newData.getOutputInfo().getUnknownCount() > 0) {
+            throw new IllegalArgumentException("The supplied Dataset contained unknown Outputs, and this Trainer is supervised.");
+        }
+        if (!(model instanceof AbstractSGDModel)) {
+            throw new IllegalArgumentException("Incremental training requires an SGD model, found " + model.getClass().getName());
+        }
+        TrainerProvenance trainerProvenance;
+        SplittableRandom localRNG;
+        StochasticGradientOptimiser retainedOptimiser;
+        synchronized(this) {
+            localRNG = rng.split();
+            trainerProvenance = getProvenance();
+            trainInvocationCounter++;
+            retainedOptimiser = optimiserStates.remove(model);
+        }
+
+        ImmutableFeatureMap featureIDMap = IncrementalTrainer.mergeFeatureMaps(model.getFeatureIDMap(), newData);
+        ImmutableOutputInfo<T> outputIDInfo = IncrementalTrainer.mergeOutputInfo(model.getOutputIDInfo(), newData);
+        int[] featureMapping = IncrementalTrainer.featureMapping(featureIDMap, model.getFeatureIDMap());
+        int[] outputMapping = IncrementalTrainer.outputMapping(outputIDInfo, model.getOutputIDInfo());
+        boolean sameDomains = IncrementalTrainer.isIdentity(featureMapping, model.getFeatureIDMap().size())
+                && IncrementalTrainer.isIdentity(outputMapping, model.getOutputIDInfo().size());
+
+        @SuppressWarnings("unchecked") // Models of type V are produced by createModel using parameters of type X.
+        X modelParameters = (X) ((AbstractSGDModel<T>) model).getModelParameters();
+        X parameters;
+        if (sameDomains) {
+            parameters = modelParameters;
+        } else {
+            logger.info(String.format("Growing the domains from %d features and %d outputs to %d features and %d outputs",
+                    model.getFeatureIDMap().size(), model.getOutputIDInfo().size(), featureIDMap.size(), outputIDInfo.size()));
+            parameters = createParameters(featureIDMap.size(), outputIDInfo.size(), localRNG);
+            copyParameters(modelParameters, parameters, featureMapping, outputMapping);
+        }
+
+        StochasticGradientOptimiser localOptimiser;
+        if (sameDomains && (retainedOptimiser != null)) {
+            logger.fine("Resuming training with the retained optimiser state");
+            localOptimiser = retainedOptimiser;
+        } else {
+            localOptimiser = optimiser.copy();
+            localOptimiser.initialise(parameters);
+        }
+        trainParameters(newData, featureIDMap, outputIDInfo, parameters, localOptimiser, localRNG);
+        localOptimiser.finalise();
+        ModelProvenance provenance = new ModelProvenance(getModelClassName(), OffsetDateTime.now(), newData.getProvenance(), trainerProvenance, runProvenance);
+        V newModel = createModel(getName(),provenance,featureIDMap,outputIDInfo,parameters);
+        retainOrReset(newModel, localOptimiser);
+        return newModel;
+    }
+
+    /**
+     * Runs the training epochs over the dataset, updating the parameters in place.
+     * @param examples The training data.
+     * @param featureIDMap The feature domain.
+     * @param outputIDInfo The output domain.
+     * @param parameters The parameters to train.
+     * @param localOptimiser The optimiser, initialised on the parameters.
+     * @param localRNG The RNG used to shuffle the examples.
+     */
+    private void trainParameters(Dataset<T> examples, ImmutableFeatureMap featureIDMap, ImmutableOutputInfo<T> outputIDInfo,
+                                 X parameters, StochasticGradientOptimiser localOptimiser, SplittableRandom localRNG) {
+        SGDObjective<U> objective = getObjective();
 
         SGDVector[] sgdFeatures = new SGDVector[examples.size()];
         @SuppressWarnings("unchecked")
@@ -165,11 +398,9 @@ public abstract class AbstractSGDTrainer<T extends Output<T>,U,V extends Model<T
         long denseCount = 0;
         for (Example<T> example : examples) {
             weights[n] = example.getWeight();
-            if (example.size() == featureSpaceSize) {
-                sgdFeatures[n] = DenseVector.createDenseVector(example, featureIDMap, addBias);
+            sgdFeatures[n] = createFeatures(example, featureIDMap);
+            if (sgdFeatures[n] instanceof DenseVector) {
                 denseCount++;
-            } else {
-                sgdFeatures[n] = SparseVector.createSparseVector(example, featureIDMap, addBias);
             }
             sgdTargets[n] = getTarget(outputIDInfo,example.getOutput());
             featureSize += sgdFeatures[n].numActiveElements();
@@ -179,66 +410,162 @@ public abstract class AbstractSGDTrainer<T extends Output<T>,U,V extends Model<T
         logger.fine("Mean number of active features = " + featureSize / (double)n);
         logger.fine("Number of dense examples = " + denseCount);
         logger.info("Outputs - " + outputIDInfo.toReadableString());
+        boolean hogwild = (numThreads > 1) && (parallelMode == ParallelMode.HOGWILD) && (sgdFeatures.length > 1);
+        if (hogwild && !localOptimiser.supportsConcurrentStep()) {
+            logger.warning(localOptimiser.getClass().getName() + " does not support concurrent steps, training on a single thread.");
+            hogwild = false;
+        }
+        if (hogwild) {
+            trainHogwild(parameters, localOptimiser, objective, sgdFeatures, sgdTargets, weights, localRNG);
+        } else {
+            ExecutorService gradientPool = createGradientPool();
+            try {
+                SGDStepper stepper = new SGDStepper(parameters, localOptimiser, objective, gradientPool);
+                for (int i = 0; i < epochs; i++) {
+                    if (shuffle) {
+                        shuffleInPlace(sgdFeatures, sgdTargets, weights, localRNG);
+                    }
+                    for (int j = 0; j < sgdFeatures.length; j++) {
+                        stepper.step(sgdFeatures[j], sgdTargets[j], weights[j]);
+                    }
+                    stepper.flush();
+                }
+            } finally {
+                if (gradientPool != null) {
+                    gradientPool.shutdownNow();
+                }
+            }
+        }
+    }
+
+    /**
+     * Retains the optimiser state for the model if required and supported, otherwise resets the optimiser.
+     * @param model The trained model.
+     * @param localOptimiser The finalised optimiser.
+     */
+    private void retainOrReset(V model, StochasticGradientOptimiser localOptimiser) {
+        if (retainOptimiserState && localOptimiser.supportsResume()) {
+            optimiserStates.put(model, localOptimiser);
+        } else {
+            localOptimiser.reset();
+        }
+    }
+
+    /**
+     * Trains a model by streaming over the supplied data source, without materializing it as a {@link Dataset}.
+     * <p>
+     * Each epoch is a fresh pass over the data source, so it must be iterable multiple times. The feature
+     * and output domains are fixed up front, features unknown to the feature map are ignored, and
+     * examples with unknown outputs cause an {@link IllegalArgumentException}.
+     * <p>
+     * Rather than shuffling the whole dataset each epoch, examples are passed through a shuffle buffer of
+     * {@link #setShuffleBufferSize size} examples, which emits a uniformly random buffered example each time
+     * a new example arrives. Memory usage is proportional to the model plus the buffer. If the buffer
+     * is at least as large as the data source this is a full shuffle, and if shuffling is turned off the
+     * examples are presented in data source order.
+     * @param source The data source to train on.
+     * @param featureIDMap The feature domain.
+     * @param outputIDInfo The output domain.
+     * @return A trained model.
+     */
+    public V train(DataSource<T> source, ImmutableFeatureMap featureIDMap, ImmutableOutputInfo<T> outputIDInfo) {
+        return train(source, featureIDMap, outputIDInfo, Collections.emptyMap());
+    }
+
+    /**
+     * Trains a model by streaming over the supplied data source, without materializing it as a {@link Dataset}.
+     * <p>
+     * See {@link #train(DataSource, ImmutableFeatureMap, ImmutableOutputInfo)} for details.
+     * @param source The data source to train on.
+     * @param featureIDMap The feature domain.
+     * @param outputIDInfo The output domain.
+     * @param runProvenance Run specific provenance (e.g., the data source's location).
+     * @return A trained model.
+     */
+    public V train(DataSource<T> source, ImmutableFeatureMap featureIDMap, ImmutableOutputInfo<T> outputIDInfo, Map<String, Provenance> runProvenance) {
+        // Creates a new RNG, adds one to the invocation count, generates a local optimiser.
+        TrainerProvenance trainerProvenance;
+        SplittableRandom localRNG;
+        StochasticGradientOptimiser localOptimiser;
+        synchronized(this) {
+            localRNG = rng.split();
+            localOptimiser = optimiser.copy();
+            trainerProvenance = getProvenance();
+            trainInvocationCounter++;
+        }
+
+        SGDObjective<U> objective = getObjective();
+        T unknownOutput = source.getOutputFactory().getUnknownOutput();
+        logger.info("Outputs - " + outputIDInfo.toReadableString());
 
         X parameters = createParameters(featureIDMap.size(), outputIDInfo.size(), localRNG);
 
         localOptimiser.initialise(parameters);
-        double loss = 0.0;
-        int iteration = 0;
-
-        for (int i = 0; i < epochs; i++) {
-            if (shuffle) {
-                shuffleInPlace(sgdFeatures, sgdTargets, weights, localRNG);
-            }
-            if (minibatchSize == 1) {
-                for (int j = 0; j < sgdFeatures.length; j++) {
-                    SGDVector pred = parameters.predict(sgdFeatures[j]);
-                    Pair<Double,SGDVector> output = objective.lossAndGradient(sgdTargets[j],pred);
-                    loss += output.getA()*weights[j];
-
-                    Tensor[] updates = localOptimiser.step(parameters.gradients(output,sgdFeatures[j]),weights[j]);
-                    parameters.update(updates);
-
-                    iteration++;
-                    if ((loggingInterval != -1) && (iteration % loggingInterval == 0)) {
-                        logger.info("At iteration " + iteration + ", average loss = " + loss/loggingInterval);
-                        loss = 0.0;
-                    }
-                }
-            } else {
-                Tensor[][] gradients = new Tensor[minibatchSize][];
-                for (int j = 0; j < sgdFeatures.length; j += minibatchSize) {
-                    double tempWeight = 0.0;
-                    int curSize = 0;
-                    for (int k = j; k < j+minibatchSize && k < sgdFeatures.length; k++) {
-                        SGDVector pred = parameters.predict(sgdFeatures[k]);
-                        Pair<Double,SGDVector> output = objective.lossAndGradient(sgdTargets[k],pred);
-                        loss += output.getA()*weights[k];
-                        tempWeight += weights[k];
-
-                        gradients[k-j] = parameters.gradients(output,sgdFeatures[k]);
-                        curSize++;
-                    }
-                    Tensor[] updates = parameters.merge(gradients,curSize);
-                    for (int k = 0; k < updates.length; k++) {
-                        updates[k].scaleInPlace(minibatchSize);
+        SGDVector[] bufferFeatures = new SGDVector[shuffleBufferSize];
+        @SuppressWarnings("unchecked")
+        U[] bufferTargets = (U[]) new Object[shuffleBufferSize];
+        double[] bufferWeights = new double[shuffleBufferSize];
+        int numExamples = -1;
+        ExecutorService gradientPool = createGradientPool();
+        try {
+            SGDStepper stepper = new SGDStepper(parameters, localOptimiser, objective, gradientPool);
+            for (int i = 0; i < epochs; i++) {
+                int n = 0;
+                int bufferCount = 0;
+                for (Example<T> example : source) {
+                    if (unknownOutput.equals(example.getOutput())) {
+                        throw new IllegalArgumentException("The supplied DataSource contained unknown Outputs, and this Trainer is supervised.");
                     }
-                    tempWeight /= minibatchSize;
-                    updates = localOptimiser.step(updates,tempWeight);
-                    parameters.update(updates);
-
-                    iteration++;
-                    if ((loggingInterval != -1) && (iteration % loggingInterval == 0)) {
-                        logger.info("At iteration " + iteration + ", average loss = " + loss/loggingInterval);
-                        loss = 0.0;
+                    SGDVector features = createFeatures(example, featureIDMap);
+                    U target = getTarget(outputIDInfo, example.getOutput());
+                    double weight = example.getWeight();
+                    n++;
+                    if (!shuffle) {
+                        stepper.step(features, target, weight);
+                    } else if (bufferCount < shuffleBufferSize) {
+                        bufferFeatures[bufferCount] = features;
+                        bufferTargets[bufferCount] = target;
+                        bufferWeights[bufferCount] = weight;
+                        bufferCount++;
+                    } else {
+                        int j = localRNG.nextInt(shuffleBufferSize);
+                        stepper.step(bufferFeatures[j], bufferTargets[j], bufferWeights[j]);
+                        bufferFeatures[j] = features;
+                        bufferTargets[j] = target;
+                        bufferWeights[j] = weight;
                     }
                 }
+                // Drain the remaining buffered examples in a random order.
+                for (int j = bufferCount; j > 0; j--) {
+                    int k = localRNG.nextInt(j);
+                    stepper.step(bufferFeatures[k], bufferTargets[k], bufferWeights[k]);
+                    bufferFeatures[k] = bufferFeatures[j-1];
+                    bufferTargets[k] = bufferTargets[j-1];
+                    bufferWeights[k] = bufferWeights[j-1];
+                    bufferFeatures[j-1] = null;
+                    bufferTargets[j-1] = null;
+                }
+                stepper.flush();
+                if (n == 0) {
+                    throw new IllegalArgumentException("The supplied DataSource did not contain any examples.");
+                } else if (numExamples == -1) {
+                    numExamples = n;
+                    logger.info(String.format("Training SGD model by streaming %d examples", n));
+                } else if (numExamples != n) {
+                    logger.warning(String.format("DataSource returned %d examples in epoch %d, expected %d", n, i, numExamples));
+                }
+            }
+        } finally {
+            if (gradientPool != null) {
+                gradientPool.shutdownNow();
             }
         }
         localOptimiser.finalise();
-        ModelProvenance provenance = new ModelProvenance(getModelClassName(), OffsetDateTime.now(), examples.getProvenance(), trainerProvenance, runProvenance);
+        DatasetProvenance datasetProvenance = new DatasetProvenance(source.getProvenance(), new ListProvenance<>(),
+                source.getClass().getName(), false, false, numExamples, featureIDMap.size(), outputIDInfo.size());
+        ModelProvenance provenance = new ModelProvenance(getModelClassName(), OffsetDateTime.now(), datasetProvenance, trainerProvenance, runProvenance);
         V model = createModel(getName(),provenance,featureIDMap,outputIDInfo,parameters);
-        localOptimiser.reset();
+        retainOrReset(model, localOptimiser);
         return model;
     }
 
@@ -247,6 +574,22 @@ public abstract class AbstractSGDTrainer<T extends Output<T>,U,V extends Model<T
         return trainInvocationCounter;
     }
 
+    @Override
+    public boolean supportsInvocationCount() {
+        return true;
+    }
+
+    @Override
+    public synchronized void setInvocationCount(int invocationCount) {
+        if (invocationCount < 0) {
+            throw new IllegalArgumentException("The supplied invocationCount is less than zero.");
+        }
+        rng = new SplittableRandom(seed);
+        for (trainInvocationCounter = 0; trainInvocationCounter < invocationCount; trainInvocationCounter++) {
+            rng.split();
+        }
+    }
+
     /**
      * Extracts the appropriate training time representation from the supplied output.
      * @param outputInfo The output info to use.
@@ -293,11 +636,259 @@ public abstract class AbstractSGDTrainer<T extends Output<T>,U,V extends Model<T
      */
     protected abstract X createParameters(int numFeatures, int numOutputs, SplittableRandom localRNG);
 
+    /**
+     * Copies the trained parameters into freshly created parameters for a larger domain, used by incremental training.
+     * <p>
+     * The mappings are indexed by the id in the target domain, and contain the id in the source domain,
+     * or -1 if the feature or output is new, in which case the target's initial value is kept.
+     * @param source The trained parameters.
+     * @param target The new parameters.
+     * @param featureMapping The mapping from target feature ids to source feature ids.
+     * @param outputMapping The mapping from target output ids to source output ids.
+     */
+    protected abstract void copyParameters(X source, X target, int[] featureMapping, int[] outputMapping);
+
     @Override
     public TrainerProvenance getProvenance() {
         return new TrainerProvenanceImpl(this);
     }
 
+    /**
+     * Runs lock-free (Hogwild) training.
+     * <p>
+     * Each epoch the examples are shuffled, then split into contiguous shards, one per thread.
+     * Each thread steps through its shard updating the shared parameters and optimiser without locking,
+     * and the threads synchronise at the end of each epoch.
+     * @param parameters The shared parameters.
+     * @param optimiser The shared optimiser.
+     * @param objective The objective.
+     * @param sgdFeatures The features.
+     * @param sgdTargets The targets.
+     * @param weights The example weights.
+     * @param localRNG The RNG used to shuffle the examples.
+     */
+    private void trainHogwild(X parameters, StochasticGradientOptimiser optimiser, SGDObjective<U> objective, SGDVector[] sgdFeatures, U[] sgdTargets, double[] weights, SplittableRandom localRNG) {
+        int numWorkers = Math.min(numThreads, sgdFeatures.length);
+        logger.info("Training with " + numWorkers + " Hogwild threads");
+        List<SGDStepper> steppers = new ArrayList<>(numWorkers);
+        for (int w = 0; w < numWorkers; w++) {
+            steppers.add(new SGDStepper(parameters, optimiser, objective, null));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(numWorkers);
+        try {
+            for (int i = 0; i < epochs; i++) {
+                if (shuffle) {
+                    shuffleInPlace(sgdFeatures, sgdTargets, weights, localRNG);
+                }
+                List<Callable<Void>> tasks = new ArrayList<>(numWorkers);
+                for (int w = 0; w < numWorkers; w++) {
+                    final SGDStepper stepper = steppers.get(w);
+                    final int start = (int) (((long) sgdFeatures.length * w) / numWorkers);
+                    final int end = (int) (((long) sgdFeatures.length * (w + 1)) / numWorkers);
+                    tasks.add(() -> {
+                        for (int j = start; j < end; j++) {
+                            stepper.step(sgdFeatures[j], sgdTargets[j], weights[j]);
+                        }
+                        stepper.flush();
+                        return null;
+                    });
+                }
+                invokeAll(pool, tasks);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the pool used to compute minibatch gradients in {@link ParallelMode#SYNCHRONOUS} mode.
+     * @return A thread pool, or null if the gradients should be computed on the calling thread.
+     */
+    private ExecutorService createGradientPool() {
+        if ((numThreads > 1) && (parallelMode == ParallelMode.SYNCHRONOUS)) {
+            if (minibatchSize > 1) {
+                return Executors.newFixedThreadPool(Math.min(numThreads, minibatchSize));
+            } else {
+                logger.warning("Synchronous parallel training requires a minibatch size greater than one, training on a single thread.");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs the tasks on the pool, waiting for them all to complete.
+     * @param pool The thread pool.
+     * @param tasks The tasks.
+     */
+    private static void invokeAll(ExecutorService pool, List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during parallel training",e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new IllegalStateException("Parallel training failed",e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Converts the example into an {@link SGDVector}, using a {@link DenseVector} if the
+     * example contains every feature and a {@link SparseVector} otherwise.
+     * @param example The example to convert.
+     * @param featureIDMap The feature domain.
+     * @return The feature vector.
+     */
+    private SGDVector createFeatures(Example<T> example, ImmutableFeatureMap featureIDMap) {
+        if (example.size() == featureIDMap.size()) {
+            return DenseVector.createDenseVector(example, featureIDMap, addBias);
+        } else {
+            return SparseVector.createSparseVector(example, featureIDMap, addBias);
+        }
+    }
+
+    /**
+     * Applies gradient updates one example at a time, accumulating minibatches if required,
+     * and logs the loss every {@link #loggingInterval} updates.
+     * <p>
+     * If it has a thread pool, the gradients of each minibatch are computed concurrently. The
+     * gradients are computed against the same parameters, and the losses, weights and gradients are
+     * reduced in example order, so the updates are the same as computing them on a single thread.
+     */
+    private final class SGDStepper {
+        private final X parameters;
+        private final StochasticGradientOptimiser optimiser;
+        private final SGDObjective<U> objective;
+        private final ExecutorService pool;
+        private final Tensor[][] gradients;
+        private final SGDVector[] batchFeatures;
+        private final U[] batchTargets;
+        private final double[] batchWeights;
+        private final double[] batchLosses;
+        private int batchSize = 0;
+        private double loss = 0.0;
+        private int iteration = 0;
+
+        @SuppressWarnings("unchecked")
+        SGDStepper(X parameters, StochasticGradientOptimiser optimiser, SGDObjective<U> objective, ExecutorService pool) {
+            this.parameters = parameters;
+            this.optimiser = optimiser;
+            this.objective = objective;
+            this.pool = pool;
+            if (minibatchSize == 1) {
+                this.gradients = null;
+                this.batchFeatures = null;
+                this.batchTargets = null;
+                this.batchWeights = null;
+                this.batchLosses = null;
+            } else {
+                this.gradients = new Tensor[minibatchSize][];
+                this.batchFeatures = new SGDVector[minibatchSize];
+                this.batchTargets = (U[]) new Object[minibatchSize];
+                this.batchWeights = new double[minibatchSize];
+                this.batchLosses = new double[minibatchSize];
+            }
+        }
+
+        /**
+         * Applies the gradient for this example, or adds it to the current minibatch.
+         * @param features The features.
+         * @param target The target.
+         * @param weight The example weight.
+         */
+        void step(SGDVector features, U target, double weight) {
+            if (minibatchSize == 1) {
+                SGDVector pred = parameters.predict(features);
+                Pair<Double,SGDVector> output = objective.lossAndGradient(target,pred);
+                loss += output.getA()*weight;
+                Tensor[] updates = optimiser.step(parameters.gradients(output,features),weight);
+                parameters.update(updates);
+                incrementIteration();
+            } else {
+                batchFeatures[batchSize] = features;
+                batchTargets[batchSize] = target;
+                batchWeights[batchSize] = weight;
+                batchSize++;
+                if (batchSize == minibatchSize) {
+                    flush();
+                }
+            }
+        }
+
+        /**
+         * Applies any partial minibatch, called at the end of each epoch.
+         */
+        void flush() {
+            if (batchSize > 0) {
+                computeGradients();
+                double batchWeight = 0.0;
+                for (int k = 0; k < batchSize; k++) {
+                    loss += batchLosses[k];
+                    batchWeight += batchWeights[k];
+                }
+                Tensor[] updates = parameters.merge(gradients,batchSize);
+                for (int k = 0; k < updates.length; k++) {
+                    updates[k].scaleInPlace(minibatchSize);
+                }
+                updates = optimiser.step(updates,batchWeight / minibatchSize);
+                parameters.update(updates);
+                Arrays.fill(gradients,null);
+                Arrays.fill(batchFeatures,null);
+                Arrays.fill(batchTargets,null);
+                batchSize = 0;
+                incrementIteration();
+            }
+        }
+
+        /**
+         * Computes the loss and gradient for each example in the current minibatch.
+         */
+        private void computeGradients() {
+            if ((pool == null) || (batchSize == 1)) {
+                computeGradients(0,batchSize);
+            } else {
+                int numTasks = Math.min(numThreads,batchSize);
+                List<Callable<Void>> tasks = new ArrayList<>(numTasks);
+                for (int t = 0; t < numTasks; t++) {
+                    final int start = (batchSize * t) / numTasks;
+                    final int end = (batchSize * (t + 1)) / numTasks;
+                    tasks.add(() -> {
+                        computeGradients(start,end);
+                        return null;
+                    });
+                }
+                invokeAll(pool,tasks);
+            }
+        }
+
+        /**
+         * Computes the loss and gradient for the minibatch examples in the range.
+         * @param start The start index (inclusive).
+         * @param end The end index (exclusive).
+         */
+        private void computeGradients(int start, int end) {
+            for (int k = start; k < end; k++) {
+                SGDVector pred = parameters.predict(batchFeatures[k]);
+                Pair<Double,SGDVector> output = objective.lossAndGradient(batchTargets[k],pred);
+                batchLosses[k] = output.getA()*batchWeights[k];
+                gradients[k] = parameters.gradients(output,batchFeatures[k]);
+            }
+        }
+
+        private void incrementIteration() {
+            iteration++;
+            if ((loggingInterval != -1) && (iteration % loggingInterval == 0)) {
+                logger.info("At iteration " + iteration + ", average loss = " + loss/loggingInterval);
+                loss = 0.0;
+            }
+        }
+    }
+
     /**
      * Shuffles the features, outputs and weights in place.
      * @param features Feature array.
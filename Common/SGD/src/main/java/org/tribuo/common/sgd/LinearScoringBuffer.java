@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.common.sgd;
+
+import java.util.Arrays;
+
+/**
+ * A reusable scratch space for scoring examples with an {@link AbstractLinearSGDModel}
+ * without allocating intermediate vectors or {@link org.tribuo.Prediction}s.
+ * <p>
+ * Holds the feature index and value scratch arrays, and the per output score array. The
+ * scratch arrays grow as required, so after a warm up period scoring does not allocate.
+ * <p>
+ * Buffers are not thread safe, each thread should use its own buffer.
+ */
+public final class LinearScoringBuffer {
+
+    /**
+     * The default initial capacity of the feature scratch arrays.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    int[] indices;
+    double[] values;
+    int numActive;
+    final double[] scores;
+
+    /**
+     * Constructs a scoring buffer.
+     * @param numOutputs The number of outputs (i.e., the size of the model's output domain).
+     * @param initialCapacity The initial size of the feature scratch arrays.
+     */
+    public LinearScoringBuffer(int numOutputs, int initialCapacity) {
+        if (numOutputs < 1) {
+            throw new IllegalArgumentException("numOutputs must be positive, found " + numOutputs);
+        }
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("initialCapacity must be positive, found " + initialCapacity);
+        }
+        this.indices = new int[initialCapacity];
+        this.values = new double[initialCapacity];
+        this.numActive = 0;
+        this.scores = new double[numOutputs];
+    }
+
+    /**
+     * Returns the score array filled in by the last call to
+     * {@link AbstractLinearSGDModel#score(org.tribuo.Example, LinearScoringBuffer)}.
+     * <p>
+     * Element {@code i} is the score for the output with id {@code i} in the model's output domain.
+     * This is a reference to the buffer's internal array, it is overwritten on the next call to score.
+     * @return The scores.
+     */
+    public double[] getScores() {
+        return scores;
+    }
+
+    /**
+     * Returns the number of features from the last scored example which were present in the model's feature domain.
+     * @return The number of active features.
+     */
+    public int getNumActiveFeatures() {
+        return numActive;
+    }
+
+    /**
+     * Returns the index of the highest scoring output in the last scored example.
+     * @return The id of the highest scoring output.
+     */
+    public int argmax() {
+        int maxIdx = 0;
+        for (int i = 1; i < scores.length; i++) {
+            if (scores[i] > scores[maxIdx]) {
+                maxIdx = i;
+            }
+        }
+        return maxIdx;
+    }
+
+    /**
+     * Clears the feature scratch arrays, growing them if they can't hold the requested number of features.
+     * @param numFeatures The maximum number of features which will be added.
+     */
+    void reset(int numFeatures) {
+        if (numFeatures > indices.length) {
+            int newSize = Math.max(numFeatures, indices.length + (indices.length >> 1));
+            indices = Arrays.copyOf(indices, newSize);
+            values = Arrays.copyOf(values, newSize);
+        }
+        numActive = 0;
+    }
+
+    /**
+     * Appends a feature to the scratch arrays.
+     * <p>
+     * The arrays must have been sized appropriately via {@link #reset(int)}.
+     * @param index The feature index.
+     * @param value The feature value.
+     */
+    void add(int index, double value) {
+        indices[numActive] = index;
+        values[numActive] = value;
+        numActive++;
+    }
+}
@@ -36,6 +36,7 @@ import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Base class for {@link org.tribuo.Trainer}'s that use an approximation of the CART algorithm to build a decision tree.
@@ -87,6 +88,12 @@ public abstract class AbstractCARTTrainer<T extends Output<T>> implements Decisi
     @Config(description="The RNG seed to use when sampling features in a split.")
     protected long seed = Trainer.DEFAULT_SEED;
 
+    /**
+     * Number of threads used to evaluate the candidate splits and partition the data at each node.
+     */
+    @Config(description="The number of threads to use when evaluating splits.")
+    protected int numThreads = 1;
+
     protected SplittableRandom rng;
 
     protected int trainInvocationCounter;
@@ -102,12 +109,31 @@ public abstract class AbstractCARTTrainer<T extends Output<T>> implements Decisi
      */
     protected AbstractCARTTrainer(int maxDepth, float minChildWeight, float minImpurityDecrease,
                                   float fractionFeaturesInSplit, boolean useRandomSplitPoints, long seed) {
+        this(maxDepth, minChildWeight, minImpurityDecrease, fractionFeaturesInSplit, useRandomSplitPoints, seed, 1);
+    }
+
+    /**
+     * After calls to this superconstructor subclasses must call postConfig().
+     * <p>
+     * The trees produced are identical for any number of threads.
+     * @param maxDepth The maximum depth of the tree.
+     * @param minChildWeight The minimum child weight allowed.
+     * @param minImpurityDecrease The minimum decrease in impurity necessary to split a node.
+     * @param fractionFeaturesInSplit The fraction of features to consider at each split.
+     * @param useRandomSplitPoints Whether to choose split points for features at random.
+     * @param seed The seed for the feature subsampling RNG.
+     * @param numThreads The number of threads to use when evaluating splits.
+     */
+    protected AbstractCARTTrainer(int maxDepth, float minChildWeight, float minImpurityDecrease,
+                                  float fractionFeaturesInSplit, boolean useRandomSplitPoints, long seed,
+                                  int numThreads) {
         this.maxDepth = maxDepth;
         this.fractionFeaturesInSplit = fractionFeaturesInSplit;
         this.useRandomSplitPoints = useRandomSplitPoints;
         this.minChildWeight = minChildWeight;
         this.minImpurityDecrease = minImpurityDecrease;
         this.seed = seed;
+        this.numThreads = numThreads;
     }
 
     /**
@@ -133,6 +159,10 @@ public abstract class AbstractCARTTrainer<T extends Output<T>> implements Decisi
         if (minChildWeight <= 0.0f) {
             throw new IllegalArgumentException("minChildWeight must be greater than 0");
         }
+
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("numThreads must be greater than or equal to 1");
+        }
     }
 
     @Override
@@ -155,13 +185,42 @@ public abstract class AbstractCARTTrainer<T extends Output<T>> implements Decisi
         return minImpurityDecrease;
     }
 
+    /**
+     * Gets the number of threads used to evaluate splits.
+     * @return The number of threads.
+     */
+    public int getNumThreads() {
+        return numThreads;
+    }
+
     @Override
     public TreeModel<T> train(Dataset<T> examples) {
         return train(examples, Collections.emptyMap());
     }
 
+    @Override
+    public boolean supportsInvocationCount() {
+        return true;
+    }
+
+    @Override
+    public synchronized void setInvocationCount(int invocationCount) {
+        if (invocationCount < 0) {
+            throw new IllegalArgumentException("The supplied invocationCount is less than zero.");
+        }
+        rng = new SplittableRandom(seed);
+        for (trainInvocationCounter = 0; trainInvocationCounter < invocationCount; trainInvocationCounter++) {
+            rng.split();
+        }
+    }
+
     @Override
     public TreeModel<T> train(Dataset<T> examples, Map<String, Provenance> runProvenance) {
+        return train(examples, runProvenance, INCREMENT_INVOCATION_COUNT);
+    }
+
+    @Override
+    public TreeModel<T> train(Dataset<T> examples, Map<String, Provenance> runProvenance, int invocationCount) {
         if (examples.getOutputInfo().getUnknownCount() > 0) {
             throw new IllegalArgumentException("The supplied Dataset contained unknown Outputs, and this Trainer is supervised.");
         }
@@ -169,6 +228,9 @@ public abstract class AbstractCARTTrainer<T extends Output<T>> implements Decisi
         SplittableRandom localRNG;
         TrainerProvenance trainerProvenance;
         synchronized(this) {
+            if (invocationCount != INCREMENT_INVOCATION_COUNT) {
+                setInvocationCount(invocationCount);
+            }
             localRNG = rng.split();
             trainerProvenance = getProvenance();
             trainInvocationCounter++;
@@ -201,27 +263,44 @@ public abstract class AbstractCARTTrainer<T extends Output<T>> implements Decisi
         Deque<AbstractTrainingNode<T>> queue = new ArrayDeque<>();
         queue.add(root);
 
-        while (!queue.isEmpty()) {
-            AbstractTrainingNode<T> node = queue.poll();
-            if ((node.getImpurity() > 0.0) && (node.getDepth() < maxDepth) &&
-                    (node.getWeightSum() >= minChildWeight)) {
-                if (numFeaturesInSplit != featureIDMap.size()) {
-                    Util.randpermInPlace(originalIndices, localRNG);
-                    System.arraycopy(originalIndices, 0, indices, 0, numFeaturesInSplit);
-                }
-                List<AbstractTrainingNode<T>> nodes = node.buildTree(indices, localRNG, getUseRandomSplitPoints());
-                // Use the queue as a stack to improve cache locality.
-                // Building depth first.
-                for (AbstractTrainingNode<T> newNode : nodes) {
-                    queue.addFirst(newNode);
+        ForkJoinPool pool = createPool();
+        try {
+            while (!queue.isEmpty()) {
+                AbstractTrainingNode<T> node = queue.poll();
+                if ((node.getImpurity() > 0.0) && (node.getDepth() < maxDepth) &&
+                        (node.getWeightSum() >= minChildWeight)) {
+                    if (numFeaturesInSplit != featureIDMap.size()) {
+                        Util.randpermInPlace(originalIndices, localRNG);
+                        System.arraycopy(originalIndices, 0, indices, 0, numFeaturesInSplit);
+                    }
+                    List<AbstractTrainingNode<T>> nodes = node.buildTree(indices, localRNG, getUseRandomSplitPoints(), pool);
+                    // Use the queue as a stack to improve cache locality.
+                    // Building depth first.
+                    for (AbstractTrainingNode<T> newNode : nodes) {
+                        queue.addFirst(newNode);
+                    }
                 }
             }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
         }
 
         ModelProvenance provenance = new ModelProvenance(TreeModel.class.getName(), OffsetDateTime.now(), examples.getProvenance(), trainerProvenance, runProvenance);
         return new TreeModel<>("cart-tree", provenance, featureIDMap, outputIDInfo, false, root.convertTree());
     }
 
+    /**
+     * Creates the pool used to evaluate splits, or returns null if {@link #numThreads} is one.
+     * <p>
+     * The caller is responsible for shutting down the pool.
+     * @return A pool with {@link #numThreads} threads, or null.
+     */
+    protected ForkJoinPool createPool() {
+        return numThreads > 1 ? new ForkJoinPool(numThreads) : null;
+    }
+
     /**
      * Makes the initial training node.
      * @param examples The dataset to use.
@@ -19,8 +19,12 @@ package org.tribuo.common.tree;
 import org.tribuo.Output;
 import org.tribuo.math.la.SparseVector;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Base class for decision tree nodes used at training time.
@@ -32,6 +36,17 @@ public abstract class AbstractTrainingNode<T extends Output<T>> implements Node<
      */
     protected static final int DEFAULT_SIZE = 16;
 
+    /**
+     * The minimum number of examples in a node before the split search and data partition
+     * are spread across the training pool. Smaller nodes are processed on the calling thread.
+     */
+    protected static final int MIN_PARALLEL_EXAMPLES = 256;
+
+    /**
+     * The number of chunks per pool thread used when splitting up work.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
     protected final int depth;
 
     protected final int numExamples;
@@ -72,6 +87,23 @@ public abstract class AbstractTrainingNode<T extends Output<T>> implements Node<
     public abstract List<AbstractTrainingNode<T>> buildTree(int[] featureIDs, SplittableRandom rng,
                                                             boolean useRandomSplitPoints);
 
+    /**
+     * Builds next level of a tree, using the supplied pool to evaluate the candidate features and
+     * partition the data in parallel.
+     * <p>
+     * Implementations must produce the same children as {@link #buildTree(int[], SplittableRandom, boolean)},
+     * and consume the same values from the rng. The default implementation ignores the pool.
+     * @param featureIDs Indices of the features available in this split.
+     * @param rng Splittable random number generator.
+     * @param useRandomSplitPoints Whether to choose split points for features at random.
+     * @param pool The pool to use, if null the work is performed on the calling thread.
+     * @return A possibly empty list of TrainingNodes.
+     */
+    public List<AbstractTrainingNode<T>> buildTree(int[] featureIDs, SplittableRandom rng,
+                                                   boolean useRandomSplitPoints, ForkJoinPool pool) {
+        return buildTree(featureIDs, rng, useRandomSplitPoints);
+    }
+
     /**
      * Converts a tree from a training representation to the final inference time representation.
      * @return The converted subtree.
@@ -157,6 +189,109 @@ public abstract class AbstractTrainingNode<T extends Output<T>> implements Node<
         throw new UnsupportedOperationException("Copy is not supported on training nodes.");
     }
 
+    /**
+     * Should work on this node be spread across the supplied pool?
+     * @param pool The pool, may be null.
+     * @return True if the pool is non-null and this node has enough examples to make it worthwhile.
+     */
+    protected boolean useParallel(ForkJoinPool pool) {
+        return (pool != null) && (pool.getParallelism() > 1) && (numExamples >= MIN_PARALLEL_EXAMPLES);
+    }
+
+    /**
+     * Applies the function to contiguous chunks of the range [0, size), returning the results in chunk order.
+     * <p>
+     * If {@link #useParallel} is false the function is applied once to the whole range on the calling thread,
+     * otherwise the chunks are executed on the pool.
+     * @param size The size of the range.
+     * @param pool The pool to use, may be null.
+     * @param function The function to apply to each chunk.
+     * @param <R> The result type.
+     * @return The chunk results in order.
+     */
+    protected <R> List<R> mapChunks(int size, ForkJoinPool pool, ChunkFunction<R> function) {
+        if (!useParallel(pool) || (size < 2)) {
+            return Collections.singletonList(function.apply(0, size));
+        }
+        int numChunks = Math.min(size, pool.getParallelism() * CHUNKS_PER_THREAD);
+        List<ForkJoinTask<R>> tasks = new ArrayList<>(numChunks);
+        for (int i = 0; i < numChunks; i++) {
+            final int start = (int) (((long) size * i) / numChunks);
+            final int end = (int) (((long) size * (i + 1)) / numChunks);
+            tasks.add(pool.submit(() -> function.apply(start, end)));
+        }
+        List<R> output = new ArrayList<>(numChunks);
+        for (ForkJoinTask<R> task : tasks) {
+            output.add(task.join());
+        }
+        return output;
+    }
+
+    /**
+     * Selects the lowest scoring candidate from a list of per chunk candidates.
+     * <p>
+     * Ties are broken in favour of the earliest candidate, which matches the order
+     * of a sequential search over the features.
+     * @param candidates The candidates, null elements are ignored.
+     * @param <C> The candidate type.
+     * @return The best candidate, or null if all the candidates are null.
+     */
+    protected static <C extends SplitCandidate> C selectBest(List<C> candidates) {
+        C best = null;
+        for (C c : candidates) {
+            if ((c != null) && ((best == null) || (c.score < best.score))) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A function applied to a chunk of a range.
+     * @param <R> The result type.
+     */
+    @FunctionalInterface
+    protected interface ChunkFunction<R> {
+        /**
+         * Applies this function to the chunk [start, end).
+         * @param start The start of the chunk (inclusive).
+         * @param end The end of the chunk (exclusive).
+         * @return The result.
+         */
+        R apply(int start, int end);
+    }
+
+    /**
+     * The best split point found in a chunk of the candidate features.
+     * Subclasses add the statistics needed to build the children.
+     */
+    protected static class SplitCandidate {
+        /**
+         * The index into the featureIDs array of the split feature.
+         */
+        public final int featureIdx;
+        /**
+         * The impurity score of the split.
+         */
+        public final double score;
+        /**
+         * The feature value to split at.
+         */
+        public final double splitValue;
+
+        /**
+         * Constructs a split candidate.
+         * @param featureIdx The index into the featureIDs array of the split feature.
+         * @param score The impurity score of the split.
+         * @param splitValue The feature value to split at.
+         */
+        public SplitCandidate(int featureIdx, double score, double splitValue) {
+            this.featureIdx = featureIdx;
+            this.score = score;
+            this.splitValue = splitValue;
+        }
+    }
+
     /**
      * Contains parameters needed to determine whether a node is a leaf.
      */
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.common.tree;
+
+import org.tribuo.Output;
+import org.tribuo.math.la.SparseVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compiled form of a decision tree, stored as parallel primitive arrays.
+ * <p>
+ * Split nodes are numbered in breadth first order, and each split stores its feature id,
+ * split value and the references of its two children. A child reference is either the index
+ * of another split node (if non-negative), or the bitwise complement of a leaf index
+ * (if negative). The leaves themselves are stored in an array indexed by leaf index.
+ * <p>
+ * Walking the tree touches only the primitive arrays until the leaf is reached, rather
+ * than chasing pointers through the {@link SplitNode} objects. The walk applies the same
+ * rule as {@link SplitNode#getNextNode}, a feature which is not present is treated as zero
+ * and values strictly greater than the split value take the greater than branch.
+ * <p>
+ * Immutable and thread safe.
+ * @param <T> The output type of the tree.
+ */
+public final class FlatTree<T extends Output<T>> {
+
+    private final int root;
+
+    private final int[] splitFeature;
+
+    private final double[] splitValue;
+
+    private final int[] greaterThan;
+
+    private final int[] lessThanOrEqual;
+
+    private final LeafNode<T>[] leaves;
+
+    /**
+     * Compiles the tree rooted at the supplied node.
+     * @param rootNode The root of the tree.
+     */
+    @SuppressWarnings("unchecked") // generic array creation.
+    public FlatTree(Node<T> rootNode) {
+        if (rootNode == null) {
+            throw new IllegalArgumentException("The root node must not be null");
+        }
+        List<SplitNode<T>> splits = new ArrayList<>();
+        List<LeafNode<T>> leafList = new ArrayList<>();
+        this.root = reference(rootNode,splits,leafList);
+
+        // The splits list grows as the children are visited, which numbers the splits in breadth first order.
+        int[] gt = new int[16];
+        int[] le = new int[16];
+        for (int i = 0; i < splits.size(); i++) {
+            if (i == gt.length) {
+                gt = Arrays.copyOf(gt,gt.length*2);
+                le = Arrays.copyOf(le,le.length*2);
+            }
+            SplitNode<T> split = splits.get(i);
+            gt[i] = reference(split.getGreaterThan(),splits,leafList);
+            le[i] = reference(split.getLessThanOrEqual(),splits,leafList);
+        }
+
+        int numSplits = splits.size();
+        this.splitFeature = new int[numSplits];
+        this.splitValue = new double[numSplits];
+        this.greaterThan = Arrays.copyOf(gt,numSplits);
+        this.lessThanOrEqual = Arrays.copyOf(le,numSplits);
+        for (int i = 0; i < numSplits; i++) {
+            SplitNode<T> split = splits.get(i);
+            splitFeature[i] = split.getFeatureID();
+            splitValue[i] = split.splitValue();
+        }
+        this.leaves = leafList.toArray(new LeafNode[0]);
+    }
+
+    /**
+     * Returns the reference for the supplied node, appending it to the appropriate list.
+     * @param node The node.
+     * @param splits The split nodes seen so far.
+     * @param leafList The leaf nodes seen so far.
+     * @param <T> The output type.
+     * @return The node reference.
+     */
+    private static <T extends Output<T>> int reference(Node<T> node, List<SplitNode<T>> splits, List<LeafNode<T>> leafList) {
+        if (node.isLeaf()) {
+            leafList.add((LeafNode<T>) node);
+            return ~(leafList.size() - 1);
+        } else {
+            splits.add((SplitNode<T>) node);
+            return splits.size() - 1;
+        }
+    }
+
+    /**
+     * The number of split nodes in this tree.
+     * @return The number of splits.
+     */
+    public int getNumSplits() {
+        return splitFeature.length;
+    }
+
+    /**
+     * The number of leaves in this tree.
+     * @return The number of leaves.
+     */
+    public int getNumLeaves() {
+        return leaves.length;
+    }
+
+    /**
+     * Returns the leaf with the supplied index.
+     * @param leafIndex The leaf index.
+     * @return The leaf node.
+     */
+    public LeafNode<T> getLeaf(int leafIndex) {
+        return leaves[leafIndex];
+    }
+
+    /**
+     * Walks the tree and returns the index of the leaf the vector reaches.
+     * @param vec The feature vector.
+     * @return The leaf index.
+     */
+    public int findLeaf(SparseVector vec) {
+        int cur = root;
+        while (cur >= 0) {
+            cur = vec.get(splitFeature[cur]) > splitValue[cur] ? greaterThan[cur] : lessThanOrEqual[cur];
+        }
+        return ~cur;
+    }
+
+    /**
+     * Walks all the vectors through the tree together, one level at a time,
+     * writing the index of the leaf each vector reaches into {@code leafIndices}.
+     * <p>
+     * The walks are independent, so interleaving them lets the memory accesses of
+     * different vectors overlap while the tree arrays stay in cache.
+     * @param vecs The feature vectors.
+     * @param leafIndices The output array of leaf indices, must be at least as long as {@code vecs}.
+     */
+    public void findLeaves(SparseVector[] vecs, int[] leafIndices) {
+        if (leafIndices.length < vecs.length) {
+            throw new IllegalArgumentException("leafIndices is too short, expected at least " + vecs.length + ", found " + leafIndices.length);
+        }
+        int numVecs = vecs.length;
+        Arrays.fill(leafIndices,0,numVecs,root);
+        boolean active = root >= 0;
+        while (active) {
+            active = false;
+            for (int i = 0; i < numVecs; i++) {
+                int cur = leafIndices[i];
+                if (cur >= 0) {
+                    cur = vecs[i].get(splitFeature[cur]) > splitValue[cur] ? greaterThan[cur] : lessThanOrEqual[cur];
+                    leafIndices[i] = cur;
+                    active |= cur >= 0;
+                }
+            }
+        }
+        for (int i = 0; i < numVecs; i++) {
+            leafIndices[i] = ~leafIndices[i];
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FlatTree(numSplits=" + splitFeature.length + ",numLeaves=" + leaves.length + ")";
+    }
+}
@@ -73,6 +73,22 @@ public class RandomForestTrainer<T extends Output<T>> extends BaggingTrainer<T>
         postConfig();
     }
 
+    /**
+     * Constructs a RandomForestTrainer with the supplied seed, trainer, combining function and number of members,
+     * which trains the members using {@code numThreads} threads.
+     * <p>
+     * Throws {@link PropertyException} if the trainer is not set to subsample the features.
+     * @param trainer The tree trainer.
+     * @param combiner The combining function for the ensemble.
+     * @param numMembers The number of ensemble members to train.
+     * @param seed The RNG seed.
+     * @param numThreads The number of threads to use when training the members.
+     */
+    public RandomForestTrainer(DecisionTreeTrainer<T> trainer, EnsembleCombiner<T> combiner, int numMembers, long seed, int numThreads) {
+        super(trainer,combiner,numMembers,seed,numThreads);
+        postConfig();
+    }
+
     /**
      * Used by the OLCUT configuration system, and should not be called by external code.
      */
@@ -114,6 +130,8 @@ public class RandomForestTrainer<T extends Output<T>> extends BaggingTrainer<T>
         buffer.append(numMembers);
         buffer.append(",seed=");
         buffer.append(seed);
+        buffer.append(",numThreads=");
+        buffer.append(numThreads);
         buffer.append(")");
 
         return buffer.toString();
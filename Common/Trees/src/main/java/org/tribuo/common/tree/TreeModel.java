@@ -28,6 +28,8 @@ import org.tribuo.SparseModel;
 import org.tribuo.math.la.SparseVector;
 import org.tribuo.provenance.ModelProvenance;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -44,12 +46,29 @@ import java.util.Set;
 
 /**
  * A {@link Model} wrapped around a decision tree root {@link Node}.
+ * <p>
+ * Predictions are made using a {@link FlatTree} compiled from the root node when
+ * the model is constructed or deserialized. The node graph is kept because it is the
+ * serialized form and is exposed by {@link #getRoot()}, and the compiled tree is
+ * transient. The compiled tree shares the {@link LeafNode} instances with the graph,
+ * so it only adds four primitive array entries per split node.
+ * <p>
+ * Batch predictions walk blocks of {@link #PREDICTION_BLOCK_SIZE} examples through the
+ * compiled tree together, so the memory used is bounded by the block size rather
+ * than the number of examples.
  */
 public class TreeModel<T extends Output<T>> extends SparseModel<T> {
     private static final long serialVersionUID = 3L;
 
+    /**
+     * The number of examples walked through the tree at once in {@link #predict(Iterable)}.
+     */
+    public static final int PREDICTION_BLOCK_SIZE = 256;
+
     private final Node<T> root;
 
+    private transient FlatTree<T> flatTree;
+
     /**
      * Constructs a trained decision tree model.
      * @param name The model name.
@@ -62,6 +81,7 @@ public class TreeModel<T extends Output<T>> extends SparseModel<T> {
     TreeModel(String name, ModelProvenance description, ImmutableFeatureMap featureIDMap, ImmutableOutputInfo<T> outputIDInfo, boolean generatesProbabilities, Node<T> root) {
         super(name, description, featureIDMap, outputIDInfo, generatesProbabilities, gatherActiveFeatures(featureIDMap,root));
         this.root = root;
+        this.flatTree = new FlatTree<>(root);
     }
 
     /**
@@ -81,6 +101,7 @@ public class TreeModel<T extends Output<T>> extends SparseModel<T> {
                         boolean generatesProbabilities, Map<String,List<String>> activeFeatures) {
         super(name, description, featureIDMap, outputIDInfo, generatesProbabilities, activeFeatures);
         this.root = null;
+        this.flatTree = null;
     }
 
     private static <T extends Output<T>> Map<String,List<String>> gatherActiveFeatures(ImmutableFeatureMap fMap, Node<T> root) {
@@ -147,23 +168,67 @@ public class TreeModel<T extends Output<T>> extends SparseModel<T> {
 
     @Override
     public Prediction<T> predict(Example<T> example) {
+        SparseVector vec = createVector(example);
+        LeafNode<T> leaf = flatTree.getLeaf(flatTree.findLeaf(vec));
+        return leaf.getPrediction(vec.numActiveElements(),example);
+    }
+
+    /**
+     * Walks blocks of examples through the compiled tree together.
+     * @param examples The examples to predict.
+     * @return The predictions.
+     */
+    @Override
+    protected List<Prediction<T>> innerPredict(Iterable<Example<T>> examples) {
+        List<Prediction<T>> predictions = new ArrayList<>();
+        List<Example<T>> block = new ArrayList<>(PREDICTION_BLOCK_SIZE);
+        for (Example<T> example : examples) {
+            block.add(example);
+            if (block.size() == PREDICTION_BLOCK_SIZE) {
+                predictBlock(block,predictions);
+                block.clear();
+            }
+        }
+        if (!block.isEmpty()) {
+            predictBlock(block,predictions);
+        }
+        return predictions;
+    }
+
+    /**
+     * Walks a block of examples through the compiled tree together.
+     * <p>
+     * Subclasses with multiple roots must override this method.
+     * @param block The examples to predict.
+     * @param output The list to append the predictions to.
+     */
+    protected void predictBlock(List<Example<T>> block, List<Prediction<T>> output) {
+        SparseVector[] vecs = new SparseVector[block.size()];
+        for (int i = 0; i < vecs.length; i++) {
+            vecs[i] = createVector(block.get(i));
+        }
+        int[] leafIndices = new int[vecs.length];
+        flatTree.findLeaves(vecs,leafIndices);
+
+        for (int i = 0; i < vecs.length; i++) {
+            output.add(flatTree.getLeaf(leafIndices[i]).getPrediction(vecs[i].numActiveElements(),block.get(i)));
+        }
+    }
+
+    /**
+     * Converts the example into a {@link SparseVector} using this model's feature domain,
+     * throwing {@link IllegalArgumentException} if there are no valid features.
+     * @param example The example.
+     * @return The feature vector.
+     */
+    protected SparseVector createVector(Example<T> example) {
         //
         // Ensures we handle collisions correctly
         SparseVector vec = SparseVector.createSparseVector(example,featureIDMap,false);
         if (vec.numActiveElements() == 0) {
             throw new IllegalArgumentException("No features found in Example " + example.toString());
         }
-        Node<T> oldNode = root;
-        Node<T> curNode = root;
-
-        while (curNode != null) {
-            oldNode = curNode;
-            curNode = oldNode.getNextNode(vec);
-        }
-
-        //
-        // oldNode must be a LeafNode.
-        return ((LeafNode<T>) oldNode).getPrediction(vec.numActiveElements(),example);
+        return vec;
     }
 
     @Override
@@ -287,4 +352,19 @@ public class TreeModel<T extends Output<T>> extends SparseModel<T> {
         return root;
     }
 
+    /**
+     * Returns the compiled form of this tree used for prediction.
+     * <p>
+     * Returns null if this model has multiple roots.
+     * @return The compiled tree.
+     */
+    public FlatTree<T> getFlatTree() {
+        return flatTree;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        flatTree = root != null ? new FlatTree<>(root) : null;
+    }
+
 }
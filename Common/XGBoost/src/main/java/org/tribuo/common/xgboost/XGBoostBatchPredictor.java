@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.common.xgboost;
+
+import org.tribuo.Example;
+import org.tribuo.Output;
+import org.tribuo.Prediction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Groups concurrent single example prediction requests against an {@link XGBoostModel}
+ * into micro-batches, so each batch is converted into a single CSR DMatrix and each
+ * Booster is invoked once per batch rather than once per example.
+ * <p>
+ * Requests are placed on a bounded queue. A background worker thread takes the first waiting
+ * request, then collects further requests until either the batch is full or the maximum delay has
+ * elapsed, and fans the predictions back out to the callers. If the queue is full, callers block
+ * until there is space or the predictor is closed. When a batch fails (e.g., because one example has no valid features) the
+ * examples in it are predicted individually so the failure is only reported to the offending caller.
+ * <p>
+ * Must be closed to release the worker thread, any requests still pending on close, and any
+ * requests submitted after close, are completed with an {@link IllegalStateException}.
+ * <p>
+ * Created via {@link XGBoostModel#createBatchPredictor()} or
+ * {@link XGBoostModel#createBatchPredictor(int, long, int)}.
+ * @param <T> The output type.
+ */
+public final class XGBoostBatchPredictor<T extends Output<T>> implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(XGBoostBatchPredictor.class.getName());
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    /**
+     * The default maximum number of examples in a batch.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+    /**
+     * The default maximum time in microseconds to wait for a batch to fill.
+     */
+    public static final long DEFAULT_MAX_DELAY_MICROS = 200;
+
+    /**
+     * The default capacity of the request queue.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * The time in milliseconds a blocked submission waits before rechecking if the predictor has been closed.
+     */
+    private static final long SUBMIT_POLL_MILLIS = 10;
+
+    private final XGBoostModel<T> model;
+
+    private final int maxBatchSize;
+
+    private final long maxDelayNanos;
+
+    private final BlockingQueue<PendingPrediction<T>> queue;
+
+    private final Thread worker;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Constructs a batch predictor and starts its worker thread.
+     * @param model The model to predict with.
+     * @param maxBatchSize The maximum number of examples in a batch.
+     * @param maxDelayMicros The maximum time in microseconds to wait for a batch to fill after the first request arrives.
+     * @param queueCapacity The maximum number of requests waiting to be batched.
+     */
+    XGBoostBatchPredictor(XGBoostModel<T> model, int maxBatchSize, long maxDelayMicros, int queueCapacity) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive, found " + maxBatchSize);
+        }
+        if (maxDelayMicros < 0) {
+            throw new IllegalArgumentException("maxDelayMicros must be non-negative, found " + maxDelayMicros);
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be positive, found " + queueCapacity);
+        }
+        this.model = model;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.worker = new Thread(this::run, "xgboost-batch-predictor-" + threadCounter.getAndIncrement());
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Returns the model this predictor wraps.
+     * @return The model.
+     */
+    public XGBoostModel<T> getModel() {
+        return model;
+    }
+
+    /**
+     * Returns the maximum batch size.
+     * @return The maximum batch size.
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Submits an example for prediction, returning a future which completes when
+     * the batch containing the example has been predicted.
+     * <p>
+     * Blocks if the request queue is full. If the predictor is closed before the request
+     * is queued, the returned future is completed with an {@link IllegalStateException}.
+     * @param example The example to predict.
+     * @return A future containing the prediction.
+     */
+    public CompletableFuture<Prediction<T>> submit(Example<T> example) {
+        PendingPrediction<T> pending = new PendingPrediction<>(example);
+        try {
+            // The worker stops taking requests once closed, so recheck periodically rather than blocking forever.
+            boolean queued = false;
+            while (!closed && !queued) {
+                queued = queue.offer(pending, SUBMIT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to submit a prediction",e);
+        }
+        // Catches a close which raced with the offer, as the worker may have already drained the queue.
+        if (closed) {
+            queue.remove(pending);
+            pending.future.completeExceptionally(new IllegalStateException("This batch predictor has been closed."));
+        }
+        return pending.future;
+    }
+
+    /**
+     * Predicts the example, blocking until the batch containing it has been predicted.
+     * @param example The example to predict.
+     * @return The prediction.
+     */
+    public Prediction<T> predict(Example<T> example) {
+        CompletableFuture<Prediction<T>> future = submit(example);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a prediction",e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new IllegalStateException("Failed to predict",e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Stops the worker thread, failing any requests which have not been predicted.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The worker loop, collects batches from the queue and predicts them.
+     */
+    private void run() {
+        List<PendingPrediction<T>> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!closed) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    // Take anything already waiting without blocking, then wait out the remaining delay.
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingPrediction<T> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                predictBatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Interrupted by close, fall through to fail the remaining requests.
+        }
+        queue.drainTo(batch);
+        for (PendingPrediction<T> p : batch) {
+            p.future.completeExceptionally(new IllegalStateException("This batch predictor has been closed."));
+        }
+    }
+
+    /**
+     * Predicts a batch, falling back to per example prediction if the batch fails.
+     * @param batch The batch to predict.
+     */
+    private void predictBatch(List<PendingPrediction<T>> batch) {
+        List<Example<T>> examples = new ArrayList<>(batch.size());
+        for (PendingPrediction<T> p : batch) {
+            examples.add(p.example);
+        }
+        try {
+            List<Prediction<T>> predictions = model.predict(examples);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(predictions.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+            } else {
+                logger.log(Level.FINE, "Batch prediction failed, falling back to single example prediction", e);
+                for (PendingPrediction<T> p : batch) {
+                    try {
+                        p.future.complete(model.predict(p.example));
+                    } catch (RuntimeException inner) {
+                        p.future.completeExceptionally(inner);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * An example waiting to be predicted, and the future to complete with its prediction.
+     * @param <T> The output type.
+     */
+    private static final class PendingPrediction<T extends Output<T>> {
+        final Example<T> example;
+        final CompletableFuture<Prediction<T>> future;
+
+        PendingPrediction(Example<T> example) {
+            this.example = example;
+            this.future = new CompletableFuture<>();
+        }
+    }
+}
@@ -160,8 +160,12 @@ public final class XGBoostModel<T extends Output<T>> extends Model<T> {
         try {
             DMatrixTuple<T> testMatrix = XGBoostTrainer.convertExamples(examples,featureIDMap);
             List<float[][]> outputs = new ArrayList<>();
-            for (Booster model : models) {
-                outputs.add(model.predict(testMatrix.data));
+            try {
+                for (Booster model : models) {
+                    outputs.add(model.predict(testMatrix.data));
+                }
+            } finally {
+                testMatrix.data.dispose();
             }
 
             int[] numValidFeatures = testMatrix.numValidFeatures;
@@ -179,8 +183,12 @@ public final class XGBoostModel<T extends Output<T>> extends Model<T> {
         try {
             DMatrixTuple<T> testData = XGBoostTrainer.convertExample(example,featureIDMap);
             List<float[]> outputs = new ArrayList<>();
-            for (Booster model : models) {
-                outputs.add(model.predict(testData.data)[0]);
+            try {
+                for (Booster model : models) {
+                    outputs.add(model.predict(testData.data)[0]);
+                }
+            } finally {
+                testData.data.dispose();
             }
             Prediction<T> pred = converter.convertOutput(outputIDInfo,outputs,testData.numValidFeatures[0],example);
             return pred;
@@ -190,6 +198,35 @@ public final class XGBoostModel<T extends Output<T>> extends Model<T> {
         }
     }
 
+    /**
+     * Creates a {@link XGBoostBatchPredictor} using the default batch size, delay and queue capacity.
+     * <p>
+     * The batch predictor groups concurrent single example requests into one DMatrix, which
+     * amortizes the native call overhead that dominates {@link #predict(Example)}.
+     * It must be closed when no longer required.
+     * @return A batch predictor backed by this model.
+     */
+    public XGBoostBatchPredictor<T> createBatchPredictor() {
+        return createBatchPredictor(XGBoostBatchPredictor.DEFAULT_MAX_BATCH_SIZE,
+                XGBoostBatchPredictor.DEFAULT_MAX_DELAY_MICROS,
+                XGBoostBatchPredictor.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a {@link XGBoostBatchPredictor} which groups concurrent single example requests
+     * into batches of at most {@code maxBatchSize} examples, waiting at most {@code maxDelayMicros}
+     * for a batch to fill.
+     * <p>
+     * The batch predictor must be closed when no longer required.
+     * @param maxBatchSize The maximum number of examples in a batch.
+     * @param maxDelayMicros The maximum time in microseconds to wait for a batch to fill.
+     * @param queueCapacity The maximum number of requests waiting to be batched.
+     * @return A batch predictor backed by this model.
+     */
+    public XGBoostBatchPredictor<T> createBatchPredictor(int maxBatchSize, long maxDelayMicros, int queueCapacity) {
+        return new XGBoostBatchPredictor<>(this,maxBatchSize,maxDelayMicros,queueCapacity);
+    }
+
     /**
      * Creates objects to report feature importance metrics for XGBoost. See the documentation of {@link XGBoostFeatureImportance}
      * for more information on what those metrics mean. Typically this list will contain a single instance for the entire
@@ -383,6 +383,19 @@ public abstract class XGBoostTrainer<T extends Output<T>> implements Trainer<T>,
         return trainInvocationCounter;
     }
 
+    @Override
+    public boolean supportsInvocationCount() {
+        return true;
+    }
+
+    @Override
+    public synchronized void setInvocationCount(int invocationCount) {
+        if (invocationCount < 0) {
+            throw new IllegalArgumentException("The supplied invocationCount is less than zero.");
+        }
+        trainInvocationCounter = invocationCount;
+    }
+
     protected static <T extends Output<T>> DMatrixTuple<T> convertDataset(Dataset<T> examples, Function<T,Float> responseExtractor) throws XGBoostError {
         return convertExamples(examples.getData(), examples.getFeatureIDMap(), responseExtractor);
     }
@@ -184,7 +184,7 @@ public abstract class Dataset<T extends Output<T>> implements Iterable<Example<T
      */
     public synchronized void shuffle(boolean shuffle) {
         if (shuffle) {
-            indices = Util.randperm(data.size(), rng);
+            indices = Util.randperm(size(), rng);
         } else {
             indices = null;
         }
@@ -310,7 +310,7 @@ public abstract class Dataset<T extends Output<T>> implements Iterable<Example<T
             }
             // Add the queue to the map for that feature
             featureStats.put(entry.getKey(),l);
-            sparseCount.put(entry.getKey(), new MutableLong(data.size()));
+            sparseCount.put(entry.getKey(), new MutableLong(size()));
         }
         if (!transformations.getGlobalTransformations().isEmpty()) {
             // Append all the global transformations
@@ -326,7 +326,7 @@ public abstract class Dataset<T extends Output<T>> implements Iterable<Example<T
                 // Add the queue to the map for that feature
                 featureStats.put(v, l);
                 // Generate the sparse count initialised to the number of features.
-                sparseCount.putIfAbsent(v, new MutableLong(data.size()));
+                sparseCount.putIfAbsent(v, new MutableLong(size()));
                 ndone++;
                 if(logger.isLoggable(Level.FINE) && ndone % 10000 == 0) {
                     logger.fine(String.format("Completed %,d of %,d global transformations", ndone, ntransform));
@@ -339,7 +339,8 @@ public abstract class Dataset<T extends Output<T>> implements Iterable<Example<T
         boolean initialisedSparseCounts = false;
         // Iterate through the dataset max(transformations.length) times.
         while (!featureStats.isEmpty()) {
-            for (Example<T> example : data) {
+            for (int i = 0; i < size(); i++) {
+                Example<T> example = getExample(i);
                 for (Feature f : example) {
                     if (featureStats.containsKey(f.getName())) {
                         if (!initialisedSparseCounts) {
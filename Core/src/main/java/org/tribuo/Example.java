@@ -16,6 +16,7 @@
 
 package org.tribuo;
 
+import com.oracle.labs.mlrg.olcut.util.Pair;
 import org.tribuo.hash.HashedFeatureMap;
 import org.tribuo.transform.Transformer;
 import org.tribuo.transform.TransformerMap;
@@ -345,6 +346,19 @@ public abstract class Example<T extends Output<T>> implements Iterable<Feature>,
      */
     public abstract void set(Feature feature);
 
+    /**
+     * Returns the ids and values of this example's features in the supplied feature map, if the
+     * example already stores them (e.g., because its feature ids were interned by that map).
+     * <p>
+     * The ids are unique and in increasing order, the values are in the same order and do not
+     * contain NaNs. Returns null if the example doesn't store ids for that feature map, which is the default.
+     * @param featureMap The feature map.
+     * @return A pair of copies of the feature ids and values, or null.
+     */
+    public Pair<int[],double[]> getInternedFeatures(ImmutableFeatureMap featureMap) {
+        return null;
+    }
+
     /**
      * Reassigns feature name Strings in the Example to point to those in the {@link FeatureMap}.
      * This significantly reduces memory allocation. It is called when an Example is added
@@ -16,10 +16,18 @@
 
 package org.tribuo;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.TreeMap;
 
 /**
@@ -31,6 +39,11 @@ import java.util.TreeMap;
  * This ensures that any Example with sorted names has sorted int ids, even if some of
  * those features are unobserved. This is an extremely important property of {@link Feature}s,
  * {@link Example}s and {@link ImmutableFeatureMap}.
+ * <p>
+ * Feature maps constructed by this class store the features in a compact table, an array of
+ * {@link VariableIDInfo} indexed by id and an open addressing hash table from the feature name to the id,
+ * rather than a pair of {@link HashMap}s. The {@link #m} and {@link #idMap} fields are read-only
+ * views of this table. The serialized form still uses {@link HashMap}s for compatibility.
  */
 public class ImmutableFeatureMap extends FeatureMap implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -45,6 +58,11 @@ public class ImmutableFeatureMap extends FeatureMap implements Serializable {
      */
     protected int size;
 
+    /**
+     * The compact feature table, null if this map is backed by {@link HashMap}s (e.g., in subclasses).
+     */
+    private transient final FeatureTable table;
+
     /**
      * Constructs a new immutable version which is a deep copy of the supplied feature map, generating new ID numbers.
      * <p>
@@ -64,13 +82,14 @@ public class ImmutableFeatureMap extends FeatureMap implements Serializable {
     }
 
     private ImmutableFeatureMap(Map<String,VariableIDInfo> map) {
-        super(map);
-        idMap = new HashMap<>();
-        for (Map.Entry<String, VariableInfo> e : m.entrySet()) {
-            VariableIDInfo idInfo = (VariableIDInfo) e.getValue();
-            idMap.put(idInfo.getID(),idInfo);
-        }
-        size = m.size();
+        this(new FeatureTable(map.values()));
+    }
+
+    private ImmutableFeatureMap(FeatureTable table) {
+        super(new NameView(table));
+        this.idMap = new IDView(table);
+        this.table = table;
+        this.size = table.infos.length;
     }
 
     /**
@@ -81,6 +100,7 @@ public class ImmutableFeatureMap extends FeatureMap implements Serializable {
     protected ImmutableFeatureMap() {
         super();
         idMap = new HashMap<>();
+        table = null;
     }
 
     /**
@@ -90,7 +110,11 @@ public class ImmutableFeatureMap extends FeatureMap implements Serializable {
      * @return The VariableInfo, or null.
      */
     public VariableIDInfo get(int id) {
-        return idMap.get(id);
+        if (table != null) {
+            return (id >= 0) && (id < table.infos.length) ? table.infos[id] : null;
+        } else {
+            return idMap.get(id);
+        }
     }
 
     /**
@@ -101,7 +125,12 @@ public class ImmutableFeatureMap extends FeatureMap implements Serializable {
      */
     @Override
     public VariableIDInfo get(String name) {
-        return (VariableIDInfo) super.get(name);
+        if (table != null) {
+            int id = table.getID(name);
+            return id == -1 ? null : table.infos[id];
+        } else {
+            return (VariableIDInfo) super.get(name);
+        }
     }
 
     /**
@@ -110,6 +139,9 @@ public class ImmutableFeatureMap extends FeatureMap implements Serializable {
      * @return A non-negative integer if the feature is known, -1 otherwise.
      */
     public int getID(String name) {
+        if (table != null) {
+            return table.getID(name);
+        }
         VariableIDInfo info = get(name);
         if (info != null) {
             return info.getID();
@@ -164,4 +196,259 @@ public class ImmutableFeatureMap extends FeatureMap implements Serializable {
         return outputMap;
     }
 
+    /**
+     * Replaces the {@link HashMap} backed map produced by deserialization with one using the compact table.
+     * <p>
+     * Only applies to this class, subclasses are deserialized as is.
+     * @return A compact copy of this feature map, or this map if the ids are not contiguous.
+     * @throws ObjectStreamException Never thrown, part of the serialization contract.
+     */
+    private Object readResolve() throws ObjectStreamException {
+        if ((table == null) && FeatureTable.isCompactable(idMap.values(), m.size())) {
+            return new ImmutableFeatureMap(new FeatureTable(idMap.values()));
+        } else {
+            return this;
+        }
+    }
+
+    /**
+     * A compact name to id table, storing the infos in an array indexed by id, and the names
+     * in an open addressing hash table with linear probing and cached hash codes.
+     */
+    private static final class FeatureTable {
+        private static final int EMPTY = -1;
+
+        final VariableIDInfo[] infos;
+        private final int[] slotIDs;
+        private final int[] slotHashes;
+        private final int mask;
+
+        /**
+         * Builds the table from the supplied infos, which must have unique ids in the range [0, infos.size()).
+         * @param values The infos.
+         */
+        FeatureTable(Collection<VariableIDInfo> values) {
+            int numFeatures = values.size();
+            this.infos = new VariableIDInfo[numFeatures];
+            for (VariableIDInfo info : values) {
+                int id = info.getID();
+                if ((id < 0) || (id >= numFeatures) || (infos[id] != null)) {
+                    throw new IllegalArgumentException("Feature ids must be unique and contiguous, found id " + id + " for feature " + info.getName());
+                }
+                infos[id] = info;
+            }
+            // Keep the load factor at or below 0.5
+            int capacity = Integer.highestOneBit(Math.max(2, numFeatures * 2 - 1)) << 1;
+            this.slotIDs = new int[capacity];
+            this.slotHashes = new int[capacity];
+            this.mask = capacity - 1;
+            Arrays.fill(slotIDs, EMPTY);
+            for (int i = 0; i < numFeatures; i++) {
+                int hash = hash(infos[i].getName());
+                int idx = hash & mask;
+                while (slotIDs[idx] != EMPTY) {
+                    if ((slotHashes[idx] == hash) && infos[slotIDs[idx]].getName().equals(infos[i].getName())) {
+                        throw new IllegalArgumentException("Duplicate feature name " + infos[i].getName());
+                    }
+                    idx = (idx + 1) & mask;
+                }
+                slotIDs[idx] = i;
+                slotHashes[idx] = hash;
+            }
+        }
+
+        /**
+         * Looks up the id for the supplied name.
+         * @param name The feature name.
+         * @return The id, or -1 if the name is unknown.
+         */
+        int getID(String name) {
+            int hash = hash(name);
+            int idx = hash & mask;
+            int id;
+            while ((id = slotIDs[idx]) != EMPTY) {
+                if ((slotHashes[idx] == hash) && infos[id].getName().equals(name)) {
+                    return id;
+                }
+                idx = (idx + 1) & mask;
+            }
+            return EMPTY;
+        }
+
+        /**
+         * Checks if the supplied infos can be stored in a table, i.e., they have unique
+         * ids in the range [0, numFeatures).
+         * @param values The infos.
+         * @param numFeatures The number of feature names.
+         * @return True if a table can be built.
+         */
+        static boolean isCompactable(Collection<VariableIDInfo> values, int numFeatures) {
+            if (values.size() != numFeatures) {
+                return false;
+            }
+            boolean[] seen = new boolean[numFeatures];
+            for (VariableIDInfo info : values) {
+                int id = info.getID();
+                if ((id < 0) || (id >= numFeatures) || seen[id]) {
+                    return false;
+                }
+                seen[id] = true;
+            }
+            return true;
+        }
+
+        /**
+         * Spreads the higher bits of the String hash code into the lower bits, as the table is indexed with a mask.
+         * @param name The name to hash.
+         * @return The hash code.
+         */
+        private static int hash(String name) {
+            int h = name.hashCode();
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Iterates the table in id order.
+     * @param <K> The key type.
+     */
+    private static abstract class TableIterator<K> implements Iterator<Map.Entry<K,VariableIDInfo>> {
+        private final VariableIDInfo[] infos;
+        private int pos = 0;
+
+        TableIterator(VariableIDInfo[] infos) {
+            this.infos = infos;
+        }
+
+        abstract K key(VariableIDInfo info);
+
+        @Override
+        public boolean hasNext() {
+            return pos < infos.length;
+        }
+
+        @Override
+        public Map.Entry<K,VariableIDInfo> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Iterator exhausted at position " + pos);
+            }
+            VariableIDInfo info = infos[pos];
+            pos++;
+            return new AbstractMap.SimpleImmutableEntry<>(key(info),info);
+        }
+    }
+
+    /**
+     * A read-only view of the table keyed by feature name. Serialized as a {@link HashMap}.
+     */
+    private static final class NameView extends AbstractMap<String,VariableIDInfo> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FeatureTable table;
+
+        NameView(FeatureTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public VariableIDInfo get(Object key) {
+            if (key instanceof String) {
+                int id = table.getID((String) key);
+                return id == -1 ? null : table.infos[id];
+            } else {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return (key instanceof String) && (table.getID((String) key) != -1);
+        }
+
+        @Override
+        public int size() {
+            return table.infos.length;
+        }
+
+        @Override
+        public Set<Entry<String,VariableIDInfo>> entrySet() {
+            return new AbstractSet<Entry<String,VariableIDInfo>>() {
+                @Override
+                public Iterator<Entry<String,VariableIDInfo>> iterator() {
+                    return new TableIterator<String>(table.infos) {
+                        @Override
+                        String key(VariableIDInfo info) {
+                            return info.getName();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return table.infos.length;
+                }
+            };
+        }
+
+        private Object writeReplace() throws ObjectStreamException {
+            return new HashMap<>(this);
+        }
+    }
+
+    /**
+     * A read-only view of the table keyed by feature id. Serialized as a {@link HashMap}.
+     */
+    private static final class IDView extends AbstractMap<Integer,VariableIDInfo> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FeatureTable table;
+
+        IDView(FeatureTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public VariableIDInfo get(Object key) {
+            if (key instanceof Integer) {
+                int id = (Integer) key;
+                return (id >= 0) && (id < table.infos.length) ? table.infos[id] : null;
+            } else {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return table.infos.length;
+        }
+
+        @Override
+        public Set<Entry<Integer,VariableIDInfo>> entrySet() {
+            return new AbstractSet<Entry<Integer,VariableIDInfo>>() {
+                @Override
+                public Iterator<Entry<Integer,VariableIDInfo>> iterator() {
+                    return new TableIterator<Integer>(table.infos) {
+                        @Override
+                        Integer key(VariableIDInfo info) {
+                            return info.getID();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return table.infos.length;
+                }
+            };
+        }
+
+        private Object writeReplace() throws ObjectStreamException {
+            return new HashMap<>(this);
+        }
+    }
 }
@@ -16,6 +16,12 @@
 
 package org.tribuo;
 
+import com.oracle.labs.mlrg.olcut.util.Pair;
+import org.tribuo.hash.HashedFeatureMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * An interface for incremental training of {@link Model}s.
  */
@@ -29,4 +35,109 @@ public interface IncrementalTrainer<T extends Output<T>, U extends Model<T>> ext
      */
     public U incrementalTrain(Dataset<T> newData, U model);
 
+    /**
+     * Merges the feature domain of a model with the features observed in the new data.
+     * <p>
+     * Features known to the model keep the model's statistics, features which only appear in the
+     * new data are added. Ids are regenerated, so use {@link #featureMapping} to map between the two domains.
+     * A {@link HashedFeatureMap} can't grow, so it's returned unchanged.
+     * @param modelMap The model's feature domain.
+     * @param newData The new data.
+     * @return The merged feature domain.
+     */
+    public static ImmutableFeatureMap mergeFeatureMaps(ImmutableFeatureMap modelMap, Dataset<?> newData) {
+        return mergeFeatureMaps(modelMap, newData.getFeatureMap());
+    }
+
+    /**
+     * Merges the feature domain of a model with another feature domain.
+     * <p>
+     * Features known to the model keep the model's statistics, features which only appear in the
+     * other domain are added. Ids are regenerated, so use {@link #featureMapping} to map between the domains.
+     * A {@link HashedFeatureMap} can't grow, so it's returned unchanged.
+     * @param modelMap The model's feature domain.
+     * @param otherMap The other feature domain.
+     * @return The merged feature domain.
+     */
+    public static ImmutableFeatureMap mergeFeatureMaps(ImmutableFeatureMap modelMap, FeatureMap otherMap) {
+        if (modelMap instanceof HashedFeatureMap) {
+            return modelMap;
+        }
+        List<VariableInfo> infos = new ArrayList<>(modelMap.size());
+        for (VariableInfo info : modelMap) {
+            infos.add(info);
+        }
+        for (VariableInfo info : otherMap) {
+            if (modelMap.get(info.getName()) == null) {
+                infos.add(info);
+            }
+        }
+        return new ImmutableFeatureMap(infos);
+    }
+
+    /**
+     * Merges the output domain of a model with the outputs observed in the new data, accumulating their counts.
+     * <p>
+     * Ids are regenerated, so use {@link #outputMapping} to map between the two domains.
+     * @param modelInfo The model's output domain.
+     * @param newData The new data.
+     * @param <T> The output type.
+     * @return The merged output domain.
+     */
+    public static <T extends Output<T>> ImmutableOutputInfo<T> mergeOutputInfo(ImmutableOutputInfo<T> modelInfo, Dataset<T> newData) {
+        MutableOutputInfo<T> info = modelInfo.generateMutableOutputInfo();
+        for (Example<T> example : newData) {
+            info.observe(example.getOutput());
+        }
+        return info.generateImmutableOutputInfo();
+    }
+
+    /**
+     * Computes the id in the old feature domain of each feature in the new domain.
+     * @param newMap The new feature domain.
+     * @param oldMap The old feature domain.
+     * @return An array indexed by the new ids, containing the old id or -1 if the feature is new.
+     */
+    public static int[] featureMapping(ImmutableFeatureMap newMap, ImmutableFeatureMap oldMap) {
+        int[] mapping = new int[newMap.size()];
+        for (int i = 0; i < mapping.length; i++) {
+            mapping[i] = newMap == oldMap ? i : oldMap.getID(newMap.get(i).getName());
+        }
+        return mapping;
+    }
+
+    /**
+     * Computes the id in the old output domain of each output in the new domain.
+     * @param newInfo The new output domain.
+     * @param oldInfo The old output domain.
+     * @param <T> The output type.
+     * @return An array indexed by the new ids, containing the old id or -1 if the output is new.
+     */
+    public static <T extends Output<T>> int[] outputMapping(ImmutableOutputInfo<T> newInfo, ImmutableOutputInfo<T> oldInfo) {
+        int[] mapping = new int[newInfo.size()];
+        for (Pair<Integer,T> p : newInfo) {
+            mapping[p.getA()] = oldInfo.getID(p.getB());
+        }
+        return mapping;
+    }
+
+    /**
+     * Checks if a mapping produced by {@link #featureMapping} or {@link #outputMapping} is the identity,
+     * i.e., the domain didn't change.
+     * @param mapping The mapping.
+     * @param oldSize The size of the old domain.
+     * @return True if the new domain is the same as the old one.
+     */
+    public static boolean isIdentity(int[] mapping, int oldSize) {
+        if (mapping.length != oldSize) {
+            return false;
+        }
+        for (int i = 0; i < mapping.length; i++) {
+            if (mapping[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
@@ -28,6 +28,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * A prediction model, which is used to predict outputs for unseen instances.
@@ -50,6 +53,11 @@ public abstract class Model<T extends Output<T>> implements Provenancable<ModelP
      */
     public static final String BIAS_FEATURE = "BIAS";
 
+    /**
+     * The default number of examples in each chunk submitted by {@link Model#predict(Iterable, ExecutorService)}.
+     */
+    public static final int DEFAULT_PREDICTION_CHUNK_SIZE = 256;
+
     /**
      * The model's name.
      */
@@ -204,7 +212,78 @@ public abstract class Model<T extends Output<T>> implements Provenancable<ModelP
     }
 
     /**
-     * Called by the base implementations of {@link Model#predict(Iterable)} and {@link Model#predict(Dataset)}.
+     * Uses the model to predict the output for multiple examples, splitting the examples into
+     * chunks of {@link #DEFAULT_PREDICTION_CHUNK_SIZE} and scoring the chunks on the supplied executor.
+     * <p>
+     * See {@link Model#predict(Iterable, ExecutorService, int)}.
+     * @param examples the examples to predict.
+     * @param executor the executor to run the predictions on.
+     * @return the results of the prediction, in the same order as the
+     * examples.
+     */
+    public List<Prediction<T>> predict(Iterable<Example<T>> examples, ExecutorService executor) {
+        return predict(examples, executor, DEFAULT_PREDICTION_CHUNK_SIZE);
+    }
+
+    /**
+     * Uses the model to predict the output for multiple examples, splitting the examples into
+     * chunks and scoring the chunks on the supplied executor.
+     * <p>
+     * Each chunk is scored using the model's batch prediction path, so any per-batch optimisations in the model apply
+     * to each chunk. The executor is owned by the caller and is not shut down by this method. Any
+     * {@link ExecutorService} can be used, including a {@link java.util.concurrent.ForkJoinPool} or a virtual thread
+     * executor on Java versions which support them.
+     * <p>
+     * Throws {@link IllegalArgumentException} if the examples have no features
+     * or no feature overlap with the model.
+     * @param examples the examples to predict.
+     * @param executor the executor to run the predictions on.
+     * @param chunkSize the number of examples in each chunk.
+     * @return the results of the prediction, in the same order as the
+     * examples.
+     */
+    public List<Prediction<T>> predict(Iterable<Example<T>> examples, ExecutorService executor, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive, found " + chunkSize);
+        }
+        List<Future<List<Prediction<T>>>> futures = new ArrayList<>();
+        List<Example<T>> chunk = new ArrayList<>(chunkSize);
+        for (Example<T> example : examples) {
+            chunk.add(example);
+            if (chunk.size() == chunkSize) {
+                List<Example<T>> curChunk = chunk;
+                futures.add(executor.submit(() -> innerPredict(curChunk)));
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            List<Example<T>> curChunk = chunk;
+            futures.add(executor.submit(() -> innerPredict(curChunk)));
+        }
+
+        List<Prediction<T>> predictions = new ArrayList<>();
+        try {
+            for (Future<List<Prediction<T>>> f : futures) {
+                predictions.addAll(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("Interrupted while predicting in parallel",e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new IllegalStateException("Failed to predict in parallel",e.getCause());
+            }
+        }
+        return predictions;
+    }
+
+    /**
+     * Called by the base implementations of {@link Model#predict(Iterable)} and {@link Model#predict(Dataset)},
+     * and on each chunk by {@link Model#predict(Iterable, ExecutorService, int)}, so it may be called concurrently.
      * @param examples The examples to predict.
      * @return The results of the predictions, in the same order as the examples.
      */
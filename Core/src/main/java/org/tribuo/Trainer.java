@@ -34,6 +34,12 @@ public interface Trainer<T extends Output<T>> extends Configurable, Provenancabl
      * Default seed used to initialise RNGs.
      */
     public static long DEFAULT_SEED = 12345L;
+
+    /**
+     * When passed as the invocation count to {@link #train(Dataset, Map, int)} the
+     * trainer uses (and increments) its current invocation count.
+     */
+    public static final int INCREMENT_INVOCATION_COUNT = -1;
     
     /**
      * Trains a predictive model using the examples in the given data set.
@@ -52,6 +58,31 @@ public interface Trainer<T extends Output<T>> extends Configurable, Provenancabl
      */
     public Model<T> train(Dataset<T> examples, Map<String, Provenance> runProvenance);
 
+    /**
+     * Trains a predictive model using the examples in the given data set, first setting the
+     * trainer's invocation count (and thus its RNG state) to the supplied value.
+     * <p>
+     * This allows several models to be trained concurrently from one trainer while
+     * producing the same models as a sequence of calls to {@link #train(Dataset, Map)}.
+     * Trainers which override this should set the count and draw their RNG atomically,
+     * the default implementation holds the trainer's lock for the whole of training.
+     * @param examples the data set containing the examples.
+     * @param runProvenance Training run specific provenance (e.g., fold number).
+     * @param invocationCount The invocation count to use, or {@link #INCREMENT_INVOCATION_COUNT}
+     *                        to use the current count.
+     * @return a predictive model that can be used to generate predictions for new examples.
+     */
+    default public Model<T> train(Dataset<T> examples, Map<String, Provenance> runProvenance, int invocationCount) {
+        if (invocationCount == INCREMENT_INVOCATION_COUNT) {
+            return train(examples, runProvenance);
+        } else {
+            synchronized (this) {
+                setInvocationCount(invocationCount);
+                return train(examples, runProvenance);
+            }
+        }
+    }
+
     /**
      * The number of times this trainer instance has had it's train method invoked.
      * <p>
@@ -60,4 +91,32 @@ public interface Trainer<T extends Output<T>> extends Configurable, Provenancabl
      * @return The number of train invocations.
      */
     public int getInvocationCount();
+
+    /**
+     * Does this trainer support {@link #setInvocationCount(int)}?
+     * <p>
+     * Callers which train several models concurrently from one trainer (e.g., ensembles,
+     * cross-validation) should check this before supplying an explicit invocation count,
+     * and fall back to sequential training if it returns false. Wrapper trainers should
+     * delegate to the trainer they wrap.
+     * @return True if the invocation count can be set, false otherwise (the default).
+     */
+    default public boolean supportsInvocationCount() {
+        return false;
+    }
+
+    /**
+     * Sets the trainer's invocation count, resetting its RNG to the state it would
+     * have after that many calls to train.
+     * <p>
+     * Throws {@link UnsupportedOperationException} if the trainer does not support
+     * setting its invocation count, which is the default. Trainers which implement
+     * this must also override {@link #supportsInvocationCount()} to return true, and
+     * should override {@link #train(Dataset, Map, int)} so that training runs outside
+     * the trainer's lock.
+     * @param invocationCount The new invocation count.
+     */
+    default public void setInvocationCount(int invocationCount) {
+        throw new UnsupportedOperationException(this.getClass().getName() + " does not support setting the invocation count.");
+    }
 }
@@ -0,0 +1,790 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.dataset;
+
+import com.oracle.labs.mlrg.olcut.util.Pair;
+import org.tribuo.DataSource;
+import org.tribuo.Dataset;
+import org.tribuo.Example;
+import org.tribuo.Feature;
+import org.tribuo.FeatureMap;
+import org.tribuo.ImmutableDataset;
+import org.tribuo.ImmutableFeatureMap;
+import org.tribuo.ImmutableOutputInfo;
+import org.tribuo.OutputFactory;
+import org.tribuo.Output;
+import org.tribuo.VariableIDInfo;
+import org.tribuo.hash.HashedFeatureMap;
+import org.tribuo.impl.ArrayExample;
+import org.tribuo.provenance.DataProvenance;
+import org.tribuo.util.Merger;
+
+import java.io.ObjectStreamException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * An immutable {@link Dataset} which stores all its examples in a single compressed sparse row (CSR) layout.
+ * <p>
+ * The features of every example are interned into feature ids from the {@link ImmutableFeatureMap} on
+ * construction, and stored in three flat arrays, the row offsets, the feature ids and the feature values.
+ * The example weights and output ids are stored in primitive arrays, and each distinct output is stored once.
+ * This avoids the per example name and value arrays of {@link ArrayExample}, and lets trainers read the feature
+ * ids directly using {@link #getRowStart}, {@link #getRowEnd}, {@link #getFeatureID} and {@link #getFeatureValue}
+ * rather than looking up each feature name in the feature map on every pass.
+ * <p>
+ * Examples are exposed as {@link CSRExample} views over the arrays, created on demand. Features which are not
+ * in the feature map are removed, and features which map to the same id are summed, as in
+ * {@link org.tribuo.math.la.SparseVector}. Examples which have no remaining features, or which contain NaN valued
+ * features, cause construction to throw {@link IllegalArgumentException}.
+ * <p>
+ * The values can optionally be stored as floats, halving the memory used at the cost of precision.
+ * <p>
+ * A {@link HashedFeatureMap} is rejected, as the examples recover their feature names from the feature ids,
+ * and the names stored in a hashed feature map are already hashed.
+ * <p>
+ * The dataset supports at most {@link Integer#MAX_VALUE} - 8 stored feature values.
+ * @param <T> The output type of this dataset.
+ */
+public final class CSRDataset<T extends Output<T>> extends ImmutableDataset<T> {
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final int numExamples;
+
+    /**
+     * The start of each row in {@link #featureIDs}, with a final entry equal to the number of stored values.
+     */
+    private final int[] rowOffsets;
+
+    private final int[] featureIDs;
+
+    /**
+     * The feature values if stored as doubles, otherwise null.
+     */
+    private final double[] values;
+
+    /**
+     * The feature values if stored as floats, otherwise null.
+     */
+    private final float[] floatValues;
+
+    private final float[] weights;
+
+    /**
+     * The id of each example's output in the output info, -1 if the output has no id.
+     */
+    private final int[] outputIDs;
+
+    /**
+     * The index of each example's output in {@link #outputTable}.
+     */
+    private final int[] outputIndices;
+
+    /**
+     * The distinct outputs, compared using {@link Output#fullEquals}.
+     */
+    private final List<T> outputTable;
+
+    /**
+     * The metadata of the examples which have it.
+     */
+    private final Map<Integer,Map<String,Object>> metadata;
+
+    /**
+     * Creates a CSRDataset containing a copy of the supplied dataset, storing the values as doubles.
+     * <p>
+     * It uses the feature and output infos from the supplied dataset.
+     * @param dataset The dataset to copy.
+     */
+    public CSRDataset(Dataset<T> dataset) {
+        this(dataset,false);
+    }
+
+    /**
+     * Creates a CSRDataset containing a copy of the supplied dataset.
+     * <p>
+     * It uses the feature and output infos from the supplied dataset.
+     * @param dataset The dataset to copy.
+     * @param floatValues If true store the feature values as floats.
+     */
+    public CSRDataset(Dataset<T> dataset, boolean floatValues) {
+        this(dataset,dataset.getProvenance(),dataset.getOutputFactory(),dataset.getFeatureIDMap(),dataset.getOutputIDInfo(),floatValues);
+    }
+
+    /**
+     * Creates a CSRDataset from a data source, using the supplied feature and output infos (e.g., those
+     * from a trained model).
+     * @param dataSource The examples.
+     * @param featureIDMap The feature id map, used to remove unknown features.
+     * @param outputIDInfo The output id map.
+     * @param floatValues If true store the feature values as floats.
+     */
+    public CSRDataset(DataSource<T> dataSource, ImmutableFeatureMap featureIDMap, ImmutableOutputInfo<T> outputIDInfo, boolean floatValues) {
+        this(dataSource,dataSource.getProvenance(),dataSource.getOutputFactory(),featureIDMap,outputIDInfo,floatValues);
+    }
+
+    /**
+     * Creates a CSRDataset from the supplied examples.
+     * @param examples The examples.
+     * @param description A description of the input data (including preprocessing steps).
+     * @param outputFactory The factory for this output type.
+     * @param featureIDMap The feature id map, used to remove unknown features.
+     * @param outputIDInfo The output id map.
+     * @param floatValues If true store the feature values as floats.
+     */
+    public CSRDataset(Iterable<Example<T>> examples, DataProvenance description, OutputFactory<T> outputFactory, ImmutableFeatureMap featureIDMap, ImmutableOutputInfo<T> outputIDInfo, boolean floatValues) {
+        super(description,outputFactory,featureIDMap,outputIDInfo);
+        if (featureIDMap instanceof HashedFeatureMap) {
+            throw new IllegalArgumentException("CSRDataset does not support a HashedFeatureMap, as the examples could not recover their feature names.");
+        }
+        Builder<T> builder = new Builder<>(featureIDMap,outputIDInfo,floatValues);
+        for (Example<T> e : examples) {
+            builder.add(e);
+        }
+        this.numExamples = builder.numExamples;
+        this.rowOffsets = Arrays.copyOf(builder.rowOffsets,numExamples+1);
+        this.featureIDs = Arrays.copyOf(builder.featureIDs,builder.numValues);
+        this.values = floatValues ? null : Arrays.copyOf(builder.values,builder.numValues);
+        this.floatValues = floatValues ? Arrays.copyOf(builder.floatValues,builder.numValues) : null;
+        this.weights = Arrays.copyOf(builder.weights,numExamples);
+        this.outputIDs = Arrays.copyOf(builder.outputIDs,numExamples);
+        this.outputIndices = Arrays.copyOf(builder.outputIndices,numExamples);
+        this.outputTable = builder.outputTable.getOutputs();
+        this.metadata = builder.metadata;
+    }
+
+    @Override
+    public int size() {
+        return numExamples;
+    }
+
+    /**
+     * The total number of feature values stored in this dataset.
+     * @return The number of stored values.
+     */
+    public int getNumValues() {
+        return featureIDs.length;
+    }
+
+    /**
+     * Are the feature values stored as floats.
+     * @return True if the values are stored as floats.
+     */
+    public boolean isFloatValues() {
+        return floatValues != null;
+    }
+
+    /**
+     * The position of the first feature of the example in the value arrays.
+     * @param index The example index.
+     * @return The start of the example's features (inclusive).
+     */
+    public int getRowStart(int index) {
+        return rowOffsets[index];
+    }
+
+    /**
+     * The position after the last feature of the example in the value arrays.
+     * @param index The example index.
+     * @return The end of the example's features (exclusive).
+     */
+    public int getRowEnd(int index) {
+        return rowOffsets[index+1];
+    }
+
+    /**
+     * The feature id stored at the supplied position.
+     * <p>
+     * Within each example the feature ids are strictly increasing.
+     * @param position The position in the value arrays.
+     * @return The feature id.
+     */
+    public int getFeatureID(int position) {
+        return featureIDs[position];
+    }
+
+    /**
+     * The feature value stored at the supplied position.
+     * @param position The position in the value arrays.
+     * @return The feature value.
+     */
+    public double getFeatureValue(int position) {
+        return floatValues == null ? values[position] : floatValues[position];
+    }
+
+    /**
+     * The weight of the example.
+     * @param index The example index.
+     * @return The example weight.
+     */
+    public float getWeight(int index) {
+        return weights[index];
+    }
+
+    /**
+     * The id of the example's output in this dataset's {@link ImmutableOutputInfo}.
+     * <p>
+     * Note this is only meaningful for single dimensional outputs, for other
+     * outputs or outputs not in the output info it is -1.
+     * @param index The example index.
+     * @return The output id.
+     */
+    public int getOutputID(int index) {
+        return outputIDs[index];
+    }
+
+    /**
+     * Returns a copy of the output ids of all the examples.
+     * @return The output ids.
+     */
+    public int[] getOutputIDs() {
+        return Arrays.copyOf(outputIDs,outputIDs.length);
+    }
+
+    /**
+     * Returns a copy of the weights of all the examples.
+     * @return The example weights.
+     */
+    public float[] getWeights() {
+        return Arrays.copyOf(weights,weights.length);
+    }
+
+    /**
+     * The output of the example.
+     * @param index The example index.
+     * @return The output.
+     */
+    public T getOutput(int index) {
+        return outputTable.get(outputIndices[index]);
+    }
+
+    @Override
+    public CSRExample<T> getExample(int index) {
+        if ((index < 0) || (index >= size())) {
+            throw new IllegalArgumentException("Example index " + index + " is out of bounds.");
+        }
+        return new CSRExample<>(this,index);
+    }
+
+    @Override
+    public List<Example<T>> getData() {
+        List<Example<T>> output = new ArrayList<>(numExamples);
+        for (int i = 0; i < numExamples; i++) {
+            output.add(new CSRExample<>(this,i));
+        }
+        return Collections.unmodifiableList(output);
+    }
+
+    @Override
+    public synchronized Iterator<Example<T>> iterator() {
+        return new CSRIterator<>(this,indices);
+    }
+
+    @Override
+    public String toString() {
+        return "CSRDataset(source=" + sourceProvenance + ",numExamples=" + numExamples + ",numValues=" + featureIDs.length + ",floatValues=" + isFloatValues() + ")";
+    }
+
+    /**
+     * Looks up the ids of the example's features, writing them and their values into the supplied arrays
+     * in increasing id order. Features not in the feature map are dropped, and features which map to the
+     * same id are summed.
+     * <p>
+     * Throws {@link IllegalArgumentException} if the example has a NaN valued feature or no known features.
+     * @param example The example.
+     * @param featureIDMap The feature map.
+     * @param ids The output feature ids, must be at least {@code example.size()} long.
+     * @param values The output feature values, must be at least {@code example.size()} long.
+     * @return The number of features written.
+     */
+    static int internFeatures(Example<?> example, ImmutableFeatureMap featureIDMap, int[] ids, double[] values) {
+        int rowSize = 0;
+        boolean sorted = true;
+        for (Feature f : example) {
+            int id = featureIDMap.getID(f.getName());
+            if (id > -1) {
+                if (Double.isNaN(f.getValue())) {
+                    throw new IllegalArgumentException("Example contained a NaN feature, " + f.toString());
+                }
+                sorted &= (rowSize == 0) || (ids[rowSize-1] < id);
+                ids[rowSize] = id;
+                values[rowSize] = f.getValue();
+                rowSize++;
+            }
+        }
+        if (rowSize == 0) {
+            throw new IllegalArgumentException("This Dataset does not know any of the Features in this Example.");
+        }
+        if (!sorted) {
+            // The feature map doesn't preserve the name order, so sort by id and sum any collisions.
+            long[] packed = new long[rowSize];
+            for (int i = 0; i < rowSize; i++) {
+                packed[i] = (((long) ids[i]) << 32) | i;
+            }
+            Arrays.sort(packed);
+            double[] oldValues = Arrays.copyOf(values,rowSize);
+            int dest = -1;
+            for (int i = 0; i < rowSize; i++) {
+                int id = (int) (packed[i] >>> 32);
+                double value = oldValues[(int) packed[i]];
+                if ((dest >= 0) && (ids[dest] == id)) {
+                    values[dest] += value;
+                } else {
+                    dest++;
+                    ids[dest] = id;
+                    values[dest] = value;
+                }
+            }
+            rowSize = dest + 1;
+        }
+        return rowSize;
+    }
+
+    private static final class CSRIterator<T extends Output<T>> implements Iterator<Example<T>> {
+        private final CSRDataset<T> dataset;
+        private final int[] indices;
+        private int counter = 0;
+
+        CSRIterator(CSRDataset<T> dataset, int[] indices) {
+            this.dataset = dataset;
+            this.indices = indices;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return counter < dataset.numExamples;
+        }
+
+        @Override
+        public Example<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Iterator exhausted at position " + counter);
+            }
+            int index = indices == null ? counter : indices[counter];
+            counter++;
+            return new CSRExample<>(dataset,index);
+        }
+    }
+
+    /**
+     * Accumulates the examples into growable arrays.
+     * @param <T> The output type.
+     */
+    private static final class Builder<T extends Output<T>> {
+        private final ImmutableFeatureMap featureIDMap;
+        private final ImmutableOutputInfo<T> outputIDInfo;
+        private final boolean useFloats;
+
+        int numExamples = 0;
+        int numValues = 0;
+        int[] rowOffsets = new int[16];
+        int[] featureIDs = new int[64];
+        double[] values;
+        float[] floatValues;
+        float[] weights = new float[16];
+        int[] outputIDs = new int[16];
+        int[] outputIndices = new int[16];
+        final OutputTable<T> outputTable = new OutputTable<>();
+        final Map<Integer,Map<String,Object>> metadata = new HashMap<>();
+
+        Builder(ImmutableFeatureMap featureIDMap, ImmutableOutputInfo<T> outputIDInfo, boolean useFloats) {
+            this.featureIDMap = featureIDMap;
+            this.outputIDInfo = outputIDInfo;
+            this.useFloats = useFloats;
+            if (useFloats) {
+                floatValues = new float[64];
+            } else {
+                values = new double[64];
+            }
+        }
+
+        void add(Example<T> example) {
+            int[] rowIDs = new int[example.size()];
+            double[] rowValues = new double[example.size()];
+            int rowSize = internFeatures(example,featureIDMap,rowIDs,rowValues);
+
+            // Append the row.
+            if ((long) numValues + rowSize > MAX_ARRAY_SIZE) {
+                throw new IllegalStateException("Too many feature values for a CSRDataset, found more than " + MAX_ARRAY_SIZE);
+            }
+            ensureValueCapacity(numValues + rowSize);
+            ensureRowCapacity(numExamples + 2);
+            System.arraycopy(rowIDs,0,featureIDs,numValues,rowSize);
+            if (useFloats) {
+                for (int i = 0; i < rowSize; i++) {
+                    floatValues[numValues + i] = (float) rowValues[i];
+                }
+            } else {
+                System.arraycopy(rowValues,0,values,numValues,rowSize);
+            }
+            rowOffsets[numExamples] = numValues;
+            numValues += rowSize;
+            rowOffsets[numExamples+1] = numValues;
+
+            T output = example.getOutput();
+            weights[numExamples] = example.getWeight();
+            outputIDs[numExamples] = outputIDInfo.getID(output);
+            outputIndices[numExamples] = outputTable.intern(output);
+            Map<String,Object> exampleMetadata = example.getMetadata();
+            if (!exampleMetadata.isEmpty()) {
+                metadata.put(numExamples,exampleMetadata);
+            }
+            numExamples++;
+        }
+
+        private void ensureValueCapacity(int minCapacity) {
+            if (minCapacity > featureIDs.length) {
+                int newCapacity = (int) Math.min(MAX_ARRAY_SIZE, Math.max(minCapacity, featureIDs.length * 2L));
+                featureIDs = Arrays.copyOf(featureIDs,newCapacity);
+                if (useFloats) {
+                    floatValues = Arrays.copyOf(floatValues,newCapacity);
+                } else {
+                    values = Arrays.copyOf(values,newCapacity);
+                }
+            }
+        }
+
+        private void ensureRowCapacity(int minCapacity) {
+            if (minCapacity > rowOffsets.length) {
+                int newCapacity = Math.max(minCapacity, rowOffsets.length * 2);
+                rowOffsets = Arrays.copyOf(rowOffsets,newCapacity);
+                weights = Arrays.copyOf(weights,newCapacity);
+                outputIDs = Arrays.copyOf(outputIDs,newCapacity);
+                outputIndices = Arrays.copyOf(outputIndices,newCapacity);
+            }
+        }
+    }
+
+    /**
+     * A lightweight {@link Example} view of a single row of a {@link CSRDataset}.
+     * <p>
+     * Feature names are resolved through the dataset's feature map, and the features are presented
+     * in feature id order. Changes to the weight or feature values write through to the dataset, but
+     * operations which add or remove features throw {@link UnsupportedOperationException}.
+     * <p>
+     * Equality and hash codes are based on the features, output and metadata, as in {@link ArrayExample}.
+     * A CSRExample is serialized as an {@link ArrayExample} copy, so serializing an example or a prediction
+     * doesn't write out the whole dataset.
+     * @param <T> The output type.
+     */
+    public static final class CSRExample<T extends Output<T>> extends Example<T> {
+        private static final long serialVersionUID = 1L;
+
+        private final CSRDataset<T> dataset;
+
+        private final int row;
+
+        private CSRExample(CSRDataset<T> dataset, int row) {
+            super(dataset.getOutput(row),dataset.weights[row],dataset.metadata.get(row));
+            this.dataset = dataset;
+            this.row = row;
+        }
+
+        /**
+         * The dataset this example is a view of.
+         * @return The dataset.
+         */
+        public CSRDataset<T> getDataset() {
+            return dataset;
+        }
+
+        /**
+         * The index of this example in its dataset.
+         * @return The row index.
+         */
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * The feature map which assigned this example's feature ids.
+         * @return The feature map.
+         */
+        public ImmutableFeatureMap getFeatureIDMap() {
+            return dataset.featureIDMap;
+        }
+
+        /**
+         * Returns a copy of this example's feature ids, in increasing order.
+         * @return The feature ids.
+         */
+        public int[] getFeatureIDs() {
+            return Arrays.copyOfRange(dataset.featureIDs,dataset.rowOffsets[row],dataset.rowOffsets[row+1]);
+        }
+
+        /**
+         * Returns a copy of this example's feature values, in the same order as {@link #getFeatureIDs}.
+         * @return The feature values.
+         */
+        public double[] getFeatureValues() {
+            int start = dataset.rowOffsets[row];
+            int end = dataset.rowOffsets[row+1];
+            if (dataset.floatValues == null) {
+                return Arrays.copyOfRange(dataset.values,start,end);
+            } else {
+                double[] output = new double[end - start];
+                for (int i = start; i < end; i++) {
+                    output[i - start] = dataset.floatValues[i];
+                }
+                return output;
+            }
+        }
+
+        /**
+         * The id of this example's output, or -1 if it doesn't have one.
+         * @return The output id.
+         */
+        public int getOutputID() {
+            return dataset.outputIDs[row];
+        }
+
+        @Override
+        public void setWeight(float weight) {
+            this.weight = weight;
+            dataset.weights[row] = weight;
+        }
+
+        @Override
+        protected void sort() { }
+
+        @Override
+        public void add(Feature feature) {
+            throw new UnsupportedOperationException("Features cannot be added to a CSRExample.");
+        }
+
+        @Override
+        public void addAll(Collection<? extends Feature> features) {
+            throw new UnsupportedOperationException("Features cannot be added to a CSRExample.");
+        }
+
+        @Override
+        public int size() {
+            return dataset.rowOffsets[row+1] - dataset.rowOffsets[row];
+        }
+
+        @Override
+        public void removeFeatures(List<Feature> featureList) {
+            throw new UnsupportedOperationException("Features cannot be removed from a CSRExample.");
+        }
+
+        /**
+         * Feature ids are merged on construction, so the names are already unique and this is a no-op.
+         * @param merger A function to merge two doubles.
+         */
+        @Override
+        public void reduceByName(Merger merger) { }
+
+        @Override
+        public boolean validateExample() {
+            // NaNs and empty rows are rejected when the dataset is built.
+            return size() > 0;
+        }
+
+        @Override
+        public boolean isDense(FeatureMap fMap) {
+            if (fMap.size() == size()) {
+                for (Feature f : this) {
+                    if (fMap.get(f.getName()) == null) {
+                        return false;
+                    }
+                }
+                return true;
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        protected void densify(List<String> featureNames) {
+            throw new UnsupportedOperationException("Features cannot be added to a CSRExample.");
+        }
+
+        /**
+         * Returns a mutable {@link ArrayExample} copy of this example.
+         * @return A deep copy of this example.
+         */
+        @Override
+        public Example<T> copy() {
+            return new ArrayExample<>(this);
+        }
+
+        /**
+         * Returns the position of the named feature in the dataset's value arrays, or -1 if it's not present.
+         * @param name The feature name.
+         * @return The position.
+         */
+        private int position(String name) {
+            int id = dataset.featureIDMap.getID(name);
+            if (id == -1) {
+                return -1;
+            }
+            int index = Arrays.binarySearch(dataset.featureIDs,dataset.rowOffsets[row],dataset.rowOffsets[row+1],id);
+            return index < 0 ? -1 : index;
+        }
+
+        @Override
+        public Feature lookup(String name) {
+            int index = position(name);
+            if (index < 0) {
+                return null;
+            } else {
+                return new Feature(featureName(dataset.featureIDs[index]),dataset.getFeatureValue(index));
+            }
+        }
+
+        @Override
+        public void set(Feature feature) {
+            int index = position(feature.getName());
+            if (index < 0) {
+                throw new IllegalArgumentException("Feature " + feature + " not found in example.");
+            } else if (dataset.floatValues == null) {
+                dataset.values[index] = feature.getValue();
+            } else {
+                dataset.floatValues[index] = (float) feature.getValue();
+            }
+        }
+
+        /**
+         * Feature names are taken from the dataset's feature map, so this is a no-op.
+         * @param featureMap The feature map containing canonical feature names.
+         */
+        @Override
+        public void canonicalize(FeatureMap featureMap) { }
+
+        private String featureName(int id) {
+            VariableIDInfo info = dataset.featureIDMap.get(id);
+            return info.getName();
+        }
+
+        @Override
+        public Iterator<Feature> iterator() {
+            return new Iterator<Feature>() {
+                private int pos = dataset.rowOffsets[row];
+                private final int end = dataset.rowOffsets[row+1];
+
+                @Override
+                public boolean hasNext() {
+                    return pos < end;
+                }
+
+                @Override
+                public Feature next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException("Iterator exhausted at position " + pos);
+                    }
+                    Feature f = new Feature(featureName(dataset.featureIDs[pos]),dataset.getFeatureValue(pos));
+                    pos++;
+                    return f;
+                }
+            };
+        }
+
+        @Override
+        public Pair<int[],double[]> getInternedFeatures(ImmutableFeatureMap featureMap) {
+            if (featureMap == dataset.featureIDMap) {
+                return new Pair<>(getFeatureIDs(),getFeatureValues());
+            } else {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CSRExample)) return false;
+            CSRExample<?> that = (CSRExample<?>) o;
+            if (Objects.equals(metadata,that.metadata) && output.getClass().equals(that.output.getClass())) {
+                @SuppressWarnings("unchecked") //guarded by a getClass.
+                boolean outputTest = output.fullEquals((T)that.output);
+                if (outputTest && size() == that.size()) {
+                    Iterator<Feature> thisItr = iterator();
+                    Iterator<Feature> thatItr = that.iterator();
+                    while (thisItr.hasNext()) {
+                        Feature thisFeature = thisItr.next();
+                        Feature thatFeature = thatItr.next();
+                        if (!thisFeature.getName().equals(thatFeature.getName())) return false;
+                        if (thisFeature.getValue() != thatFeature.getValue()) return false;
+                    }
+                    return true;
+                }
+                return false;
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hash(size());
+            result = 31 * result + output.hashCode();
+            for (Feature f : this) {
+                result = 31 * result + f.getName().hashCode();
+                result = 31 * result + Double.hashCode(f.getValue());
+            }
+            return result;
+        }
+
+        /**
+         * Serializes this example as an {@link ArrayExample} copy, rather than writing out the dataset.
+         * @return An ArrayExample copy of this example.
+         * @throws ObjectStreamException Never thrown.
+         */
+        private Object writeReplace() throws ObjectStreamException {
+            return new ArrayExample<>(this);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+
+            builder.append("CSRExample(row=");
+            builder.append(row);
+            builder.append(",numFeatures=");
+            builder.append(size());
+            builder.append(",output=");
+            builder.append(output);
+            builder.append(",weight=");
+            builder.append(weight);
+            if (metadata != null) {
+                builder.append(",metadata=");
+                builder.append(metadata.toString());
+            }
+            builder.append(",features=[");
+            boolean first = true;
+            for (Feature f : this) {
+                if (!first) {
+                    builder.append(", ");
+                }
+                builder.append('(').append(f.getName()).append(", ").append(f.getValue()).append(')');
+                first = false;
+            }
+            builder.append("])");
+
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.dataset;
+
+import org.tribuo.Dataset;
+import org.tribuo.Example;
+import org.tribuo.Feature;
+import org.tribuo.ImmutableDataset;
+import org.tribuo.ImmutableFeatureMap;
+import org.tribuo.ImmutableOutputInfo;
+import org.tribuo.MutableFeatureMap;
+import org.tribuo.MutableOutputInfo;
+import org.tribuo.Output;
+import org.tribuo.OutputFactory;
+import org.tribuo.hash.HashedFeatureMap;
+import org.tribuo.impl.ArrayExample;
+import org.tribuo.provenance.DataProvenance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable {@link Dataset} which is stored in a compact binary file and read through memory mapped
+ * buffers, so it can be larger than the Java heap.
+ * <p>
+ * Files are written once using one of the {@code save} methods, and opened with {@link #load(Path)}.
+ * The file stores each example's feature ids, feature values, weight and output, followed by the
+ * offset of each example, and the provenance, output factory, feature map and output info
+ * (serialized with Java serialization). Only the offsets' location, the domains and the distinct outputs
+ * are held on heap, each {@link Example} is decoded from the mapped file when it is requested, so
+ * modifications to the returned examples are not written back to the file.
+ * <p>
+ * The distinct outputs are interned into a table which is held in memory while writing and reading, which
+ * suits outputs with a small number of values like labels or cluster ids. Example metadata is not stored.
+ * <p>
+ * Features which are not in the feature map are removed, features which map to the same id are summed,
+ * and examples with no known features or NaN valued features cause {@link IllegalArgumentException} to
+ * be thrown when writing, as in {@link CSRDataset}. A {@link HashedFeatureMap} is rejected, as the examples
+ * recover their feature names from the feature ids, and the names stored in a hashed feature map are already hashed.
+ * <p>
+ * When this dataset is serialized the examples are not written out. The file path, provenance, output
+ * factory, feature map, output info and table of distinct outputs are serialized as usual, and the file
+ * is mapped again from the same path on deserialization.
+ * @param <T> The output type of this dataset.
+ */
+public final class MappedDataset<T extends Output<T>> extends ImmutableDataset<T> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The file magic number, "TRBMAPDS" in ASCII.
+     */
+    static final long MAGIC = 0x5452424D41504453L;
+
+    /**
+     * The current file format version.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The number of bytes reserved for the header.
+     */
+    static final int HEADER_SIZE = 64;
+
+    /**
+     * Mapped buffers cover {@code 2^CHUNK_BITS} bytes. Every value in the file is aligned to its own size,
+     * so no value straddles two buffers.
+     */
+    private static final int CHUNK_BITS = 30;
+
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private final String path;
+
+    private final int numExamples;
+
+    private final long offsetsStart;
+
+    private final List<T> outputTable;
+
+    private transient ByteBuffer[] chunks;
+
+    private MappedDataset(Path path, Trailer<T> trailer, int numExamples, long offsetsStart, ByteBuffer[] chunks) {
+        super(trailer.provenance,trailer.outputFactory,trailer.featureIDMap,trailer.outputIDInfo);
+        this.path = path.toAbsolutePath().toString();
+        this.numExamples = numExamples;
+        this.offsetsStart = offsetsStart;
+        this.outputTable = trailer.outputTable;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Opens a dataset written by one of the {@code save} methods.
+     * @param path The file to open.
+     * @param <T> The output type of the dataset.
+     * @return The memory mapped dataset.
+     * @throws IOException If the file could not be read or is not a valid dataset file.
+     */
+    public static <T extends Output<T>> MappedDataset<T> load(Path path) throws IOException {
+        ByteBuffer[] chunks = map(path);
+        long magic = getLong(chunks,0);
+        if (magic != MAGIC) {
+            throw new IOException("Invalid file, expected magic number " + Long.toHexString(MAGIC) + ", found " + Long.toHexString(magic));
+        }
+        int version = getInt(chunks,8);
+        if (version != VERSION) {
+            throw new IOException("Unsupported file version, expected " + VERSION + ", found " + version);
+        }
+        int numExamples = getInt(chunks,12);
+        long offsetsStart = getLong(chunks,16);
+        long trailerStart = getLong(chunks,24);
+        long trailerLength = getLong(chunks,32);
+        if (trailerLength > Integer.MAX_VALUE) {
+            throw new IOException("Invalid file, trailer length was " + trailerLength);
+        }
+        byte[] trailerBytes = new byte[(int) trailerLength];
+        for (int i = 0; i < trailerBytes.length; i++) {
+            long pos = trailerStart + i;
+            trailerBytes[i] = chunks[(int) (pos >>> CHUNK_BITS)].get((int) (pos & CHUNK_MASK));
+        }
+        Trailer<T> trailer;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(trailerBytes))) {
+            @SuppressWarnings("unchecked") // checked by the output factory on use.
+            Trailer<T> tmp = (Trailer<T>) ois.readObject();
+            trailer = tmp;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Failed to deserialize the dataset domains",e);
+        }
+        if (trailer.featureIDMap instanceof HashedFeatureMap) {
+            throw new IOException("Invalid file, MappedDataset does not support a HashedFeatureMap");
+        }
+        return new MappedDataset<>(path,trailer,numExamples,offsetsStart,chunks);
+    }
+
+    /**
+     * Writes the dataset out to the supplied path, using its feature map and output info.
+     * @param dataset The dataset to write.
+     * @param path The file to write.
+     * @param <T> The output type.
+     * @throws IOException If the file could not be written.
+     */
+    public static <T extends Output<T>> void save(Dataset<T> dataset, Path path) throws IOException {
+        save(dataset,dataset.getProvenance(),dataset.getOutputFactory(),dataset.getFeatureIDMap(),dataset.getOutputIDInfo(),path);
+    }
+
+    /**
+     * Writes the examples out to the supplied path.
+     * <p>
+     * The examples are iterated twice, once to build the feature map and output info, and once to write them,
+     * so memory use is proportional to the size of the feature and output domains rather than the number of examples.
+     * @param examples The examples to write, e.g., a {@link org.tribuo.DataSource}.
+     * @param provenance The provenance of the examples.
+     * @param outputFactory The output factory.
+     * @param path The file to write.
+     * @param <T> The output type.
+     * @throws IOException If the file could not be written.
+     */
+    public static <T extends Output<T>> void save(Iterable<Example<T>> examples, DataProvenance provenance, OutputFactory<T> outputFactory, Path path) throws IOException {
+        MutableFeatureMap featureMap = new MutableFeatureMap();
+        MutableOutputInfo<T> outputInfo = outputFactory.generateInfo();
+        for (Example<T> e : examples) {
+            if (!e.validateExample()) {
+                throw new IllegalArgumentException("Example had duplicate features, invalid features or no features.");
+            }
+            outputInfo.observe(e.getOutput());
+            for (Feature f : e) {
+                featureMap.add(f.getName(),f.getValue());
+            }
+        }
+        save(examples,provenance,outputFactory,new ImmutableFeatureMap(featureMap),outputInfo.generateImmutableOutputInfo(),path);
+    }
+
+    /**
+     * Writes the examples out to the supplied path in a single pass, using the supplied feature map and output info
+     * (e.g., those of a trained model).
+     * @param examples The examples to write.
+     * @param provenance The provenance of the examples.
+     * @param outputFactory The output factory.
+     * @param featureIDMap The feature map, features not in it are removed. Must not be a {@link HashedFeatureMap}.
+     * @param outputIDInfo The output info.
+     * @param path The file to write.
+     * @param <T> The output type.
+     * @throws IOException If the file could not be written.
+     */
+    public static <T extends Output<T>> void save(Iterable<Example<T>> examples, DataProvenance provenance, OutputFactory<T> outputFactory, ImmutableFeatureMap featureIDMap, ImmutableOutputInfo<T> outputIDInfo, Path path) throws IOException {
+        if (featureIDMap instanceof HashedFeatureMap) {
+            throw new IllegalArgumentException("MappedDataset does not support a HashedFeatureMap, as the examples could not recover their feature names.");
+        }
+        Path absolutePath = path.toAbsolutePath();
+        Path offsetsPath = Files.createTempFile(absolutePath.getParent(),absolutePath.getFileName().toString(),".offsets");
+        try (FileChannel channel = FileChannel.open(absolutePath,StandardOpenOption.CREATE,StandardOpenOption.TRUNCATE_EXISTING,StandardOpenOption.WRITE);
+             FileChannel offsetsChannel = FileChannel.open(offsetsPath,StandardOpenOption.READ,StandardOpenOption.WRITE)) {
+            ChannelWriter writer = new ChannelWriter(channel,HEADER_SIZE);
+            ChannelWriter offsetsWriter = new ChannelWriter(offsetsChannel,0);
+            OutputTable<T> outputTable = new OutputTable<>();
+            int[] ids = new int[16];
+            double[] values = new double[16];
+            int numExamples = 0;
+            for (Example<T> e : examples) {
+                if (numExamples == Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Too many examples for a single dataset, found more than " + Integer.MAX_VALUE);
+                }
+                if (e.size() > ids.length) {
+                    ids = new int[e.size()];
+                    values = new double[e.size()];
+                }
+                int rowSize = CSRDataset.internFeatures(e,featureIDMap,ids,values);
+                offsetsWriter.putLong(writer.position());
+                writer.putFloat(e.getWeight());
+                writer.putInt(outputTable.intern(e.getOutput()));
+                writer.putInt(rowSize);
+                writer.putInt(0);
+                for (int i = 0; i < rowSize; i++) {
+                    writer.putInt(ids[i]);
+                }
+                if ((rowSize & 1) == 1) {
+                    writer.putInt(0);
+                }
+                for (int i = 0; i < rowSize; i++) {
+                    writer.putDouble(values[i]);
+                }
+                numExamples++;
+            }
+            offsetsWriter.flush();
+
+            // Append the offsets.
+            long offsetsStart = writer.position();
+            writer.flush();
+            long offsetsLength = offsetsChannel.size();
+            channel.position(offsetsStart);
+            long transferred = 0;
+            while (transferred < offsetsLength) {
+                transferred += offsetsChannel.transferTo(transferred,offsetsLength - transferred,channel);
+            }
+
+            // Append the domains.
+            long trailerStart = offsetsStart + offsetsLength;
+            ByteArrayOutputStream trailerBytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(trailerBytes)) {
+                oos.writeObject(new Trailer<>(provenance,outputFactory,featureIDMap,outputIDInfo,new ArrayList<>(outputTable.getOutputs())));
+            }
+            writeFully(channel,ByteBuffer.wrap(trailerBytes.toByteArray()),trailerStart);
+
+            // Write the header last, so a partially written file fails the magic number check.
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(numExamples);
+            header.putLong(offsetsStart);
+            header.putLong(trailerStart);
+            header.putLong(trailerBytes.size());
+            header.rewind();
+            writeFully(channel,header,0);
+        } finally {
+            Files.deleteIfExists(offsetsPath);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long pos = position;
+        while (buffer.hasRemaining()) {
+            pos += channel.write(buffer,pos);
+        }
+    }
+
+    /**
+     * Maps the file as a sequence of read only buffers.
+     * @param path The file to map.
+     * @return The buffers.
+     * @throws IOException If the file could not be mapped.
+     */
+    private static ByteBuffer[] map(Path path) throws IOException {
+        // The mapping remains valid after the channel is closed.
+        try (FileChannel channel = FileChannel.open(path,StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Invalid file, too short to contain the header, found " + size + " bytes");
+            }
+            int numChunks = (int) ((size + CHUNK_MASK) >>> CHUNK_BITS);
+            ByteBuffer[] chunks = new ByteBuffer[numChunks];
+            for (int i = 0; i < numChunks; i++) {
+                long start = ((long) i) << CHUNK_BITS;
+                long length = Math.min(CHUNK_MASK + 1, size - start);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,start,length).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return chunks;
+        }
+    }
+
+    private static long getLong(ByteBuffer[] chunks, long pos) {
+        return chunks[(int) (pos >>> CHUNK_BITS)].getLong((int) (pos & CHUNK_MASK));
+    }
+
+    private static int getInt(ByteBuffer[] chunks, long pos) {
+        return chunks[(int) (pos >>> CHUNK_BITS)].getInt((int) (pos & CHUNK_MASK));
+    }
+
+    private static float getFloat(ByteBuffer[] chunks, long pos) {
+        return chunks[(int) (pos >>> CHUNK_BITS)].getFloat((int) (pos & CHUNK_MASK));
+    }
+
+    private static double getDouble(ByteBuffer[] chunks, long pos) {
+        return chunks[(int) (pos >>> CHUNK_BITS)].getDouble((int) (pos & CHUNK_MASK));
+    }
+
+    /**
+     * The file backing this dataset.
+     * @return The path.
+     */
+    public Path getPath() {
+        return Paths.get(path);
+    }
+
+    @Override
+    public int size() {
+        return numExamples;
+    }
+
+    /**
+     * Decodes the example from the mapped file. The returned example is a copy, and modifications
+     * to it are not written back to the file.
+     * @param index The index of the example.
+     * @return The example.
+     */
+    @Override
+    public Example<T> getExample(int index) {
+        if ((index < 0) || (index >= size())) {
+            throw new IllegalArgumentException("Example index " + index + " is out of bounds.");
+        }
+        // Only absolute reads are used, so the buffers can be shared between threads.
+        long pos = getLong(chunks,offsetsStart + 8L * index);
+        float weight = getFloat(chunks,pos);
+        T output = outputTable.get(getInt(chunks,pos + 4));
+        int rowSize = getInt(chunks,pos + 8);
+        long idsStart = pos + 16;
+        long valuesStart = idsStart + 4L * (rowSize + (rowSize & 1));
+        String[] names = new String[rowSize];
+        double[] values = new double[rowSize];
+        for (int i = 0; i < rowSize; i++) {
+            names[i] = featureIDMap.get(getInt(chunks,idsStart + 4L * i)).getName();
+            values[i] = getDouble(chunks,valuesStart + 8L * i);
+        }
+        ArrayExample<T> example = new ArrayExample<>(output,names,values);
+        example.setWeight(weight);
+        return example;
+    }
+
+    /**
+     * Decodes all the examples into a list. This reads the whole dataset onto the heap.
+     * @return An unmodifiable list of all the examples.
+     */
+    @Override
+    public List<Example<T>> getData() {
+        List<Example<T>> output = new ArrayList<>(numExamples);
+        for (int i = 0; i < numExamples; i++) {
+            output.add(getExample(i));
+        }
+        return Collections.unmodifiableList(output);
+    }
+
+    @Override
+    public synchronized Iterator<Example<T>> iterator() {
+        return new MappedIterator<>(this,indices);
+    }
+
+    @Override
+    public String toString() {
+        return "MappedDataset(source=" + sourceProvenance + ",path=" + path + ",numExamples=" + numExamples + ")";
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.chunks = map(Paths.get(path));
+    }
+
+    private static final class MappedIterator<T extends Output<T>> implements Iterator<Example<T>> {
+        private final MappedDataset<T> dataset;
+        private final int[] indices;
+        private int counter = 0;
+
+        MappedIterator(MappedDataset<T> dataset, int[] indices) {
+            this.dataset = dataset;
+            this.indices = indices;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return counter < dataset.numExamples;
+        }
+
+        @Override
+        public Example<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Iterator exhausted at position " + counter);
+            }
+            int index = indices == null ? counter : indices[counter];
+            counter++;
+            return dataset.getExample(index);
+        }
+    }
+
+    /**
+     * Buffers little endian writes to a file channel, tracking the file position.
+     */
+    private static final class ChannelWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long filePosition;
+
+        ChannelWriter(FileChannel channel, long start) {
+            this.channel = channel;
+            this.filePosition = start;
+        }
+
+        long position() {
+            return filePosition + buffer.position();
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putFloat(float value) throws IOException {
+            ensure(4);
+            buffer.putFloat(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                filePosition += channel.write(buffer,filePosition);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * The domains and distinct outputs stored at the end of the file.
+     * @param <T> The output type.
+     */
+    private static final class Trailer<T extends Output<T>> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final DataProvenance provenance;
+        final OutputFactory<T> outputFactory;
+        final ImmutableFeatureMap featureIDMap;
+        final ImmutableOutputInfo<T> outputIDInfo;
+        final List<T> outputTable;
+
+        Trailer(DataProvenance provenance, OutputFactory<T> outputFactory, ImmutableFeatureMap featureIDMap, ImmutableOutputInfo<T> outputIDInfo, List<T> outputTable) {
+            this.provenance = provenance;
+            this.outputFactory = outputFactory;
+            this.featureIDMap = featureIDMap;
+            this.outputIDInfo = outputIDInfo;
+            this.outputTable = outputTable;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.dataset;
+
+import org.tribuo.Output;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns outputs into a table of distinct outputs, so datasets can store an int per example.
+ * <p>
+ * Outputs are considered the same if they are {@link Output#fullEquals}, so scores are preserved.
+ * @param <T> The output type.
+ */
+final class OutputTable<T extends Output<T>> {
+
+    private final List<T> outputs = new ArrayList<>();
+
+    private final Map<T,List<Integer>> lookup = new HashMap<>();
+
+    /**
+     * Returns the index of the output in the table, adding it if no fully equal output is present.
+     * @param output The output.
+     * @return The output index.
+     */
+    int intern(T output) {
+        List<Integer> candidates = lookup.computeIfAbsent(output, (k) -> new ArrayList<>(1));
+        for (Integer i : candidates) {
+            if (outputs.get(i).fullEquals(output)) {
+                return i;
+            }
+        }
+        int index = outputs.size();
+        outputs.add(output);
+        candidates.add(index);
+        return index;
+    }
+
+    /**
+     * Returns an unmodifiable view of the distinct outputs, indexed by the values returned from {@link #intern}.
+     * @return The outputs.
+     */
+    List<T> getOutputs() {
+        return Collections.unmodifiableList(outputs);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.datasource;
+
+import com.oracle.labs.mlrg.olcut.config.Config;
+import com.oracle.labs.mlrg.olcut.provenance.ObjectProvenance;
+import com.oracle.labs.mlrg.olcut.provenance.PrimitiveProvenance;
+import com.oracle.labs.mlrg.olcut.provenance.Provenance;
+import com.oracle.labs.mlrg.olcut.provenance.impl.SkeletalConfiguredObjectProvenance;
+import com.oracle.labs.mlrg.olcut.provenance.primitives.DateTimeProvenance;
+import com.oracle.labs.mlrg.olcut.provenance.primitives.StringProvenance;
+import org.tribuo.ConfigurableDataSource;
+import org.tribuo.Example;
+import org.tribuo.ImmutableFeatureMap;
+import org.tribuo.ImmutableOutputInfo;
+import org.tribuo.Output;
+import org.tribuo.OutputFactory;
+import org.tribuo.dataset.MappedDataset;
+import org.tribuo.provenance.DataSourceProvenance;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A DataSource which streams the examples from a file written by {@link MappedDataset#save}.
+ * <p>
+ * The file is memory mapped, and each example is decoded as it is iterated, so the
+ * examples do not need to fit on the heap unless they are collected into a dataset.
+ * The feature map and output info stored in the file are available from
+ * {@link #getFeatureIDMap()} and {@link #getOutputIDInfo()}.
+ * <p>
+ * Unlike the other file based data sources the provenance does not contain a hash of the
+ * file, as these files are expected to be too large to hash on every load.
+ */
+public final class MappedDataSource<T extends Output<T>> implements ConfigurableDataSource<T> {
+
+    @Config(mandatory = true, description = "Path to the mapped dataset file.")
+    private Path path;
+
+    private MappedDataset<T> dataset;
+
+    private MappedDataSourceProvenance provenance;
+
+    /**
+     * For olcut.
+     */
+    private MappedDataSource() {}
+
+    /**
+     * Opens the mapped dataset file at the supplied path.
+     * @param path The path to the file.
+     * @throws IOException If the file could not be read.
+     */
+    public MappedDataSource(Path path) throws IOException {
+        this.path = path;
+        this.dataset = MappedDataset.load(path);
+    }
+
+    /**
+     * Used by the OLCUT configuration system, and should not be called by external code.
+     */
+    @Override
+    public void postConfig() throws IOException {
+        this.dataset = MappedDataset.load(path);
+    }
+
+    /**
+     * The number of examples in the file.
+     * @return The number of examples.
+     */
+    public int size() {
+        return dataset.size();
+    }
+
+    /**
+     * The feature map stored in the file.
+     * @return The feature map.
+     */
+    public ImmutableFeatureMap getFeatureIDMap() {
+        return dataset.getFeatureIDMap();
+    }
+
+    /**
+     * The output info stored in the file.
+     * @return The output info.
+     */
+    public ImmutableOutputInfo<T> getOutputIDInfo() {
+        return dataset.getOutputIDInfo();
+    }
+
+    /**
+     * The memory mapped dataset backing this data source.
+     * @return The dataset.
+     */
+    public MappedDataset<T> getDataset() {
+        return dataset;
+    }
+
+    @Override
+    public OutputFactory<T> getOutputFactory() {
+        return dataset.getOutputFactory();
+    }
+
+    @Override
+    public Iterator<Example<T>> iterator() {
+        return dataset.iterator();
+    }
+
+    @Override
+    public String toString() {
+        return "MappedDataSource(path=" + path.toString() + ",numExamples=" + dataset.size() + ")";
+    }
+
+    @Override
+    public synchronized DataSourceProvenance getProvenance() {
+        if (provenance == null) {
+            provenance = new MappedDataSourceProvenance(this);
+        }
+        return provenance;
+    }
+
+    /**
+     * Provenance class for {@link MappedDataSource}.
+     */
+    public static final class MappedDataSourceProvenance extends SkeletalConfiguredObjectProvenance implements DataSourceProvenance {
+        private static final long serialVersionUID = 1L;
+
+        private final DateTimeProvenance fileModifiedTime;
+        private final DateTimeProvenance dataSourceCreationTime;
+
+        <T extends Output<T>> MappedDataSourceProvenance(MappedDataSource<T> host) {
+            super(host, "DataSource");
+            this.fileModifiedTime = new DateTimeProvenance(FILE_MODIFIED_TIME, OffsetDateTime.ofInstant(Instant.ofEpochMilli(host.path.toFile().lastModified()), ZoneId.systemDefault()));
+            this.dataSourceCreationTime = new DateTimeProvenance(DATASOURCE_CREATION_TIME, OffsetDateTime.now());
+        }
+
+        /**
+         * Deserialization constructor.
+         * @param map The provenances.
+         */
+        public MappedDataSourceProvenance(Map<String, Provenance> map) {
+            this(extractProvenanceInfo(map));
+        }
+
+        private MappedDataSourceProvenance(ExtractedInfo info) {
+            super(info);
+            this.fileModifiedTime = (DateTimeProvenance) info.instanceValues.get(FILE_MODIFIED_TIME);
+            this.dataSourceCreationTime = (DateTimeProvenance) info.instanceValues.get(DATASOURCE_CREATION_TIME);
+        }
+
+        /**
+         * Separates out the configured and non-configured provenance values.
+         * @param map The provenances to separate.
+         * @return The extracted provenance information.
+         */
+        protected static ExtractedInfo extractProvenanceInfo(Map<String, Provenance> map) {
+            Map<String, Provenance> configuredParameters = new HashMap<>(map);
+            String className = ObjectProvenance.checkAndExtractProvenance(configuredParameters, CLASS_NAME, StringProvenance.class, MappedDataSourceProvenance.class.getSimpleName()).getValue();
+            String hostTypeStringName = ObjectProvenance.checkAndExtractProvenance(configuredParameters, HOST_SHORT_NAME, StringProvenance.class, MappedDataSourceProvenance.class.getSimpleName()).getValue();
+
+            Map<String, PrimitiveProvenance<?>> instanceParameters = new HashMap<>();
+            instanceParameters.put(FILE_MODIFIED_TIME, ObjectProvenance.checkAndExtractProvenance(configuredParameters, FILE_MODIFIED_TIME, DateTimeProvenance.class, MappedDataSourceProvenance.class.getSimpleName()));
+            instanceParameters.put(DATASOURCE_CREATION_TIME, ObjectProvenance.checkAndExtractProvenance(configuredParameters, DATASOURCE_CREATION_TIME, DateTimeProvenance.class, MappedDataSourceProvenance.class.getSimpleName()));
+
+            return new ExtractedInfo(className, hostTypeStringName, configuredParameters, instanceParameters);
+        }
+
+        @Override
+        public Map<String, PrimitiveProvenance<?>> getInstanceValues() {
+            Map<String, PrimitiveProvenance<?>> map = super.getInstanceValues();
+
+            map.put(fileModifiedTime.getKey(), fileModifiedTime);
+            map.put(dataSourceCreationTime.getKey(), dataSourceCreationTime);
+
+            return map;
+        }
+    }
+}
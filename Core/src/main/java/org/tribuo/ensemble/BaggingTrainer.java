@@ -17,6 +17,7 @@
 package org.tribuo.ensemble;
 
 import com.oracle.labs.mlrg.olcut.config.Config;
+import com.oracle.labs.mlrg.olcut.config.PropertyException;
 import com.oracle.labs.mlrg.olcut.provenance.ListProvenance;
 import com.oracle.labs.mlrg.olcut.provenance.Provenance;
 import org.tribuo.Dataset;
@@ -32,8 +33,13 @@ import org.tribuo.provenance.impl.TrainerProvenanceImpl;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 /**
@@ -42,6 +48,11 @@ import java.util.logging.Logger;
  * A bagged ensemble is a set of models each of which was trained on a bootstrap sample of the
  * original dataset, combined with an unweighted majority vote.
  * <p>
+ * If numThreads is greater than one the ensemble members are trained concurrently. Each member's
+ * bootstrap sample and inner trainer invocation count are assigned in member order, so provided the
+ * inner trainer supports {@link Trainer#setInvocationCount(int)} the ensemble is identical to
+ * one trained sequentially. If it does not, the members are trained sequentially.
+ * <p>
  * See:
  * <pre>
  * J. Friedman, T. Hastie, &amp; R. Tibshirani.
@@ -65,6 +76,9 @@ public class BaggingTrainer<T extends Output<T>> implements Trainer<T> {
     @Config(mandatory=true, description="The combination function to aggregate each ensemble member's outputs.")
     protected EnsembleCombiner<T> combiner;
 
+    @Config(description="The number of threads to use when training the ensemble members.")
+    protected int numThreads = 1;
+
     protected SplittableRandom rng;
 
     protected int trainInvocationCounter;
@@ -92,10 +106,24 @@ public class BaggingTrainer<T extends Output<T>> implements Trainer<T> {
      * @param seed The RNG seed used to bootstrap the datasets.
      */
     public BaggingTrainer(Trainer<T> trainer, EnsembleCombiner<T> combiner, int numMembers, long seed) {
+        this(trainer, combiner, numMembers, seed, 1);
+    }
+
+    /**
+     * Constructs a bagging trainer with the supplied parameters, which trains the ensemble
+     * members using {@code numThreads} threads.
+     * @param trainer The ensemble member trainer.
+     * @param combiner The combination function.
+     * @param numMembers The number of ensemble members to train.
+     * @param seed The RNG seed used to bootstrap the datasets.
+     * @param numThreads The number of threads to use when training the members.
+     */
+    public BaggingTrainer(Trainer<T> trainer, EnsembleCombiner<T> combiner, int numMembers, long seed, int numThreads) {
         this.innerTrainer = trainer;
         this.combiner = combiner;
         this.numMembers = numMembers;
         this.seed = seed;
+        this.numThreads = numThreads;
         postConfig();
     }
 
@@ -105,6 +133,9 @@ public class BaggingTrainer<T extends Output<T>> implements Trainer<T> {
     @Override
     public synchronized void postConfig() {
         this.rng = new SplittableRandom(seed);
+        if (numThreads < 1) {
+            throw new PropertyException("","numThreads","numThreads must be positive, found " + numThreads);
+        }
     }
 
     /**
@@ -128,6 +159,8 @@ public class BaggingTrainer<T extends Output<T>> implements Trainer<T> {
         buffer.append(numMembers);
         buffer.append(",seed=");
         buffer.append(seed);
+        buffer.append(",numThreads=");
+        buffer.append(numThreads);
         buffer.append(")");
 
         return buffer.toString();
@@ -135,20 +168,33 @@ public class BaggingTrainer<T extends Output<T>> implements Trainer<T> {
     
     @Override
     public Model<T> train(Dataset<T> examples, Map<String, Provenance> runProvenance) {
+        return train(examples, runProvenance, INCREMENT_INVOCATION_COUNT);
+    }
+
+    @Override
+    public Model<T> train(Dataset<T> examples, Map<String, Provenance> runProvenance, int invocationCount) {
         // Creates a new RNG, adds one to the invocation count.
         SplittableRandom localRNG;
         TrainerProvenance trainerProvenance;
         synchronized(this) {
+            if (invocationCount != INCREMENT_INVOCATION_COUNT) {
+                setInvocationCount(invocationCount);
+            }
             localRNG = rng.split();
             trainerProvenance = getProvenance();
             trainInvocationCounter++;
         }
         ImmutableFeatureMap featureIDs = examples.getFeatureIDMap();
         ImmutableOutputInfo<T> labelIDs = examples.getOutputIDInfo();
-        ArrayList<Model<T>> models = new ArrayList<>();
-        for (int i = 0; i < numMembers; i++) {
-            logger.info("Building model " + i);
-            models.add(trainSingleModel(examples,featureIDs,labelIDs,localRNG,runProvenance));
+        ArrayList<Model<T>> models;
+        if ((numThreads > 1) && (numMembers > 1) && innerTrainerSupportsInvocationCount()) {
+            models = trainParallel(examples,featureIDs,labelIDs,localRNG,runProvenance);
+        } else {
+            models = new ArrayList<>();
+            for (int i = 0; i < numMembers; i++) {
+                logger.info("Building model " + i);
+                models.add(trainSingleModel(examples,featureIDs,labelIDs,localRNG,runProvenance));
+            }
         }
         EnsembleModelProvenance provenance = new EnsembleModelProvenance(WeightedEnsembleModel.class.getName(), OffsetDateTime.now(), examples.getProvenance(), trainerProvenance, runProvenance, ListProvenance.createListProvenance(models));
         return new WeightedEnsembleModel<>(ensembleName(),provenance,featureIDs,labelIDs,models,combiner);
@@ -164,11 +210,105 @@ public class BaggingTrainer<T extends Output<T>> implements Trainer<T> {
      * @return The trained ensemble member.
      */
     protected Model<T> trainSingleModel(Dataset<T> examples, ImmutableFeatureMap featureIDs, ImmutableOutputInfo<T> labelIDs, SplittableRandom localRNG, Map<String,Provenance> runProvenance) {
-        DatasetView<T> bag = DatasetView.createBootstrapView(examples,examples.size(),localRNG.nextInt(),featureIDs,labelIDs);
-        Model<T> newModel = innerTrainer.train(bag,runProvenance);
+        return trainSingleModel(examples,featureIDs,labelIDs,localRNG.nextInt(),runProvenance,INCREMENT_INVOCATION_COUNT);
+    }
+
+    /**
+     * Trains a single model.
+     * @param examples The training dataset.
+     * @param featureIDs The feature domain.
+     * @param labelIDs The output domain.
+     * @param bagSeed The seed used to draw the bootstrap sample.
+     * @param runProvenance Provenance for this instance.
+     * @param invocationCount The invocation count to pass to the inner trainer.
+     * @return The trained ensemble member.
+     */
+    protected Model<T> trainSingleModel(Dataset<T> examples, ImmutableFeatureMap featureIDs, ImmutableOutputInfo<T> labelIDs, int bagSeed, Map<String,Provenance> runProvenance, int invocationCount) {
+        DatasetView<T> bag = DatasetView.createBootstrapView(examples,examples.size(),bagSeed,featureIDs,labelIDs);
+        Model<T> newModel = innerTrainer.train(bag,runProvenance,invocationCount);
         return newModel;
     }
 
+    /**
+     * Trains the ensemble members concurrently.
+     * <p>
+     * The bootstrap seeds are drawn from the RNG in member order, and member {@code i} is trained
+     * using the inner trainer's current invocation count plus {@code i}, so the members are identical to
+     * those produced by the sequential loop. Afterwards the inner trainer's invocation count is left
+     * where the sequential loop would leave it.
+     * @param examples The training dataset.
+     * @param featureIDs The feature domain.
+     * @param labelIDs The output domain.
+     * @param localRNG The local RNG instance.
+     * @param runProvenance Provenance for this instance.
+     * @return The trained ensemble members in order.
+     */
+    private ArrayList<Model<T>> trainParallel(Dataset<T> examples, ImmutableFeatureMap featureIDs, ImmutableOutputInfo<T> labelIDs, SplittableRandom localRNG, Map<String,Provenance> runProvenance) {
+        int baseInvocationCount = innerTrainer.getInvocationCount();
+        int[] bagSeeds = new int[numMembers];
+        for (int i = 0; i < numMembers; i++) {
+            bagSeeds[i] = localRNG.nextInt();
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(numThreads,numMembers));
+        List<Future<Model<T>>> futures = new ArrayList<>(numMembers);
+        for (int i = 0; i < numMembers; i++) {
+            final int memberIdx = i;
+            futures.add(pool.submit(() -> {
+                logger.info("Building model " + memberIdx);
+                return trainSingleModel(examples,featureIDs,labelIDs,bagSeeds[memberIdx],runProvenance,baseInvocationCount + memberIdx);
+            }));
+        }
+        ArrayList<Model<T>> models = new ArrayList<>(numMembers);
+        try {
+            for (Future<Model<T>> f : futures) {
+                models.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while training the ensemble members",e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new IllegalStateException("Failed to train an ensemble member",e.getCause());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        innerTrainer.setInvocationCount(baseInvocationCount + numMembers);
+        return models;
+    }
+
+    /**
+     * Checks if the inner trainer supports {@link Trainer#setInvocationCount(int)}, which is
+     * required for concurrent member training to match sequential training.
+     * @return True if the inner trainer supports setting the invocation count.
+     */
+    private boolean innerTrainerSupportsInvocationCount() {
+        if (innerTrainer.supportsInvocationCount()) {
+            return true;
+        } else {
+            logger.warning(innerTrainer.getClass().getName() + " does not support setting the invocation count, training the ensemble members sequentially.");
+            return false;
+        }
+    }
+
+    @Override
+    public boolean supportsInvocationCount() {
+        return true;
+    }
+
+    @Override
+    public synchronized void setInvocationCount(int invocationCount) {
+        if (invocationCount < 0) {
+            throw new IllegalArgumentException("The supplied invocationCount is less than zero.");
+        }
+        rng = new SplittableRandom(seed);
+        for (trainInvocationCounter = 0; trainInvocationCounter < invocationCount; trainInvocationCounter++) {
+            rng.split();
+        }
+    }
+
     @Override
     public int getInvocationCount() {
         return trainInvocationCounter;
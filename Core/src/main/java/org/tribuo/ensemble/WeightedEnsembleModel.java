@@ -40,10 +40,18 @@ import java.util.Optional;
 
 /**
  * An ensemble model that uses weights to combine the ensemble member predictions.
+ * <p>
+ * Batch predictions are made one member at a time over blocks of examples, so each member
+ * can use its own batch prediction path (e.g., walking the block through a compiled tree).
  */
 public final class WeightedEnsembleModel<T extends Output<T>> extends EnsembleModel<T> {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * The number of examples each member predicts at once in {@link #predict(Iterable)}.
+     */
+    public static final int PREDICTION_BLOCK_SIZE = 256;
+
     protected final float[] weights;
 
     protected final EnsembleCombiner<T> combiner;
@@ -97,6 +105,42 @@ public final class WeightedEnsembleModel<T extends Output<T>> extends EnsembleMo
         return combiner.combine(outputIDInfo,predictions,weights);
     }
 
+    @Override
+    protected List<Prediction<T>> innerPredict(Iterable<Example<T>> examples) {
+        List<Prediction<T>> predictions = new ArrayList<>();
+        List<Example<T>> block = new ArrayList<>(PREDICTION_BLOCK_SIZE);
+        for (Example<T> example : examples) {
+            block.add(example);
+            if (block.size() == PREDICTION_BLOCK_SIZE) {
+                predictBlock(block,predictions);
+                block.clear();
+            }
+        }
+        if (!block.isEmpty()) {
+            predictBlock(block,predictions);
+        }
+        return predictions;
+    }
+
+    /**
+     * Predicts a block of examples with each member in turn, then combines the member predictions.
+     * @param block The examples to predict.
+     * @param output The list to append the combined predictions to.
+     */
+    private void predictBlock(List<Example<T>> block, List<Prediction<T>> output) {
+        List<List<Prediction<T>>> memberPredictions = new ArrayList<>(models.size());
+        for (Model<T> model : models) {
+            memberPredictions.add(model.predict(block));
+        }
+        for (int i = 0; i < block.size(); i++) {
+            List<Prediction<T>> predictions = new ArrayList<>(models.size());
+            for (List<Prediction<T>> memberPrediction : memberPredictions) {
+                predictions.add(memberPrediction.get(i));
+            }
+            output.add(combiner.combine(outputIDInfo,predictions,weights));
+        }
+    }
+
     @Override
     public Optional<Excuse<T>> getExcuse(Example<T> example) {
         Map<String, Map<String,Double>> map = new HashMap<>();
@@ -23,8 +23,13 @@ import org.tribuo.Output;
 import org.tribuo.Trainer;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,6 +39,12 @@ import java.util.logging.Logger;
  * This splits the data into k pieces, tests on one of them and trains on the rest.
  * <p>
  * It produces a list of {@link Evaluation}s for each of the test sets.
+ * <p>
+ * The folds are {@link org.tribuo.dataset.DatasetView}s over the supplied dataset, sharing its
+ * examples, feature map and output info. If {@code numThreads} is greater than one, and the
+ * trainer supports {@link Trainer#setInvocationCount(int)}, the folds are trained and evaluated
+ * concurrently on a pool of {@code numThreads} threads. The model for fold i is trained using the trainer's
+ * current invocation count plus i, so the models are identical to those produced by sequential evaluation.
  */
 public class CrossValidation<T extends Output<T>, E extends Evaluation<T>> {
 
@@ -44,6 +55,7 @@ public class CrossValidation<T extends Output<T>, E extends Evaluation<T>> {
     private final Dataset<T> data;
     private final Evaluator<T, E> evaluator;
     private final KFoldSplitter<T> splitter;
+    private final int numThreads;
 
     /**
      * Builds a k-fold cross-validation loop.
@@ -71,11 +83,33 @@ public class CrossValidation<T extends Output<T>, E extends Evaluation<T>> {
                            Evaluator<T, E> evaluator,
                            int k,
                            long seed) {
+        this(trainer, data, evaluator, k, seed, 1);
+    }
+
+    /**
+     * Builds a k-fold cross-validation loop which evaluates the folds using {@code numThreads} threads.
+     * @param trainer the trainer to use.
+     * @param data the dataset to split.
+     * @param evaluator the evaluator to use.
+     * @param k the number of folds.
+     * @param seed The RNG seed.
+     * @param numThreads The number of threads to use when training and evaluating the folds.
+     */
+    public CrossValidation(Trainer<T> trainer,
+                           Dataset<T> data,
+                           Evaluator<T, E> evaluator,
+                           int k,
+                           long seed,
+                           int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("numThreads must be positive, found " + numThreads);
+        }
         this.trainer = trainer;
         this.data = data;
         this.evaluator = evaluator;
         this.numFolds = k;
         this.splitter = new KFoldSplitter<>(k, seed);
+        this.numThreads = numThreads;
     }
 
     /**
@@ -89,8 +123,13 @@ public class CrossValidation<T extends Output<T>, E extends Evaluation<T>> {
      * @return The k evaluators one per fold.
      */
     public List<Pair<E, Model<T>>> evaluate() {
-        List<Pair<E, Model<T>>> evals = new ArrayList<>();
         Iterator<KFoldSplitter.TrainTestFold<T>> iter = splitter.split(data, true);
+        if ((numThreads > 1) && trainerSupportsInvocationCount()) {
+            List<KFoldSplitter.TrainTestFold<T>> folds = new ArrayList<>(numFolds);
+            iter.forEachRemaining(folds::add);
+            return evaluateParallel(folds);
+        }
+        List<Pair<E, Model<T>>> evals = new ArrayList<>();
         int ct = 0;
         while (iter.hasNext()) {
             logger.log(Level.INFO, "Training for fold " + ct);
@@ -101,4 +140,59 @@ public class CrossValidation<T extends Output<T>, E extends Evaluation<T>> {
         }
         return evals;
     }
+
+    /**
+     * Trains and evaluates the folds concurrently.
+     * <p>
+     * Afterwards the trainer's invocation count is left where sequential evaluation would leave it.
+     * @param folds The folds.
+     * @return The evaluation and model for each fold, in fold order.
+     */
+    private List<Pair<E, Model<T>>> evaluateParallel(List<KFoldSplitter.TrainTestFold<T>> folds) {
+        int baseInvocationCount = trainer.getInvocationCount();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(numThreads,folds.size()));
+        List<Future<Pair<E, Model<T>>>> futures = new ArrayList<>(folds.size());
+        for (int i = 0; i < folds.size(); i++) {
+            final int foldIdx = i;
+            futures.add(pool.submit(() -> {
+                logger.log(Level.INFO, "Training for fold " + foldIdx);
+                KFoldSplitter.TrainTestFold<T> fold = folds.get(foldIdx);
+                Model<T> model = trainer.train(fold.train, Collections.emptyMap(), baseInvocationCount + foldIdx);
+                return new Pair<>(evaluator.evaluate(model, fold.test), model);
+            }));
+        }
+        List<Pair<E, Model<T>>> evals = new ArrayList<>(folds.size());
+        try {
+            for (Future<Pair<E, Model<T>>> f : futures) {
+                evals.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating the folds",e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new IllegalStateException("Failed to evaluate a fold",e.getCause());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        trainer.setInvocationCount(baseInvocationCount + folds.size());
+        return evals;
+    }
+
+    /**
+     * Checks if the trainer supports {@link Trainer#setInvocationCount(int)}, which is
+     * required for concurrent evaluation to match sequential evaluation.
+     * @return True if the trainer supports setting the invocation count.
+     */
+    private boolean trainerSupportsInvocationCount() {
+        if (trainer.supportsInvocationCount()) {
+            return true;
+        } else {
+            logger.warning(trainer.getClass().getName() + " does not support setting the invocation count, evaluating the folds sequentially.");
+            return false;
+        }
+    }
 }
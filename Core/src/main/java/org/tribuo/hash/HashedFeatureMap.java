@@ -22,6 +22,9 @@ import org.tribuo.Model;
 import org.tribuo.VariableIDInfo;
 import org.tribuo.VariableInfo;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -30,12 +33,21 @@ import java.util.TreeMap;
  * provide feature name hashing and guarantee that the {@link Model}
  * does not contain feature name information, but still works
  * with unhashed features names.
+ * <p>
+ * When the hasher is a {@link MurmurHasher} the feature ids are looked up directly
+ * from the hash bucket, without hashing the name into a String.
  */
 public final class HashedFeatureMap extends ImmutableFeatureMap {
     private static final long serialVersionUID = 1L;
 
     private final Hasher hasher;
 
+    /**
+     * The feature id for each bucket of a {@link MurmurHasher}, or -1 if the bucket is empty.
+     * Null for other hashers.
+     */
+    private transient int[] bucketIDs;
+
     private HashedFeatureMap(Hasher hasher) {
         super();
         this.hasher = hasher;
@@ -43,6 +55,10 @@ public final class HashedFeatureMap extends ImmutableFeatureMap {
 
     @Override
     public VariableIDInfo get(String name) {
+        if (bucketIDs != null) {
+            int id = getID(name);
+            return id == -1 ? null : idMap.get(id);
+        }
         String hash = hasher.hash(name);
         return (VariableIDInfo) m.get(hash);
     }
@@ -54,6 +70,9 @@ public final class HashedFeatureMap extends ImmutableFeatureMap {
      */
     @Override
     public int getID(String name) {
+        if (bucketIDs != null) {
+            return bucketIDs[((MurmurHasher) hasher).hashToBucket(name)];
+        }
         VariableIDInfo info = get(name);
         if (info != null) {
             return info.getID();
@@ -107,7 +126,67 @@ public final class HashedFeatureMap extends ImmutableFeatureMap {
             }
         }
         hashedMap.size = hashedMap.m.size();
+        hashedMap.buildBucketIDs();
+        return hashedMap;
+    }
+
+    /**
+     * Merges two hashed feature maps which use the same hash function, producing a map which contains
+     * the hash buckets of both.
+     * <p>
+     * Buckets present in the first map keep its feature statistics, buckets which only appear in the
+     * second map are added. Ids are regenerated, so map between the domains using the hashed feature names.
+     * The hash function of the first map is used, and the salt is not compared as it isn't stored.
+     * <p>
+     * Throws {@link IllegalArgumentException} if the maps use different hash functions.
+     * @param first The first hashed feature map.
+     * @param second The second hashed feature map.
+     * @return The merged hashed feature map.
+     */
+    public static HashedFeatureMap merge(HashedFeatureMap first, HashedFeatureMap second) {
+        if (!first.hasher.getProvenance().equals(second.hasher.getProvenance())) {
+            throw new IllegalArgumentException("Can't merge hashed feature maps which use different hash functions, found "
+                    + first.hasher.toString() + " and " + second.hasher.toString());
+        }
+        HashedFeatureMap hashedMap = new HashedFeatureMap(first.hasher);
+        TreeMap<String,VariableInfo> treeHashMap = new TreeMap<>();
+        for (VariableInfo f : first) {
+            treeHashMap.put(f.getName(),f);
+        }
+        for (VariableInfo f : second) {
+            treeHashMap.putIfAbsent(f.getName(),f);
+        }
+        int counter = 0;
+        for (VariableInfo f : treeHashMap.values()) {
+            VariableIDInfo newF = f.makeIDInfo(counter);
+            hashedMap.m.put(newF.getName(), newF);
+            hashedMap.idMap.put(newF.getID(), newF);
+            counter++;
+        }
+        hashedMap.size = hashedMap.m.size();
+        hashedMap.buildBucketIDs();
         return hashedMap;
     }
 
+    /**
+     * Builds the bucket to id lookup table if the hasher is a {@link MurmurHasher}.
+     * <p>
+     * The hashed feature names are the bucket numbers, so the table doesn't depend on the salt.
+     */
+    private void buildBucketIDs() {
+        if (hasher instanceof MurmurHasher) {
+            int[] ids = new int[((MurmurHasher) hasher).getDimension()];
+            Arrays.fill(ids,-1);
+            for (Map.Entry<String,VariableInfo> e : m.entrySet()) {
+                ids[Integer.parseInt(e.getKey())] = ((VariableIDInfo) e.getValue()).getID();
+            }
+            bucketIDs = ids;
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        buildBucketIDs();
+    }
+
 }
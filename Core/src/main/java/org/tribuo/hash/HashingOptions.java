@@ -53,13 +53,17 @@ public class HashingOptions implements Options {
         /**
          * Uses SHA-256.
          */
-        SHA256
+        SHA256,
+        /**
+         * Uses MurmurHash3 into a fixed number of buckets.
+         */
+        MURMUR
     }
 
     /**
-     * Hash the model during training, options are {NONE,MOD,HC,SHA1,SHA256}
+     * Hash the model during training, options are {NONE,MOD,HC,SHA1,SHA256,MURMUR}
      */
-    @Option(longName = "model-hashing-algorithm", usage = "Hash the model during training, options are {NONE,MOD,HC,SHA1,SHA256}")
+    @Option(longName = "model-hashing-algorithm", usage = "Hash the model during training, options are {NONE,MOD,HC,SHA1,SHA256,MURMUR}")
     public ModelHashingType modelHashingAlgorithm = ModelHashingType.NONE;
     /**
      * Salt for hashing the model
@@ -85,6 +89,8 @@ public class HashingOptions implements Options {
                     return Optional.of(new MessageDigestHasher("SHA1", modelHashingSalt));
                 case SHA256:
                     return Optional.of(new MessageDigestHasher("SHA-256", modelHashingSalt));
+                case MURMUR:
+                    return Optional.of(new MurmurHasher(modelHashingSalt));
                 default:
                     logger.info("Unknown hasher " + modelHashingAlgorithm);
                     return Optional.empty();
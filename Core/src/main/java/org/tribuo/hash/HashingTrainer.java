@@ -74,10 +74,24 @@ public final class HashingTrainer<T extends Output<T>> implements Trainer<T> {
      */
     @Override
     public Model<T> train(Dataset<T> dataset,Map<String, Provenance> instanceProvenance) {
+        return train(dataset, instanceProvenance, INCREMENT_INVOCATION_COUNT);
+    }
+
+    /**
+     * This clones the {@link Dataset}, hashes each of the examples
+     * and rewrites their feature ids before passing it and the invocation count
+     * to the inner trainer.
+     * @param dataset The input dataset.
+     * @param instanceProvenance Provenance information specific to this execution of train (e.g., cross validation fold number).
+     * @param invocationCount The invocation count to pass to the inner trainer.
+     * @return A trained {@link Model}.
+     */
+    @Override
+    public Model<T> train(Dataset<T> dataset, Map<String, Provenance> instanceProvenance, int invocationCount) {
         logger.log(Level.INFO,"Before hashing, had " + dataset.getFeatureMap().size() + " features.");
         ImmutableDataset<T> hashedData = ImmutableDataset.hashFeatureMap(dataset, hasher);
         logger.log(Level.INFO,"After hashing, had " + hashedData.getFeatureMap().size() + " features.");
-        Model<T> model = innerTrainer.train(hashedData,instanceProvenance);
+        Model<T> model = innerTrainer.train(hashedData,instanceProvenance,invocationCount);
         if (!(model.getFeatureIDMap() instanceof HashedFeatureMap)) {
             //
             // This exception is thrown when the innerTrainer did not copy the ImmutableFeatureMap from the
@@ -92,6 +106,16 @@ public final class HashingTrainer<T extends Output<T>> implements Trainer<T> {
         return innerTrainer.getInvocationCount();
     }
 
+    @Override
+    public boolean supportsInvocationCount() {
+        return innerTrainer.supportsInvocationCount();
+    }
+
+    @Override
+    public void setInvocationCount(int invocationCount) {
+        innerTrainer.setInvocationCount(invocationCount);
+    }
+
     @Override
     public TrainerProvenance getProvenance() {
         return new TrainerProvenanceImpl(this);
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tribuo.hash;
+
+import com.oracle.labs.mlrg.olcut.config.Config;
+import com.oracle.labs.mlrg.olcut.config.PropertyException;
+import com.oracle.labs.mlrg.olcut.provenance.ConfiguredObjectProvenance;
+import com.oracle.labs.mlrg.olcut.provenance.ObjectProvenance;
+import com.oracle.labs.mlrg.olcut.provenance.Provenance;
+import com.oracle.labs.mlrg.olcut.provenance.primitives.IntProvenance;
+import com.oracle.labs.mlrg.olcut.provenance.primitives.StringProvenance;
+import org.tribuo.util.MurmurHash3;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Hashes names directly into an integer bucket in the range [0, dimension) using
+ * the 32 bit variant of {@link MurmurHash3}, seeded with a hash of the salt.
+ * <p>
+ * Unlike the other hashers {@link #hashToBucket} doesn't allocate, so when a {@link HashedFeatureMap}
+ * uses this hasher it looks up feature ids directly from the bucket, without creating a String
+ * or probing a map. The lookup table uses one int per bucket.
+ * <p>
+ * MurmurHash3 is not a cryptographic hash, so this hasher obscures the feature names but provides
+ * weaker guarantees than {@link MessageDigestHasher}.
+ */
+public final class MurmurHasher extends Hasher {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The default number of buckets.
+     */
+    public static final int DEFAULT_DIMENSION = 1 << 18;
+
+    /**
+     * The seed used when hashing the salt.
+     */
+    private static final int SALT_SEED = 0x5bd1e995;
+
+    static final String DIMENSION = "dimension";
+
+    @Config(mandatory = true,redact = true,description="Salt used in the hash.")
+    private transient String salt = null;
+
+    @Config(description="Range of the hashing function.")
+    private int dimension = DEFAULT_DIMENSION;
+
+    private transient int seed;
+
+    private MurmurHasherProvenance provenance;
+
+    /**
+     * for olcut.
+     */
+    private MurmurHasher() { }
+
+    /**
+     * Constructs a MurmurHasher with {@link #DEFAULT_DIMENSION} buckets.
+     * @param salt The salt value.
+     */
+    public MurmurHasher(String salt) {
+        this(DEFAULT_DIMENSION,salt);
+    }
+
+    /**
+     * Constructs a MurmurHasher with the supplied parameters.
+     * @param dimension The number of buckets.
+     * @param salt The salt value.
+     */
+    public MurmurHasher(int dimension, String salt) {
+        this.dimension = dimension;
+        this.salt = salt;
+        postConfig();
+    }
+
+    /**
+     * Used by the OLCUT configuration system, and should not be called by external code.
+     */
+    @Override
+    public void postConfig() {
+        if (dimension < 1) {
+            throw new PropertyException("","dimension","dimension must be positive, found " + dimension);
+        }
+        if (salt != null) {
+            if (!Hasher.validateSalt(salt)) {
+                throw new PropertyException("","salt","Salt does not meet the requirements for a salt.");
+            }
+            setSalt(salt);
+        }
+        this.provenance = new MurmurHasherProvenance(dimension);
+    }
+
+    /**
+     * Hashes the supplied input into a bucket.
+     * @param input The input to hash.
+     * @return The bucket, in the range [0, dimension).
+     */
+    public int hashToBucket(String input) {
+        if (salt == null) {
+            throw new IllegalStateException("Salt not set");
+        }
+        return Math.floorMod(MurmurHash3.murmurhash3_x86_32(input,0,input.length(),seed),dimension);
+    }
+
+    @Override
+    public String hash(String input) {
+        return Integer.toString(hashToBucket(input));
+    }
+
+    /**
+     * Returns the number of buckets.
+     * @return The number of buckets.
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public void setSalt(String salt) {
+        if (Hasher.validateSalt(salt)) {
+            this.salt = salt;
+            this.seed = MurmurHash3.murmurhash3_x86_32(salt,0,salt.length(),SALT_SEED);
+        } else {
+            throw new IllegalArgumentException("Salt: '" + salt + ", does not meet the requirements for a salt.");
+        }
+    }
+
+    @Override
+    public ConfiguredObjectProvenance getProvenance() {
+        return provenance;
+    }
+
+    @Override
+    public String toString() {
+        return "MurmurHasher(dimension=" + dimension + ")";
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        salt = null;
+    }
+
+    /**
+     * Provenance for the {@link MurmurHasher}.
+     */
+    public final static class MurmurHasherProvenance implements ConfiguredObjectProvenance {
+        private static final long serialVersionUID = 1L;
+
+        private final IntProvenance dimension;
+
+        MurmurHasherProvenance(int dimension) {
+            this.dimension = new IntProvenance(DIMENSION,dimension);
+        }
+
+        /**
+         * Deserialization constructor.
+         * @param map The provenances.
+         */
+        public MurmurHasherProvenance(Map<String, Provenance> map) {
+            dimension = ObjectProvenance.checkAndExtractProvenance(map,DIMENSION,IntProvenance.class,MurmurHasherProvenance.class.getSimpleName());
+        }
+
+        @Override
+        public Map<String, Provenance> getConfiguredParameters() {
+            Map<String,Provenance> map = new HashMap<>();
+            map.put("saltStr",new StringProvenance("saltStr",""));
+            map.put(DIMENSION,dimension);
+            return map;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof MurmurHasherProvenance)) return false;
+            MurmurHasherProvenance pairs = (MurmurHasherProvenance) o;
+            return dimension.equals(pairs.dimension);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dimension);
+        }
+
+        @Override
+        public String getClassName() {
+            return MurmurHasher.class.getName();
+        }
+
+        @Override
+        public String toString() {
+            return generateString("Hasher");
+        }
+    }
+}
@@ -18,10 +18,11 @@
  * Provides the base interface and implementations of the {@link org.tribuo.Model} hashing
  * which obscures the feature names stored in a model.
  * <p>
- * The base interface is {@link org.tribuo.hash.Hasher}, which has three implementations:
+ * The base interface is {@link org.tribuo.hash.Hasher}, which has four implementations:
  * {@link org.tribuo.hash.HashCodeHasher} which uses String.hashCode(),
  * {@link org.tribuo.hash.ModHashCodeHasher} which uses String.hashCode() and remaps the output into
- * a specific range, and {@link org.tribuo.hash.MessageDigestHasher} which uses a
+ * a specific range, {@link org.tribuo.hash.MurmurHasher} which uses MurmurHash3 to map names directly
+ * into a fixed number of buckets, and {@link org.tribuo.hash.MessageDigestHasher} which uses a
  * {@link java.security.MessageDigest} implementation to perform the hashing. Only MessageDigestHasher provides
  * security guarantees suitable for production usage.
  */
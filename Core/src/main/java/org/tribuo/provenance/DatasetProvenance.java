@@ -106,7 +106,7 @@ public class DatasetProvenance implements DataProvenance, ObjectProvenance {
      * @param numFeatures The number of features in this dataset.
      * @param numOutputs The output dimensionality.
      */
-    protected DatasetProvenance(DataProvenance sourceProvenance, ListProvenance<ObjectProvenance> transformationProvenance, String datasetClassName, boolean isDense, boolean isSequence, int numExamples, int numFeatures, int numOutputs) {
+    public DatasetProvenance(DataProvenance sourceProvenance, ListProvenance<ObjectProvenance> transformationProvenance, String datasetClassName, boolean isDense, boolean isSequence, int numExamples, int numFeatures, int numOutputs) {
         this.className = datasetClassName;
         this.sourceProvenance = sourceProvenance;
         this.transformationProvenance = transformationProvenance;
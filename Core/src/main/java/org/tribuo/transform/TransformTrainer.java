@@ -28,6 +28,7 @@ import org.tribuo.provenance.TrainerProvenance;
 import org.tribuo.provenance.impl.TrainerProvenanceImpl;
 
 import java.time.OffsetDateTime;
+import java.util.Collections;
 import java.util.Map;
 import java.util.logging.Logger;
 
@@ -111,6 +112,11 @@ public final class TransformTrainer<T extends Output<T>> implements Trainer<T> {
 
     @Override
     public TransformedModel<T> train(Dataset<T> examples, Map<String, Provenance> instanceProvenance) {
+        return train(examples, instanceProvenance, INCREMENT_INVOCATION_COUNT);
+    }
+
+    @Override
+    public TransformedModel<T> train(Dataset<T> examples, Map<String, Provenance> instanceProvenance, int invocationCount) {
         
         logger.fine("Creating transformers");
 
@@ -124,9 +130,18 @@ public final class TransformTrainer<T extends Output<T>> implements Trainer<T> {
 
         TrainerProvenance provenance;
         Model<T> innerModel;
-        synchronized (innerTrainer) {
-            provenance = getProvenance();
-            innerModel = innerTrainer.train(transformedDataset);
+        if (invocationCount == INCREMENT_INVOCATION_COUNT) {
+            synchronized (innerTrainer) {
+                provenance = getProvenance();
+                innerModel = innerTrainer.train(transformedDataset);
+            }
+        } else {
+            // The inner trainer sets the count again when training, this only fixes the provenance.
+            synchronized (innerTrainer) {
+                innerTrainer.setInvocationCount(invocationCount);
+                provenance = getProvenance();
+            }
+            innerModel = innerTrainer.train(transformedDataset, Collections.emptyMap(), invocationCount);
         }
 
         ModelProvenance modelProvenance = new ModelProvenance(TransformedModel.class.getName(), OffsetDateTime.now(), transformedDataset.getProvenance(), provenance, instanceProvenance);
@@ -139,6 +154,16 @@ public final class TransformTrainer<T extends Output<T>> implements Trainer<T> {
         return innerTrainer.getInvocationCount();
     }
 
+    @Override
+    public boolean supportsInvocationCount() {
+        return innerTrainer.supportsInvocationCount();
+    }
+
+    @Override
+    public void setInvocationCount(int invocationCount) {
+        innerTrainer.setInvocationCount(invocationCount);
+    }
+
     @Override
     public TrainerProvenance getProvenance() {
         return new TrainerProvenanceImpl(this);
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ImmutableFeatureMapTest {
+
+    private static ImmutableFeatureMap generateMap(int numFeatures) {
+        MutableFeatureMap fmap = new MutableFeatureMap();
+        for (int i = 0; i < numFeatures; i++) {
+            fmap.add("feature-" + i, i);
+        }
+        return new ImmutableFeatureMap(fmap);
+    }
+
+    private static void checkLookups(ImmutableFeatureMap map, int numFeatures) {
+        assertEquals(numFeatures, map.size());
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < numFeatures; i++) {
+            String name = "feature-" + i;
+            int id = map.getID(name);
+            assertTrue(id >= 0 && id < numFeatures);
+            assertTrue(ids.add(id));
+            VariableIDInfo info = map.get(name);
+            assertEquals(name, info.getName());
+            assertEquals(id, info.getID());
+            assertSame(info, map.get(id));
+        }
+        assertEquals(-1, map.getID("unknown"));
+        assertNull(map.get("unknown"));
+        assertNull(map.get(-1));
+        assertNull(map.get(numFeatures));
+    }
+
+    @Test
+    public void testLookup() {
+        ImmutableFeatureMap map = generateMap(5000);
+        checkLookups(map, 5000);
+
+        // ids are assigned in String order
+        String prev = null;
+        for (int i = 0; i < map.size(); i++) {
+            String cur = map.get(i).getName();
+            if (prev != null) {
+                assertTrue(prev.compareTo(cur) < 0);
+            }
+            prev = cur;
+        }
+
+        // Iteration and the name set cover every feature
+        int count = 0;
+        for (VariableInfo info : map) {
+            assertSame(info, map.get(info.getName()));
+            count++;
+        }
+        assertEquals(5000, count);
+        assertEquals(5000, map.keySet().size());
+        assertTrue(map.keySet().contains("feature-42"));
+        assertThrows(UnsupportedOperationException.class, () -> map.keySet().remove("feature-42"));
+    }
+
+    @Test
+    public void testEmpty() {
+        ImmutableFeatureMap map = new ImmutableFeatureMap(new MutableFeatureMap());
+        checkLookups(map, 0);
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        ImmutableFeatureMap map = generateMap(100);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(map);
+        }
+        ImmutableFeatureMap deserialized;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (ImmutableFeatureMap) ois.readObject();
+        }
+        checkLookups(deserialized, 100);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(map.get(i).getName(), deserialized.get(i).getName());
+        }
+        assertEquals(new HashMap<>(map.idMap), new HashMap<>(deserialized.idMap));
+    }
+
+    @Test
+    public void testSubclass() {
+        ImmutableFeatureMap map = new ImmutableFeatureMap() {
+            {
+                VariableIDInfo foo = new RealInfo("foo").makeIDInfo(0);
+                m.put("foo",foo);
+                idMap.put(0,foo);
+                size = 1;
+            }
+        };
+        assertEquals(0, map.getID("foo"));
+        assertEquals("foo", map.get(0).getName());
+        assertEquals(-1, map.getID("bar"));
+    }
+}
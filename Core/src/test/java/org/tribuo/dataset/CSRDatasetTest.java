@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.dataset;
+
+import org.junit.jupiter.api.Test;
+import org.tribuo.Example;
+import org.tribuo.Feature;
+import org.tribuo.ImmutableDataset;
+import org.tribuo.MutableDataset;
+import org.tribuo.hash.HashedFeatureMap;
+import org.tribuo.hash.ModHashCodeHasher;
+import org.tribuo.impl.ArrayExample;
+import org.tribuo.test.MockDataSourceProvenance;
+import org.tribuo.test.MockOutput;
+import org.tribuo.test.MockOutputFactory;
+import org.tribuo.transform.TransformationMap;
+import org.tribuo.transform.Transformer;
+import org.tribuo.transform.TransformerMap;
+import org.tribuo.transform.transformations.MeanStdDevTransformation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CSRDatasetTest {
+
+    private static MutableDataset<MockOutput> generateDataset(int size, long seed) {
+        MutableDataset<MockOutput> dataset = new MutableDataset<>(new MockDataSourceProvenance(), new MockOutputFactory());
+        Random rng = new Random(seed);
+        for (int i = 0; i < size; i++) {
+            ArrayExample<MockOutput> example = new ArrayExample<>(new MockOutput("class-" + rng.nextInt(3)), rng.nextFloat());
+            for (int j = 0; j < 20; j++) {
+                if (rng.nextDouble() < 0.3) {
+                    example.add("F" + j, rng.nextGaussian());
+                }
+            }
+            if (example.size() == 0) {
+                example.add("F0", 1.0);
+            }
+            if (i % 10 == 0) {
+                example.setMetadataValue(Example.NAME, "example-" + i);
+            }
+            dataset.add(example);
+        }
+        return dataset;
+    }
+
+    private static void assertSameFeatures(Example<MockOutput> expected, Example<MockOutput> actual, double delta) {
+        assertEquals(expected.size(), actual.size());
+        Iterator<Feature> itr = actual.iterator();
+        for (Feature f : expected) {
+            Feature other = itr.next();
+            assertEquals(f.getName(), other.getName());
+            assertEquals(f.getValue(), other.getValue(), delta);
+        }
+    }
+
+    @Test
+    public void testCopy() {
+        MutableDataset<MockOutput> dataset = generateDataset(500, 1L);
+        for (boolean floatValues : new boolean[]{false, true}) {
+            CSRDataset<MockOutput> csr = new CSRDataset<>(dataset, floatValues);
+            assertEquals(dataset.size(), csr.size());
+            assertEquals(floatValues, csr.isFloatValues());
+            assertEquals(dataset.getFeatureMap().size(), csr.getFeatureMap().size());
+            assertEquals(dataset.getOutputs(), csr.getOutputs());
+            double delta = floatValues ? 1e-6 : 0.0;
+            int numValues = 0;
+            for (int i = 0; i < dataset.size(); i++) {
+                Example<MockOutput> expected = dataset.getExample(i);
+                Example<MockOutput> actual = csr.getExample(i);
+                assertSameFeatures(expected, actual, delta);
+                assertEquals(expected.getOutput(), actual.getOutput());
+                assertEquals(expected.getWeight(), actual.getWeight());
+                assertEquals(expected.getWeight(), csr.getWeight(i));
+                assertEquals(expected.getMetadata(), actual.getMetadata());
+                assertEquals(csr.getOutputIDInfo().getID(expected.getOutput()), csr.getOutputID(i));
+                // Check the raw CSR accessors agree with the view.
+                int prevID = -1;
+                for (int j = csr.getRowStart(i); j < csr.getRowEnd(i); j++) {
+                    int id = csr.getFeatureID(j);
+                    assertTrue(id > prevID);
+                    prevID = id;
+                    Feature f = expected.lookup(csr.getFeatureIDMap().get(id).getName());
+                    assertEquals(f.getValue(), csr.getFeatureValue(j), delta);
+                    numValues++;
+                }
+            }
+            assertEquals(numValues, csr.getNumValues());
+        }
+    }
+
+    @Test
+    public void testIteration() {
+        MutableDataset<MockOutput> dataset = generateDataset(100, 2L);
+        CSRDataset<MockOutput> csr = new CSRDataset<>(dataset);
+        int i = 0;
+        for (Example<MockOutput> e : csr) {
+            assertSameFeatures(dataset.getExample(i), e, 0.0);
+            i++;
+        }
+        assertEquals(dataset.size(), i);
+        assertEquals(dataset.size(), csr.getData().size());
+
+        csr.shuffle(true);
+        Set<Integer> rows = new HashSet<>();
+        for (Example<MockOutput> e : csr) {
+            rows.add(((CSRDataset.CSRExample<MockOutput>) e).getRow());
+        }
+        assertEquals(dataset.size(), rows.size());
+        csr.shuffle(false);
+    }
+
+    @Test
+    public void testViews() {
+        MutableDataset<MockOutput> dataset = generateDataset(50, 3L);
+        CSRDataset<MockOutput> csr = new CSRDataset<>(dataset);
+        CSRDataset.CSRExample<MockOutput> example = csr.getExample(0);
+        String name = example.iterator().next().getName();
+        assertEquals(dataset.getExample(0).lookup(name).getValue(), example.lookup(name).getValue());
+        assertNull(example.lookup("not-a-feature"));
+
+        // Weights and values write through to the dataset.
+        example.setWeight(5.0f);
+        example.set(new Feature(name, 10.0));
+        assertEquals(5.0f, csr.getWeight(0));
+        assertEquals(5.0f, csr.getExample(0).getWeight());
+        assertEquals(10.0, csr.getExample(0).lookup(name).getValue());
+
+        // The copy is independent.
+        Example<MockOutput> copy = example.copy();
+        copy.add(new Feature("new-feature", 1.0));
+        assertEquals(example.size() + 1, copy.size());
+
+        assertEquals(example, csr.getExample(0));
+        assertThrows(UnsupportedOperationException.class, () -> example.add(new Feature("new-feature", 1.0)));
+        assertThrows(UnsupportedOperationException.class, () -> example.removeFeatures(Collections.singletonList(new Feature(name, 1.0))));
+        assertThrows(IllegalArgumentException.class, () -> csr.getExample(csr.size()));
+    }
+
+    @Test
+    public void testUnknownAndHashedFeatures() {
+        MutableDataset<MockOutput> dataset = generateDataset(200, 4L);
+
+        // Features outside the feature map are removed, and empty examples are rejected.
+        List<Example<MockOutput>> examples = new ArrayList<>();
+        ArrayExample<MockOutput> example = new ArrayExample<>(new MockOutput("class-0"));
+        example.add("F0", 1.0);
+        example.add("unknown", 2.0);
+        examples.add(example);
+        CSRDataset<MockOutput> csr = new CSRDataset<>(examples, new MockDataSourceProvenance(), new MockOutputFactory(), dataset.getFeatureIDMap(), dataset.getOutputIDInfo(), false);
+        assertEquals(1, csr.getExample(0).size());
+        ArrayExample<MockOutput> empty = new ArrayExample<>(new MockOutput("class-0"));
+        empty.add("unknown", 2.0);
+        assertThrows(IllegalArgumentException.class, () -> new CSRDataset<>(Collections.singletonList(empty), new MockDataSourceProvenance(), new MockOutputFactory(), dataset.getFeatureIDMap(), dataset.getOutputIDInfo(), false));
+
+        // The example feature names resolve back to the stored feature ids.
+        CSRDataset<MockOutput> full = new CSRDataset<>(dataset);
+        for (int i = 0; i < full.size(); i++) {
+            int position = full.getRowStart(i);
+            for (Feature f : full.getExample(i)) {
+                assertEquals(full.getFeatureID(position), full.getFeatureIDMap().getID(f.getName()));
+                position++;
+            }
+            assertEquals(full.getRowEnd(i), position);
+        }
+
+        // Hashed feature maps only store the hashed names, so they are rejected.
+        ImmutableDataset<MockOutput> hashed = ImmutableDataset.hashFeatureMap(dataset, new ModHashCodeHasher(5, "abcdefghi"));
+        HashedFeatureMap hashedMap = (HashedFeatureMap) hashed.getFeatureIDMap();
+        assertThrows(IllegalArgumentException.class, () -> new CSRDataset<>(dataset, new MockDataSourceProvenance(), dataset.getOutputFactory(), hashedMap, dataset.getOutputIDInfo(), false));
+        assertThrows(IllegalArgumentException.class, () -> new CSRDataset<>(hashed));
+    }
+
+    @Test
+    public void testTransformers() {
+        MutableDataset<MockOutput> dataset = generateDataset(300, 5L);
+        CSRDataset<MockOutput> csr = new CSRDataset<>(dataset);
+        TransformationMap t = new TransformationMap(Collections.singletonList(new MeanStdDevTransformation()), new HashMap<>());
+        TransformerMap expected = dataset.createTransformers(t);
+        TransformerMap actual = csr.createTransformers(t);
+        assertEquals(expected.size(), actual.size());
+        for (Map.Entry<String, List<Transformer>> e : expected.entrySet()) {
+            assertEquals(TransformerMap.applyTransformerList(1.0, e.getValue()), TransformerMap.applyTransformerList(1.0, actual.get(e.getKey())), 1e-12);
+        }
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        CSRDataset<MockOutput> csr = new CSRDataset<>(generateDataset(50, 6L), true);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(csr);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            CSRDataset<MockOutput> deserialized = (CSRDataset<MockOutput>) ois.readObject();
+            assertEquals(csr.size(), deserialized.size());
+            for (int i = 0; i < csr.size(); i++) {
+                assertSameFeatures(csr.getExample(i), deserialized.getExample(i), 0.0);
+                assertEquals(csr.getOutput(i), deserialized.getOutput(i));
+            }
+        }
+    }
+
+    @Test
+    public void testExampleEqualityAndSerialization() throws IOException, ClassNotFoundException {
+        MutableDataset<MockOutput> dataset = generateDataset(50, 7L);
+        CSRDataset<MockOutput> csr = new CSRDataset<>(dataset);
+        CSRDataset<MockOutput> other = new CSRDataset<>(dataset);
+        for (int i = 0; i < csr.size(); i++) {
+            // Equality is by content, not by dataset and row.
+            Example<MockOutput> example = csr.getExample(i);
+            Example<MockOutput> copy = other.getExample(i);
+            assertEquals(example, copy);
+            assertEquals(example.hashCode(), copy.hashCode());
+            assertEquals(new ArrayExample<>(example).hashCode(), example.hashCode());
+        }
+
+        // Examples are serialized as ArrayExample copies, without the dataset.
+        Example<MockOutput> example = csr.getExample(0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(example);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            Example<MockOutput> deserialized = (Example<MockOutput>) ois.readObject();
+            assertTrue(deserialized instanceof ArrayExample);
+            assertEquals(new ArrayExample<>(example), deserialized);
+            assertEquals(example.getWeight(), deserialized.getWeight());
+            assertEquals(example.getMetadata(), deserialized.getMetadata());
+        }
+    }
+}
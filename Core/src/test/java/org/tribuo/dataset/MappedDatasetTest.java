@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.dataset;
+
+import org.junit.jupiter.api.Test;
+import org.tribuo.Example;
+import org.tribuo.Feature;
+import org.tribuo.ImmutableDataset;
+import org.tribuo.MutableDataset;
+import org.tribuo.datasource.MappedDataSource;
+import org.tribuo.hash.ModHashCodeHasher;
+import org.tribuo.impl.ArrayExample;
+import org.tribuo.test.Helpers;
+import org.tribuo.test.MockDataSourceProvenance;
+import org.tribuo.test.MockOutput;
+import org.tribuo.test.MockOutputFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedDatasetTest {
+
+    private static List<Example<MockOutput>> generateExamples(int size, long seed) {
+        List<Example<MockOutput>> examples = new ArrayList<>();
+        Random rng = new Random(seed);
+        for (int i = 0; i < size; i++) {
+            ArrayExample<MockOutput> example = new ArrayExample<>(new MockOutput("class-" + rng.nextInt(3)), rng.nextFloat());
+            for (int j = 0; j < 25; j++) {
+                if (rng.nextDouble() < 0.3) {
+                    example.add("F" + j, rng.nextGaussian());
+                }
+            }
+            if (example.size() == 0) {
+                example.add("F0", 1.0);
+            }
+            examples.add(example);
+        }
+        return examples;
+    }
+
+    private static void assertSameExamples(Iterable<Example<MockOutput>> expected, Iterable<Example<MockOutput>> actual) {
+        Iterator<Example<MockOutput>> actualItr = actual.iterator();
+        for (Example<MockOutput> e : expected) {
+            Example<MockOutput> other = actualItr.next();
+            assertEquals(e.getOutput(), other.getOutput());
+            assertEquals(e.getWeight(), other.getWeight());
+            assertEquals(e.size(), other.size());
+            Iterator<Feature> featureItr = other.iterator();
+            for (Feature f : e) {
+                assertEquals(f, featureItr.next());
+            }
+        }
+        assertEquals(false, actualItr.hasNext());
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        MutableDataset<MockOutput> dataset = new MutableDataset<>(new MockDataSourceProvenance(), new MockOutputFactory());
+        dataset.addAll(generateExamples(1000, 1L));
+        Path path = Files.createTempFile("tribuo-mapped-test", ".bin");
+        try {
+            MappedDataset.save(dataset, path);
+            MappedDataset<MockOutput> mapped = MappedDataset.load(path);
+            assertEquals(dataset.size(), mapped.size());
+            assertEquals(dataset.getFeatureIDMap().size(), mapped.getFeatureIDMap().size());
+            assertEquals(dataset.getOutputs(), mapped.getOutputs());
+            assertEquals(dataset.getProvenance(), mapped.getSourceProvenance());
+            assertSameExamples(dataset, mapped);
+            for (int i = 0; i < dataset.size(); i += 97) {
+                assertEquals(dataset.getExample(i), mapped.getExample(i));
+            }
+            assertThrows(IllegalArgumentException.class, () -> mapped.getExample(mapped.size()));
+
+            // Serialization stores the path, and maps the file again on deserialization.
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                oos.writeObject(mapped);
+            }
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                @SuppressWarnings("unchecked")
+                MappedDataset<MockOutput> deserialized = (MappedDataset<MockOutput>) ois.readObject();
+                assertSameExamples(mapped, deserialized);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testDataSource() throws IOException {
+        List<Example<MockOutput>> examples = generateExamples(500, 2L);
+        Path path = Files.createTempFile("tribuo-mapped-test", ".bin");
+        try {
+            // Builds the domains in a first pass over the examples.
+            MappedDataset.save(examples, new MockDataSourceProvenance(), new MockOutputFactory(), path);
+            MappedDataSource<MockOutput> source = new MappedDataSource<>(path);
+            assertEquals(examples.size(), source.size());
+            assertSameExamples(examples, source);
+
+            MutableDataset<MockOutput> expected = new MutableDataset<>(new MockDataSourceProvenance(), new MockOutputFactory());
+            expected.addAll(examples);
+            assertEquals(expected.getFeatureIDMap().size(), source.getFeatureIDMap().size());
+            MutableDataset<MockOutput> loaded = new MutableDataset<>(source);
+            assertSameExamples(expected, loaded);
+
+            Helpers.testProvenanceMarshalling(source.getProvenance());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testFeatureNames() throws IOException {
+        MutableDataset<MockOutput> dataset = new MutableDataset<>(new MockDataSourceProvenance(), new MockOutputFactory());
+        dataset.addAll(generateExamples(200, 3L));
+        Path path = Files.createTempFile("tribuo-mapped-test", ".bin");
+        try {
+            // The decoded feature names resolve in the stored feature map.
+            MappedDataset.save(dataset, path);
+            MappedDataset<MockOutput> mapped = MappedDataset.load(path);
+            for (Example<MockOutput> e : mapped) {
+                int prevID = -1;
+                for (Feature f : e) {
+                    int id = mapped.getFeatureIDMap().getID(f.getName());
+                    assertTrue(id > prevID);
+                    prevID = id;
+                }
+            }
+
+            // Hashed feature maps only store the hashed names, so they are rejected.
+            ImmutableDataset<MockOutput> hashed = ImmutableDataset.hashFeatureMap(dataset, new ModHashCodeHasher(5, "abcdefghi"));
+            assertThrows(IllegalArgumentException.class, () -> MappedDataset.save(hashed, path));
+            assertSameExamples(dataset, MappedDataset.load(path));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException {
+        Path path = Files.createTempFile("tribuo-mapped-test", ".bin");
+        try {
+            Files.write(path, new byte[128]);
+            assertThrows(IOException.class, () -> MappedDataset.load(path));
+            Files.write(path, new byte[8]);
+            assertThrows(IOException.class, () -> MappedDataset.load(path));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
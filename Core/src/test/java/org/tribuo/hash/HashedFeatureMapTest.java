@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tribuo.hash;
+
+import com.oracle.labs.mlrg.olcut.provenance.ConfiguredObjectProvenance;
+import org.junit.jupiter.api.Test;
+import org.tribuo.ImmutableFeatureMap;
+import org.tribuo.MutableFeatureMap;
+import org.tribuo.VariableIDInfo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashedFeatureMapTest {
+
+    private static final String SALT = "abcdefghijk";
+
+    /**
+     * Wraps a hasher so the feature map takes the String lookup path.
+     */
+    private static final class StringHasher extends Hasher {
+        private static final long serialVersionUID = 1L;
+        private final Hasher inner;
+
+        StringHasher(Hasher inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public String hash(String input) {
+            return inner.hash(input);
+        }
+
+        @Override
+        public void setSalt(String salt) {
+            inner.setSalt(salt);
+        }
+
+        @Override
+        public ConfiguredObjectProvenance getProvenance() {
+            return inner.getProvenance();
+        }
+    }
+
+    private static MutableFeatureMap generateMap(int numFeatures) {
+        MutableFeatureMap fmap = new MutableFeatureMap();
+        for (int i = 0; i < numFeatures; i++) {
+            fmap.add("feature-" + i, i);
+        }
+        return fmap;
+    }
+
+    private static void checkLookups(HashedFeatureMap expected, HashedFeatureMap actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < 500; i++) {
+            String name = "feature-" + i;
+            assertEquals(expected.getID(name), actual.getID(name));
+            VariableIDInfo expectedInfo = expected.get(name);
+            VariableIDInfo actualInfo = actual.get(name);
+            if (expectedInfo == null) {
+                assertEquals(-1, actual.getID(name));
+                assertNull(actualInfo);
+            } else {
+                assertEquals(expectedInfo.getName(), actualInfo.getName());
+                assertEquals(expectedInfo.getID(), actualInfo.getID());
+            }
+        }
+    }
+
+    @Test
+    public void testMurmurBuckets() {
+        MurmurHasher hasher = new MurmurHasher(64, SALT);
+        for (int i = 0; i < 1000; i++) {
+            String name = "feature-" + i;
+            int bucket = hasher.hashToBucket(name);
+            assertTrue(bucket >= 0 && bucket < 64);
+            assertEquals(Integer.toString(bucket), hasher.hash(name));
+        }
+        // A different salt produces different buckets.
+        MurmurHasher other = new MurmurHasher(1 << 20, "zyxwvutsrqp");
+        MurmurHasher same = new MurmurHasher(1 << 20, SALT);
+        assertTrue(other.hashToBucket("feature-0") != same.hashToBucket("feature-0") || other.hashToBucket("feature-1") != same.hashToBucket("feature-1"));
+        assertThrows(IllegalArgumentException.class, () -> hasher.setSalt("short"));
+    }
+
+    @Test
+    public void testDirectLookup() throws IOException, ClassNotFoundException {
+        MutableFeatureMap fmap = generateMap(200);
+        for (int dimension : new int[]{64, MurmurHasher.DEFAULT_DIMENSION}) {
+            HashedFeatureMap expected = HashedFeatureMap.generateHashedFeatureMap(fmap, new StringHasher(new MurmurHasher(dimension, SALT)));
+            HashedFeatureMap actual = HashedFeatureMap.generateHashedFeatureMap(fmap, new MurmurHasher(dimension, SALT));
+            checkLookups(expected, actual);
+
+            // The lookup table is rebuilt on deserialization, and the salt must be reset.
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                oos.writeObject(actual);
+            }
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                HashedFeatureMap deserialized = (HashedFeatureMap) ois.readObject();
+                assertThrows(IllegalStateException.class, () -> deserialized.getID("feature-0"));
+                deserialized.setSalt(SALT);
+                checkLookups(expected, deserialized);
+            }
+        }
+        ImmutableFeatureMap small = HashedFeatureMap.generateHashedFeatureMap(fmap, new MurmurHasher(16, SALT));
+        assertEquals(16, small.size());
+    }
+}
@@ -60,6 +60,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 /**
@@ -69,6 +73,10 @@ import java.util.logging.Logger;
  * exported using their export tool.
  * <p>
  * The tokenizer is expected to be a HuggingFace Transformers tokenizer config json file.
+ * <p>
+ * Many documents can be processed at once with {@link #extractBatch(List, List, boolean)}, which
+ * groups the documents by their length in wordpieces and runs each group through BERT as a single
+ * padded batch. This keeps the ORT threads busy, and is much faster than extracting one document at a time.
  * @param <T> The output type.
  */
 public class BERTFeatureExtractor<T extends Output<T>> implements AutoCloseable, TextFeatureExtractor<T>, TextPipeline {
@@ -129,6 +137,10 @@ public class BERTFeatureExtractor<T extends Output<T>> implements AutoCloseable,
      * Default unknown token name.
      */
     public static final String UNKNOWN_TOKEN = "[UNK]";
+    /**
+     * Default padding token name.
+     */
+    public static final String PADDING_TOKEN = "[PAD]";
 
     // Metadata name for the token
     /**
@@ -145,6 +157,16 @@ public class BERTFeatureExtractor<T extends Output<T>> implements AutoCloseable,
      * Token type value for the first sentence.
      */
     public static final long TOKEN_TYPE_VALUE = 0;
+    /**
+     * Mask value for padding.
+     */
+    public static final long PADDING_MASK_VALUE = 0;
+
+    /**
+     * The number of batches tokenized together by the batch extraction methods.
+     * Documents are grouped by length within each tokenized window.
+     */
+    private static final int BATCHES_PER_WINDOW = 8;
 
     @Config(mandatory = true,description="Output factory to use.")
     private OutputFactory<T> outputFactory;
@@ -164,6 +186,9 @@ public class BERTFeatureExtractor<T extends Output<T>> implements AutoCloseable,
     @Config(description = "Use CUDA")
     private boolean useCUDA = false;
 
+    @Config(description="Maximum number of documents passed to BERT in a single call by the batch extraction methods")
+    private int batchSize = 32;
+
     // Vocab and special terms
     private Map<String,Integer> tokenIDs;
     private String classificationToken = CLASSIFICATION_TOKEN;
@@ -222,8 +247,33 @@ public class BERTFeatureExtractor<T extends Output<T>> implements AutoCloseable,
         postConfig();
     }
 
+    /**
+     * Constructs a BERTFeatureExtractor.
+     * @param outputFactory The output factory to use for building any unknown outputs.
+     * @param modelPath The path to BERT in onnx format.
+     * @param tokenizerPath The path to a Huggingface tokenizer json file.
+     * @param pooling The pooling type for extracted Examples.
+     * @param maxLength The maximum number of wordpieces.
+     * @param useCUDA Set to true to enable CUDA.
+     * @param batchSize The maximum number of documents passed to BERT in a single call by the batch extraction methods.
+     */
+    public BERTFeatureExtractor(OutputFactory<T> outputFactory, Path modelPath, Path tokenizerPath,
+                                OutputPooling pooling, int maxLength, boolean useCUDA, int batchSize) {
+        this.outputFactory = outputFactory;
+        this.modelPath = modelPath;
+        this.tokenizerPath = tokenizerPath;
+        this.pooling = pooling;
+        this.maxLength = maxLength;
+        this.useCUDA = useCUDA;
+        this.batchSize = batchSize;
+        postConfig();
+    }
+
     @Override
     public void postConfig() throws PropertyException {
+        if (batchSize < 1) {
+            throw new PropertyException("","batchSize","batchSize must be positive, found " + batchSize);
+        }
         try {
             env = OrtEnvironment.getEnvironment();
             OrtSession.SessionOptions options = new OrtSession.SessionOptions();
@@ -319,6 +369,14 @@ public class BERTFeatureExtractor<T extends Output<T>> implements AutoCloseable,
         return maxLength;
     }
 
+    /**
+     * Returns the maximum number of documents passed to BERT in a single call by the batch extraction methods.
+     * @return The batch size.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
     /**
      * Returns the vocabulary that this BERTFeatureExtractor understands.
      * @return The vocabulary.
@@ -573,21 +631,30 @@ public class BERTFeatureExtractor<T extends Output<T>> implements AutoCloseable,
     private OnnxTensor convertTokens(List<String> tokens) throws OrtException {
         int size = tokens.size() + 2; // for [CLS] and [SEP]
         long[] curTokenIds = new long[size];
+        fillTokenIDs(tokens, curTokenIds);
+        return OnnxTensor.createTensor(env,new long[][]{curTokenIds});
+    }
 
-        curTokenIds[0] = tokenIDs.get(classificationToken);
+    /**
+     * Writes the token ids into the supplied array, starting with [CLS] and ending with [SEP].
+     * <p>
+     * The array must have room for at least {@code tokens.size() + 2} ids, any remaining elements are left untouched.
+     * @param tokens The tokens to convert.
+     * @param tokenIdArray The array to write the ids into.
+     */
+    private void fillTokenIDs(List<String> tokens, long[] tokenIdArray) {
+        tokenIdArray[0] = tokenIDs.get(classificationToken);
         int i = 1;
         for (String token : tokens) {
             Integer id = tokenIDs.get(token);
             if (id == null) {
-                curTokenIds[i] = tokenIDs.get(unknownToken);
+                tokenIdArray[i] = tokenIDs.get(unknownToken);
             } else {
-                curTokenIds[i] = id;
+                tokenIdArray[i] = id;
             }
             i++;
         }
-        curTokenIds[i] = tokenIDs.get(separatorToken);
-
-        return OnnxTensor.createTensor(env,new long[][]{curTokenIds});
+        tokenIdArray[i] = tokenIDs.get(separatorToken);
     }
 
     /**
@@ -724,12 +791,24 @@ public class BERTFeatureExtractor<T extends Output<T>> implements AutoCloseable,
      * @return The cls vector as a double array.
      */
     private double[] extractCLSVector(OrtSession.Result bertOutput) {
-        OnnxValue value = bertOutput.get(CLS_OUTPUT).orElseThrow(() -> new IllegalStateException("Failed to read " + CLS_OUTPUT + " from the BERT response"));
+        return extractFeatures(getFloatBuffer(bertOutput, CLS_OUTPUT), bertDim);
+    }
+
+    /**
+     * Reads the named float tensor out of the session output.
+     * <p>
+     * Throws IllegalStateException if the session output didn't parse.
+     * @param bertOutput The session output.
+     * @param outputName The output to read.
+     * @return A buffer containing the output values.
+     */
+    private static FloatBuffer getFloatBuffer(OrtSession.Result bertOutput, String outputName) {
+        OnnxValue value = bertOutput.get(outputName).orElseThrow(() -> new IllegalStateException("Failed to read " + outputName + " from the BERT response"));
         if (value instanceof OnnxTensor) {
             OnnxTensor tensor = (OnnxTensor) value;
             FloatBuffer buffer = tensor.getFloatBuffer();
             if (buffer != null) {
-                return extractFeatures(buffer, bertDim);
+                return buffer;
             } else {
                 throw new IllegalStateException("Expected a float tensor, found " + tensor.getInfo().toString());
             }
@@ -748,28 +827,234 @@ public class BERTFeatureExtractor<T extends Output<T>> implements AutoCloseable,
      * @return The aggregated token embeddings as a double array.
      */
     private double[] extractTokenVector(OrtSession.Result bertOutput, int numTokens, boolean average) {
-        OnnxValue tokenValues = bertOutput.get(TOKEN_OUTPUT).orElseThrow(() -> new IllegalStateException("Failed to read " + TOKEN_OUTPUT + " from the BERT response"));
-        if (tokenValues instanceof OnnxTensor) {
-            OnnxTensor tensor = (OnnxTensor) tokenValues;
-            FloatBuffer buffer = tensor.getFloatBuffer();
-            if (buffer != null) {
-                double[] featureValues = new double[bertDim];
-                buffer.position(bertDim);
-                // iterate the tokens, creating new examples
-                for (int i = 0; i < numTokens; i++) {
-                    addFeatures(buffer, bertDim, featureValues);
+        return extractTokenVector(getFloatBuffer(bertOutput, TOKEN_OUTPUT), bertDim, numTokens, average);
+    }
+
+    /**
+     * Aggregates the token level outputs starting at the current buffer position, averaging or summing them
+     * into a single double array. The [CLS] token embedding at the current position is skipped.
+     * <p>
+     * Advances the state of the buffer.
+     * @param buffer The token output buffer, positioned at the start of a sequence.
+     * @param bertDim The embedding dimension.
+     * @param numTokens The number of tokens to aggregate.
+     * @param average If true average the embeddings, otherwise sum them.
+     * @return The aggregated token embeddings as a double array.
+     */
+    private static double[] extractTokenVector(FloatBuffer buffer, int bertDim, int numTokens, boolean average) {
+        double[] featureValues = new double[bertDim];
+        buffer.position(buffer.position() + bertDim);
+        // iterate the tokens, creating new examples
+        for (int i = 0; i < numTokens; i++) {
+            addFeatures(buffer, bertDim, featureValues);
+        }
+        if (average) {
+            for (int i = 0; i < bertDim; i++) {
+                featureValues[i] /= numTokens;
+            }
+        }
+        return featureValues;
+    }
+
+    /**
+     * Tokenizes the documents and passes them through BERT in batches, building an example for each document.
+     * <p>
+     * See {@link #extractBatch(List, List, boolean)}, this method does not pipeline tokenization.
+     * @param outputs The ground truth outputs, one per document.
+     * @param data The input documents.
+     * @return Dense examples representing the pooled output from BERT, in the same order as the input.
+     */
+    public List<Example<T>> extractBatch(List<T> outputs, List<String> data) {
+        return extractBatch(outputs, data, false);
+    }
+
+    /**
+     * Tokenizes the documents and passes them through BERT in batches, building an example for each document.
+     * <p>
+     * The documents are tokenized in windows of several batches. Within each window the
+     * documents are grouped by their length in wordpieces, and each group of at most {@link #getBatchSize()}
+     * documents is padded to the length of its longest member and run through BERT in a single call, with the
+     * attention mask excluding the padding. The features of each example are dense and controlled by the
+     * output pooling field, and match those produced by {@link #extract} up to floating point error.
+     * <p>
+     * If {@code pipelined} is true, the next window is tokenized on a separate thread while BERT runs on the
+     * current one. Only one thread tokenizes at a time, so the tokenizer is not used concurrently.
+     * <p>
+     * Documents longer than {@link #getMaxLength} - 2 wordpieces are truncated.
+     * Throws {@link IllegalArgumentException} if the outputs and data are different lengths.
+     * Throws {@link IllegalStateException} if the BERT model failed to produce an output.
+     * @param outputs The ground truth outputs, one per document.
+     * @param data The input documents.
+     * @param pipelined If true, tokenize the next window on a separate thread while BERT runs.
+     * @return Dense examples representing the pooled output from BERT, in the same order as the input.
+     */
+    public List<Example<T>> extractBatch(List<T> outputs, List<String> data, boolean pipelined) {
+        if (outputs.size() != data.size()) {
+            throw new IllegalArgumentException("Expected the same number of outputs and documents, found " + outputs.size() + " outputs and " + data.size() + " documents.");
+        }
+        int windowSize = batchSize * BATCHES_PER_WINDOW;
+        List<Example<T>> examples = new ArrayList<>(data.size());
+        if (!pipelined) {
+            for (int start = 0; start < data.size(); start += windowSize) {
+                int end = Math.min(start + windowSize, data.size());
+                List<double[]> features = extractBatchFeatures(tokenize(data.subList(start, end)));
+                addExamples(outputs.subList(start, end), features, examples);
+            }
+        } else if (!data.isEmpty()) {
+            ExecutorService tokenizerThread = Executors.newSingleThreadExecutor();
+            try {
+                Future<List<List<String>>> nextWindow = tokenizerThread.submit(() -> tokenize(data.subList(0, Math.min(windowSize, data.size()))));
+                for (int start = 0; start < data.size(); start += windowSize) {
+                    int end = Math.min(start + windowSize, data.size());
+                    List<List<String>> tokens = nextWindow.get();
+                    if (end < data.size()) {
+                        int nextEnd = Math.min(end + windowSize, data.size());
+                        nextWindow = tokenizerThread.submit(() -> tokenize(data.subList(end, nextEnd)));
+                    }
+                    List<double[]> features = extractBatchFeatures(tokens);
+                    addExamples(outputs.subList(start, end), features, examples);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while tokenizing documents",e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else {
+                    throw new IllegalStateException("Failed to tokenize documents",e.getCause());
+                }
+            } finally {
+                tokenizerThread.shutdownNow();
+            }
+        }
+        return examples;
+    }
+
+    /**
+     * Builds an example for each feature array, appending them to the supplied list.
+     * @param outputs The outputs.
+     * @param features The feature values.
+     * @param examples The output list of examples.
+     */
+    private void addExamples(List<T> outputs, List<double[]> features, List<Example<T>> examples) {
+        for (int i = 0; i < features.size(); i++) {
+            examples.add(new ArrayExample<>(outputs.get(i),featureNames,features.get(i)));
+        }
+    }
+
+    /**
+     * Tokenizes each document, truncating it to {@code maxLength} - 2 tokens.
+     * @param data The input documents.
+     * @return The wordpiece tokens for each document.
+     */
+    private List<List<String>> tokenize(List<String> data) {
+        List<List<String>> tokens = new ArrayList<>(data.size());
+        for (String document : data) {
+            tokens.add(tokenize(document));
+        }
+        return tokens;
+    }
+
+    /**
+     * Passes the token lists through BERT in length bucketed batches, replacing any unknown tokens with the [UNK] token.
+     * <p>
+     * The token lists are sorted by length, split into groups of at most {@link #getBatchSize()} lists,
+     * and each group is padded to the length of its longest member and passed to BERT in a single call.
+     * The features returned are controlled by the output pooling field.
+     * <p>
+     * Throws {@link IllegalArgumentException} if any list is longer than {@link #getMaxLength}.
+     * Throws {@link IllegalStateException} if the BERT model failed to produce an output.
+     * @param tokenLists The input token lists. Should be tokenized using the Tokenizer this BERT expects.
+     * @return The feature values for each token list, in the same order as the input.
+     */
+    List<double[]> extractBatchFeatures(List<List<String>> tokenLists) {
+        int numDocuments = tokenLists.size();
+        long[] lengthOrder = new long[numDocuments];
+        for (int i = 0; i < numDocuments; i++) {
+            int size = tokenLists.get(i).size();
+            if (size > (maxLength - 2)) {
+                throw new IllegalArgumentException("Too many tokens, expected " + (maxLength - 2) + " found " + size);
+            }
+            lengthOrder[i] = (((long) size) << 32) | i;
+        }
+        // Sorts by length, ties broken by input position.
+        Arrays.sort(lengthOrder);
+
+        double[][] features = new double[numDocuments][];
+        try {
+            for (int start = 0; start < numDocuments; start += batchSize) {
+                int end = Math.min(start + batchSize, numDocuments);
+                int[] batch = new int[end - start];
+                for (int i = 0; i < batch.length; i++) {
+                    batch[i] = (int) lengthOrder[start + i];
                 }
-                if (average) {
-                    for (int i = 0; i < bertDim; i++) {
-                        featureValues[i] /= numTokens;
+                extractBucket(tokenLists, batch, features);
+            }
+        } catch (OrtException e) {
+            throw new IllegalStateException("ORT failed to execute: ", e);
+        }
+        return Arrays.asList(features);
+    }
+
+    /**
+     * Passes a group of token lists through BERT in a single padded call, writing the pooled features into the output array.
+     * @param tokenLists All the token lists.
+     * @param batch The indices of the token lists in this group, the last must be the longest.
+     * @param features The output features, indexed by token list.
+     * @throws OrtException If the native runtime failed.
+     */
+    private void extractBucket(List<List<String>> tokenLists, int[] batch, double[][] features) throws OrtException {
+        int seqLength = tokenLists.get(batch[batch.length - 1]).size() + 2; // for [CLS] and [SEP]
+        long paddingID = tokenIDs.getOrDefault(PADDING_TOKEN, tokenIDs.get(unknownToken));
+        long[][] ids = new long[batch.length][seqLength];
+        long[][] masks = new long[batch.length][seqLength];
+        long[][] tokenTypes = new long[batch.length][seqLength];
+        for (int i = 0; i < batch.length; i++) {
+            List<String> tokens = tokenLists.get(batch[i]);
+            Arrays.fill(ids[i], tokens.size() + 2, seqLength, paddingID);
+            fillTokenIDs(tokens, ids[i]);
+            Arrays.fill(masks[i], 0, tokens.size() + 2, MASK_VALUE);
+            Arrays.fill(masks[i], tokens.size() + 2, seqLength, PADDING_MASK_VALUE);
+            Arrays.fill(tokenTypes[i], TOKEN_TYPE_VALUE);
+        }
+        try (OnnxTensor idsTensor = OnnxTensor.createTensor(env,ids);
+             OnnxTensor maskTensor = OnnxTensor.createTensor(env,masks);
+             OnnxTensor tokenTypesTensor = OnnxTensor.createTensor(env,tokenTypes)) {
+            Map<String,OnnxTensor> inputMap = new HashMap<>(3);
+            inputMap.put(INPUT_IDS,idsTensor);
+            inputMap.put(ATTENTION_MASK,maskTensor);
+            inputMap.put(TOKEN_TYPE_IDS,tokenTypesTensor);
+            try (OrtSession.Result bertOutput = session.run(inputMap)) {
+                FloatBuffer clsBuffer = pooling != OutputPooling.MEAN ? getFloatBuffer(bertOutput, CLS_OUTPUT) : null;
+                FloatBuffer tokenBuffer = pooling != OutputPooling.CLS ? getFloatBuffer(bertOutput, TOKEN_OUTPUT) : null;
+                for (int i = 0; i < batch.length; i++) {
+                    int numTokens = tokenLists.get(batch[i]).size();
+                    double[] featureValues;
+                    switch (pooling) {
+                        case CLS:
+                            clsBuffer.position(i * bertDim);
+                            featureValues = extractFeatures(clsBuffer, bertDim);
+                            break;
+                        case MEAN:
+                            tokenBuffer.position(i * seqLength * bertDim);
+                            featureValues = extractTokenVector(tokenBuffer, bertDim, numTokens, true);
+                            break;
+                        case CLS_AND_MEAN:
+                            clsBuffer.position(i * bertDim);
+                            double[] clsFeatures = extractFeatures(clsBuffer, bertDim);
+                            tokenBuffer.position(i * seqLength * bertDim);
+                            double[] tokenFeatures = extractTokenVector(tokenBuffer, bertDim, numTokens, true);
+                            featureValues = new double[bertDim];
+                            for (int j = 0; j < bertDim; j++) {
+                                featureValues[j] = (clsFeatures[j] + tokenFeatures[j]) / 2.0;
+                            }
+                            break;
+                        default:
+                            throw new IllegalStateException("Unknown pooling type " + pooling);
                     }
+                    features[batch[i]] = featureValues;
                 }
-                return featureValues;
-            } else {
-                throw new IllegalStateException("Expected a float tensor, found " + tensor.getInfo().toString());
             }
-        } else {
-            throw new IllegalStateException("Expected OnnxTensor, found " + tokenValues.getClass());
         }
     }
 
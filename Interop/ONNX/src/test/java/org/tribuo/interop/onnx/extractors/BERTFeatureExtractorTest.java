@@ -19,6 +19,8 @@ package org.tribuo.interop.onnx.extractors;
 import ai.onnxruntime.OrtException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.tribuo.Example;
+import org.tribuo.Feature;
 import org.tribuo.classification.Label;
 import org.tribuo.classification.LabelFactory;
 
@@ -28,6 +30,9 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class BERTFeatureExtractorTest {
@@ -133,4 +138,63 @@ public class BERTFeatureExtractorTest {
         }
     }
 
+    @Test
+    public void testBatchExtraction() throws URISyntaxException, OrtException {
+        Path tokenizerPath = Paths.get(BERTFeatureExtractorTest.class.getResource("tinybert-tokenizer.json").toURI());
+        Path modelPath = Paths.get(BERTFeatureExtractorTest.class.getResource("tinybert.onnx").toURI());
+        LabelFactory factory = new LabelFactory();
+        List<String> sentences = Arrays.asList(
+                "It is a truth universally acknowledged,",
+                "that a single man in possession of a good fortune, must be in want of a wife.",
+                "However little known the feelings or views of such a man may be on his first entering a neighbourhood,",
+                "this truth is so well fixed in the minds of the surrounding families,",
+                "that he is considered the rightful property of some one or other of their daughters.",
+                "My dear Mr. Bennet,",
+                "said his lady to him one day,",
+                "have you heard that Netherfield Park is let at last?");
+        // Enough documents for several extraction windows at each batch size, with a partial final window.
+        List<String> documents = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String sentence = sentences.get(i % sentences.size());
+            documents.add(i < sentences.size() ? sentence : i + " " + sentence);
+        }
+        List<Label> outputs = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            outputs.add(new Label("label-" + i));
+        }
+
+        for (BERTFeatureExtractor.OutputPooling pooling : BERTFeatureExtractor.OutputPooling.values()) {
+            // A batch size of 1 gives 7 windows of unpadded batches, a batch size of 3 gives 3 windows
+            // of padded buckets of different lengths, so the pipelined tokenization hands off between windows.
+            for (int batchSize : new int[]{1,3}) {
+                try (BERTFeatureExtractor<Label> extractor = new BERTFeatureExtractor<>(factory,modelPath,tokenizerPath,pooling,512,false,batchSize)) {
+                    List<Example<Label>> batch = extractor.extractBatch(outputs,documents);
+                    List<Example<Label>> pipelined = extractor.extractBatch(outputs,documents,true);
+                    Assertions.assertEquals(documents.size(),batch.size());
+                    Assertions.assertEquals(documents.size(),pipelined.size());
+                    for (int i = 0; i < documents.size(); i++) {
+                        Example<Label> expected = extractor.extract(outputs.get(i),documents.get(i));
+                        Assertions.assertEquals(outputs.get(i),batch.get(i).getOutput());
+                        Assertions.assertEquals(outputs.get(i),pipelined.get(i).getOutput());
+                        double[] expectedValues = featureValues(expected);
+                        Assertions.assertArrayEquals(expectedValues,featureValues(batch.get(i)),1e-5);
+                        Assertions.assertArrayEquals(expectedValues,featureValues(pipelined.get(i)),1e-5);
+                    }
+                    Assertions.assertTrue(extractor.extractBatch(Collections.emptyList(),Collections.emptyList(),true).isEmpty());
+                    Assertions.assertThrows(IllegalArgumentException.class, () -> extractor.extractBatch(outputs.subList(0,2),documents));
+                }
+            }
+        }
+    }
+
+    private static double[] featureValues(Example<Label> example) {
+        double[] values = new double[example.size()];
+        int i = 0;
+        for (Feature f : example) {
+            values[i] = f.getValue();
+            i++;
+        }
+        return values;
+    }
+
 }
@@ -56,6 +56,31 @@ public interface StochasticGradientOptimiser extends Configurable, Provenancable
      */
     public Tensor[] step(Tensor[] updates, double weight);
 
+    /**
+     * Returns true if {@link #step} may be called concurrently from multiple threads, as in
+     * lock-free (Hogwild) training.
+     * <p>
+     * Concurrent steps may race when updating the optimiser's accumulators, in the same way that
+     * the parameter updates race, but must not otherwise corrupt the optimiser's state.
+     * Defaults to false.
+     * @return True if the optimiser supports concurrent calls to step.
+     */
+    default public boolean supportsConcurrentStep() {
+        return false;
+    }
+
+    /**
+     * Returns true if the optimiser can keep stepping after {@link #finalise()}, updating a copy of the
+     * finalised parameters with the same shape, as in incremental training.
+     * <p>
+     * Optimisers which rewrite or average the parameters on finalisation, or which track the parameters
+     * object itself, must return false. Defaults to false.
+     * @return True if the optimiser state can be reused after finalisation.
+     */
+    default public boolean supportsResume() {
+        return false;
+    }
+
     /**
      * Finalises the gradient optimisation, setting the parameters to their correct values.
      * Used for {@link ParameterAveraging} amongst others.
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tribuo.math.kernel;
+
+import org.tribuo.math.la.SparseVector;
+
+/**
+ * A {@link Kernel} which is a function of the dot product and the squared two norms of its arguments,
+ * so it can be computed in bulk from a matrix of dot products.
+ * <p>
+ * Kernels which can't be expressed this way should implement {@link Kernel} directly.
+ */
+public interface DotProductKernel extends Kernel {
+
+    /**
+     * Calculates the similarity between two vectors from their dot product and squared two norms.
+     * <p>
+     * The result is the same as {@link #similarity(SparseVector, SparseVector)} up to floating point rounding.
+     * @param dot The dot product of the two vectors.
+     * @param firstSquaredNorm The squared two norm of the first vector.
+     * @param secondSquaredNorm The squared two norm of the second vector.
+     * @return The similarity.
+     */
+    public double similarity(double dot, double firstSquaredNorm, double secondSquaredNorm);
+
+}
@@ -23,7 +23,7 @@ import org.tribuo.math.la.SparseVector;
 /**
  * A linear kernel, u.dot(v).
  */
-public class Linear implements Kernel {
+public class Linear implements DotProductKernel {
     private static final long serialVersionUID = 1L;
 
     /**
@@ -36,6 +36,11 @@ public class Linear implements Kernel {
         return a.dot(b);
     }
 
+    @Override
+    public double similarity(double dot, double firstSquaredNorm, double secondSquaredNorm) {
+        return dot;
+    }
+
     @Override
     public String toString() {
         return "Linear()";
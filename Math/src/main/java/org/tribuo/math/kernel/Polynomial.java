@@ -24,7 +24,7 @@ import org.tribuo.math.la.SparseVector;
 /**
  * A polynomial kernel, (gamma*u.dot(v) + intercept)^degree.
  */
-public class Polynomial implements Kernel {
+public class Polynomial implements DotProductKernel {
     private static final long serialVersionUID = 1L;
 
     @Config(mandatory = true,description="Coefficient to multiply the dot product by.")
@@ -58,6 +58,11 @@ public class Polynomial implements Kernel {
         return Math.pow(gamma * a.dot(b) + intercept, degree);
     }
 
+    @Override
+    public double similarity(double dot, double firstSquaredNorm, double secondSquaredNorm) {
+        return Math.pow(gamma * dot + intercept, degree);
+    }
+
     @Override
     public String toString() {
         return "Polynomial(gamma="+gamma+",intercept="+intercept+",degree="+degree+")";
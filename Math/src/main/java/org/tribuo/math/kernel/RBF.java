@@ -24,7 +24,7 @@ import org.tribuo.math.la.SparseVector;
 /**
  * A Radial Basis Function (RBF) kernel, exp(-gamma*|u-v|^2).
  */
-public class RBF implements Kernel {
+public class RBF implements DotProductKernel {
     private static final long serialVersionUID = 1L;
 
     @Config(mandatory = true,description="Kernel output = exp(-gamma*|u-v|^2).")
@@ -48,6 +48,13 @@ public class RBF implements Kernel {
         return Math.exp(-gamma * Math.pow(a.subtract(b).twoNorm(),2.0));
     }
 
+    @Override
+    public double similarity(double dot, double firstSquaredNorm, double secondSquaredNorm) {
+        // Clamp at zero, as rounding can make the squared distance between close vectors negative.
+        double squaredDistance = Math.max(firstSquaredNorm + secondSquaredNorm - 2.0 * dot, 0.0);
+        return Math.exp(-gamma * squaredDistance);
+    }
+
     @Override
     public String toString() {
         return "RBF(gamma="+gamma+")";
@@ -24,7 +24,7 @@ import org.tribuo.math.la.SparseVector;
 /**
  * A sigmoid kernel, tanh(gamma*u.dot(v) + intercept).
  */
-public class Sigmoid implements Kernel {
+public class Sigmoid implements DotProductKernel {
     private static final long serialVersionUID = 1L;
 
     @Config(mandatory = true,description="Coefficient to multiply the dot product by.")
@@ -53,6 +53,11 @@ public class Sigmoid implements Kernel {
         return Math.tanh(gamma * a.dot(b) + intercept);
     }
 
+    @Override
+    public double similarity(double dot, double firstSquaredNorm, double secondSquaredNorm) {
+        return Math.tanh(gamma * dot + intercept);
+    }
+
     @Override
     public String toString() {
         return "Sigmoid(gamma="+gamma+",intercept="+intercept+")";
@@ -21,16 +21,39 @@ import org.tribuo.math.util.VectorNormalizer;
 import java.util.Arrays;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
 
 /**
  * A dense matrix, backed by a primitive array.
+ * <p>
+ * The matrix-matrix and matrix-vector products, and the transpose, use cache-blocked kernels
+ * which operate directly on the row arrays. Products which need more than {@link #PARALLEL_THRESHOLD}
+ * multiply-adds are split into blocks of output rows or columns and computed on the common
+ * {@link ForkJoinPool}. Each output value is accumulated in the same order as the naive loop,
+ * so the blocked and parallel kernels produce exactly the same values.
  */
 public class DenseMatrix implements Matrix {
     private static final long serialVersionUID = 1L;
 
     private static final double DELTA = 1e-10;
 
+    /**
+     * The number of multiply-adds above which products are computed in parallel.
+     */
+    public static final long PARALLEL_THRESHOLD = 1L << 22;
+
+    /**
+     * The size of the blocks along the inner (summed) dimension of a product.
+     */
+    private static final int INNER_BLOCK_SIZE = 64;
+
+    /**
+     * The size of the blocks along the output columns of a product, and the tile size for transpose.
+     */
+    private static final int OUTER_BLOCK_SIZE = 256;
+
     protected final double[][] values;
     protected final int dim1;
     protected final int dim2;
@@ -215,9 +238,26 @@ public class DenseMatrix implements Matrix {
     public DenseMatrix transpose() {
         double[][] newValues = new double[dim2][dim1];
 
-        for (int i = 0; i < dim1; i++) {
-            for (int j = 0; j < dim2; j++) {
-                newValues[j][i] = get(i,j);
+        if (isPlain(this)) {
+            // Copy square tiles so both the reads and the writes stay in cache.
+            int tile = INNER_BLOCK_SIZE;
+            for (int ii = 0; ii < dim1; ii += tile) {
+                int iEnd = Math.min(ii + tile, dim1);
+                for (int jj = 0; jj < dim2; jj += tile) {
+                    int jEnd = Math.min(jj + tile, dim2);
+                    for (int i = ii; i < iEnd; i++) {
+                        double[] row = values[i];
+                        for (int j = jj; j < jEnd; j++) {
+                            newValues[j][i] = row[j];
+                        }
+                    }
+                }
+            }
+        } else {
+            for (int i = 0; i < dim1; i++) {
+                for (int j = 0; j < dim2; j++) {
+                    newValues[j][i] = get(i,j);
+                }
             }
         }
 
@@ -270,7 +310,14 @@ public class DenseMatrix implements Matrix {
     public DenseVector leftMultiply(SGDVector input) {
         if (input.size() == dim2) {
             double[] output = new double[dim1];
-            if (input instanceof DenseVector) {
+            if (isPlain(this) && (input.getClass() == DenseVector.class)) {
+                double[] inputValues = ((DenseVector) input).elements;
+                forEachBlock(dim1, dim2, (start, end) -> {
+                    for (int i = start; i < end; i++) {
+                        output[i] = dot(values[i], inputValues, dim2);
+                    }
+                });
+            } else if (input instanceof DenseVector) {
                 // If it's dense we can use loops
                 for (int i = 0; i < dim1; i++) {
                     for (int j = 0; j < dim2; j++) {
@@ -295,7 +342,19 @@ public class DenseMatrix implements Matrix {
     public DenseVector rightMultiply(SGDVector input) {
         if (input.size() == dim1) {
             double[] output = new double[dim2];
-            if (input instanceof DenseVector) {
+            if (isPlain(this) && (input.getClass() == DenseVector.class)) {
+                double[] inputValues = ((DenseVector) input).elements;
+                // Each task owns a range of output columns, and streams every row through it.
+                forEachBlock(dim2, dim1, (start, end) -> {
+                    for (int i = 0; i < dim1; i++) {
+                        double curValue = inputValues[i];
+                        double[] row = values[i];
+                        for (int j = start; j < end; j++) {
+                            output[j] += row[j] * curValue;
+                        }
+                    }
+                });
+            } else if (input instanceof DenseVector) {
                 // If it's dense we can use loops
                 for (int i = 0; i < dim1; i++) {
                     double curValue = input.get(i);
@@ -324,9 +383,13 @@ public class DenseMatrix implements Matrix {
                 DenseMatrix otherDense = (DenseMatrix) other;
                 double[][] output = new double[dim1][otherDense.dim2];
 
-                for (int i = 0; i < dim1; i++) {
-                    for (int j = 0; j < otherDense.dim2; j++) {
-                        output[i][j] = columnRowDot(i,j,otherDense);
+                if (isPlain(this) && isPlain(otherDense)) {
+                    forEachBlock(dim1, (long) dim2 * otherDense.dim2, (start, end) -> multiplyRows(values, false, otherDense.values, output, start, end));
+                } else {
+                    for (int i = 0; i < dim1; i++) {
+                        for (int j = 0; j < otherDense.dim2; j++) {
+                            output[i][j] = columnRowDot(i,j,otherDense);
+                        }
                     }
                 }
 
@@ -403,9 +466,13 @@ public class DenseMatrix implements Matrix {
                 DenseMatrix otherDense = (DenseMatrix) other;
                 double[][] output = new double[dim2][otherDense.dim2];
 
-                for (int i = 0; i < dim2; i++) {
-                    for (int j = 0; j < otherDense.dim2; j++) {
-                        output[i][j] = columnColumnDot(i,j,otherDense);
+                if (isPlain(this) && isPlain(otherDense)) {
+                    forEachBlock(dim2, (long) dim1 * otherDense.dim2, (start, end) -> multiplyRows(values, true, otherDense.values, output, start, end));
+                } else {
+                    for (int i = 0; i < dim2; i++) {
+                        for (int j = 0; j < otherDense.dim2; j++) {
+                            output[i][j] = columnColumnDot(i,j,otherDense);
+                        }
                     }
                 }
 
@@ -436,9 +503,25 @@ public class DenseMatrix implements Matrix {
                 DenseMatrix otherDense = (DenseMatrix) other;
                 double[][] output = new double[dim1][otherDense.dim1];
 
-                for (int i = 0; i < dim1; i++) {
-                    for (int j = 0; j < otherDense.dim1; j++) {
-                        output[i][j] = rowRowDot(i,j,otherDense);
+                if (isPlain(this) && isPlain(otherDense)) {
+                    forEachBlock(dim1, (long) dim2 * otherDense.dim1, (start, end) -> {
+                        // Block over the rows of other so they stay in cache across the rows of this.
+                        for (int jj = 0; jj < otherDense.dim1; jj += INNER_BLOCK_SIZE) {
+                            int jEnd = Math.min(jj + INNER_BLOCK_SIZE, otherDense.dim1);
+                            for (int i = start; i < end; i++) {
+                                double[] row = values[i];
+                                double[] outputRow = output[i];
+                                for (int j = jj; j < jEnd; j++) {
+                                    outputRow[j] = dot(row, otherDense.values[j], dim2);
+                                }
+                            }
+                        }
+                    });
+                } else {
+                    for (int i = 0; i < dim1; i++) {
+                        for (int j = 0; j < otherDense.dim1; j++) {
+                            output[i][j] = rowRowDot(i,j,otherDense);
+                        }
                     }
                 }
 
@@ -463,6 +546,97 @@ public class DenseMatrix implements Matrix {
         }
     }
 
+    /**
+     * Computes rows {@code [start, end)} of the product of {@code left} (or its transpose) and {@code right}.
+     * <p>
+     * The inner dimension and the output columns are blocked so a tile of {@code right} stays in cache
+     * while it is applied to each output row. Each output value accumulates the inner dimension in
+     * increasing order, matching the naive dot product.
+     * @param left The left matrix values.
+     * @param transposeLeft If true multiply by the transpose of the left matrix.
+     * @param right The right matrix values.
+     * @param output The output values, which must be zero in the supplied rows.
+     * @param start The first output row (inclusive).
+     * @param end The last output row (exclusive).
+     */
+    private static void multiplyRows(double[][] left, boolean transposeLeft, double[][] right, double[][] output, int start, int end) {
+        int innerSize = right.length;
+        int outputCols = innerSize == 0 ? 0 : right[0].length;
+        for (int kk = 0; kk < innerSize; kk += INNER_BLOCK_SIZE) {
+            int kEnd = Math.min(kk + INNER_BLOCK_SIZE, innerSize);
+            for (int jj = 0; jj < outputCols; jj += OUTER_BLOCK_SIZE) {
+                int jEnd = Math.min(jj + OUTER_BLOCK_SIZE, outputCols);
+                for (int i = start; i < end; i++) {
+                    double[] outputRow = output[i];
+                    for (int k = kk; k < kEnd; k++) {
+                        double curValue = transposeLeft ? left[k][i] : left[i][k];
+                        double[] rightRow = right[k];
+                        for (int j = jj; j < jEnd; j++) {
+                            outputRow[j] += curValue * rightRow[j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the dot product of the first {@code length} elements of two arrays.
+     * @param first The first array.
+     * @param second The second array.
+     * @param length The number of elements.
+     * @return The dot product.
+     */
+    private static double dot(double[] first, double[] second, int length) {
+        double sum = 0.0;
+        for (int i = 0; i < length; i++) {
+            sum += first[i] * second[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Applies the kernel to ranges covering {@code [0, size)}. If the total work is above {@link #PARALLEL_THRESHOLD}
+     * the ranges are processed in parallel on the common {@link ForkJoinPool}, otherwise the kernel is called once
+     * on the whole range.
+     * @param size The number of output rows or columns.
+     * @param workPerElement The number of multiply-adds per output row or column.
+     * @param kernel The kernel, which must only write to its range of the output.
+     */
+    private static void forEachBlock(int size, long workPerElement, BlockKernel kernel) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        if ((parallelism > 1) && (size > 1) && (size * workPerElement >= PARALLEL_THRESHOLD)) {
+            int blockSize = Math.max(1, Math.min(INNER_BLOCK_SIZE, size / (parallelism * 4)));
+            int numBlocks = (size + blockSize - 1) / blockSize;
+            IntStream.range(0, numBlocks).parallel().forEach(b -> kernel.apply(b * blockSize, Math.min(size, (b + 1) * blockSize)));
+        } else {
+            kernel.apply(0, size);
+        }
+    }
+
+    /**
+     * Subclasses may override {@link #get(int, int)} to transform the stored values, so the array
+     * kernels are only used on plain dense matrices.
+     * @param matrix The matrix to check.
+     * @return True if the matrix is exactly a {@link DenseMatrix}.
+     */
+    private static boolean isPlain(Matrix matrix) {
+        return matrix.getClass() == DenseMatrix.class;
+    }
+
+    /**
+     * A computation over a range of output rows or columns.
+     */
+    @FunctionalInterface
+    private interface BlockKernel {
+        /**
+         * Computes the outputs in {@code [start, end)}.
+         * @param start The start of the range (inclusive).
+         * @param end The end of the range (exclusive).
+         */
+        void apply(int start, int end);
+    }
+
     private double columnRowDot(int rowIndex, int otherColIndex, Matrix other) {
         double sum = 0.0;
         for (int i = 0; i < dim2; i++) {
@@ -205,9 +205,14 @@ public class DenseSparseMatrix implements Matrix {
             Matrix otherMat = (Matrix) other;
             if ((dim1 == otherMat.getDimension1Size()) && (dim2 == otherMat.getDimension2Size())) {
                 if (otherMat instanceof DenseMatrix) {
+                    // Only read the active elements, so subclasses which compute values lazily
+                    // (e.g., LazyDecayMatrix) don't have to produce whole rows.
                     DenseMatrix otherDenseMat = (DenseMatrix) other;
                     for (int i = 0; i < dim1; i++) {
-                        values[i].intersectAndAddInPlace(otherDenseMat.getRow(i),f);
+                        SparseVector row = values[i];
+                        for (int k = 0; k < row.indices.length; k++) {
+                            row.values[k] += f.applyAsDouble(otherDenseMat.get(i,row.indices[k]));
+                        }
                     }
                 } else {
                     throw new UnsupportedOperationException("Not implemented intersectAndAddInPlace in DenseSparseMatrix for types other than DenseMatrix");
@@ -231,9 +236,14 @@ public class DenseSparseMatrix implements Matrix {
             Matrix otherMat = (Matrix) other;
             if ((dim1 == otherMat.getDimension1Size()) && (dim2 == otherMat.getDimension2Size())) {
                 if (otherMat instanceof DenseMatrix) {
+                    // Only read the active elements, so subclasses which compute values lazily
+                    // (e.g., LazyDecayMatrix) don't have to produce whole rows.
                     DenseMatrix otherDenseMat = (DenseMatrix) other;
                     for (int i = 0; i < dim1; i++) {
-                        values[i].hadamardProductInPlace(otherDenseMat.getRow(i),f);
+                        SparseVector row = values[i];
+                        for (int k = 0; k < row.indices.length; k++) {
+                            row.values[k] *= f.applyAsDouble(otherDenseMat.get(i,row.indices[k]));
+                        }
                     }
                 } else {
                     throw new UnsupportedOperationException("Not implemented hadamardProductInPlace in DenseSparseMatrix for types other than DenseMatrix");
@@ -247,8 +247,15 @@ public class DenseVector implements SGDVector {
             throw new IllegalArgumentException("Can't add two vectors of different dimension, this = " + elements.length + ", other = " + other.size());
         }
         double[] newValues = toArray();
-        for (VectorTuple tuple : other) {
-            newValues[tuple.index] += tuple.value;
+        if (isPlain(other)) {
+            double[] otherElements = ((DenseVector) other).elements;
+            for (int i = 0; i < newValues.length; i++) {
+                newValues[i] += otherElements[i];
+            }
+        } else {
+            for (VectorTuple tuple : other) {
+                newValues[tuple.index] += tuple.value;
+            }
         }
         return new DenseVector(newValues);
     }
@@ -264,8 +271,15 @@ public class DenseVector implements SGDVector {
             throw new IllegalArgumentException("Can't subtract two vectors of different dimension, this = " + elements.length + ", other = " + other.size());
         }
         double[] newValues = toArray();
-        for (VectorTuple tuple : other) {
-            newValues[tuple.index] -= tuple.value;
+        if (isPlain(other)) {
+            double[] otherElements = ((DenseVector) other).elements;
+            for (int i = 0; i < newValues.length; i++) {
+                newValues[i] -= otherElements[i];
+            }
+        } else {
+            for (VectorTuple tuple : other) {
+                newValues[tuple.index] -= tuple.value;
+            }
         }
         return new DenseVector(newValues);
     }
@@ -293,6 +307,27 @@ public class DenseVector implements SGDVector {
         }
     }
 
+    /**
+     * Adds {@code other} to this vector in place.
+     * <p>
+     * Plain dense vectors are added with a straight array loop, rather than applying the identity function.
+     * @param other The vector to add.
+     */
+    @Override
+    public void intersectAndAddInPlace(Tensor other) {
+        if (isPlain(this) && isPlain(other)) {
+            double[] otherElements = ((DenseVector) other).elements;
+            if (otherElements.length != elements.length) {
+                throw new IllegalArgumentException("Can't intersect two vectors of different dimension, this = " + elements.length + ", other = " + otherElements.length);
+            }
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] += otherElements[i];
+            }
+        } else {
+            intersectAndAddInPlace(other, DoubleUnaryOperator.identity());
+        }
+    }
+
     @Override
     public void hadamardProductInPlace(Tensor other, DoubleUnaryOperator f) {
         if (other instanceof SGDVector) {
@@ -316,6 +351,17 @@ public class DenseVector implements SGDVector {
         }
     }
 
+    @Override
+    public void scaleInPlace(double coefficient) {
+        if (isPlain(this)) {
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] *= coefficient;
+            }
+        } else {
+            foreachInPlace(d -> d * coefficient);
+        }
+    }
+
     @Override
     public void foreachInPlace(DoubleUnaryOperator f) {
         for (int i = 0; i < elements.length; i++) {
@@ -348,7 +394,12 @@ public class DenseVector implements SGDVector {
             throw new IllegalArgumentException("Can't dot two vectors of different dimension, this = " + elements.length + ", other = " + other.size());
         }
         double score = 0.0;
-        if (other instanceof DenseVector) {
+        if (isPlain(this) && isPlain(other)) {
+            score = VectorKernels.dot(elements, ((DenseVector) other).elements, elements.length);
+        } else if (isPlain(this) && (other instanceof SparseVector)) {
+            SparseVector otherVec = (SparseVector) other;
+            score = VectorKernels.sparseDot(otherVec.indices, otherVec.values, elements);
+        } else if (other instanceof DenseVector) {
             for (int i = 0; i < elements.length; i++) {
                 score += get(i) * other.get(i);
             }
@@ -409,6 +460,9 @@ public class DenseVector implements SGDVector {
 
     @Override
     public double twoNorm() {
+        if (isPlain(this)) {
+            return Math.sqrt(VectorKernels.sumOfSquares(elements, elements.length));
+        }
         double sum = 0.0;
         for (int i = 0; i < elements.length; i++) {
             double value = get(i);
@@ -538,6 +592,16 @@ public class DenseVector implements SGDVector {
         return variance;
     }
 
+    /**
+     * Subclasses may override {@link #get(int)} to transform the stored values, so the array
+     * kernels are only used on plain dense vectors.
+     * @param vector The vector to check.
+     * @return True if the vector is exactly a {@link DenseVector}.
+     */
+    private static boolean isPlain(Tensor vector) {
+        return vector.getClass() == DenseVector.class;
+    }
+
     @Override
     public VectorIterator iterator() {
         return new DenseVectorIterator(this);
@@ -582,6 +646,11 @@ public class DenseVector implements SGDVector {
     public double euclideanDistance(SGDVector other) {
         if (other.size() != elements.length) {
             throw new IllegalArgumentException("Can't measure distance of two vectors of different lengths, this = " + elements.length + ", other = " + other.size());
+        } else if (isPlain(this) && isPlain(other)) {
+            return Math.sqrt(VectorKernels.squaredDistance(elements, ((DenseVector) other).elements, elements.length));
+        } else if (isPlain(this) && (other instanceof SparseVector)) {
+            SparseVector otherVec = (SparseVector) other;
+            return Math.sqrt(VectorKernels.denseSparseDistance(elements, otherVec.indices, otherVec.values, true));
         } else if (other instanceof DenseVector) {
             double score = 0.0;
 
@@ -632,6 +701,11 @@ public class DenseVector implements SGDVector {
     public double l1Distance(SGDVector other) {
         if (other.size() != elements.length) {
             throw new IllegalArgumentException("Can't measure distance of two vectors of different lengths, this = " + elements.length + ", other = " + other.size());
+        } else if (isPlain(this) && isPlain(other)) {
+            return VectorKernels.l1Distance(elements, ((DenseVector) other).elements, elements.length);
+        } else if (isPlain(this) && (other instanceof SparseVector)) {
+            SparseVector otherVec = (SparseVector) other;
+            return VectorKernels.denseSparseDistance(elements, otherVec.indices, otherVec.values, false);
         } else if (other instanceof DenseVector) {
             double score = 0.0;
 
@@ -16,6 +16,7 @@
 
 package org.tribuo.math.la;
 
+import com.oracle.labs.mlrg.olcut.util.Pair;
 import org.tribuo.Dataset;
 import org.tribuo.Example;
 import org.tribuo.Feature;
@@ -137,6 +138,19 @@ public class SparseVector implements SGDVector {
         } else {
             size = featureInfo.size();
         }
+        Pair<int[],double[]> interned = example.getInternedFeatures(featureInfo);
+        if (interned != null) {
+            // The ids were interned by this feature map, so they are already sorted, merged and free of NaNs.
+            int[] ids = interned.getA();
+            double[] vals = interned.getB();
+            if (addBias) {
+                ids = Arrays.copyOf(ids,numFeatures);
+                vals = Arrays.copyOf(vals,numFeatures);
+                ids[numFeatures-1] = size - 1;
+                vals[numFeatures-1] = 1.0;
+            }
+            return new SparseVector(size,ids,vals);
+        }
         int[] tmpIndices = new int[numFeatures];
         double[] tmpValues = new double[numFeatures];
         int i = 0;
@@ -527,43 +541,10 @@ public class SparseVector implements SGDVector {
         if (other.size() != size) {
             throw new IllegalArgumentException("Can't dot two vectors of different lengths, this = " + size + ", other = " + other.size());
         } else if (other instanceof SparseVector) {
-            double score = 0.0;
-
-            // If there are elements, calculate the dot product.
-            if ((other.numActiveElements() != 0) && (indices.length != 0)) {
-                Iterator<VectorTuple> itr = iterator();
-                Iterator<VectorTuple> otherItr = other.iterator();
-                VectorTuple tuple = itr.next();
-                VectorTuple otherTuple = otherItr.next();
-                while (itr.hasNext() && otherItr.hasNext()) {
-                    if (tuple.index == otherTuple.index) {
-                        score += tuple.value * otherTuple.value;
-                        tuple = itr.next();
-                        otherTuple = otherItr.next();
-                    } else if (tuple.index < otherTuple.index) {
-                        tuple = itr.next();
-                    } else {
-                        otherTuple = otherItr.next();
-                    }
-                }
-                while (itr.hasNext()) {
-                    if (tuple.index == otherTuple.index) {
-                        score += tuple.value * otherTuple.value;
-                    }
-                    tuple = itr.next();
-                }
-                while (otherItr.hasNext()) {
-                    if (tuple.index == otherTuple.index) {
-                        score += tuple.value * otherTuple.value;
-                    }
-                    otherTuple = otherItr.next();
-                }
-                if (tuple.index == otherTuple.index) {
-                    score += tuple.value * otherTuple.value;
-                }
-            }
-
-            return score;
+            SparseVector otherVec = (SparseVector) other;
+            return VectorKernels.sparseSparseDot(indices, values, otherVec.indices, otherVec.values);
+        } else if (other.getClass() == DenseVector.class) {
+            return VectorKernels.sparseDot(indices, values, ((DenseVector) other).elements);
         } else if (other instanceof DenseVector) {
             double score = 0.0;
 
@@ -643,11 +624,7 @@ public class SparseVector implements SGDVector {
 
     @Override
     public double twoNorm() {
-        double sum = 0.0;
-        for (int i = 0; i < values.length; i++) {
-            sum += values[i] * values[i];
-        }
-        return Math.sqrt(sum);
+        return Math.sqrt(VectorKernels.sumOfSquares(values, values.length));
     }
 
     @Override
@@ -845,14 +822,40 @@ public class SparseVector implements SGDVector {
 
     @Override
     public double euclideanDistance(SGDVector other) {
+        if (other instanceof SparseVector) {
+            checkDistanceSize(other);
+            SparseVector otherVec = (SparseVector) other;
+            return Math.sqrt(VectorKernels.sparseSparseDistance(indices, values, otherVec.indices, otherVec.values, true));
+        } else if (other.getClass() == DenseVector.class) {
+            checkDistanceSize(other);
+            return Math.sqrt(VectorKernels.denseSparseDistance(((DenseVector) other).elements, indices, values, true));
+        }
         return distance(other,(double a) -> a*a, Math::sqrt);
     }
 
     @Override
     public double l1Distance(SGDVector other) {
+        if (other instanceof SparseVector) {
+            checkDistanceSize(other);
+            SparseVector otherVec = (SparseVector) other;
+            return VectorKernels.sparseSparseDistance(indices, values, otherVec.indices, otherVec.values, false);
+        } else if (other.getClass() == DenseVector.class) {
+            checkDistanceSize(other);
+            return VectorKernels.denseSparseDistance(((DenseVector) other).elements, indices, values, false);
+        }
         return distance(other,Math::abs,DoubleUnaryOperator.identity());
     }
 
+    /**
+     * Checks the other vector is the same size as this one.
+     * @param other The other vector.
+     */
+    private void checkDistanceSize(SGDVector other) {
+        if (other.size() != size) {
+            throw new IllegalArgumentException("Can't measure the distance between two vectors of different lengths, this = " + size + ", other = " + other.size());
+        }
+    }
+
     /**
      * Computes the distance between this vector and the other vector.
      * @param other The other vector.
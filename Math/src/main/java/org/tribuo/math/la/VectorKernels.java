@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tribuo.math.la;
+
+/**
+ * Array kernels for the vector reductions and distances in {@link DenseVector} and {@link SparseVector}.
+ * <p>
+ * The dense reductions are unrolled four ways into independent accumulators, which breaks the
+ * dependency chain on a single running sum so the JIT can schedule the multiply-adds in parallel,
+ * and gives it straight line array code to vectorise. The accumulators are combined in a fixed order,
+ * so the results are deterministic, though they may differ in the last bits from a single running sum.
+ * <p>
+ * The sparse kernels merge the index arrays directly rather than going through the vector iterators,
+ * and accumulate in the same order as the iterator based code.
+ */
+final class VectorKernels {
+
+    private VectorKernels() {}
+
+    /**
+     * Computes the dot product of the first {@code length} elements of two arrays.
+     * @param first The first array.
+     * @param second The second array.
+     * @param length The number of elements.
+     * @return The dot product.
+     */
+    static double dot(double[] first, double[] second, int length) {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = 0;
+        int bound = length & ~3;
+        for (; i < bound; i += 4) {
+            s0 += first[i] * second[i];
+            s1 += first[i + 1] * second[i + 1];
+            s2 += first[i + 2] * second[i + 2];
+            s3 += first[i + 3] * second[i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += first[i] * second[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Computes the sum of the squares of the first {@code length} elements of the array.
+     * @param array The array.
+     * @param length The number of elements.
+     * @return The sum of squares.
+     */
+    static double sumOfSquares(double[] array, int length) {
+        return dot(array, array, length);
+    }
+
+    /**
+     * Computes the sum of the squared differences of the first {@code length} elements of two arrays.
+     * @param first The first array.
+     * @param second The second array.
+     * @param length The number of elements.
+     * @return The squared euclidean distance.
+     */
+    static double squaredDistance(double[] first, double[] second, int length) {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = 0;
+        int bound = length & ~3;
+        for (; i < bound; i += 4) {
+            double d0 = first[i] - second[i];
+            double d1 = first[i + 1] - second[i + 1];
+            double d2 = first[i + 2] - second[i + 2];
+            double d3 = first[i + 3] - second[i + 3];
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+            s2 += d2 * d2;
+            s3 += d3 * d3;
+        }
+        for (; i < length; i++) {
+            double d = first[i] - second[i];
+            s0 += d * d;
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Computes the sum of the absolute differences of the first {@code length} elements of two arrays.
+     * @param first The first array.
+     * @param second The second array.
+     * @param length The number of elements.
+     * @return The l1 distance.
+     */
+    static double l1Distance(double[] first, double[] second, int length) {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = 0;
+        int bound = length & ~3;
+        for (; i < bound; i += 4) {
+            s0 += Math.abs(first[i] - second[i]);
+            s1 += Math.abs(first[i + 1] - second[i + 1]);
+            s2 += Math.abs(first[i + 2] - second[i + 2]);
+            s3 += Math.abs(first[i + 3] - second[i + 3]);
+        }
+        for (; i < length; i++) {
+            s0 += Math.abs(first[i] - second[i]);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Computes the dot product of a sparse vector, given as parallel index and value arrays, with a dense array.
+     * <p>
+     * Uses a single accumulator in index order, so the result is identical to iterating the sparse vector.
+     * @param indices The sparse indices.
+     * @param values The sparse values.
+     * @param dense The dense array.
+     * @return The dot product.
+     */
+    static double sparseDot(int[] indices, double[] values, double[] dense) {
+        double score = 0.0;
+        for (int i = 0; i < indices.length; i++) {
+            score += dense[indices[i]] * values[i];
+        }
+        return score;
+    }
+
+    /**
+     * Computes the dot product of two sparse vectors, given as parallel index and value arrays with sorted indices.
+     * @param firstIndices The first vector's indices.
+     * @param firstValues The first vector's values.
+     * @param secondIndices The second vector's indices.
+     * @param secondValues The second vector's values.
+     * @return The dot product.
+     */
+    static double sparseSparseDot(int[] firstIndices, double[] firstValues, int[] secondIndices, double[] secondValues) {
+        double score = 0.0;
+        int i = 0;
+        int j = 0;
+        while ((i < firstIndices.length) && (j < secondIndices.length)) {
+            int first = firstIndices[i];
+            int second = secondIndices[j];
+            if (first == second) {
+                score += firstValues[i] * secondValues[j];
+                i++;
+                j++;
+            } else if (first < second) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Computes the l1 distance, or the squared l2 distance, between two sparse vectors given as parallel
+     * index and value arrays with sorted indices.
+     * @param firstIndices The first vector's indices.
+     * @param firstValues The first vector's values.
+     * @param secondIndices The second vector's indices.
+     * @param secondValues The second vector's values.
+     * @param squared If true sum the squared differences, otherwise sum the absolute differences.
+     * @return The distance.
+     */
+    static double sparseSparseDistance(int[] firstIndices, double[] firstValues, int[] secondIndices, double[] secondValues, boolean squared) {
+        double score = 0.0;
+        int i = 0;
+        int j = 0;
+        while ((i < firstIndices.length) || (j < secondIndices.length)) {
+            double diff;
+            if (j == secondIndices.length || ((i < firstIndices.length) && (firstIndices[i] < secondIndices[j]))) {
+                diff = firstValues[i];
+                i++;
+            } else if (i == firstIndices.length || (secondIndices[j] < firstIndices[i])) {
+                diff = secondValues[j];
+                j++;
+            } else {
+                diff = firstValues[i] - secondValues[j];
+                i++;
+                j++;
+            }
+            score += squared ? diff * diff : Math.abs(diff);
+        }
+        return score;
+    }
+
+    /**
+     * Computes the l1 distance, or the squared l2 distance, between a dense array and a sparse vector
+     * given as parallel index and value arrays with sorted indices.
+     * @param dense The dense array.
+     * @param indices The sparse indices.
+     * @param values The sparse values.
+     * @param squared If true sum the squared differences, otherwise sum the absolute differences.
+     * @return The distance.
+     */
+    static double denseSparseDistance(double[] dense, int[] indices, double[] values, boolean squared) {
+        double score = 0.0;
+        int j = 0;
+        for (int i = 0; i < dense.length; i++) {
+            double diff = dense[i];
+            if ((j < indices.length) && (indices[j] == i)) {
+                diff -= values[j];
+                j++;
+            }
+            score += squared ? diff * diff : Math.abs(diff);
+        }
+        return score;
+    }
+}
@@ -91,6 +91,16 @@ public class AdaDelta implements StochasticGradientOptimiser {
         return updates;
     }
 
+    @Override
+    public boolean supportsConcurrentStep() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsResume() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return "AdaDelta(rho="+rho+",epsilon="+epsilon+")";
@@ -115,6 +115,16 @@ public class AdaGrad implements StochasticGradientOptimiser {
         return updates;
     }
 
+    @Override
+    public boolean supportsConcurrentStep() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsResume() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return "AdaGrad(initialLearningRate="+initialLearningRate+",epsilon="+epsilon+",initialValue="+initialValue+")";
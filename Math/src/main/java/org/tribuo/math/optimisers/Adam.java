@@ -21,7 +21,11 @@ import com.oracle.labs.mlrg.olcut.provenance.ConfiguredObjectProvenance;
 import com.oracle.labs.mlrg.olcut.provenance.impl.ConfiguredObjectProvenanceImpl;
 import org.tribuo.math.Parameters;
 import org.tribuo.math.StochasticGradientOptimiser;
+import org.tribuo.math.la.DenseMatrix;
+import org.tribuo.math.la.DenseVector;
 import org.tribuo.math.la.Tensor;
+import org.tribuo.math.optimisers.util.LazyDecayMatrix;
+import org.tribuo.math.optimisers.util.LazyDecayVector;
 
 import java.util.function.DoubleUnaryOperator;
 
@@ -30,6 +34,11 @@ import java.util.function.DoubleUnaryOperator;
  * <p>
  * Creates two copies of the parameters to store learning rates.
  * <p>
+ * The moment decay is applied lazily, so when the gradients are sparse each step only touches
+ * the moments of the parameters present in the gradient, with any outstanding decay applied the
+ * next time a parameter is updated. The updates are the same as applying the decay to every moment
+ * at each step.
+ * <p>
  * See:
  * <pre>
  * Kingma, D., and Ba, J.
@@ -90,24 +99,48 @@ public class Adam implements StochasticGradientOptimiser {
 
     @Override
     public void initialise(Parameters parameters) {
-        firstMoment = parameters.getEmptyCopy();
-        secondMoment = parameters.getEmptyCopy();
+        firstMoment = createMoments(parameters, betaOne);
+        secondMoment = createMoments(parameters, betaTwo);
         iterations = 0;
     }
 
+    /**
+     * Creates a lazily decaying copy of the parameters to store a moment estimate.
+     * @param parameters The parameters.
+     * @param decay The moment decay rate.
+     * @return The moment tensors.
+     */
+    private static Tensor[] createMoments(Parameters parameters, double decay) {
+        Tensor[] moments = parameters.getEmptyCopy();
+        for (int i = 0; i < moments.length; i++) {
+            if (moments[i] instanceof DenseVector) {
+                moments[i] = new LazyDecayVector(((DenseVector) moments[i]), decay);
+            } else if (moments[i] instanceof DenseMatrix) {
+                moments[i] = new LazyDecayMatrix(((DenseMatrix) moments[i]), decay);
+            } else {
+                throw new IllegalStateException("Unknown Tensor subclass");
+            }
+        }
+        return moments;
+    }
+
     @Override
     public Tensor[] step(Tensor[] updates, double weight) {
-        iterations++;
+        int curIteration;
+        synchronized (this) {
+            curIteration = ++iterations;
+        }
 
-        double learningRate = initialLearningRate * Math.sqrt(1.0 - Math.pow(betaTwo,iterations)) / (1.0 - Math.pow(betaOne,iterations));
+        double learningRate = initialLearningRate * Math.sqrt(1.0 - Math.pow(betaTwo,curIteration)) / (1.0 - Math.pow(betaOne,curIteration));
         //lifting lambdas out of the for loop until JDK-8183316 is fixed.
         DoubleUnaryOperator scale = (double a) -> a * learningRate;
+        DoubleUnaryOperator firstMomentUpdate = (double a) -> a * (1.0 - betaOne);
+        DoubleUnaryOperator secondMomentUpdate = (double a) -> a * a * (1.0 - betaTwo);
 
         for (int i = 0; i < updates.length; i++) {
-            firstMoment[i].scaleInPlace(betaOne);
-            firstMoment[i].intersectAndAddInPlace(updates[i],(double a) -> a * (1.0 - betaOne));
-            secondMoment[i].scaleInPlace(betaTwo);
-            secondMoment[i].intersectAndAddInPlace(updates[i],(double a) -> a * a * (1.0 - betaTwo));
+            // The moment tensors decay the touched values before adding the new gradient.
+            firstMoment[i].intersectAndAddInPlace(updates[i],firstMomentUpdate);
+            secondMoment[i].intersectAndAddInPlace(updates[i],secondMomentUpdate);
             updates[i].scaleInPlace(0.0); //scales everything to zero, but leaving the sparse presence
             updates[i].intersectAndAddInPlace(firstMoment[i],scale); // add in the first moment
             updates[i].hadamardProductInPlace(secondMoment[i],(double a) -> Math.sqrt(a) + epsilon); // scale by second moment
@@ -116,6 +149,16 @@ public class Adam implements StochasticGradientOptimiser {
         return updates;
     }
 
+    @Override
+    public boolean supportsConcurrentStep() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsResume() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return "Adam(learningRate="+initialLearningRate+",betaOne="+betaOne+",betaTwo="+betaTwo+",epsilon="+epsilon+")";
@@ -24,8 +24,8 @@ import org.tribuo.math.StochasticGradientOptimiser;
 import org.tribuo.math.la.DenseMatrix;
 import org.tribuo.math.la.DenseVector;
 import org.tribuo.math.la.Tensor;
-import org.tribuo.math.optimisers.util.ShrinkingMatrix;
-import org.tribuo.math.optimisers.util.ShrinkingVector;
+import org.tribuo.math.optimisers.util.LazyDecayMatrix;
+import org.tribuo.math.optimisers.util.LazyDecayVector;
 
 import java.util.function.DoubleUnaryOperator;
 import java.util.logging.Logger;
@@ -36,6 +36,9 @@ import java.util.logging.Logger;
  * Creates one copy of the parameters to store learning rates.
  * Follows the Keras implementation.
  * <p>
+ * The decay of the squared gradient accumulator is applied lazily, so when the gradients are sparse
+ * each step only touches the accumulator values of the parameters present in the gradient.
+ * <p>
  * See:
  * <pre>
  * Tieleman, T. and Hinton, G.
@@ -110,9 +113,9 @@ public class RMSProp implements StochasticGradientOptimiser {
         gradsSquared = parameters.getEmptyCopy();
         for (int i = 0; i < gradsSquared.length; i++) {
             if (gradsSquared[i] instanceof DenseVector) {
-                gradsSquared[i] = new ShrinkingVector(((DenseVector) gradsSquared[i]), invRho, false);
+                gradsSquared[i] = new LazyDecayVector(((DenseVector) gradsSquared[i]), rho);
             } else if (gradsSquared[i] instanceof DenseMatrix) {
-                gradsSquared[i] = new ShrinkingMatrix(((DenseMatrix) gradsSquared[i]), invRho, false);
+                gradsSquared[i] = new LazyDecayMatrix(((DenseMatrix) gradsSquared[i]), rho);
             } else {
                 throw new IllegalStateException("Unknown Tensor subclass");
             }
@@ -121,7 +124,11 @@ public class RMSProp implements StochasticGradientOptimiser {
 
     @Override
     public Tensor[] step(Tensor[] updates, double weight) {
-        double learningRate = initialLearningRate / (1 + decay * iteration);
+        int curIteration;
+        synchronized (this) {
+            curIteration = iteration++;
+        }
+        double learningRate = initialLearningRate / (1 + decay * curIteration);
         //lifting lambdas out of the for loop until JDK-8183316 is fixed.
         DoubleUnaryOperator scale = (double a) -> weight * learningRate / (epsilon + Math.sqrt(a));
         for (int i = 0; i < updates.length; i++) {
@@ -131,10 +138,19 @@ public class RMSProp implements StochasticGradientOptimiser {
             curGrad.hadamardProductInPlace(curGradsSquared,scale);
         }
 
-        iteration++;
         return updates;
     }
 
+    @Override
+    public boolean supportsConcurrentStep() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsResume() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return "RMSProp(initialLearningRate="+initialLearningRate+",rho="+rho+",epsilon="+epsilon+",decay="+decay+")";
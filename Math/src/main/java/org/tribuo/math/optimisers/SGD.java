@@ -102,8 +102,11 @@ public abstract class SGD implements StochasticGradientOptimiser {
 
     @Override
     public Tensor[] step(Tensor[] updates, double weight) {
-        iteration++;
-        double learningRate = learningRate();
+        double learningRate;
+        synchronized (this) {
+            iteration++;
+            learningRate = learningRate();
+        }
         DoubleUnaryOperator learningRateFunc = (double a) -> a * learningRate * weight;
         DoubleUnaryOperator nesterovFunc = (double a) -> a * learningRate * weight * rho;
 
@@ -135,6 +138,16 @@ public abstract class SGD implements StochasticGradientOptimiser {
         return updates;
     }
 
+    @Override
+    public boolean supportsConcurrentStep() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsResume() {
+        return true;
+    }
+
     /**
      * Override to provide a function which calculates the learning rate.
      * The only available information is the iteration count.
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tribuo.math.optimisers.util;
+
+import org.tribuo.math.la.DenseMatrix;
+import org.tribuo.math.la.DenseVector;
+import org.tribuo.math.la.Matrix;
+import org.tribuo.math.la.MatrixIterator;
+import org.tribuo.math.la.MatrixTuple;
+import org.tribuo.math.la.Tensor;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A subclass of {@link DenseMatrix} which multiplies every value by a decay factor each time
+ * a new value is added, i.e., an exponential moving accumulator.
+ * <p>
+ * The decay is applied lazily. Each column records the last update it was brought up to date in,
+ * and the outstanding decay is applied to the whole column the next time an update touches it. This means
+ * an update from a sparse matrix costs time proportional to the number of active columns rather than
+ * the size of the matrix. The stored values of the columns touched by the most recent update are
+ * always current, and {@link #get(int, int)} applies any outstanding decay to the other columns.
+ * {@link #getRow(int)} and {@link #rowSum(int)} read through {@link #get(int, int)}, the column accessors
+ * and sums apply the outstanding decay to that column, and {@link #copy()}, {@link #twoNorm()},
+ * {@link #rowSum()} and {@link #columnSum()} apply all the outstanding decay first.
+ * <p>
+ * Updates and the methods which apply outstanding decay are synchronized, so concurrent updates
+ * (e.g., from Hogwild training) apply each decay exactly once. Reads through {@link #get(int, int)}
+ * are not synchronized, and may observe a concurrent update which is partially applied.
+ * <p>
+ * Be careful when modifying this or {@link DenseMatrix}.
+ */
+public class LazyDecayMatrix extends DenseMatrix implements ShrinkingTensor {
+    private final double decay;
+    private final int[] lastIteration;
+    private int iteration;
+
+    /**
+     * Constructs a lazily decaying copy of the supplied dense matrix.
+     * <p>
+     * The values are multiplied by {@code decay} during each call to {@link #intersectAndAddInPlace(Tensor, DoubleUnaryOperator)},
+     * before the new values are added.
+     * @param v The matrix to copy.
+     * @param decay The decay factor applied at each update.
+     */
+    public LazyDecayMatrix(DenseMatrix v, double decay) {
+        super(v);
+        this.decay = decay;
+        this.lastIteration = new int[dim2];
+        this.iteration = 0;
+    }
+
+    @Override
+    public DenseMatrix convertToDense() {
+        return new DenseMatrix((Matrix) this);
+    }
+
+    @Override
+    public synchronized void intersectAndAddInPlace(Tensor other, DoubleUnaryOperator f) {
+        if (other instanceof Matrix) {
+            Matrix otherMat = (Matrix) other;
+            if ((dim1 == otherMat.getDimension1Size()) && (dim2 == otherMat.getDimension2Size())) {
+                iteration++;
+                if (otherMat instanceof DenseMatrix) {
+                    for (int j = 0; j < dim2; j++) {
+                        catchUp(j);
+                    }
+                    for (int i = 0; i < dim1; i++) {
+                        for (int j = 0; j < dim2; j++) {
+                            values[i][j] += f.applyAsDouble(otherMat.get(i,j));
+                        }
+                    }
+                } else {
+                    for (MatrixTuple tuple : otherMat) {
+                        if (lastIteration[tuple.j] != iteration) {
+                            catchUp(tuple.j);
+                        }
+                        values[tuple.i][tuple.j] += f.applyAsDouble(tuple.value);
+                    }
+                }
+            } else {
+                throw new IllegalArgumentException("Matrices are not the same size, this("+dim1+","+dim2+"), other("+otherMat.getDimension1Size()+","+otherMat.getDimension2Size()+")");
+            }
+        } else {
+            throw new IllegalArgumentException("Adding a non-Matrix to a Matrix");
+        }
+    }
+
+    @Override
+    public synchronized LazyDecayMatrix copy() {
+        materialise();
+        return new LazyDecayMatrix(this,decay);
+    }
+
+    @Override
+    public double twoNorm() {
+        materialise();
+        return super.twoNorm();
+    }
+
+    @Override
+    public DenseVector getRow(int i) {
+        double[] row = new double[dim2];
+        for (int j = 0; j < dim2; j++) {
+            row[j] = get(i,j);
+        }
+        return DenseVector.createDenseVector(row);
+    }
+
+    @Override
+    public DenseVector getColumn(int index) {
+        synchronized (this) {
+            catchUp(index);
+        }
+        return super.getColumn(index);
+    }
+
+    @Override
+    public DenseVector rowSum() {
+        materialise();
+        return super.rowSum();
+    }
+
+    @Override
+    public double rowSum(int rowIndex) {
+        double sum = 0.0;
+        for (int j = 0; j < dim2; j++) {
+            sum += get(rowIndex,j);
+        }
+        return sum;
+    }
+
+    @Override
+    public DenseVector columnSum() {
+        materialise();
+        return super.columnSum();
+    }
+
+    @Override
+    public double columnSum(int columnIndex) {
+        synchronized (this) {
+            catchUp(columnIndex);
+        }
+        return super.columnSum(columnIndex);
+    }
+
+    /**
+     * Applies the outstanding decay to every column, and marks them as current.
+     */
+    private synchronized void materialise() {
+        for (int j = 0; j < dim2; j++) {
+            catchUp(j);
+        }
+    }
+
+    /**
+     * Applies the outstanding decay to the column, and marks it as current.
+     * <p>
+     * Must be called while holding this matrix's lock.
+     * @param j The column index.
+     */
+    private void catchUp(int j) {
+        int stale = iteration - lastIteration[j];
+        if (stale > 0) {
+            double factor = stale == 1 ? decay : Math.pow(decay, stale);
+            for (int i = 0; i < dim1; i++) {
+                values[i][j] *= factor;
+            }
+            lastIteration[j] = iteration;
+        }
+    }
+
+    @Override
+    public double get(int i, int j) {
+        int stale = iteration - lastIteration[j];
+        if (stale == 0) {
+            return values[i][j];
+        } else {
+            return values[i][j] * Math.pow(decay, stale);
+        }
+    }
+
+    @Override
+    public MatrixIterator iterator() {
+        return new LazyDecayMatrixIterator(this);
+    }
+
+    private class LazyDecayMatrixIterator implements MatrixIterator {
+        private final LazyDecayMatrix matrix;
+        private final MatrixTuple tuple;
+        private int i;
+        private int j;
+
+        public LazyDecayMatrixIterator(LazyDecayMatrix matrix) {
+            this.matrix = matrix;
+            this.tuple = new MatrixTuple();
+            this.i = 0;
+            this.j = 0;
+        }
+
+        @Override
+        public MatrixTuple getReference() {
+            return tuple;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return (i < matrix.dim1) && (j < matrix.dim2);
+        }
+
+        @Override
+        public MatrixTuple next() {
+            tuple.i = i;
+            tuple.j = j;
+            tuple.value = matrix.get(i, j);
+            if (j < dim2 - 1) {
+                j++;
+            } else {
+                //Reached end of current vector, get next one
+                i++;
+                j = 0;
+            }
+            return tuple;
+        }
+    }
+
+}
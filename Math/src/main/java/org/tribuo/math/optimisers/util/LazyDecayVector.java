@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tribuo.math.optimisers.util;
+
+import org.tribuo.math.la.DenseVector;
+import org.tribuo.math.la.SGDVector;
+import org.tribuo.math.la.Tensor;
+import org.tribuo.math.la.VectorIterator;
+import org.tribuo.math.la.VectorTuple;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A subclass of {@link DenseVector} which multiplies every value by a decay factor each time
+ * a new value is added, i.e., an exponential moving accumulator.
+ * <p>
+ * The decay is applied lazily. Each element records the last update it was brought up to date in,
+ * and the outstanding decay is applied the next time an update touches it. This means an update
+ * from a sparse vector costs time proportional to the number of active elements. The stored values of
+ * the elements touched by the most recent update are always current, and {@link #get(int)} applies
+ * any outstanding decay to the other elements. {@link #copy()}, {@link #sum()} and {@link #twoNorm()}
+ * apply all the outstanding decay first.
+ * <p>
+ * Updates and the methods which apply outstanding decay are synchronized, so concurrent updates
+ * (e.g., from Hogwild training) apply each decay exactly once. Reads through {@link #get(int)}
+ * are not synchronized, and may observe a concurrent update which is partially applied.
+ * <p>
+ * Be careful when modifying this or {@link DenseVector}.
+ */
+public class LazyDecayVector extends DenseVector implements ShrinkingTensor {
+    private final double decay;
+    private final int[] lastIteration;
+    private int iteration;
+
+    /**
+     * Constructs a lazily decaying copy of the supplied dense vector.
+     * <p>
+     * The values are multiplied by {@code decay} during each call to {@link #intersectAndAddInPlace(Tensor, DoubleUnaryOperator)},
+     * before the new values are added.
+     * @param v The vector to copy.
+     * @param decay The decay factor applied at each update.
+     */
+    public LazyDecayVector(DenseVector v, double decay) {
+        super(v);
+        this.decay = decay;
+        this.lastIteration = new int[v.size()];
+        this.iteration = 0;
+    }
+
+    @Override
+    public DenseVector convertToDense() {
+        return DenseVector.createDenseVector(toArray());
+    }
+
+    @Override
+    public synchronized LazyDecayVector copy() {
+        materialise();
+        return new LazyDecayVector(this,decay);
+    }
+
+    @Override
+    public double sum() {
+        materialise();
+        return super.sum();
+    }
+
+    @Override
+    public double twoNorm() {
+        materialise();
+        return super.twoNorm();
+    }
+
+    /**
+     * Applies the outstanding decay to every element, and marks them as current.
+     */
+    private synchronized void materialise() {
+        for (int i = 0; i < elements.length; i++) {
+            if (lastIteration[i] != iteration) {
+                elements[i] = get(i);
+                lastIteration[i] = iteration;
+            }
+        }
+    }
+
+    @Override
+    public double[] toArray() {
+        double[] newValues = new double[elements.length];
+        for (int i = 0; i < newValues.length; i++) {
+            newValues[i] = get(i);
+        }
+        return newValues;
+    }
+
+    @Override
+    public double get(int index) {
+        int stale = iteration - lastIteration[index];
+        if (stale == 0) {
+            return elements[index];
+        } else {
+            return elements[index] * Math.pow(decay, stale);
+        }
+    }
+
+    @Override
+    public synchronized void intersectAndAddInPlace(Tensor other, DoubleUnaryOperator f) {
+        if (other instanceof SGDVector) {
+            SGDVector otherVec = (SGDVector) other;
+            if (otherVec.size() != elements.length) {
+                throw new IllegalArgumentException("Can't intersect two vectors of different dimension, this = " + elements.length + ", other = " + otherVec.size());
+            }
+            iteration++;
+            if (otherVec instanceof DenseVector) {
+                for (int i = 0; i < elements.length; i++) {
+                    elements[i] = get(i) + f.applyAsDouble(otherVec.get(i));
+                    lastIteration[i] = iteration;
+                }
+            } else {
+                for (VectorTuple tuple : otherVec) {
+                    elements[tuple.index] = get(tuple.index) + f.applyAsDouble(tuple.value);
+                    lastIteration[tuple.index] = iteration;
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("Adding a non-Vector to a Vector");
+        }
+    }
+
+    @Override
+    public VectorIterator iterator() {
+        return new LazyDecayVectorIterator(this);
+    }
+
+    private static class LazyDecayVectorIterator implements VectorIterator {
+        private final LazyDecayVector vector;
+        private final VectorTuple tuple;
+        private int index;
+
+        public LazyDecayVectorIterator(LazyDecayVector vector) {
+            this.vector = vector;
+            this.tuple = new VectorTuple();
+            this.index = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < vector.size();
+        }
+
+        @Override
+        public VectorTuple next() {
+            tuple.index = index;
+            tuple.value = vector.get(index);
+            index++;
+            return tuple;
+        }
+
+        @Override
+        public VectorTuple getReference() {
+            return tuple;
+        }
+    }
+}
@@ -18,7 +18,11 @@ package org.tribuo.math.la;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Matrices used -
@@ -1363,4 +1367,64 @@ public class DenseMatrixTest {
         assertEquals(matrixMatrixOutput,matrixVectorOutput);
     }
 
+    private static DenseMatrix randomMatrix(int dim1, int dim2, SplittableRandom rng) {
+        double[][] values = new double[dim1][dim2];
+        for (int i = 0; i < dim1; i++) {
+            for (int j = 0; j < dim2; j++) {
+                values[i][j] = rng.nextDouble() * 2 - 1;
+            }
+        }
+        return new DenseMatrix(values);
+    }
+
+    private static void assertSameValues(DenseMatrix expected, DenseMatrix actual) {
+        assertEquals(expected.getDimension1Size(), actual.getDimension1Size());
+        assertEquals(expected.getDimension2Size(), actual.getDimension2Size());
+        for (int i = 0; i < expected.getDimension1Size(); i++) {
+            for (int j = 0; j < expected.getDimension2Size(); j++) {
+                assertEquals(expected.get(i,j), actual.get(i,j), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void blockedKernelTest() {
+        SplittableRandom rng = new SplittableRandom(1L);
+        // Large enough to use several blocks, and to cross the parallel threshold.
+        DenseMatrix a = randomMatrix(300, 200, rng);
+        DenseMatrix b = randomMatrix(200, 170, rng);
+        DenseMatrix c = randomMatrix(300, 170, rng);
+        DenseMatrix d = randomMatrix(170, 200, rng);
+        assertTrue((long) a.getDimension1Size() * a.getDimension2Size() * b.getDimension2Size() > DenseMatrix.PARALLEL_THRESHOLD);
+
+        // Subclasses use the element-wise loops, which the blocked kernels must match exactly.
+        DenseMatrix aRef = new DenseMatrix(a) { };
+        DenseMatrix bRef = new DenseMatrix(b) { };
+        DenseMatrix cRef = new DenseMatrix(c) { };
+        DenseMatrix dRef = new DenseMatrix(d) { };
+
+        assertSameValues(aRef.matrixMultiply(bRef), a.matrixMultiply(b));
+        assertSameValues(aRef.matrixMultiply(cRef, true, false), a.matrixMultiply(c, true, false));
+        assertSameValues(aRef.matrixMultiply(dRef, false, true), a.matrixMultiply(d, false, true));
+        assertSameValues(aRef.transpose(), a.transpose());
+        assertSameValues(a, a.transpose().transpose());
+
+        double[] values = new double[200];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rng.nextDouble();
+        }
+        DenseVector vector = DenseVector.createDenseVector(values);
+        DenseVector expected = aRef.leftMultiply(vector);
+        DenseVector actual = a.leftMultiply(vector);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i), 0.0);
+        }
+        DenseVector column = DenseVector.createDenseVector(Arrays.copyOf(values, 170));
+        expected = dRef.rightMultiply(column);
+        actual = d.rightMultiply(column);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i), 0.0);
+        }
+    }
+
 }
@@ -26,6 +26,7 @@ import org.tribuo.test.Helpers;
 import org.tribuo.test.MockOutput;
 import org.tribuo.test.MockOutputFactory;
 
+import java.util.SplittableRandom;
 import java.util.function.DoubleUnaryOperator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -158,6 +159,31 @@ public class DenseVectorTest {
         assertEquals(16.0, a.dot(c),1e-10);
     }
 
+    @Test
+    public void sparseDotOrder() {
+        SplittableRandom rng = new SplittableRandom(1L);
+        double[] denseValues = new double[1000];
+        for (int i = 0; i < denseValues.length; i++) {
+            denseValues[i] = rng.nextDouble() * 2e6 - 1e6;
+        }
+        DenseVector dense = DenseVector.createDenseVector(denseValues);
+        int[] indices = new int[101];
+        double[] values = new double[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i * 9;
+            values[i] = rng.nextDouble() * 2e-3 - 1e-3;
+        }
+        SparseVector sparse = SparseVector.createSparseVector(denseValues.length, indices, values);
+
+        // The sparse-dense dot products sum in index order, exactly as iterating the sparse vector does.
+        double expected = 0.0;
+        for (VectorTuple tuple : sparse) {
+            expected += dense.get(tuple.index) * tuple.value;
+        }
+        assertEquals(expected, dense.dot(sparse));
+        assertEquals(expected, sparse.dot(dense));
+    }
+
     @Test
     public void emptyDot() {
         DenseVector a = generateVectorA();
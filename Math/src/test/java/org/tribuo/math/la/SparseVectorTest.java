@@ -23,6 +23,7 @@ import org.tribuo.Feature;
 import org.tribuo.ImmutableFeatureMap;
 import org.tribuo.MutableDataset;
 import org.tribuo.MutableFeatureMap;
+import org.tribuo.dataset.CSRDataset;
 import org.tribuo.impl.ArrayExample;
 import org.tribuo.impl.ListExample;
 import org.tribuo.test.MockDataSourceProvenance;
@@ -356,6 +357,22 @@ public class SparseVectorTest {
         assertEquals(testFakeCollisionVec,fakeCollisionVec);
     }
 
+    @Test
+    public void csrExampleVectors() {
+        MutableDataset<MockOutput> dataset = new MutableDataset<>(new MockDataSourceProvenance(), new MockOutputFactory());
+        dataset.add(generateExample(new String[]{"A","B","D"},new double[]{1.0,-2.0,3.0}));
+        dataset.add(generateExample(new String[]{"C"},new double[]{4.0}));
+        dataset.add(generateExample(new String[]{"A","C","D","E"},new double[]{5.0,6.0,-7.0,8.0}));
+        CSRDataset<MockOutput> csr = new CSRDataset<>(dataset);
+        for (int i = 0; i < dataset.size(); i++) {
+            for (boolean addBias : new boolean[]{false,true}) {
+                SparseVector expected = SparseVector.createSparseVector(dataset.getExample(i),dataset.getFeatureIDMap(),addBias);
+                SparseVector actual = SparseVector.createSparseVector(csr.getExample(i),csr.getFeatureIDMap(),addBias);
+                assertEquals(expected,actual);
+            }
+        }
+    }
+
     @Test
     public void differenceRandomised() {
         Random rng = new Random(1);
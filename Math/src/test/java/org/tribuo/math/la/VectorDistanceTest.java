@@ -19,6 +19,9 @@ package org.tribuo.math.la;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
@@ -144,4 +147,55 @@ public class VectorDistanceTest {
         assertEquals(1.0,d.cosineDistance(c),1e-10);
     }
 
+    private static SparseVector randomSparse(int size, SplittableRandom rng) {
+        int[] indices = new int[size];
+        double[] values = new double[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (rng.nextBoolean()) {
+                indices[count] = i;
+                values[count] = rng.nextDouble() * 2 - 1;
+                count++;
+            }
+        }
+        return SparseVector.createSparseVector(size, Arrays.copyOf(indices, count), Arrays.copyOf(values, count));
+    }
+
+    @Test
+    public void randomKernelTest() {
+        SplittableRandom rng = new SplittableRandom(1L);
+        for (int size = 1; size < 14; size++) {
+            for (int trial = 0; trial < 5; trial++) {
+                SparseVector sparseA = randomSparse(size, rng);
+                SparseVector sparseB = randomSparse(size, rng);
+                DenseVector denseA = DenseVector.createDenseVector(sparseA.toArray());
+                DenseVector denseB = DenseVector.createDenseVector(sparseB.toArray());
+                double[] a = denseA.toArray();
+                double[] b = denseB.toArray();
+                double dot = 0.0;
+                double l1 = 0.0;
+                double l2 = 0.0;
+                double norm = 0.0;
+                for (int i = 0; i < size; i++) {
+                    dot += a[i] * b[i];
+                    l1 += Math.abs(a[i] - b[i]);
+                    l2 += (a[i] - b[i]) * (a[i] - b[i]);
+                    norm += a[i] * a[i];
+                }
+                l2 = Math.sqrt(l2);
+                norm = Math.sqrt(norm);
+                SGDVector[] firsts = new SGDVector[]{denseA, sparseA};
+                SGDVector[] seconds = new SGDVector[]{denseB, sparseB};
+                for (SGDVector first : firsts) {
+                    assertEquals(norm, first.twoNorm(), 1e-12);
+                    for (SGDVector second : seconds) {
+                        assertEquals(dot, first.dot(second), 1e-12);
+                        assertEquals(l1, first.l1Distance(second), 1e-12);
+                        assertEquals(l2, first.euclideanDistance(second), 1e-12);
+                    }
+                }
+            }
+        }
+    }
+
 }
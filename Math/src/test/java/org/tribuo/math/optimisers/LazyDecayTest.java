@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tribuo.math.optimisers;
+
+import org.junit.jupiter.api.Test;
+import org.tribuo.math.LinearParameters;
+import org.tribuo.math.StochasticGradientOptimiser;
+import org.tribuo.math.la.DenseMatrix;
+import org.tribuo.math.la.DenseSparseMatrix;
+import org.tribuo.math.la.DenseVector;
+import org.tribuo.math.la.Matrix;
+import org.tribuo.math.la.MatrixTuple;
+import org.tribuo.math.la.SparseVector;
+import org.tribuo.math.la.Tensor;
+import org.tribuo.math.optimisers.util.LazyDecayMatrix;
+import org.tribuo.math.optimisers.util.LazyDecayVector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LazyDecayTest {
+
+    private static SparseVector randomFeatures(int dimension, int numActive, SplittableRandom rng) {
+        int[] indices = new int[numActive];
+        double[] values = new double[numActive];
+        int start = rng.nextInt(dimension - numActive + 1);
+        for (int i = 0; i < numActive; i++) {
+            indices[i] = start + i;
+            values[i] = rng.nextDouble() * 2 - 1;
+        }
+        return SparseVector.createSparseVector(dimension, indices, values);
+    }
+
+    private static DenseVector randomScores(int dimension, SplittableRandom rng) {
+        double[] values = new double[dimension];
+        for (int i = 0; i < dimension; i++) {
+            values[i] = rng.nextDouble() * 2 - 1;
+        }
+        return DenseVector.createDenseVector(values);
+    }
+
+    @Test
+    public void testSparseMatchesDense() {
+        StochasticGradientOptimiser[] optimisers = new StochasticGradientOptimiser[]{new Adam(0.1, 1e-6), new RMSProp(0.1, 0.9), new AdaGrad(0.1, 0.1)};
+        for (StochasticGradientOptimiser optimiser : optimisers) {
+            SplittableRandom rng = new SplittableRandom(1L);
+            StochasticGradientOptimiser sparse = optimiser.copy();
+            StochasticGradientOptimiser dense = optimiser.copy();
+            sparse.initialise(new LinearParameters(20, 3));
+            dense.initialise(new LinearParameters(20, 3));
+            for (int step = 0; step < 50; step++) {
+                Matrix sparseGrad = randomScores(3, rng).outer(randomFeatures(20, 4, rng));
+                Matrix denseGrad = new DenseMatrix(sparseGrad);
+                Tensor[] sparseUpdate = sparse.step(new Tensor[]{sparseGrad}, 1.0);
+                Tensor[] denseUpdate = dense.step(new Tensor[]{denseGrad}, 1.0);
+                // The sparse updates only touch the active elements, which must match the dense updates.
+                for (MatrixTuple t : (DenseSparseMatrix) sparseUpdate[0]) {
+                    assertEquals(((Matrix) denseUpdate[0]).get(t.i, t.j), t.value, 1e-10, optimiser.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLazyDecayTensors() {
+        SplittableRandom rng = new SplittableRandom(2L);
+        double decay = 0.9;
+        LazyDecayVector lazyVector = new LazyDecayVector(new DenseVector(20), decay);
+        LazyDecayMatrix lazyMatrix = new LazyDecayMatrix(new DenseMatrix(3, 20), decay);
+        double[] expectedVector = new double[20];
+        double[][] expectedMatrix = new double[3][20];
+        for (int step = 0; step < 30; step++) {
+            SparseVector features = randomFeatures(20, 3, rng);
+            Matrix grad = randomScores(3, rng).outer(features);
+            lazyVector.intersectAndAddInPlace(features, (double a) -> 2 * a);
+            lazyMatrix.intersectAndAddInPlace(grad, (double a) -> 2 * a);
+            for (int j = 0; j < 20; j++) {
+                expectedVector[j] = decay * expectedVector[j] + 2 * features.get(j);
+                for (int i = 0; i < 3; i++) {
+                    expectedMatrix[i][j] = decay * expectedMatrix[i][j] + 2 * grad.get(i, j);
+                }
+            }
+            for (int j = 0; j < 20; j++) {
+                assertEquals(expectedVector[j], lazyVector.get(j), 1e-12);
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(expectedMatrix[i][j], lazyMatrix.get(i, j), 1e-12);
+                }
+            }
+        }
+        DenseMatrix converted = lazyMatrix.convertToDense();
+        DenseVector convertedVector = lazyVector.convertToDense();
+        for (int j = 0; j < 20; j++) {
+            assertEquals(expectedVector[j], convertedVector.get(j), 1e-12);
+            for (int i = 0; i < 3; i++) {
+                assertEquals(expectedMatrix[i][j], converted.get(i, j), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void testLazyDecayAggregates() {
+        SplittableRandom rng = new SplittableRandom(3L);
+        double decay = 0.8;
+        LazyDecayVector lazyVector = new LazyDecayVector(new DenseVector(20), decay);
+        LazyDecayMatrix lazyMatrix = new LazyDecayMatrix(new DenseMatrix(3, 20), decay);
+        double[] expectedVector = new double[20];
+        double[][] expectedMatrix = new double[3][20];
+        for (int step = 0; step < 10; step++) {
+            SparseVector features = randomFeatures(20, 3, rng);
+            Matrix grad = randomScores(3, rng).outer(features);
+            lazyVector.intersectAndAddInPlace(features);
+            lazyMatrix.intersectAndAddInPlace(grad);
+            double vectorSum = 0.0;
+            double vectorSquares = 0.0;
+            double matrixSquares = 0.0;
+            double[] rowSums = new double[3];
+            double[] columnSums = new double[20];
+            for (int j = 0; j < 20; j++) {
+                expectedVector[j] = decay * expectedVector[j] + features.get(j);
+                vectorSum += expectedVector[j];
+                vectorSquares += expectedVector[j] * expectedVector[j];
+                for (int i = 0; i < 3; i++) {
+                    expectedMatrix[i][j] = decay * expectedMatrix[i][j] + grad.get(i, j);
+                    matrixSquares += expectedMatrix[i][j] * expectedMatrix[i][j];
+                    rowSums[i] += expectedMatrix[i][j];
+                    columnSums[j] += expectedMatrix[i][j];
+                }
+            }
+            // Read the aggregates in between updates, while some elements are stale.
+            assertEquals(vectorSum, lazyVector.sum(), 1e-12);
+            assertEquals(Math.sqrt(vectorSquares), lazyVector.twoNorm(), 1e-12);
+            assertEquals(Math.sqrt(matrixSquares), lazyMatrix.twoNorm(), 1e-12);
+            DenseVector lazyRowSums = lazyMatrix.rowSum();
+            for (int i = 0; i < 3; i++) {
+                assertEquals(rowSums[i], lazyRowSums.get(i), 1e-12);
+                assertEquals(rowSums[i], lazyMatrix.rowSum(i), 1e-12);
+                assertEquals(expectedMatrix[i][5], lazyMatrix.getColumn(5).get(i), 1e-12);
+            }
+            DenseVector lazyColumnSums = lazyMatrix.columnSum();
+            for (int j = 0; j < 20; j++) {
+                assertEquals(columnSums[j], lazyColumnSums.get(j), 1e-12);
+                assertEquals(columnSums[j], lazyMatrix.columnSum(j), 1e-12);
+                assertEquals(expectedMatrix[1][j], lazyMatrix.getRow(1).get(j), 1e-12);
+            }
+        }
+
+        // Copies keep decaying, independently of the original.
+        LazyDecayVector vectorCopy = lazyVector.copy();
+        LazyDecayMatrix matrixCopy = lazyMatrix.copy();
+        SparseVector features = randomFeatures(20, 3, rng);
+        Matrix grad = randomScores(3, rng).outer(features);
+        vectorCopy.intersectAndAddInPlace(features);
+        matrixCopy.intersectAndAddInPlace(grad);
+        for (int j = 0; j < 20; j++) {
+            assertEquals(expectedVector[j], lazyVector.get(j), 1e-12);
+            assertEquals(decay * expectedVector[j] + features.get(j), vectorCopy.get(j), 1e-12);
+            for (int i = 0; i < 3; i++) {
+                assertEquals(expectedMatrix[i][j], lazyMatrix.get(i, j), 1e-12);
+                assertEquals(decay * expectedMatrix[i][j] + grad.get(i, j), matrixCopy.get(i, j), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws InterruptedException, ExecutionException {
+        SplittableRandom rng = new SplittableRandom(4L);
+        double decay = 0.99;
+        SparseVector features = randomFeatures(200, 150, rng);
+        Matrix grad = randomScores(3, rng).outer(features);
+        LazyDecayVector sequentialVector = new LazyDecayVector(new DenseVector(200), decay);
+        LazyDecayMatrix sequentialMatrix = new LazyDecayMatrix(new DenseMatrix(3, 200), decay);
+        LazyDecayVector concurrentVector = new LazyDecayVector(new DenseVector(200), decay);
+        LazyDecayMatrix concurrentMatrix = new LazyDecayMatrix(new DenseMatrix(3, 200), decay);
+        int numThreads = 4;
+        int numUpdates = 2000;
+        for (int i = 0; i < numThreads * numUpdates; i++) {
+            sequentialVector.intersectAndAddInPlace(features);
+            sequentialMatrix.intersectAndAddInPlace(grad);
+        }
+
+        // The updates are identical, so each decay must be applied exactly once for the results to match.
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < numThreads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < numUpdates; i++) {
+                        concurrentVector.intersectAndAddInPlace(features);
+                        concurrentMatrix.intersectAndAddInPlace(grad);
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        for (int j = 0; j < 200; j++) {
+            assertEquals(sequentialVector.get(j), concurrentVector.get(j), 1e-12);
+            for (int i = 0; i < 3; i++) {
+                assertEquals(sequentialMatrix.get(i, j), concurrentMatrix.get(i, j), 1e-12);
+            }
+        }
+    }
+}
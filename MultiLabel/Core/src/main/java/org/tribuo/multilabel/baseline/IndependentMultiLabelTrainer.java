@@ -17,6 +17,7 @@
 package org.tribuo.multilabel.baseline;
 
 import com.oracle.labs.mlrg.olcut.config.Config;
+import com.oracle.labs.mlrg.olcut.config.PropertyException;
 import com.oracle.labs.mlrg.olcut.provenance.Provenance;
 import org.tribuo.Dataset;
 import org.tribuo.Example;
@@ -36,7 +37,14 @@ import org.tribuo.provenance.impl.TrainerProvenanceImpl;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
 
 /**
  * Trains n independent binary {@link Model}s, each of which predicts a single {@link Label}.
@@ -44,16 +52,23 @@ import java.util.Map;
  * Then wraps it up in an {@link IndependentMultiLabelModel} to provide a {@link MultiLabel}
  * prediction.
  * <p>
- * It trains each model sequentially, and could be optimised to train in parallel.
+ * If {@code numThreads} is greater than one, and the inner trainer supports
+ * {@link Trainer#setInvocationCount(int)}, the per-label models are trained concurrently.
+ * The model for the i-th label is trained at the inner trainer's current invocation count plus i,
+ * so the models are identical to those produced by sequential training.
  * <p>
  * This trainer implements the approach known as "Binary Relevance" in
  * the multi-label classification literature.
  */
 public class IndependentMultiLabelTrainer implements Trainer<MultiLabel> {
+    private static final Logger logger = Logger.getLogger(IndependentMultiLabelTrainer.class.getName());
 
     @Config(mandatory = true,description="Trainer to use for each individual label.")
     private Trainer<Label> innerTrainer;
 
+    @Config(description="The number of threads to use when training the per-label models.")
+    private int numThreads = 1;
+
     private int trainInvocationCounter = 0;
 
     /**
@@ -66,7 +81,29 @@ public class IndependentMultiLabelTrainer implements Trainer<MultiLabel> {
      * @param innerTrainer The trainer to use for each individual label.
      */
     public IndependentMultiLabelTrainer(Trainer<Label> innerTrainer) {
+        this(innerTrainer, 1);
+    }
+
+    /**
+     * Constructs an independent multi-label trainer wrapped around the supplied classification trainer,
+     * which trains the per-label models using {@code numThreads} threads.
+     * @param innerTrainer The trainer to use for each individual label.
+     * @param numThreads The number of threads to use when training the per-label models.
+     */
+    public IndependentMultiLabelTrainer(Trainer<Label> innerTrainer, int numThreads) {
         this.innerTrainer = innerTrainer;
+        this.numThreads = numThreads;
+        postConfig();
+    }
+
+    /**
+     * Used by the OLCUT configuration system, and should not be called by external code.
+     */
+    @Override
+    public void postConfig() {
+        if (numThreads < 1) {
+            throw new PropertyException("","numThreads","numThreads must be positive, found " + numThreads);
+        }
     }
 
     @Override
@@ -93,27 +130,97 @@ public class IndependentMultiLabelTrainer implements Trainer<MultiLabel> {
         //TODO supply more suitable provenance showing there are multiple models, one per dimension.
         ModelProvenance provenance = new ModelProvenance(IndependentMultiLabelModel.class.getName(), OffsetDateTime.now(), datasetProvenance, trainerProvenance, runProvenance);
 
-        // Construct binarised training data
-        MutableDataset<Label> trainingData = new MutableDataset<>(datasetProvenance, new LabelFactory());
-        for (Example<MultiLabel> e : examples) {
-            trainingData.add(new BinaryExample(e, MultiLabel.NEGATIVE_LABEL));
-        }
-        for (MultiLabel l : labelInfo.getDomain()) {
-            Label label = new Label(l.getLabelString());
-            labelList.add(label);
-            for (int i = 0; i < examples.size(); i++) {
-                Example<MultiLabel> e = examples.getExample(i);
-                BinaryExample be = (BinaryExample) trainingData.getExample(i);
-                Label newLabel = e.getOutput().createLabel(label);
-                // This sets the label in the binary example to either label or MultiLabel.NEGATIVE_LABEL_STRING.
-                be.setLabel(newLabel);
+        if ((numThreads > 1) && (labelInfo.size() > 1) && innerTrainerSupportsInvocationCount()) {
+            for (MultiLabel l : labelInfo.getDomain()) {
+                labelList.add(new Label(l.getLabelString()));
+            }
+            modelsList.addAll(trainParallel(examples,datasetProvenance,labelList));
+        } else {
+            // Construct binarised training data
+            MutableDataset<Label> trainingData = new MutableDataset<>(datasetProvenance, new LabelFactory());
+            for (Example<MultiLabel> e : examples) {
+                trainingData.add(new BinaryExample(e, MultiLabel.NEGATIVE_LABEL));
+            }
+            for (MultiLabel l : labelInfo.getDomain()) {
+                Label label = new Label(l.getLabelString());
+                labelList.add(label);
+                for (int i = 0; i < examples.size(); i++) {
+                    Example<MultiLabel> e = examples.getExample(i);
+                    BinaryExample be = (BinaryExample) trainingData.getExample(i);
+                    Label newLabel = e.getOutput().createLabel(label);
+                    // This sets the label in the binary example to either label or MultiLabel.NEGATIVE_LABEL_STRING.
+                    be.setLabel(newLabel);
+                }
+                trainingData.regenerateOutputInfo();
+                modelsList.add(innerTrainer.train(trainingData));
             }
-            trainingData.regenerateOutputInfo();
-            modelsList.add(innerTrainer.train(trainingData));
         }
         return new IndependentMultiLabelModel(labelList,modelsList,provenance,featureMap,labelInfo);
     }
 
+    /**
+     * Trains the per-label models concurrently.
+     * <p>
+     * Each task builds its own binarised view of the examples, so at most {@code numThreads}
+     * binarised datasets exist at once. The model for label {@code i} is trained using the inner
+     * trainer's current invocation count plus {@code i}, and afterwards the inner trainer's invocation
+     * count is left where sequential training would leave it.
+     * @param examples The training dataset.
+     * @param datasetProvenance The provenance of the training dataset.
+     * @param labels The labels to train models for, in domain order.
+     * @return The trained models in label order.
+     */
+    private List<Model<Label>> trainParallel(Dataset<MultiLabel> examples, DatasetProvenance datasetProvenance, List<Label> labels) {
+        int baseInvocationCount = innerTrainer.getInvocationCount();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(numThreads,labels.size()));
+        List<Future<Model<Label>>> futures = new ArrayList<>(labels.size());
+        for (int i = 0; i < labels.size(); i++) {
+            final int labelIdx = i;
+            futures.add(pool.submit(() -> {
+                Label label = labels.get(labelIdx);
+                MutableDataset<Label> trainingData = new MutableDataset<>(datasetProvenance, new LabelFactory());
+                for (Example<MultiLabel> e : examples) {
+                    // The label is either label or MultiLabel.NEGATIVE_LABEL_STRING.
+                    trainingData.add(new BinaryExample(e, e.getOutput().createLabel(label)));
+                }
+                return innerTrainer.train(trainingData, Collections.emptyMap(), baseInvocationCount + labelIdx);
+            }));
+        }
+        List<Model<Label>> models = new ArrayList<>(labels.size());
+        try {
+            for (Future<Model<Label>> f : futures) {
+                models.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while training the per-label models",e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new IllegalStateException("Failed to train a per-label model",e.getCause());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        innerTrainer.setInvocationCount(baseInvocationCount + labels.size());
+        return models;
+    }
+
+    /**
+     * Checks if the inner trainer supports {@link Trainer#setInvocationCount(int)}, which is
+     * required for concurrent training to match sequential training.
+     * @return True if the inner trainer supports setting the invocation count.
+     */
+    private boolean innerTrainerSupportsInvocationCount() {
+        if (innerTrainer.supportsInvocationCount()) {
+            return true;
+        } else {
+            logger.warning(innerTrainer.getClass().getName() + " does not support setting the invocation count, training the per-label models sequentially.");
+            return false;
+        }
+    }
+
     @Override
     public int getInvocationCount() {
         return trainInvocationCounter;
@@ -121,7 +228,7 @@ public class IndependentMultiLabelTrainer implements Trainer<MultiLabel> {
 
     @Override
     public String toString() {
-        return "IndependentMultiLabelTrainer(innerTrainer="+innerTrainer.toString()+")";
+        return "IndependentMultiLabelTrainer(innerTrainer="+innerTrainer.toString()+",numThreads="+numThreads+")";
     }
 
     @Override
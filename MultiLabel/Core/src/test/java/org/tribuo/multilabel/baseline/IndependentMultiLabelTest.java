@@ -16,22 +16,30 @@
 
 package org.tribuo.multilabel.baseline;
 
+import com.oracle.labs.mlrg.olcut.config.PropertyException;
+import com.oracle.labs.mlrg.olcut.provenance.Provenance;
 import com.oracle.labs.mlrg.olcut.util.Pair;
 import org.tribuo.Dataset;
+import org.tribuo.Example;
 import org.tribuo.Model;
 import org.tribuo.Prediction;
+import org.tribuo.Trainer;
+import org.tribuo.classification.Label;
 import org.tribuo.classification.baseline.DummyClassifierTrainer;
 import org.tribuo.multilabel.MultiLabel;
 import org.tribuo.multilabel.MultiLabelFactory;
 import org.tribuo.multilabel.example.MultiLabelDataGenerator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.tribuo.provenance.TrainerProvenance;
 import org.tribuo.test.Helpers;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  *
@@ -58,4 +66,72 @@ public class IndependentMultiLabelTest {
         Helpers.testModelSerialization(model,MultiLabel.class);
     }
 
+    @Test
+    public void testParallelTraining() {
+        Dataset<MultiLabel> train = MultiLabelDataGenerator.generateTrainData();
+        Dataset<MultiLabel> test = MultiLabelDataGenerator.generateTestData();
+
+        RecordingTrainer sequentialInner = new RecordingTrainer();
+        Model<MultiLabel> sequential = new IndependentMultiLabelTrainer(sequentialInner).train(train);
+        RecordingTrainer parallelInner = new RecordingTrainer();
+        Model<MultiLabel> parallel = new IndependentMultiLabelTrainer(parallelInner, 4).train(train);
+
+        // Each label is trained at the same invocation count, and the inner trainer ends up in the same state.
+        assertEquals(sequentialInner.invocations, parallelInner.invocations);
+        assertEquals(sequentialInner.getInvocationCount(), parallelInner.getInvocationCount());
+        List<Prediction<MultiLabel>> sequentialPredictions = sequential.predict(test);
+        List<Prediction<MultiLabel>> parallelPredictions = parallel.predict(test);
+        for (int i = 0; i < sequentialPredictions.size(); i++) {
+            assertEquals(sequentialPredictions.get(i).getOutput(), parallelPredictions.get(i).getOutput());
+        }
+
+        assertThrows(PropertyException.class, () -> new IndependentMultiLabelTrainer(sequentialInner, 0));
+    }
+
+    /**
+     * Records the invocation count each label's model was trained at.
+     */
+    private static final class RecordingTrainer implements Trainer<Label> {
+        private final Trainer<Label> inner = DummyClassifierTrainer.createMostFrequentTrainer();
+        private final Map<String,Integer> invocations = new ConcurrentHashMap<>();
+        private int invocationCount = 0;
+
+        @Override
+        public Model<Label> train(Dataset<Label> examples, Map<String, Provenance> runProvenance) {
+            return train(examples, runProvenance, INCREMENT_INVOCATION_COUNT);
+        }
+
+        @Override
+        public Model<Label> train(Dataset<Label> examples, Map<String, Provenance> runProvenance, int invocationCount) {
+            int count;
+            synchronized (this) {
+                if (invocationCount != INCREMENT_INVOCATION_COUNT) {
+                    this.invocationCount = invocationCount;
+                }
+                count = this.invocationCount++;
+            }
+            for (Example<Label> e : examples) {
+                if (!e.getOutput().getLabel().equals(MultiLabel.NEGATIVE_LABEL_STRING)) {
+                    invocations.put(e.getOutput().getLabel(), count);
+                    break;
+                }
+            }
+            return inner.train(examples, runProvenance);
+        }
+
+        @Override
+        public synchronized int getInvocationCount() {
+            return invocationCount;
+        }
+
+        @Override
+        public synchronized void setInvocationCount(int invocationCount) {
+            this.invocationCount = invocationCount;
+        }
+
+        @Override
+        public TrainerProvenance getProvenance() {
+            return inner.getProvenance();
+        }
+    }
 }
@@ -95,6 +95,11 @@ public class LinearSGDModel extends AbstractLinearSGDModel<MultiLabel> implement
         return new Prediction<>(new MultiLabel(predictedLabels), fullLabels, predTuple.numActiveFeatures - 1, example, generatesProbabilities);
     }
 
+    @Override
+    protected void normalizeScores(double[] scores) {
+        normalizer.normalizeInPlace(scores);
+    }
+
     @Override
     protected String getDimensionName(int index) {
         return outputIDInfo.getOutput(index).getLabelString();
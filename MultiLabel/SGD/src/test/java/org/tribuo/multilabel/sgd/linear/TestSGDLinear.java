@@ -28,9 +28,11 @@ import org.tribuo.Prediction;
 import org.tribuo.Trainer;
 import org.tribuo.VariableIDInfo;
 import org.tribuo.VariableInfo;
+import org.tribuo.classification.Label;
 import org.tribuo.common.sgd.AbstractLinearSGDModel;
 import org.tribuo.common.sgd.AbstractLinearSGDTrainer;
 import org.tribuo.common.sgd.AbstractSGDTrainer;
+import org.tribuo.common.sgd.LinearScoringBuffer;
 import org.tribuo.interop.onnx.DenseTransformer;
 import org.tribuo.interop.onnx.MultiLabelTransformer;
 import org.tribuo.interop.onnx.ONNXExternalModel;
@@ -98,6 +100,18 @@ public class TestSGDLinear {
 
         Assertions.assertEquals(1.0, evaluation.microAveragedRecall());
 
+        LinearScoringBuffer buffer = model.createScoringBuffer();
+        for (int i = 0; i < test.size(); i++) {
+            Prediction<MultiLabel> prediction = predictions.get(i);
+            model.score(test.getExample(i), buffer);
+            assertEquals(prediction.getNumActiveFeatures(), buffer.getNumActiveFeatures());
+            double[] scores = buffer.getScores();
+            for (int j = 0; j < scores.length; j++) {
+                String name = model.getOutputIDInfo().getOutput(j).getLabelString();
+                assertEquals(prediction.getOutputScores().get(name).getLabelScore(new Label(name)).getAsDouble(), scores[j], 1e-12);
+            }
+        }
+
         Helpers.testModelSerialization(model, MultiLabel.class);
     }
 
@@ -17,6 +17,7 @@
 package org.tribuo.regression.impl;
 
 import com.oracle.labs.mlrg.olcut.config.Config;
+import com.oracle.labs.mlrg.olcut.config.PropertyException;
 import com.oracle.labs.mlrg.olcut.provenance.Provenance;
 import org.tribuo.Dataset;
 import org.tribuo.Example;
@@ -30,11 +31,17 @@ import org.tribuo.provenance.TrainerProvenance;
 import org.tribuo.regression.Regressor;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Trains n independent binary {@link Model}s, each of which predicts a single {@link Regressor}.
@@ -43,13 +50,18 @@ import java.util.SplittableRandom;
  * Then wraps it up in an {@link SkeletalIndependentRegressionModel} to provide a {@link Regressor}
  * prediction.
  * <p>
- * It trains each model sequentially, and could be optimised to train in parallel.
+ * Each dimension is trained using its own RNG, split from the trainer's RNG in dimension order.
+ * If {@code numThreads} is greater than one the dimensions are trained concurrently, and
+ * the models are identical to those produced by sequential training.
  */
 public abstract class SkeletalIndependentRegressionTrainer<T> implements Trainer<Regressor> {
 
     @Config(description="Seed for the RNG, may be unused.")
     private long seed = 1L;
 
+    @Config(description="The number of threads to use when training the dimensions.")
+    private int numThreads = 1;
+
     private SplittableRandom rng;
 
     private int trainInvocationCounter = 0;
@@ -59,11 +71,24 @@ public abstract class SkeletalIndependentRegressionTrainer<T> implements Trainer
      */
     protected SkeletalIndependentRegressionTrainer() {}
 
+    /**
+     * Constructs a trainer which trains the dimensions using {@code numThreads} threads.
+     * <p>
+     * Subclasses must call {@link #postConfig()} after setting their own fields.
+     * @param numThreads The number of threads to use when training the dimensions.
+     */
+    protected SkeletalIndependentRegressionTrainer(int numThreads) {
+        this.numThreads = numThreads;
+    }
+
     /**
      * Used by the OLCUT configuration system, and should not be called by external code.
      */
     @Override
     public synchronized void postConfig() {
+        if (numThreads < 1) {
+            throw new PropertyException("","numThreads","numThreads must be positive, found " + numThreads);
+        }
         this.rng = new SplittableRandom(seed);
     }
 
@@ -103,15 +128,66 @@ public abstract class SkeletalIndependentRegressionTrainer<T> implements Trainer
             }
             i++;
         }
-        for (Regressor r : domain) {
-            int id = outputInfo.getID(r);
-            T innerModel = trainDimension(outputs[id],inputs,weights,localRNG);
-            models.put(r.getNames()[0],innerModel);
+        List<Regressor> dimensions = new ArrayList<>(domain);
+        SplittableRandom[] dimensionRNGs = new SplittableRandom[dimensions.size()];
+        for (int j = 0; j < dimensionRNGs.length; j++) {
+            dimensionRNGs[j] = localRNG.split();
+        }
+        List<T> trainedModels;
+        if ((numThreads > 1) && (dimensions.size() > 1)) {
+            trainedModels = trainParallel(dimensions,outputInfo,outputs,inputs,weights,dimensionRNGs);
+        } else {
+            trainedModels = new ArrayList<>(dimensions.size());
+            for (int j = 0; j < dimensions.size(); j++) {
+                int id = outputInfo.getID(dimensions.get(j));
+                trainedModels.add(trainDimension(outputs[id],inputs,weights,dimensionRNGs[j]));
+            }
+        }
+        for (int j = 0; j < dimensions.size(); j++) {
+            models.put(dimensions.get(j).getNames()[0],trainedModels.get(j));
         }
         ModelProvenance provenance = new ModelProvenance(getModelClassName(), OffsetDateTime.now(), examples.getProvenance(), trainerProvenance, runProvenance);
         return createModel(models,provenance,featureMap,outputInfo);
     }
 
+    /**
+     * Trains the dimensions concurrently.
+     * @param dimensions The dimensions in domain order.
+     * @param outputInfo The output domain.
+     * @param outputs The regression targets, indexed by dimension id.
+     * @param inputs The features.
+     * @param weights The example weights.
+     * @param dimensionRNGs The RNG for each dimension.
+     * @return The trained models in dimension order.
+     */
+    private List<T> trainParallel(List<Regressor> dimensions, ImmutableOutputInfo<Regressor> outputInfo, double[][] outputs, SparseVector[] inputs, float[] weights, SplittableRandom[] dimensionRNGs) {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(numThreads,dimensions.size()));
+        List<Future<T>> futures = new ArrayList<>(dimensions.size());
+        for (int j = 0; j < dimensions.size(); j++) {
+            final double[] dimensionOutputs = outputs[outputInfo.getID(dimensions.get(j))];
+            final SplittableRandom dimensionRNG = dimensionRNGs[j];
+            futures.add(pool.submit(() -> trainDimension(dimensionOutputs,inputs,weights,dimensionRNG)));
+        }
+        List<T> trainedModels = new ArrayList<>(dimensions.size());
+        try {
+            for (Future<T> f : futures) {
+                trainedModels.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while training the dimensions",e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new IllegalStateException("Failed to train a dimension",e.getCause());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return trainedModels;
+    }
+
     @Override
     public int getInvocationCount() {
         return trainInvocationCounter;
@@ -129,6 +205,9 @@ public abstract class SkeletalIndependentRegressionTrainer<T> implements Trainer
 
     /**
      * Trains a single dimension of the possibly multiple dimensions.
+     * <p>
+     * If {@code numThreads} is greater than one this is called concurrently for different dimensions,
+     * and it must not modify the features or weights.
      * @param outputs The regression targets for this dimension.
      * @param features The features.
      * @param weights The example weights.
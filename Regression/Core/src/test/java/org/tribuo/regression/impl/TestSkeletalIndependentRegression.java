@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tribuo.regression.impl;
+
+import com.oracle.labs.mlrg.olcut.config.PropertyException;
+import org.junit.jupiter.api.Test;
+import org.tribuo.Dataset;
+import org.tribuo.ImmutableFeatureMap;
+import org.tribuo.ImmutableOutputInfo;
+import org.tribuo.math.la.SparseVector;
+import org.tribuo.provenance.ModelProvenance;
+import org.tribuo.provenance.TrainerProvenance;
+import org.tribuo.provenance.impl.TrainerProvenanceImpl;
+import org.tribuo.regression.Regressor;
+import org.tribuo.regression.example.RegressionDataGenerator;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestSkeletalIndependentRegression {
+
+    /**
+     * Records the weighted mean target and a draw from the RNG for each dimension.
+     */
+    private static final class RecordingTrainer extends SkeletalIndependentRegressionTrainer<double[]> {
+        private Map<String,double[]> models;
+
+        RecordingTrainer(int numThreads) {
+            super(numThreads);
+            postConfig();
+        }
+
+        @Override
+        protected SkeletalIndependentRegressionModel createModel(Map<String, double[]> models, ModelProvenance provenance, ImmutableFeatureMap featureMap, ImmutableOutputInfo<Regressor> outputInfo) {
+            this.models = new LinkedHashMap<>(models);
+            return null;
+        }
+
+        @Override
+        protected double[] trainDimension(double[] outputs, SparseVector[] features, float[] weights, SplittableRandom rng) {
+            double sum = 0.0;
+            double weightSum = 0.0;
+            for (int i = 0; i < outputs.length; i++) {
+                sum += outputs[i] * weights[i];
+                weightSum += weights[i];
+            }
+            return new double[]{sum / weightSum, rng.nextDouble()};
+        }
+
+        @Override
+        protected boolean useBias() {
+            return false;
+        }
+
+        @Override
+        protected String getModelClassName() {
+            return SkeletalIndependentRegressionModel.class.getName();
+        }
+
+        @Override
+        public TrainerProvenance getProvenance() {
+            return new TrainerProvenanceImpl(this);
+        }
+    }
+
+    @Test
+    public void testParallelTraining() {
+        Dataset<Regressor> train = RegressionDataGenerator.multiDimDenseTrainTest().getA();
+        RecordingTrainer sequential = new RecordingTrainer(1);
+        RecordingTrainer parallel = new RecordingTrainer(4);
+        for (int i = 0; i < 2; i++) {
+            sequential.train(train);
+            parallel.train(train);
+            assertEquals(train.getOutputInfo().size(), parallel.models.size());
+            assertEquals(Arrays.asList(sequential.models.keySet().toArray()), Arrays.asList(parallel.models.keySet().toArray()));
+            for (Map.Entry<String,double[]> e : sequential.models.entrySet()) {
+                assertArrayEquals(e.getValue(), parallel.models.get(e.getKey()));
+            }
+        }
+        assertThrows(PropertyException.class, () -> new RecordingTrainer(0));
+    }
+}
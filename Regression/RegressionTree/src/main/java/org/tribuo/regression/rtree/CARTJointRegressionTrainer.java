@@ -76,7 +76,35 @@ public class CARTJointRegressionTrainer extends AbstractCARTTrainer<Regressor> {
             boolean normalize,
             long seed
     ) {
-        super(maxDepth, minChildWeight, minImpurityDecrease, fractionFeaturesInSplit, useRandomSplitPoints, seed);
+        this(maxDepth, minChildWeight, minImpurityDecrease, fractionFeaturesInSplit, useRandomSplitPoints, impurity, normalize, seed, 1);
+    }
+
+    /**
+     * Creates a CART Trainer which evaluates the candidate splits using multiple threads.
+     * <p>
+     * The tree produced is identical for any number of threads.
+     * @param maxDepth maxDepth The maximum depth of the tree.
+     * @param minChildWeight minChildWeight The minimum node weight to consider it for a split.
+     * @param minImpurityDecrease The minimum decrease in impurity necessary to split a node.
+     * @param fractionFeaturesInSplit fractionFeaturesInSplit The fraction of features available in each split.
+     * @param useRandomSplitPoints Whether to choose split points for features at random.
+     * @param impurity impurity The impurity function to use to determine split quality.
+     * @param normalize Normalize the leaves so each output sums to one.
+     * @param seed The seed to use for the RNG.
+     * @param numThreads The number of threads to use when evaluating splits.
+     */
+    public CARTJointRegressionTrainer(
+            int maxDepth,
+            float minChildWeight,
+            float minImpurityDecrease,
+            float fractionFeaturesInSplit,
+            boolean useRandomSplitPoints,
+            RegressorImpurity impurity,
+            boolean normalize,
+            long seed,
+            int numThreads
+    ) {
+        super(maxDepth, minChildWeight, minImpurityDecrease, fractionFeaturesInSplit, useRandomSplitPoints, seed, numThreads);
         this.impurity = impurity;
         this.normalize = normalize;
         postConfig();
@@ -162,6 +190,8 @@ public class CARTJointRegressionTrainer extends AbstractCARTTrainer<Regressor> {
         buffer.append(normalize);
         buffer.append(",seed=");
         buffer.append(seed);
+        buffer.append(",numThreads=");
+        buffer.append(numThreads);
         buffer.append(")");
 
         return buffer.toString();
@@ -45,6 +45,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A {@link org.tribuo.Trainer} that uses an approximation of the CART algorithm to build a decision tree.
@@ -85,7 +86,33 @@ public final class CARTRegressionTrainer extends AbstractCARTTrainer<Regressor>
             RegressorImpurity impurity,
             long seed
     ) {
-        super(maxDepth, minChildWeight, minImpurityDecrease, fractionFeaturesInSplit, useRandomSplitPoints, seed);
+        this(maxDepth, minChildWeight, minImpurityDecrease, fractionFeaturesInSplit, useRandomSplitPoints, impurity, seed, 1);
+    }
+
+    /**
+     * Creates a CART Trainer which evaluates the candidate splits using multiple threads.
+     * <p>
+     * The trees produced are identical for any number of threads.
+     * @param maxDepth maxDepth The maximum depth of the tree.
+     * @param minChildWeight minChildWeight The minimum node weight to consider it for a split.
+     * @param minImpurityDecrease The minimum decrease in impurity necessary to split a node.
+     * @param fractionFeaturesInSplit fractionFeaturesInSplit The fraction of features available in each split.
+     * @param useRandomSplitPoints Whether to choose split points for features at random.
+     * @param impurity impurity The impurity function to use to determine split quality.
+     * @param seed The RNG seed.
+     * @param numThreads The number of threads to use when evaluating splits.
+     */
+    public CARTRegressionTrainer(
+            int maxDepth,
+            float minChildWeight,
+            float minImpurityDecrease,
+            float fractionFeaturesInSplit,
+            boolean useRandomSplitPoints,
+            RegressorImpurity impurity,
+            long seed,
+            int numThreads
+    ) {
+        super(maxDepth, minChildWeight, minImpurityDecrease, fractionFeaturesInSplit, useRandomSplitPoints, seed, numThreads);
         this.impurity = impurity;
         postConfig();
     }
@@ -142,7 +169,7 @@ public final class CARTRegressionTrainer extends AbstractCARTTrainer<Regressor>
     }
 
     @Override
-    public TreeModel<Regressor> train(Dataset<Regressor> examples, Map<String, Provenance> runProvenance) {
+    public TreeModel<Regressor> train(Dataset<Regressor> examples, Map<String, Provenance> runProvenance, int invocationCount) {
         if (examples.getOutputInfo().getUnknownCount() > 0) {
             throw new IllegalArgumentException("The supplied Dataset contained unknown Outputs, and this Trainer is supervised.");
         }
@@ -150,6 +177,9 @@ public final class CARTRegressionTrainer extends AbstractCARTTrainer<Regressor>
         SplittableRandom localRNG;
         TrainerProvenance trainerProvenance;
         synchronized(this) {
+            if (invocationCount != INCREMENT_INVOCATION_COUNT) {
+                setInvocationCount(invocationCount);
+            }
             localRNG = rng.split();
             trainerProvenance = getProvenance();
             trainInvocationCounter++;
@@ -182,33 +212,40 @@ public final class CARTRegressionTrainer extends AbstractCARTTrainer<Regressor>
         InvertedData data = RegressorTrainingNode.invertData(examples);
 
         Map<String, Node<Regressor>> nodeMap = new HashMap<>();
-        for (Regressor r : domain) {
-            String dimName = r.getNames()[0];
-            int dimIdx = outputIDInfo.getID(r);
-
-            AbstractTrainingNode<Regressor> root = new RegressorTrainingNode(impurity,data,dimIdx,dimName,
-                    examples.size(),featureIDMap,outputIDInfo, leafDeterminer);
-            Deque<AbstractTrainingNode<Regressor>> queue = new ArrayDeque<>();
-            queue.add(root);
-
-            while (!queue.isEmpty()) {
-                AbstractTrainingNode<Regressor> node = queue.poll();
-                if ((node.getImpurity() > 0.0) && (node.getDepth() < maxDepth) &&
-                        (node.getWeightSum() >= minChildWeight)) {
-                    if (numFeaturesInSplit != featureIDMap.size()) {
-                        Util.randpermInPlace(originalIndices, localRNG);
-                        System.arraycopy(originalIndices, 0, indices, 0, numFeaturesInSplit);
-                    }
-                    List<AbstractTrainingNode<Regressor>> nodes = node.buildTree(indices, localRNG,
-                            getUseRandomSplitPoints());
-                    // Use the queue as a stack to improve cache locality.
-                    for (AbstractTrainingNode<Regressor> newNode : nodes) {
-                        queue.addFirst(newNode);
+        ForkJoinPool pool = createPool();
+        try {
+            for (Regressor r : domain) {
+                String dimName = r.getNames()[0];
+                int dimIdx = outputIDInfo.getID(r);
+
+                AbstractTrainingNode<Regressor> root = new RegressorTrainingNode(impurity,data,dimIdx,dimName,
+                        examples.size(),featureIDMap,outputIDInfo, leafDeterminer);
+                Deque<AbstractTrainingNode<Regressor>> queue = new ArrayDeque<>();
+                queue.add(root);
+
+                while (!queue.isEmpty()) {
+                    AbstractTrainingNode<Regressor> node = queue.poll();
+                    if ((node.getImpurity() > 0.0) && (node.getDepth() < maxDepth) &&
+                            (node.getWeightSum() >= minChildWeight)) {
+                        if (numFeaturesInSplit != featureIDMap.size()) {
+                            Util.randpermInPlace(originalIndices, localRNG);
+                            System.arraycopy(originalIndices, 0, indices, 0, numFeaturesInSplit);
+                        }
+                        List<AbstractTrainingNode<Regressor>> nodes = node.buildTree(indices, localRNG,
+                                getUseRandomSplitPoints(), pool);
+                        // Use the queue as a stack to improve cache locality.
+                        for (AbstractTrainingNode<Regressor> newNode : nodes) {
+                            queue.addFirst(newNode);
+                        }
                     }
                 }
-            }
 
-            nodeMap.put(dimName,root.convertTree());
+                nodeMap.put(dimName,root.convertTree());
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
         }
 
         ModelProvenance provenance = new ModelProvenance(TreeModel.class.getName(), OffsetDateTime.now(), examples.getProvenance(), trainerProvenance, runProvenance);
@@ -233,6 +270,8 @@ public final class CARTRegressionTrainer extends AbstractCARTTrainer<Regressor>
         buffer.append(impurity.toString());
         buffer.append(",seed=");
         buffer.append(seed);
+        buffer.append(",numThreads=");
+        buffer.append(numThreads);
         buffer.append(")");
 
         return buffer.toString();
@@ -23,6 +23,7 @@ import org.tribuo.ImmutableFeatureMap;
 import org.tribuo.ImmutableOutputInfo;
 import org.tribuo.Model;
 import org.tribuo.Prediction;
+import org.tribuo.common.tree.FlatTree;
 import org.tribuo.common.tree.LeafNode;
 import org.tribuo.common.tree.Node;
 import org.tribuo.common.tree.SplitNode;
@@ -32,6 +33,8 @@ import org.tribuo.provenance.ModelProvenance;
 import org.tribuo.regression.Regressor;
 import org.tribuo.regression.Regressor.DimensionTuple;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -49,17 +52,36 @@ import java.util.Set;
 /**
  * A {@link Model} wrapped around a list of decision tree root {@link Node}s used
  * to generate independent predictions for each dimension in a regression.
+ * <p>
+ * Predictions are made using a {@link FlatTree} compiled from each root, the roots
+ * are kept for the same reasons as in {@link TreeModel}.
  */
 public final class IndependentRegressionTreeModel extends TreeModel<Regressor> {
     private static final long serialVersionUID = 1L;
 
     private final Map<String,Node<Regressor>> roots;
 
+    private transient List<FlatTree<Regressor>> flatTrees;
+
     IndependentRegressionTreeModel(String name, ModelProvenance description,
                                           ImmutableFeatureMap featureIDMap, ImmutableOutputInfo<Regressor> outputIDInfo, boolean generatesProbabilities,
                                           Map<String,Node<Regressor>> roots) {
         super(name, description, featureIDMap, outputIDInfo, generatesProbabilities, gatherActiveFeatures(featureIDMap,roots));
         this.roots = roots;
+        this.flatTrees = compile(roots);
+    }
+
+    /**
+     * Compiles the roots, in the iteration order of the map.
+     * @param roots The roots to compile.
+     * @return The compiled trees.
+     */
+    private static List<FlatTree<Regressor>> compile(Map<String,Node<Regressor>> roots) {
+        List<FlatTree<Regressor>> trees = new ArrayList<>(roots.size());
+        for (Node<Regressor> root : roots.values()) {
+            trees.add(new FlatTree<>(root));
+        }
+        return trees;
     }
 
     private static Map<String,List<String>> gatherActiveFeatures(ImmutableFeatureMap fMap, Map<String,Node<Regressor>> roots) {
@@ -104,28 +126,40 @@ public final class IndependentRegressionTreeModel extends TreeModel<Regressor> {
 
     @Override
     public Prediction<Regressor> predict(Example<Regressor> example) {
-        //
-        // Ensures we handle collisions correctly
-        SparseVector vec = SparseVector.createSparseVector(example,featureIDMap,false);
-        if (vec.numActiveElements() == 0) {
-            throw new IllegalArgumentException("No features found in Example " + example.toString());
+        SparseVector vec = createVector(example);
+
+        List<Prediction<Regressor>> predictionList = new ArrayList<>(flatTrees.size());
+        for (FlatTree<Regressor> tree : flatTrees) {
+            predictionList.add(tree.getLeaf(tree.findLeaf(vec)).getPrediction(vec.numActiveElements(), example));
         }
+        return combine(predictionList);
+    }
 
-        List<Prediction<Regressor>> predictionList = new ArrayList<>();
-        for (Map.Entry<String,Node<Regressor>> e : roots.entrySet()) {
-            Node<Regressor> oldNode = e.getValue();
-            Node<Regressor> curNode = e.getValue();
+    /**
+     * Walks a block of examples through each compiled tree in turn.
+     * @param block The examples to predict.
+     * @param output The list to append the predictions to.
+     */
+    @Override
+    protected void predictBlock(List<Example<Regressor>> block, List<Prediction<Regressor>> output) {
+        SparseVector[] vecs = new SparseVector[block.size()];
+        for (int i = 0; i < vecs.length; i++) {
+            vecs[i] = createVector(block.get(i));
+        }
+        int[][] leafIndices = new int[flatTrees.size()][vecs.length];
+        for (int i = 0; i < leafIndices.length; i++) {
+            flatTrees.get(i).findLeaves(vecs,leafIndices[i]);
+        }
 
-            while (curNode != null) {
-                oldNode = curNode;
-                curNode = oldNode.getNextNode(vec);
+        List<Prediction<Regressor>> predictionList = new ArrayList<>(flatTrees.size());
+        for (int j = 0; j < vecs.length; j++) {
+            predictionList.clear();
+            for (int i = 0; i < leafIndices.length; i++) {
+                LeafNode<Regressor> leaf = flatTrees.get(i).getLeaf(leafIndices[i][j]);
+                predictionList.add(leaf.getPrediction(vecs[j].numActiveElements(), block.get(j)));
             }
-
-            //
-            // oldNode must be a LeafNode.
-            predictionList.add(((LeafNode<Regressor>) oldNode).getPrediction(vec.numActiveElements(), example));
+            output.add(combine(predictionList));
         }
-        return combine(predictionList);
     }
 
     @Override
@@ -309,4 +343,9 @@ public final class IndependentRegressionTreeModel extends TreeModel<Regressor> {
     public Node<Regressor> getRoot() {
         return null;
     }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        flatTrees = compile(roots);
+    }
 }
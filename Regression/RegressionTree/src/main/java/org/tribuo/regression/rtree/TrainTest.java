@@ -137,6 +137,11 @@ public class TrainTest {
          */
         @Option(longName = "print-tree", usage = "Prints the decision tree.")
         public boolean printTree;
+        /**
+         * Number of threads to use when evaluating splits.
+         */
+        @Option(longName = "num-threads", usage = "Number of threads to use when evaluating splits.")
+        public int numThreads = 1;
     }
 
     /**
@@ -187,11 +192,11 @@ public class TrainTest {
         switch (o.treeType) {
             case CART_INDEPENDENT:
                     trainer = new CARTRegressionTrainer(o.depth, o.minChildWeight,o.minImpurityDecrease,o.fraction, o.useRandomSplitPoints, impurity,
-                            o.general.seed);
+                            o.general.seed, o.numThreads);
                 break;
             case CART_JOINT:
                     trainer = new CARTJointRegressionTrainer(o.depth, o.minChildWeight, o.minImpurityDecrease, o.fraction, o.useRandomSplitPoints,
-                            impurity, o.normalize, o.general.seed);
+                            impurity, o.normalize, o.general.seed, o.numThreads);
                 break;
             default:
                 logger.severe("unknown tree type " + o.treeType);
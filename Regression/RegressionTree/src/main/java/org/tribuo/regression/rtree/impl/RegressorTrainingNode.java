@@ -41,6 +41,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 
 /**
@@ -146,19 +147,54 @@ public class RegressorTrainingNode extends AbstractTrainingNode<Regressor> {
     @Override
     public List<AbstractTrainingNode<Regressor>> buildTree(int[] featureIDs, SplittableRandom rng,
                                                            boolean useRandomSplitPoints) {
+        return buildTree(featureIDs, rng, useRandomSplitPoints, null);
+    }
+
+    /**
+     * Builds a tree according to CART (as it does not do multi-way splits on categorical values like C4.5).
+     * <p>
+     * If the pool is non-null the candidate features are evaluated and the data is partitioned in parallel.
+     * @param featureIDs Indices of the features available in this split.
+     * @param rng Splittable random number generator.
+     * @param useRandomSplitPoints Whether to choose split points for features at random.
+     * @param pool The pool to use, may be null.
+     * @return A possibly empty list of TrainingNodes.
+     */
+    @Override
+    public List<AbstractTrainingNode<Regressor>> buildTree(int[] featureIDs, SplittableRandom rng,
+                                                           boolean useRandomSplitPoints, ForkJoinPool pool) {
+        IndexSplitCandidate best;
         if (useRandomSplitPoints) {
-            return buildRandomTree(featureIDs, rng);
+            int[] splitIndices = new int[featureIDs.length];
+            for (int i = 0; i < featureIDs.length; i++) {
+                int featureSize = data.get(featureIDs[i]).getFeature().size();
+                // if there is only 1 inverted feature for this feature, it has only 1 value, so cannot be split
+                splitIndices[i] = featureSize == 1 ? -1 : rng.nextInt(featureSize-1);
+            }
+            best = selectBest(mapChunks(featureIDs.length, pool, (start, end) -> searchRandom(featureIDs, splitIndices, start, end)));
         } else {
-            return buildGreedyTree(featureIDs);
+            best = selectBest(mapChunks(featureIDs.length, pool, (start, end) -> searchGreedy(featureIDs, start, end)));
         }
+
+        List<AbstractTrainingNode<Regressor>> output;
+        // If we found a split better than the current impurity.
+        if ((best != null) && (weightSum * (getImpurity() - best.score) >= leafDeterminer.getScaledMinImpurityDecrease())) {
+            output = splitAtBest(featureIDs, best.featureIdx, best.splitValue, best.leftIndices, best.rightIndices, pool);
+        } else {
+            output = Collections.emptyList();
+        }
+        data = null;
+        return output;
     }
 
     /**
-     * Builds a tree according to CART
+     * Searches the supplied range of features for the best split according to CART.
      * @param featureIDs Indices of the features available in this split.
-     * @return A possibly empty list of TrainingNodes.
+     * @param start The first feature index to search (inclusive).
+     * @param end The last feature index to search (exclusive).
+     * @return The best split in the range, or null if no split improves on the current impurity.
      */
-    private List<AbstractTrainingNode<Regressor>> buildGreedyTree(int[] featureIDs) {
+    private IndexSplitCandidate searchGreedy(int[] featureIDs, int start, int end) {
         int bestID = -1;
         double bestSplitValue = 0.0;
         double bestScore = getImpurity();
@@ -166,7 +202,7 @@ public class RegressorTrainingNode extends AbstractTrainingNode<Regressor> {
         List<int[]> curIndices = new ArrayList<>();
         List<int[]> bestLeftIndices = new ArrayList<>();
         List<int[]> bestRightIndices = new ArrayList<>();
-        for (int i = 0; i < featureIDs.length; i++) {
+        for (int i = start; i < end; i++) {
             List<InvertedFeature> feature = data.get(featureIDs[i]).getFeature();
 
             curIndices.clear();
@@ -197,25 +233,22 @@ public class RegressorTrainingNode extends AbstractTrainingNode<Regressor> {
                 }
             }
         }
-        List<AbstractTrainingNode<Regressor>> output;
-        double impurityDecrease = weightSum * (getImpurity() - bestScore);
-        // If we found a split better than the current impurity.
-        if ((bestID != -1) && (impurityDecrease >= leafDeterminer.getScaledMinImpurityDecrease())) {
-            output = splitAtBest(featureIDs, bestID, bestSplitValue, bestLeftIndices, bestRightIndices);
+        if (bestID == -1) {
+            return null;
         } else {
-            output = Collections.emptyList();
+            return new IndexSplitCandidate(bestID, bestScore, bestSplitValue, bestLeftIndices, bestRightIndices);
         }
-        data = null;
-        return output;
     }
 
     /**
-     * Builds a CART tree with randomly chosen split points.
+     * Evaluates the supplied random split points for a range of features, returning the least impure.
      * @param featureIDs Indices of the features available in this split.
-     * @param rng Splittable random number generator.
-     * @return A possibly empty list of TrainingNodes.
+     * @param splitIndices The split point for each feature, -1 if the feature can't be split.
+     * @param start The first feature index to search (inclusive).
+     * @param end The last feature index to search (exclusive).
+     * @return The best split in the range, or null if no split improves on the current impurity.
      */
-    private List<AbstractTrainingNode<Regressor>> buildRandomTree(int[] featureIDs, SplittableRandom rng) {
+    private IndexSplitCandidate searchRandom(int[] featureIDs, int[] splitIndices, int start, int end) {
         int bestID = -1;
         double bestSplitValue = 0.0;
         double bestScore = getImpurity();
@@ -226,20 +259,20 @@ public class RegressorTrainingNode extends AbstractTrainingNode<Regressor> {
         List<int[]> bestRightIndices = new ArrayList<>();
 
         // split each feature once randomly and record the least impure amongst these
-        for (int i = 0; i < featureIDs.length; i++) {
-            List<InvertedFeature> feature = data.get(featureIDs[i]).getFeature();
-            // if there is only 1 inverted feature for this feature, it has only 1 value, so cannot be split
-            if (feature.size() == 1) {
+        for (int i = start; i < end; i++) {
+            int splitIdx = splitIndices[i];
+            if (splitIdx == -1) {
                 continue;
             }
+            List<InvertedFeature> feature = data.get(featureIDs[i]).getFeature();
 
-            int splitIdx = rng.nextInt(feature.size()-1);
-
+            curLeftIndices.clear();
             for (int j = 0; j < splitIdx + 1; j++) {
                 InvertedFeature vf;
                 vf = feature.get(j);
                 curLeftIndices.add(vf.indices());
             }
+            curRightIndices.clear();
             for (int j = splitIdx + 1; j < feature.size(); j++) {
                 InvertedFeature vf;
                 vf = feature.get(j);
@@ -262,17 +295,11 @@ public class RegressorTrainingNode extends AbstractTrainingNode<Regressor> {
                 //logger.info("less score = " +lessThanScore+", less size = "+lessThanIndices.size+", greater score = " + greaterThanScore+", greater size = "+greaterThanIndices.size);
             }
         }
-
-        List<AbstractTrainingNode<Regressor>> output;
-        double impurityDecrease = weightSum * (getImpurity() - bestScore);
-        // If we found a split better than the current impurity.
-        if ((bestID != -1) && (impurityDecrease >= leafDeterminer.getScaledMinImpurityDecrease())) {
-            output = splitAtBest(featureIDs, bestID, bestSplitValue, bestLeftIndices, bestRightIndices);
+        if (bestID == -1) {
+            return null;
         } else {
-            output = Collections.emptyList();
+            return new IndexSplitCandidate(bestID, bestScore, bestSplitValue, bestLeftIndices, bestRightIndices);
         }
-        data = null;
-        return output;
     }
 
     /**
@@ -282,10 +309,12 @@ public class RegressorTrainingNode extends AbstractTrainingNode<Regressor> {
      * @param bestSplitValue Feature value to use for splitting the data.
      * @param bestLeftIndices The indices of the examples less than or equal to the split value for the given feature.
      * @param bestRightIndices The indices of the examples greater than the split value for the given feature.
+     * @param pool The pool to use when partitioning the data, may be null.
      * @return A list of training nodes resulting from the split.
      */
     private List<AbstractTrainingNode<Regressor>> splitAtBest(int[] featureIDs, int bestID, double bestSplitValue,
-                                                             List<int[]> bestLeftIndices, List<int[]> bestRightIndices){
+                                                             List<int[]> bestLeftIndices, List<int[]> bestRightIndices,
+                                                             ForkJoinPool pool) {
 
         splitID = featureIDs[bestID];
         split = true;
@@ -318,10 +347,29 @@ public class RegressorTrainingNode extends AbstractTrainingNode<Regressor> {
         //logger.info("left indices length = " + leftIndices.length);
         ArrayList<TreeFeature> lessThanData = new ArrayList<>(data.size());
         ArrayList<TreeFeature> greaterThanData = new ArrayList<>(data.size());
-        for (TreeFeature feature : data) {
-            Pair<TreeFeature,TreeFeature> split = feature.split(leftIndices, rightIndices, firstBuffer, secondBuffer);
-            lessThanData.add(split.getA());
-            greaterThanData.add(split.getB());
+        if (useParallel(pool)) {
+            // The thread local buffers can't be shared, so each chunk gets fresh ones.
+            List<List<Pair<TreeFeature,TreeFeature>>> chunks = mapChunks(data.size(), pool, (start, end) -> {
+                IntArrayContainer firstChunkBuffer = new IntArrayContainer(leftIndices.length);
+                IntArrayContainer secondChunkBuffer = new IntArrayContainer(leftIndices.length);
+                List<Pair<TreeFeature,TreeFeature>> splits = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++) {
+                    splits.add(data.get(i).split(leftIndices,rightIndices,firstChunkBuffer,secondChunkBuffer));
+                }
+                return splits;
+            });
+            for (List<Pair<TreeFeature,TreeFeature>> chunk : chunks) {
+                for (Pair<TreeFeature,TreeFeature> split : chunk) {
+                    lessThanData.add(split.getA());
+                    greaterThanData.add(split.getB());
+                }
+            }
+        } else {
+            for (TreeFeature feature : data) {
+                Pair<TreeFeature,TreeFeature> split = feature.split(leftIndices, rightIndices, firstBuffer, secondBuffer);
+                lessThanData.add(split.getA());
+                greaterThanData.add(split.getB());
+            }
         }
 
         List<AbstractTrainingNode<Regressor>> output = new ArrayList<>(2);
@@ -457,6 +505,22 @@ public class RegressorTrainingNode extends AbstractTrainingNode<Regressor> {
         return new InvertedData(data,indices,targets,weights);
     }
 
+    /**
+     * A split candidate which also records the example indices on each side of the split.
+     * <p>
+     * Shared with {@link JointRegressorTrainingNode}.
+     */
+    static final class IndexSplitCandidate extends SplitCandidate {
+        final List<int[]> leftIndices;
+        final List<int[]> rightIndices;
+
+        IndexSplitCandidate(int featureIdx, double score, double splitValue, List<int[]> leftIndices, List<int[]> rightIndices) {
+            super(featureIdx, score, splitValue);
+            this.leftIndices = leftIndices;
+            this.rightIndices = rightIndices;
+        }
+    }
+
     /**
      * Tuple containing an inverted dataset (i.e., feature-wise not exmaple-wise).
      */
@@ -19,11 +19,13 @@ package org.tribuo.regression.rtree;
 import com.oracle.labs.mlrg.olcut.util.Pair;
 import org.tribuo.Dataset;
 import org.tribuo.Model;
+import org.tribuo.Prediction;
 import org.tribuo.Trainer;
 import org.tribuo.common.tree.TreeModel;
 import org.tribuo.regression.Regressor;
 import org.tribuo.regression.evaluation.RegressionEvaluation;
 import org.tribuo.regression.evaluation.RegressionEvaluator;
+import org.tribuo.regression.example.NonlinearGaussianDataSource;
 import org.tribuo.regression.example.RegressionDataGenerator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -33,6 +35,7 @@ import org.tribuo.test.Helpers;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -255,4 +258,22 @@ public class TestCARTJointRegressionTrainer {
         assertEquals(expectedAve, llEval.averageR2(), 1e-6);
 
     }
+
+    @Test
+    public void testMultiThreadedTraining() {
+        Dataset<Regressor> train = NonlinearGaussianDataSource.generateDataset(1000, new float[]{1.0f, 1.0f, 1.0f, 1.0f},
+                0.0f, 0.1f, -2.0f, 2.0f, -2.0f, 2.0f, 1L);
+        Dataset<Regressor> test = NonlinearGaussianDataSource.generateDataset(200, new float[]{1.0f, 1.0f, 1.0f, 1.0f},
+                0.0f, 0.1f, -2.0f, 2.0f, -2.0f, 2.0f, 2L);
+        for (boolean random : new boolean[]{false, true}) {
+            CARTJointRegressionTrainer single = new CARTJointRegressionTrainer(Integer.MAX_VALUE, 2, 0.0f, 1.0f, random, new MeanSquaredError(), false, 12345L, 1);
+            CARTJointRegressionTrainer multi = new CARTJointRegressionTrainer(Integer.MAX_VALUE, 2, 0.0f, 1.0f, random, new MeanSquaredError(), false, 12345L, 4);
+            List<Prediction<Regressor>> singlePreds = single.train(train).predict(test);
+            List<Prediction<Regressor>> multiPreds = multi.train(train).predict(test);
+            for (int i = 0; i < singlePreds.size(); i++) {
+                assertArrayEquals(singlePreds.get(i).getOutput().getValues(), multiPreds.get(i).getOutput().getValues());
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CARTJointRegressionTrainer(5, 2, 0.0f, 1.0f, false, new MeanSquaredError(), false, 1L, 0));
+    }
 }
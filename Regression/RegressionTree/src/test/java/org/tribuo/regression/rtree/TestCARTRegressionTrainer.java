@@ -18,12 +18,18 @@ package org.tribuo.regression.rtree;
 
 import com.oracle.labs.mlrg.olcut.util.Pair;
 import org.tribuo.Dataset;
+import org.tribuo.Example;
 import org.tribuo.Model;
+import org.tribuo.Prediction;
 import org.tribuo.Trainer;
+import org.tribuo.common.tree.LeafNode;
+import org.tribuo.common.tree.Node;
 import org.tribuo.common.tree.TreeModel;
+import org.tribuo.math.la.SparseVector;
 import org.tribuo.regression.Regressor;
 import org.tribuo.regression.evaluation.RegressionEvaluation;
 import org.tribuo.regression.evaluation.RegressionEvaluator;
+import org.tribuo.regression.example.NonlinearGaussianDataSource;
 import org.tribuo.regression.example.RegressionDataGenerator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -33,6 +39,7 @@ import org.tribuo.test.Helpers;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -215,4 +222,47 @@ public class TestCARTRegressionTrainer {
         assertEquals(expectedAve,llEval.averageR2(),1e-6);
     }
 
+    @Test
+    public void testMultiThreadedTraining() {
+        Dataset<Regressor> train = NonlinearGaussianDataSource.generateDataset(1000, new float[]{1.0f, 1.0f, 1.0f, 1.0f},
+                0.0f, 0.1f, -2.0f, 2.0f, -2.0f, 2.0f, 1L);
+        Dataset<Regressor> test = NonlinearGaussianDataSource.generateDataset(200, new float[]{1.0f, 1.0f, 1.0f, 1.0f},
+                0.0f, 0.1f, -2.0f, 2.0f, -2.0f, 2.0f, 2L);
+        for (boolean random : new boolean[]{false, true}) {
+            CARTRegressionTrainer single = new CARTRegressionTrainer(Integer.MAX_VALUE, 2, 0.0f, 1.0f, random, new MeanSquaredError(), 12345L, 1);
+            CARTRegressionTrainer multi = new CARTRegressionTrainer(Integer.MAX_VALUE, 2, 0.0f, 1.0f, random, new MeanSquaredError(), 12345L, 4);
+            List<Prediction<Regressor>> singlePreds = single.train(train).predict(test);
+            List<Prediction<Regressor>> multiPreds = multi.train(train).predict(test);
+            for (int i = 0; i < singlePreds.size(); i++) {
+                assertArrayEquals(singlePreds.get(i).getOutput().getValues(), multiPreds.get(i).getOutput().getValues());
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CARTRegressionTrainer(5, 2, 0.0f, 1.0f, false, new MeanSquaredError(), 1L, 0));
+    }
+
+    @Test
+    public void testFlatTreePrediction() {
+        Pair<Dataset<Regressor>,Dataset<Regressor>> p = RegressionDataGenerator.multiDimDenseTrainTest();
+        IndependentRegressionTreeModel model = (IndependentRegressionTreeModel) t.train(p.getA());
+        List<Prediction<Regressor>> batchPreds = model.predict(p.getB());
+        int i = 0;
+        for (Example<Regressor> example : p.getB()) {
+            // Walk each node graph directly to check the compiled trees reach the same leaves.
+            SparseVector vec = SparseVector.createSparseVector(example, model.getFeatureIDMap(), false);
+            Regressor single = model.predict(example).getOutput();
+            for (Map.Entry<String, Node<Regressor>> e : model.getRoots().entrySet()) {
+                Node<Regressor> node = e.getValue();
+                while (!node.isLeaf()) {
+                    node = node.getNextNode(vec);
+                }
+                Regressor.DimensionTuple expected = (Regressor.DimensionTuple) ((LeafNode<Regressor>) node).getOutput();
+                assertEquals(expected.getValue(), single.getDimension(e.getKey()).get().getValue());
+            }
+            assertArrayEquals(single.getValues(), batchPreds.get(i).getOutput().getValues());
+            assertArrayEquals(single.getNames(), batchPreds.get(i).getOutput().getNames());
+            i++;
+        }
+        Helpers.testModelSerialization(model, Regressor.class);
+    }
+
 }
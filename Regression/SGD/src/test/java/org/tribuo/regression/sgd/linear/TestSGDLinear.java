@@ -23,6 +23,7 @@ import com.oracle.labs.mlrg.olcut.util.Pair;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.tribuo.Dataset;
+import org.tribuo.Example;
 import org.tribuo.Model;
 import org.tribuo.Prediction;
 import org.tribuo.VariableIDInfo;
@@ -30,6 +31,7 @@ import org.tribuo.VariableInfo;
 import org.tribuo.common.sgd.AbstractLinearSGDModel;
 import org.tribuo.common.sgd.AbstractLinearSGDTrainer;
 import org.tribuo.common.sgd.AbstractSGDTrainer;
+import org.tribuo.common.sgd.LinearScoringBuffer;
 import org.tribuo.interop.onnx.DenseTransformer;
 import org.tribuo.interop.onnx.ONNXExternalModel;
 import org.tribuo.interop.onnx.RegressorTransformer;
@@ -62,6 +64,7 @@ import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -154,6 +157,25 @@ public class TestSGDLinear {
         onnxFile.toFile().delete();
     }
 
+    @Test
+    public void testIncrementalTraining() {
+        Pair<Dataset<Regressor>,Dataset<Regressor>> p = RegressionDataGenerator.multiDimDenseTrainTest();
+        // Resuming with the retained optimiser state is the same as training for more epochs.
+        LinearSGDTrainer twoEpochs = new LinearSGDTrainer(new SquaredLoss(), new AdaGrad(1.0,0.1), 2, 1000, 1L);
+        twoEpochs.setShuffle(false);
+        LinearSGDTrainer oneEpoch = new LinearSGDTrainer(new SquaredLoss(), new AdaGrad(1.0,0.1), 1, 1000, 1L);
+        oneEpoch.setShuffle(false);
+        oneEpoch.setRetainOptimiserState(true);
+        AbstractLinearSGDModel<Regressor> expected = twoEpochs.train(p.getA());
+        AbstractLinearSGDModel<Regressor> base = oneEpoch.train(p.getA());
+        AbstractLinearSGDModel<Regressor> resumed = oneEpoch.incrementalTrain(p.getA(), base);
+        assertEquals(expected.getWeightsCopy(), resumed.getWeightsCopy());
+
+        // The state is consumed by the first incremental update, so updating the same model again uses a fresh optimiser.
+        AbstractLinearSGDModel<Regressor> restarted = oneEpoch.incrementalTrain(p.getA(), base);
+        assertNotEquals(resumed.getWeightsCopy(), restarted.getWeightsCopy());
+    }
+
     @Test
     public void testDenseData() {
         Pair<Dataset<Regressor>,Dataset<Regressor>> p = RegressionDataGenerator.denseTrainTest();
@@ -220,6 +242,24 @@ public class TestSGDLinear {
         testIndependentMultipleMultipleRegression(p);
     }
 
+    @Test
+    public void testScoringBuffer() {
+        Pair<Dataset<Regressor>,Dataset<Regressor>> p = RegressionDataGenerator.multiDimSparseTrainTest();
+        AbstractLinearSGDModel<Regressor> model = t.train(p.getA());
+        LinearScoringBuffer buffer = model.createScoringBuffer();
+        for (Example<Regressor> example : p.getB()) {
+            Prediction<Regressor> prediction = model.predict(example);
+            model.score(example, buffer);
+            assertEquals(prediction.getNumActiveFeatures(), buffer.getNumActiveFeatures());
+            double[] scores = buffer.getScores();
+            for (int i = 0; i < scores.length; i++) {
+                String name = model.getOutputIDInfo().getOutput(i).getNames()[0];
+                assertEquals(prediction.getOutput().getDimension(name).get().getValue(), scores[i], 1e-12);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> model.score(RegressionDataGenerator.emptyMultiDimExample(), buffer));
+    }
+
     @Test
     public void testMultiInvalidExample() {
         assertThrows(IllegalArgumentException.class, () -> {
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.benchmarks;
+
+import org.tribuo.Dataset;
+import org.tribuo.Example;
+import org.tribuo.MutableDataset;
+import org.tribuo.classification.Label;
+import org.tribuo.classification.LabelFactory;
+import org.tribuo.classification.example.GaussianLabelDataSource;
+import org.tribuo.clustering.ClusterID;
+import org.tribuo.clustering.example.GaussianClusterDataSource;
+import org.tribuo.impl.ArrayExample;
+import org.tribuo.provenance.SimpleDataSourceProvenance;
+import org.tribuo.regression.Regressor;
+import org.tribuo.regression.example.NonlinearGaussianDataSource;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates the synthetic datasets used by the benchmarks.
+ */
+final class BenchmarkData {
+
+    private static final LabelFactory LABEL_FACTORY = new LabelFactory();
+
+    private BenchmarkData() {}
+
+    /**
+     * Generates a two class classification dataset drawn from a pair of 2d Gaussians.
+     * @param numSamples The number of examples.
+     * @param seed The RNG seed.
+     * @return A classification dataset.
+     */
+    static Dataset<Label> labelDataset(int numSamples, long seed) {
+        GaussianLabelDataSource source = new GaussianLabelDataSource(numSamples, seed,
+                new double[]{0.0, 0.0}, new double[]{1.0, 0.0, 0.0, 1.0},
+                new double[]{2.0, 2.0}, new double[]{1.0, 0.5, 0.5, 1.0});
+        return new MutableDataset<>(source);
+    }
+
+    /**
+     * Generates a single dimensional regression dataset with a nonlinear relationship between the features and the output.
+     * @param numSamples The number of examples.
+     * @param seed The RNG seed.
+     * @return A regression dataset.
+     */
+    static Dataset<Regressor> regressionDataset(int numSamples, long seed) {
+        return NonlinearGaussianDataSource.generateDataset(numSamples, new float[]{1.0f, 1.0f, 1.0f, 1.0f},
+                0.0f, 0.1f, -2.0f, 2.0f, -2.0f, 2.0f, seed);
+    }
+
+    /**
+     * Generates a clustering dataset drawn from the default mixture of 5 Gaussians.
+     * @param numSamples The number of examples.
+     * @param seed The RNG seed.
+     * @return A clustering dataset.
+     */
+    static Dataset<ClusterID> clusterDataset(int numSamples, long seed) {
+        return new MutableDataset<>(new GaussianClusterDataSource(numSamples, seed));
+    }
+
+    /**
+     * Generates a two class classification dataset with a high dimensional sparse feature space.
+     * <p>
+     * Each example contains {@code density * numFeatures} features (at least one), chosen uniformly at random.
+     * @param numSamples The number of examples.
+     * @param numFeatures The size of the feature space.
+     * @param density The fraction of the features present in each example.
+     * @param seed The RNG seed.
+     * @return A sparse classification dataset.
+     */
+    static Dataset<Label> sparseLabelDataset(int numSamples, int numFeatures, double density, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        Label first = new Label("A");
+        Label second = new Label("B");
+        String[] allNames = new String[numFeatures];
+        for (int i = 0; i < numFeatures; i++) {
+            allNames[i] = String.format("F%07d", i);
+        }
+        int numActive = Math.max(1, (int) (density * numFeatures));
+        MutableDataset<Label> dataset = new MutableDataset<>(new SimpleDataSourceProvenance("Sparse benchmark data", LABEL_FACTORY), LABEL_FACTORY);
+        for (int i = 0; i < numSamples; i++) {
+            String[] names = new String[numActive];
+            double[] values = new double[numActive];
+            // Selection sampling, so the names are unique and emitted in sorted order.
+            int needed = numActive;
+            int j = 0;
+            for (int k = 0; k < numFeatures && needed > 0; k++) {
+                if (rng.nextInt(numFeatures - k) < needed) {
+                    names[j] = allNames[k];
+                    values[j] = rng.nextDouble();
+                    j++;
+                    needed--;
+                }
+            }
+            Example<Label> example = new ArrayExample<>(rng.nextBoolean() ? first : second, names, values);
+            dataset.add(example);
+        }
+        return dataset;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tribuo.Trainer;
+import org.tribuo.math.la.DenseMatrix;
+import org.tribuo.math.la.DenseVector;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the matrix-matrix and matrix-vector products in {@link DenseMatrix}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DenseMatrixBenchmark {
+
+    @Param({"64","256","512"})
+    public int size;
+
+    private DenseMatrix first;
+
+    private DenseMatrix second;
+
+    private DenseVector vector;
+
+    /**
+     * Generates random square matrices and a vector of the appropriate size.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom rng = new SplittableRandom(Trainer.DEFAULT_SEED);
+        first = randomMatrix(size, rng);
+        second = randomMatrix(size, rng);
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = rng.nextDouble();
+        }
+        vector = DenseVector.createDenseVector(values);
+    }
+
+    /**
+     * Multiplies two square matrices.
+     * @return The product.
+     */
+    @Benchmark
+    public DenseMatrix matrixMultiply() {
+        return first.matrixMultiply(second);
+    }
+
+    /**
+     * Multiplies a square matrix by the transpose of another.
+     * @return The product.
+     */
+    @Benchmark
+    public DenseMatrix matrixMultiplyTransposeOther() {
+        return first.matrixMultiply(second, false, true);
+    }
+
+    /**
+     * Transposes a square matrix.
+     * @return The transpose.
+     */
+    @Benchmark
+    public DenseMatrix transpose() {
+        return first.transpose();
+    }
+
+    /**
+     * Multiplies a square matrix by a vector.
+     * @return The product.
+     */
+    @Benchmark
+    public DenseVector leftMultiply() {
+        return first.leftMultiply(vector);
+    }
+
+    private static DenseMatrix randomMatrix(int size, SplittableRandom rng) {
+        double[][] values = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                values[i][j] = rng.nextDouble();
+            }
+        }
+        return DenseMatrix.createDenseMatrix(values);
+    }
+}
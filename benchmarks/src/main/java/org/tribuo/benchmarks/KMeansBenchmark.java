@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tribuo.Dataset;
+import org.tribuo.Trainer;
+import org.tribuo.clustering.ClusterID;
+import org.tribuo.clustering.kmeans.KMeansModel;
+import org.tribuo.clustering.kmeans.KMeansTrainer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link KMeansTrainer#train}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class KMeansBenchmark {
+
+    @Param({"10000"})
+    public int numSamples;
+
+    @Param({"5","50"})
+    public int centroids;
+
+    @Param({"10"})
+    public int iterations;
+
+    @Param({"EUCLIDEAN"})
+    public KMeansTrainer.Distance distance;
+
+    @Param({"RANDOM","PLUSPLUS"})
+    public KMeansTrainer.Initialisation initialisation;
+
+    @Param({"1","4"})
+    public int numThreads;
+
+    private KMeansTrainer trainer;
+
+    private Dataset<ClusterID> train;
+
+    /**
+     * Generates the training data.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        trainer = new KMeansTrainer(centroids, iterations, distance, initialisation, numThreads, Trainer.DEFAULT_SEED);
+        train = BenchmarkData.clusterDataset(numSamples, Trainer.DEFAULT_SEED);
+    }
+
+    /**
+     * Trains a K-Means model on the generated data.
+     * @return The model.
+     */
+    @Benchmark
+    public KMeansModel train() {
+        return trainer.train(train);
+    }
+}
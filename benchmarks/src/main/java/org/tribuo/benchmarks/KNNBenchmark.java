@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tribuo.Dataset;
+import org.tribuo.Model;
+import org.tribuo.Prediction;
+import org.tribuo.Trainer;
+import org.tribuo.classification.Label;
+import org.tribuo.classification.ensemble.VotingCombiner;
+import org.tribuo.common.nearest.KNNModel;
+import org.tribuo.common.nearest.KNNTrainer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link KNNModel} training and batch inference across the parallel backends and search indices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class KNNBenchmark {
+
+    @Param({"10000"})
+    public int trainSize;
+
+    @Param({"100"})
+    public int testSize;
+
+    @Param({"5"})
+    public int k;
+
+    @Param({"L2"})
+    public KNNTrainer.Distance distance;
+
+    @Param({"1","4"})
+    public int numThreads;
+
+    @Param({"STREAMS","THREADPOOL","INNERTHREADPOOL"})
+    public KNNModel.Backend backend;
+
+    @Param({"BRUTE_FORCE","KD_TREE","HNSW"})
+    public KNNTrainer.Index index;
+
+    private KNNTrainer<Label> trainer;
+
+    private Dataset<Label> train;
+
+    private Dataset<Label> test;
+
+    private Model<Label> model;
+
+    /**
+     * Generates the data and trains the model.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        trainer = new KNNTrainer<>(k, distance, numThreads, new VotingCombiner(), backend, index);
+        train = BenchmarkData.labelDataset(trainSize, Trainer.DEFAULT_SEED);
+        test = BenchmarkData.labelDataset(testSize, Trainer.DEFAULT_SEED + 1);
+        model = trainer.train(train);
+    }
+
+    /**
+     * Constructs a KNN model from the training data.
+     * @return The model.
+     */
+    @Benchmark
+    public Model<Label> train() {
+        return trainer.train(train);
+    }
+
+    /**
+     * Predicts the test set.
+     * @return The predictions.
+     */
+    @Benchmark
+    public List<Prediction<Label>> predictDataset() {
+        return model.predict(test);
+    }
+}
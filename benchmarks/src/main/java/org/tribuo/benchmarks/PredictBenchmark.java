@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tribuo.Dataset;
+import org.tribuo.Example;
+import org.tribuo.Model;
+import org.tribuo.Output;
+import org.tribuo.Prediction;
+import org.tribuo.Trainer;
+import org.tribuo.classification.dtree.CARTClassificationTrainer;
+import org.tribuo.classification.ensemble.VotingCombiner;
+import org.tribuo.classification.sgd.linear.LogisticRegressionTrainer;
+import org.tribuo.clustering.kmeans.KMeansTrainer;
+import org.tribuo.common.nearest.KNNModel;
+import org.tribuo.common.nearest.KNNTrainer;
+import org.tribuo.math.optimisers.AdaGrad;
+import org.tribuo.regression.rtree.CARTRegressionTrainer;
+import org.tribuo.regression.sgd.linear.LinearSGDTrainer;
+import org.tribuo.regression.sgd.objectives.SquaredLoss;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Model#predict(Example)} and {@link Model#predict(Dataset)} for each model family.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PredictBenchmark {
+
+    /**
+     * The model families under test.
+     */
+    public enum ModelFamily {
+        /**
+         * Logistic regression classifier.
+         */
+        LABEL_LINEAR,
+        /**
+         * CART classification tree.
+         */
+        LABEL_CART,
+        /**
+         * K-NN classifier.
+         */
+        LABEL_KNN,
+        /**
+         * Linear regression trained with SGD.
+         */
+        REGRESSION_LINEAR,
+        /**
+         * CART regression tree.
+         */
+        REGRESSION_CART,
+        /**
+         * K-Means clustering.
+         */
+        KMEANS
+    }
+
+    @Param({"LABEL_LINEAR","LABEL_CART","LABEL_KNN","REGRESSION_LINEAR","REGRESSION_CART","KMEANS"})
+    public ModelFamily family;
+
+    @Param({"10000"})
+    public int trainSize;
+
+    @Param({"1000"})
+    public int testSize;
+
+    private Harness<?> harness;
+
+    private int cursor;
+
+    /**
+     * Trains the model and generates the test data.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        long seed = Trainer.DEFAULT_SEED;
+        switch (family) {
+            case LABEL_LINEAR:
+                harness = new Harness<>(new LogisticRegressionTrainer(),
+                        BenchmarkData.labelDataset(trainSize, seed), BenchmarkData.labelDataset(testSize, seed + 1));
+                break;
+            case LABEL_CART:
+                harness = new Harness<>(new CARTClassificationTrainer(),
+                        BenchmarkData.labelDataset(trainSize, seed), BenchmarkData.labelDataset(testSize, seed + 1));
+                break;
+            case LABEL_KNN:
+                harness = new Harness<>(new KNNTrainer<>(5, KNNTrainer.Distance.L2, 1, new VotingCombiner(), KNNModel.Backend.THREADPOOL),
+                        BenchmarkData.labelDataset(trainSize, seed), BenchmarkData.labelDataset(testSize, seed + 1));
+                break;
+            case REGRESSION_LINEAR:
+                harness = new Harness<>(new LinearSGDTrainer(new SquaredLoss(), new AdaGrad(0.1, 0.1), 5, seed),
+                        BenchmarkData.regressionDataset(trainSize, seed), BenchmarkData.regressionDataset(testSize, seed + 1));
+                break;
+            case REGRESSION_CART:
+                harness = new Harness<>(new CARTRegressionTrainer(),
+                        BenchmarkData.regressionDataset(trainSize, seed), BenchmarkData.regressionDataset(testSize, seed + 1));
+                break;
+            case KMEANS:
+                harness = new Harness<>(new KMeansTrainer(5, 10, KMeansTrainer.Distance.EUCLIDEAN, 1, seed),
+                        BenchmarkData.clusterDataset(trainSize, seed), BenchmarkData.clusterDataset(testSize, seed + 1));
+                break;
+            default:
+                throw new IllegalStateException("Unknown model family " + family);
+        }
+        cursor = 0;
+    }
+
+    /**
+     * Predicts a single example, cycling through the test set.
+     * @return The prediction.
+     */
+    @Benchmark
+    public Prediction<?> predictExample() {
+        Prediction<?> prediction = harness.predict(cursor);
+        cursor = (cursor + 1) % harness.size();
+        return prediction;
+    }
+
+    /**
+     * Predicts the whole test set.
+     * @return The predictions.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public List<? extends Prediction<?>> predictDataset() {
+        return harness.predictAll();
+    }
+
+    /**
+     * Pairs a trained model with its test data so the output types line up.
+     * @param <T> The output type.
+     */
+    private static final class Harness<T extends Output<T>> {
+        private final Model<T> model;
+        private final Dataset<T> test;
+        private final List<Example<T>> testExamples;
+
+        Harness(Trainer<T> trainer, Dataset<T> train, Dataset<T> test) {
+            this.model = trainer.train(train);
+            this.test = test;
+            this.testExamples = new ArrayList<>(test.getData());
+        }
+
+        Prediction<T> predict(int idx) {
+            return model.predict(testExamples.get(idx));
+        }
+
+        List<Prediction<T>> predictAll() {
+            return model.predict(test);
+        }
+
+        int size() {
+            return testExamples.size();
+        }
+    }
+}
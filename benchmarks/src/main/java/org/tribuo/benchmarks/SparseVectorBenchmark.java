@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tribuo.Dataset;
+import org.tribuo.Example;
+import org.tribuo.ImmutableFeatureMap;
+import org.tribuo.Trainer;
+import org.tribuo.classification.Label;
+import org.tribuo.math.la.SparseVector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link SparseVector#createSparseVector(Example, ImmutableFeatureMap, boolean)},
+ * which is on the inference path of most models.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SparseVectorBenchmark {
+
+    @Param({"1000"})
+    public int numSamples;
+
+    @Param({"1000","100000"})
+    public int numFeatures;
+
+    @Param({"0.001","0.01"})
+    public double density;
+
+    @Param({"true"})
+    public boolean addBias;
+
+    private List<Example<Label>> examples;
+
+    private ImmutableFeatureMap featureMap;
+
+    private int cursor;
+
+    /**
+     * Generates the examples and the feature map.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Dataset<Label> dataset = BenchmarkData.sparseLabelDataset(numSamples, numFeatures, density, Trainer.DEFAULT_SEED);
+        examples = new ArrayList<>(dataset.getData());
+        featureMap = dataset.getFeatureIDMap();
+        cursor = 0;
+    }
+
+    /**
+     * Converts a single example into a sparse vector, cycling through the examples.
+     * @return The sparse vector.
+     */
+    @Benchmark
+    public SparseVector createSparseVector() {
+        SparseVector vector = SparseVector.createSparseVector(examples.get(cursor), featureMap, addBias);
+        cursor = (cursor + 1) % examples.size();
+        return vector;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tribuo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tribuo.Dataset;
+import org.tribuo.Model;
+import org.tribuo.Output;
+import org.tribuo.Trainer;
+import org.tribuo.classification.dtree.CARTClassificationTrainer;
+import org.tribuo.classification.sgd.linear.LogisticRegressionTrainer;
+import org.tribuo.common.sgd.AbstractSGDTrainer;
+import org.tribuo.common.tree.AbstractCARTTrainer;
+import org.tribuo.math.optimisers.AdaGrad;
+import org.tribuo.regression.rtree.CARTRegressionTrainer;
+import org.tribuo.regression.sgd.linear.LinearSGDTrainer;
+import org.tribuo.regression.sgd.objectives.SquaredLoss;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link AbstractSGDTrainer#train} and {@link AbstractCARTTrainer#train}
+ * on classification and regression data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TrainBenchmark {
+
+    /**
+     * The trainers under test.
+     */
+    public enum TrainerFamily {
+        /**
+         * Logistic regression on dense 2d data.
+         */
+        LABEL_LINEAR,
+        /**
+         * Logistic regression on high dimensional sparse data.
+         */
+        LABEL_LINEAR_SPARSE,
+        /**
+         * CART classification tree.
+         */
+        LABEL_CART,
+        /**
+         * Linear regression trained with SGD.
+         */
+        REGRESSION_LINEAR,
+        /**
+         * CART regression tree.
+         */
+        REGRESSION_CART
+    }
+
+    @Param({"LABEL_LINEAR","LABEL_LINEAR_SPARSE","LABEL_CART","REGRESSION_LINEAR","REGRESSION_CART"})
+    public TrainerFamily family;
+
+    @Param({"10000"})
+    public int numSamples;
+
+    @Param({"10000"})
+    public int numFeatures;
+
+    @Param({"0.01"})
+    public double density;
+
+    private Harness<?> harness;
+
+    /**
+     * Generates the training data.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        long seed = Trainer.DEFAULT_SEED;
+        switch (family) {
+            case LABEL_LINEAR:
+                harness = new Harness<>(new LogisticRegressionTrainer(), BenchmarkData.labelDataset(numSamples, seed));
+                break;
+            case LABEL_LINEAR_SPARSE:
+                harness = new Harness<>(new LogisticRegressionTrainer(), BenchmarkData.sparseLabelDataset(numSamples, numFeatures, density, seed));
+                break;
+            case LABEL_CART:
+                harness = new Harness<>(new CARTClassificationTrainer(), BenchmarkData.labelDataset(numSamples, seed));
+                break;
+            case REGRESSION_LINEAR:
+                harness = new Harness<>(new LinearSGDTrainer(new SquaredLoss(), new AdaGrad(0.1, 0.1), 5, seed),
+                        BenchmarkData.regressionDataset(numSamples, seed));
+                break;
+            case REGRESSION_CART:
+                harness = new Harness<>(new CARTRegressionTrainer(), BenchmarkData.regressionDataset(numSamples, seed));
+                break;
+            default:
+                throw new IllegalStateException("Unknown trainer family " + family);
+        }
+    }
+
+    /**
+     * Trains a model on the generated data.
+     * @return The trained model.
+     */
+    @Benchmark
+    public Model<?> train() {
+        return harness.train();
+    }
+
+    /**
+     * Pairs a trainer with its training data so the output types line up.
+     * @param <T> The output type.
+     */
+    private static final class Harness<T extends Output<T>> {
+        private final Trainer<T> trainer;
+        private final Dataset<T> train;
+
+        Harness(Trainer<T> trainer, Dataset<T> train) {
+            this.trainer = trainer;
+            this.train = train;
+        }
+
+        Model<T> train() {
+            return trainer.train(train);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Provides JMH benchmarks for the training and inference hot paths in Tribuo.
+ * <p>
+ * The benchmarks are packaged into a runnable jar by the {@code tribuo-benchmarks} module,
+ * and can be run with {@code java -jar tribuo-benchmarks-<version>-jar-with-dependencies.jar},
+ * supplying the usual JMH arguments (e.g., {@code -p numSamples=100000} to change the dataset size).
+ * The datasets are drawn from the synthetic generators in each prediction type's {@code example} package.
+ */
+package org.tribuo.benchmarks;